@@ -43,6 +43,7 @@ public class Backup {
 
     private String version = Migrator.getVersion();
     private String format;
+    private int increment;
     private Database database;
     private Collection<RowSet> rowSets = newArrayList();
 
@@ -74,6 +75,19 @@ public class Backup {
         this.format = format;
     }
 
+    /**
+     * Number of the last incremental dump run, which has appended chunks of new rows to row sets of the backup.
+     *
+     * @return last increment, 0 if the backup was dumped once.
+     */
+    public int getIncrement() {
+        return increment;
+    }
+
+    public void setIncrement(int increment) {
+        this.increment = increment;
+    }
+
     public Database getDatabase() {
         return database;
     }
@@ -105,6 +119,7 @@ public class Backup {
         if (database != null ? !database.equals(backup.database) : backup.database != null)
             return false;
         if (format != null ? !format.equals(backup.format) : backup.format != null) return false;
+        if (increment != backup.increment) return false;
         if (rowSets != null ? !rowSets.equals(backup.rowSets) : backup.rowSets != null) return false;
         if (version != null ? !version.equals(backup.version) : backup.version != null) return false;
 
@@ -115,6 +130,7 @@ public class Backup {
     public int hashCode() {
         int result = version != null ? version.hashCode() : 0;
         result = 31 * result + (format != null ? format.hashCode() : 0);
+        result = 31 * result + increment;
         result = 31 * result + (database != null ? database.hashCode() : 0);
         result = 31 * result + (rowSets != null ? rowSets.hashCode() : 0);
         return result;
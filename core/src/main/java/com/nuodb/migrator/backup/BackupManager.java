@@ -30,6 +30,7 @@ package com.nuodb.migrator.backup;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * @author Sergey Bushik
@@ -38,6 +39,11 @@ public interface BackupManager {
 
     final String BACKUP = "backup.cat";
 
+    /**
+     * Directory of the large objects written to separate files next to the chunks
+     */
+    final String LOBS = "lobs";
+
     String getDir();
 
     String getBackup();
@@ -46,6 +52,60 @@ public interface BackupManager {
 
     OutputStream openOutput(String name);
 
+    /**
+     * Opens file for reading decompressing it with the given codec.
+     *
+     * @param name        file name.
+     * @param compression codec name or null if the file is not compressed.
+     * @return input stream of uncompressed data.
+     */
+    InputStream openInput(String name, String compression);
+
+    /**
+     * Opens file for writing compressing it with the given codec.
+     *
+     * @param name        file name.
+     * @param compression codec name or null if the file is not compressed.
+     * @return output stream of uncompressed data.
+     */
+    OutputStream openOutput(String name, String compression);
+
+    /**
+     * Opens file of a large object stored separately from the chunks for reading.
+     *
+     * @param name large object file name referenced by a chunk row.
+     * @return input stream of the large object.
+     */
+    InputStream openLobInput(String name);
+
+    /**
+     * Opens file of a large object stored separately from the chunks for writing.
+     *
+     * @param name large object file name to be referenced by a chunk row.
+     * @return output stream of the large object.
+     */
+    OutputStream openLobOutput(String name);
+
+    /**
+     * Returns length of the file of a large object stored separately from the chunks.
+     *
+     * @param name large object file name referenced by a chunk row.
+     * @return number of bytes in the file or -1 if the file doesn't exist.
+     */
+    long getLobLength(String name);
+
+    /**
+     * Tells whether the file exists in the backup directory.
+     *
+     * @param name file name.
+     * @return true if the file exists.
+     */
+    boolean exists(String name);
+
+    Executor getCodecExecutor();
+
+    void setCodecExecutor(Executor codecExecutor);
+
     Backup readBackup();
 
     Backup readBackup(Map context);
@@ -27,15 +27,20 @@
  */
 package com.nuodb.migrator.backup;
 
+import com.nuodb.migrator.backup.codec.BlockCodecBase;
+import com.nuodb.migrator.backup.codec.Codec;
 import com.nuodb.migrator.match.Regex;
 import org.slf4j.Logger;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
+import static com.nuodb.migrator.backup.codec.Codecs.newCodec;
 import static com.nuodb.migrator.match.AntRegexCompiler.INSTANCE;
 import static java.lang.String.format;
 import static org.apache.commons.io.FileUtils.*;
@@ -54,6 +59,7 @@ public abstract class BackupManagerBase implements BackupManager {
 
     private final String dir;
     private final String backup;
+    private Executor codecExecutor;
 
     /**
      * Constructs desc manager from a full path to desc file.
@@ -121,6 +127,78 @@ public abstract class BackupManagerBase implements BackupManager {
         }
     }
 
+    @Override
+    public InputStream openLobInput(String name) {
+        return openInput(LOBS + File.separator + name);
+    }
+
+    @Override
+    public OutputStream openLobOutput(String name) {
+        return openOutput(LOBS + File.separator + name);
+    }
+
+    @Override
+    public long getLobLength(String name) {
+        File file = getFile(getDir(), LOBS, name);
+        return file.isFile() ? file.length() : -1;
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return getFile(getDir(), name).isFile();
+    }
+
+    @Override
+    public InputStream openInput(String name, String compression) {
+        InputStream input = openInput(name);
+        if (compression == null) {
+            return input;
+        }
+        try {
+            return createCodec(compression).getInputStream(input);
+        } catch (IOException exception) {
+            closeQuietly(input);
+            throw new BackupException("Error opening compressed file for reading", exception);
+        }
+    }
+
+    @Override
+    public OutputStream openOutput(String name, String compression) {
+        OutputStream output = openOutput(name);
+        if (compression == null) {
+            return output;
+        }
+        try {
+            return createCodec(compression).getOutputStream(new BufferedOutputStream(output));
+        } catch (IOException exception) {
+            closeQuietly(output);
+            throw new BackupException("Error opening compressed file for writing", exception);
+        }
+    }
+
+    protected Codec createCodec(String compression) {
+        Codec codec = newCodec(compression);
+        if (codec instanceof BlockCodecBase) {
+            ((BlockCodecBase) codec).setExecutor(getCodecExecutor());
+        }
+        return codec;
+    }
+
+    @Override
+    public Executor getCodecExecutor() {
+        return codecExecutor;
+    }
+
+    /**
+     * Sets executor compressing blocks of written files concurrently.
+     *
+     * @param codecExecutor executor or null to compress files by the writing threads.
+     */
+    @Override
+    public void setCodecExecutor(Executor codecExecutor) {
+        this.codecExecutor = codecExecutor;
+    }
+
     @Override
     public Backup readBackup() {
         return readBackup((Map) null);
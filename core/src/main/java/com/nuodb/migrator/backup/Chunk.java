@@ -36,6 +36,8 @@ public class Chunk {
 
     private String name;
     private long rowCount;
+    private String compression;
+    private int increment;
     private transient RowSet rowSet;
 
     public String getName() {
@@ -58,6 +60,32 @@ public class Chunk {
         rowCount++;
     }
 
+    /**
+     * Name of the codec the chunk is compressed with.
+     *
+     * @return codec name or null if the chunk is not compressed.
+     */
+    public String getCompression() {
+        return compression;
+    }
+
+    public void setCompression(String compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Number of the incremental dump run, which has appended the chunk to its row set.
+     *
+     * @return increment of the backup the chunk was written by, 0 for the initial dump.
+     */
+    public int getIncrement() {
+        return increment;
+    }
+
+    public void setIncrement(int increment) {
+        this.increment = increment;
+    }
+
     public RowSet getRowSet() {
         return rowSet;
     }
@@ -74,7 +102,9 @@ public class Chunk {
         Chunk that = (Chunk) o;
 
         if (rowCount != that.rowCount) return false;
+        if (increment != that.increment) return false;
         if (name != null ? !name.equals(that.name) : that.name != null) return false;
+        if (compression != null ? !compression.equals(that.compression) : that.compression != null) return false;
 
         return true;
     }
@@ -83,6 +113,8 @@ public class Chunk {
     public int hashCode() {
         int result = name != null ? name.hashCode() : 0;
         result = 31 * result + (int) (rowCount ^ (rowCount >>> 32));
+        result = 31 * result + (compression != null ? compression.hashCode() : 0);
+        result = 31 * result + increment;
         return result;
     }
 
@@ -41,6 +41,7 @@ public class RowSet {
     private String name;
     private long rowCount;
     private String type;
+    private boolean replaced;
     private Collection<Column> columns = newArrayList();
     private Collection<Chunk> chunks = newArrayList();
     private transient Backup backup;
@@ -105,6 +106,20 @@ public class RowSet {
         this.chunks = chunks;
     }
 
+    /**
+     * Tells whether the row set was dumped by an incremental run replacing the row set of the previous runs, in which
+     * case its chunks hold all rows rather than rows added since the previous increment.
+     *
+     * @return true if the row set replaced a row set of the previous runs.
+     */
+    public boolean isReplaced() {
+        return replaced;
+    }
+
+    public void setReplaced(boolean replaced) {
+        this.replaced = replaced;
+    }
+
     public Backup getBackup() {
         return backup;
     }
@@ -121,6 +136,7 @@ public class RowSet {
         RowSet that = (RowSet) o;
 
         if (rowCount != that.rowCount) return false;
+        if (replaced != that.replaced) return false;
         if (columns != null ? !columns.equals(that.columns) : that.columns != null) return false;
         if (name != null ? !name.equals(that.name) : that.name != null) return false;
         if (chunks != null ? !chunks.equals(that.chunks) : that.chunks != null) return false;
@@ -136,6 +152,7 @@ public class RowSet {
         result = 31 * result + (type != null ? type.hashCode() : 0);
         result = 31 * result + (columns != null ? columns.hashCode() : 0);
         result = 31 * result + (chunks != null ? chunks.hashCode() : 0);
+        result = 31 * result + (replaced ? 1 : 0);
         return result;
     }
 
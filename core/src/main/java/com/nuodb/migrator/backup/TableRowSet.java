@@ -37,6 +37,8 @@ public class TableRowSet extends RowSet {
     private String catalog;
     private String schema;
     private String table;
+    private String watermark;
+    private String highWatermark;
 
     public TableRowSet() {
     }
@@ -71,6 +73,32 @@ public class TableRowSet extends RowSet {
         this.table = table;
     }
 
+    /**
+     * Column with monotonically increasing values the row set is appended by.
+     *
+     * @return watermark column name or null if the table is dumped entirely.
+     */
+    public String getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(String watermark) {
+        this.watermark = watermark;
+    }
+
+    /**
+     * Maximum value of the watermark column dumped so far, the next run dumps only rows beyond it.
+     *
+     * @return string representation of the high watermark or null if no rows were dumped.
+     */
+    public String getHighWatermark() {
+        return highWatermark;
+    }
+
+    public void setHighWatermark(String highWatermark) {
+        this.highWatermark = highWatermark;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -82,6 +110,9 @@ public class TableRowSet extends RowSet {
         if (catalog != null ? !catalog.equals(that.catalog) : that.catalog != null) return false;
         if (schema != null ? !schema.equals(that.schema) : that.schema != null) return false;
         if (table != null ? !table.equals(that.table) : that.table != null) return false;
+        if (watermark != null ? !watermark.equals(that.watermark) : that.watermark != null) return false;
+        if (highWatermark != null ? !highWatermark.equals(that.highWatermark) : that.highWatermark != null)
+            return false;
 
         return true;
     }
@@ -92,6 +123,8 @@ public class TableRowSet extends RowSet {
         result = 31 * result + (catalog != null ? catalog.hashCode() : 0);
         result = 31 * result + (schema != null ? schema.hashCode() : 0);
         result = 31 * result + (table != null ? table.hashCode() : 0);
+        result = 31 * result + (watermark != null ? watermark.hashCode() : 0);
+        result = 31 * result + (highWatermark != null ? highWatermark.hashCode() : 0);
         return result;
     }
 }
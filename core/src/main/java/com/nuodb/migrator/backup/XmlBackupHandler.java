@@ -46,6 +46,7 @@ public class XmlBackupHandler extends XmlReadWriteHandlerBase<Backup> implements
 
     private static final String VERSION_ATTRIBUTE = "version";
     private static final String FORMAT_ATTRIBUTE = "format";
+    private static final String INCREMENT_ATTRIBUTE = "increment";
     private static final String DATABASE_ELEMENT = "database";
     private static final String DATABASE_INFO_ELEMENT = "database-info";
 
@@ -57,6 +58,7 @@ public class XmlBackupHandler extends XmlReadWriteHandlerBase<Backup> implements
     protected void readAttributes(InputNode input, Backup backup, XmlReadContext context) throws Exception {
         backup.setVersion(context.readAttribute(input, VERSION_ATTRIBUTE, String.class));
         backup.setFormat(context.readAttribute(input, FORMAT_ATTRIBUTE, String.class));
+        backup.setIncrement(context.readAttribute(input, INCREMENT_ATTRIBUTE, Integer.class, 0));
     }
 
     @Override
@@ -78,6 +80,9 @@ public class XmlBackupHandler extends XmlReadWriteHandlerBase<Backup> implements
     protected void writeAttributes(Backup backup, OutputNode output, XmlWriteContext context) throws Exception {
         context.writeAttribute(output, VERSION_ATTRIBUTE, backup.getVersion());
         context.writeAttribute(output, FORMAT_ATTRIBUTE, backup.getFormat());
+        if (backup.getIncrement() > 0) {
+            context.writeAttribute(output, INCREMENT_ATTRIBUTE, backup.getIncrement());
+        }
     }
 
     @Override
@@ -40,6 +40,8 @@ public class XmlChunkHandler extends XmlReadWriteHandlerBase<Chunk> implements X
 
     private static final String NAME = "name";
     private static final String ROW_COUNT = "row-count";
+    private static final String COMPRESSION = "compression";
+    private static final String INCREMENT = "increment";
 
     public XmlChunkHandler() {
         super(Chunk.class);
@@ -49,11 +51,17 @@ public class XmlChunkHandler extends XmlReadWriteHandlerBase<Chunk> implements X
     protected void readAttributes(InputNode input, Chunk chunk, XmlReadContext context) throws Exception {
         chunk.setName(context.readAttribute(input, NAME, String.class));
         chunk.setRowCount(context.readAttribute(input, ROW_COUNT, Long.class));
+        chunk.setCompression(context.readAttribute(input, COMPRESSION, String.class));
+        chunk.setIncrement(context.readAttribute(input, INCREMENT, Integer.class, 0));
     }
 
     @Override
     protected void writeAttributes(Chunk chunk, OutputNode output, XmlWriteContext context) throws Exception {
         context.writeAttribute(output, NAME, chunk.getName());
         context.writeAttribute(output, ROW_COUNT, chunk.getRowCount());
+        context.writeAttribute(output, COMPRESSION, chunk.getCompression());
+        if (chunk.getIncrement() > 0) {
+            context.writeAttribute(output, INCREMENT, chunk.getIncrement());
+        }
     }
 }
@@ -42,6 +42,7 @@ public abstract class XmlRowSetHandler<T extends RowSet> extends XmlReadWriteHan
 
     private static final String NAME_ATTRIBUTE = "name";
     private static final String ROW_COUNT_ATTRIBUTE = "row-count";
+    private static final String REPLACED_ATTRIBUTE = "replaced";
     private static final String COLUMN_ELEMENT = "column";
     private static final String CHUNK_ELEMENT = "chunk";
 
@@ -57,6 +58,7 @@ public abstract class XmlRowSetHandler<T extends RowSet> extends XmlReadWriteHan
         target.setType(context.readAttribute(input, TYPE_ATTRIBUTE, String.class));
         target.setName(context.readAttribute(input, NAME_ATTRIBUTE, String.class));
         target.setRowCount(context.readAttribute(input, ROW_COUNT_ATTRIBUTE, Long.class));
+        target.setReplaced(context.readAttribute(input, REPLACED_ATTRIBUTE, Boolean.class, false));
     }
 
     @Override
@@ -66,6 +68,9 @@ public abstract class XmlRowSetHandler<T extends RowSet> extends XmlReadWriteHan
             context.writeAttribute(output, NAME_ATTRIBUTE, rowSet.getName());
         }
         context.writeAttribute(output, ROW_COUNT_ATTRIBUTE, rowSet.getRowCount());
+        if (rowSet.isReplaced()) {
+            context.writeAttribute(output, REPLACED_ATTRIBUTE, rowSet.isReplaced());
+        }
     }
 
     @Override
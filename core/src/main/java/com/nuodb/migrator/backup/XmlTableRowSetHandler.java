@@ -40,6 +40,8 @@ public class XmlTableRowSetHandler extends XmlRowSetHandler<TableRowSet> {
     private static final String CATALOG_ATTRIBUTE = "catalog";
     private static final String SCHEMA_ATTRIBUTE = "schema";
     private static final String TABLE_ATTRIBUTE = "table";
+    private static final String WATERMARK_ATTRIBUTE = "watermark";
+    private static final String HIGH_WATERMARK_ATTRIBUTE = "high-watermark";
     // old format attributes
     private static final String CATALOG_NAME_ATTRIBUTE = "catalog-name";
     private static final String SCHEMA_NAME_ATTRIBUTE = "schema-name";
@@ -58,6 +60,8 @@ public class XmlTableRowSetHandler extends XmlRowSetHandler<TableRowSet> {
                 context.readAttribute(input, SCHEMA_NAME_ATTRIBUTE, String.class)));
         target.setTable(context.readAttribute(input, TABLE_ATTRIBUTE, String.class,
                 context.readAttribute(input, TABLE_NAME_ATTRIBUTE, String.class)));
+        target.setWatermark(context.readAttribute(input, WATERMARK_ATTRIBUTE, String.class));
+        target.setHighWatermark(context.readAttribute(input, HIGH_WATERMARK_ATTRIBUTE, String.class));
     }
 
     @Override
@@ -70,5 +74,11 @@ public class XmlTableRowSetHandler extends XmlRowSetHandler<TableRowSet> {
             context.writeAttribute(output, SCHEMA_ATTRIBUTE, rowSet.getSchema());
         }
         context.writeAttribute(output, TABLE_ATTRIBUTE, rowSet.getTable());
+        if (rowSet.getWatermark() != null) {
+            context.writeAttribute(output, WATERMARK_ATTRIBUTE, rowSet.getWatermark());
+        }
+        if (rowSet.getHighWatermark() != null) {
+            context.writeAttribute(output, HIGH_WATERMARK_ATTRIBUTE, rowSet.getHighWatermark());
+        }
     }
 }
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+
+/**
+ * Codec compressing output in independent blocks, which are compressed concurrently if an executor is provided.
+ */
+public abstract class BlockCodecBase implements Codec {
+
+    /**
+     * Default size of uncompressed block
+     */
+    public static final int BLOCK_SIZE = 256 * 1024;
+    /**
+     * Default number of blocks compressed concurrently for a single output stream
+     */
+    public static final int PENDING_BLOCKS = 4;
+
+    private final String name;
+    private final String extension;
+    private int blockSize = BLOCK_SIZE;
+    private int pendingBlocks = PENDING_BLOCKS;
+    private Executor executor;
+
+    protected BlockCodecBase(String name, String extension) {
+        this.name = name;
+        this.extension = extension;
+    }
+
+    @Override
+    public OutputStream getOutputStream(OutputStream output) throws IOException {
+        return new BlockOutputStream(output, this);
+    }
+
+    /**
+     * Compresses block of data, which is decompressed independently of the other blocks.
+     *
+     * @param block  buffer with uncompressed data.
+     * @param length number of bytes in the buffer.
+     * @return compressed block.
+     * @throws IOException if compression fails.
+     */
+    protected abstract byte[] compress(byte[] block, int length) throws IOException;
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getExtension() {
+        return extension;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public int getPendingBlocks() {
+        return pendingBlocks;
+    }
+
+    public void setPendingBlocks(int pendingBlocks) {
+        this.pendingBlocks = pendingBlocks;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets executor compressing blocks, blocks are compressed by the writing thread if executor is not set.
+     *
+     * @param executor executor to compress blocks on.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.codec;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Buffers written bytes into blocks of {@link BlockCodecBase#getBlockSize()} and compresses full blocks on the codec
+ * executor, keeping up to {@link BlockCodecBase#getPendingBlocks()} blocks in progress. Compressed blocks are written
+ * to the underlying stream in the order of writing.
+ */
+public class BlockOutputStream extends FilterOutputStream {
+
+    private final BlockCodecBase codec;
+    private final Queue<Future<byte[]>> pendingBlocks = new LinkedList<Future<byte[]>>();
+    private byte[] block;
+    private int length;
+    private boolean closed;
+
+    public BlockOutputStream(OutputStream output, BlockCodecBase codec) {
+        super(output);
+        this.codec = codec;
+        this.block = new byte[codec.getBlockSize()];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (length == block.length) {
+            writeBlock();
+        }
+        block[length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (this.length == block.length) {
+                writeBlock();
+            }
+            int count = Math.min(length, block.length - this.length);
+            System.arraycopy(buffer, offset, block, this.length, count);
+            this.length += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    protected void writeBlock() throws IOException {
+        if (length == 0) {
+            return;
+        }
+        final byte[] block = this.block;
+        final int length = this.length;
+        Executor executor = codec.getExecutor();
+        if (executor != null) {
+            while (pendingBlocks.size() >= codec.getPendingBlocks()) {
+                out.write(getBlock(pendingBlocks.poll()));
+            }
+            FutureTask<byte[]> pendingBlock = new FutureTask<byte[]>(new Callable<byte[]>() {
+                @Override
+                public byte[] call() throws Exception {
+                    return codec.compress(block, length);
+                }
+            });
+            executor.execute(pendingBlock);
+            pendingBlocks.add(pendingBlock);
+            this.block = new byte[block.length];
+        } else {
+            out.write(codec.compress(block, length));
+        }
+        this.length = 0;
+    }
+
+    protected void writePendingBlocks() throws IOException {
+        while (!pendingBlocks.isEmpty()) {
+            out.write(getBlock(pendingBlocks.poll()));
+        }
+    }
+
+    protected byte[] getBlock(Future<byte[]> pendingBlock) throws IOException {
+        try {
+            return pendingBlock.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing block");
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    /**
+     * Writes blocks compressed so far and flushes the underlying stream, the partially filled block is kept to
+     * preserve the compression ratio.
+     */
+    @Override
+    public void flush() throws IOException {
+        writePendingBlocks();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeBlock();
+            writePendingBlocks();
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static java.lang.System.arraycopy;
+
+/**
+ * Fast LZ77 codec in the LZ4 block format trading compression ratio for speed. Each block starts with a header of
+ * uncompressed length and stored length, both are big-endian integers, the highest bit of the stored length is set if
+ * the block is stored uncompressed.
+ * <p/>
+ * A compressed block is a sequence of a token, whose high and low 4 bits are literals length and match length minus
+ * {@link #MIN_MATCH}, followed by extra literals length bytes, the literals, 2 bytes little-endian match offset and
+ * extra match length bytes. The last sequence consists of literals only.
+ */
+public class LzCodec extends BlockCodecBase {
+
+    public static final String NAME = "lz";
+    public static final String EXTENSION = "lz";
+
+    static final int HEADER_SIZE = 8;
+    static final int STORED = 0x80000000;
+    static final int MIN_MATCH = 4;
+    static final int MAX_OFFSET = 0xFFFF;
+
+    private static final int HASH_BITS = 14;
+    private static final int LAST_LITERALS = 5;
+
+    public LzCodec() {
+        super(NAME, EXTENSION);
+    }
+
+    @Override
+    protected byte[] compress(byte[] block, int length) throws IOException {
+        byte[] output = new byte[HEADER_SIZE + length + length / 255 + 16];
+        int compressed = compress(block, length, output, HEADER_SIZE);
+        byte[] result;
+        if (compressed < length) {
+            result = new byte[HEADER_SIZE + compressed];
+            arraycopy(output, HEADER_SIZE, result, HEADER_SIZE, compressed);
+            writeInt(result, 4, compressed);
+        } else {
+            result = new byte[HEADER_SIZE + length];
+            arraycopy(block, 0, result, HEADER_SIZE, length);
+            writeInt(result, 4, length | STORED);
+        }
+        writeInt(result, 0, length);
+        return result;
+    }
+
+    protected static int compress(byte[] input, int length, byte[] output, int offset) {
+        int[] hashTable = new int[1 << HASH_BITS];
+        int position = offset;
+        int anchor = 0;
+        int index = 0;
+        int limit = length - LAST_LITERALS - MIN_MATCH;
+        while (index < limit) {
+            int hash = hash(readInt(input, index));
+            int reference = hashTable[hash] - 1;
+            hashTable[hash] = index + 1;
+            if (reference < 0 || index - reference > MAX_OFFSET || readInt(input, reference) != readInt(input, index)) {
+                index++;
+                continue;
+            }
+            int match = MIN_MATCH;
+            while (index + match < length - LAST_LITERALS && input[reference + match] == input[index + match]) {
+                match++;
+            }
+            position = writeSequence(input, anchor, index - anchor, output, position, index - reference, match);
+            index += match;
+            anchor = index;
+        }
+        return writeSequence(input, anchor, length - anchor, output, position, 0, 0) - offset;
+    }
+
+    private static int writeSequence(byte[] input, int anchor, int literals, byte[] output, int position,
+                                     int offset, int match) {
+        int token = position++;
+        int matchLength = match - MIN_MATCH;
+        output[token] = (byte) ((Math.min(literals, 15) << 4) | (match > 0 ? Math.min(matchLength, 15) : 0));
+        if (literals >= 15) {
+            position = writeLength(output, position, literals - 15);
+        }
+        arraycopy(input, anchor, output, position, literals);
+        position += literals;
+        if (match > 0) {
+            output[position++] = (byte) offset;
+            output[position++] = (byte) (offset >>> 8);
+            if (matchLength >= 15) {
+                position = writeLength(output, position, matchLength - 15);
+            }
+        }
+        return position;
+    }
+
+    private static int writeLength(byte[] output, int position, int length) {
+        while (length >= 255) {
+            output[position++] = (byte) 255;
+            length -= 255;
+        }
+        output[position++] = (byte) length;
+        return position;
+    }
+
+    /**
+     * Decompresses block into the output buffer, which is expected to have a room for the uncompressed block.
+     *
+     * @return number of decompressed bytes.
+     */
+    protected static int decompress(byte[] input, int offset, int length, byte[] output) throws IOException {
+        int index = offset;
+        int end = offset + length;
+        int position = 0;
+        try {
+            while (index < end) {
+                int token = input[index++] & 0xFF;
+                int literals = token >>> 4;
+                if (literals == 15) {
+                    int value;
+                    do {
+                        value = input[index++] & 0xFF;
+                        literals += value;
+                    } while (value == 255);
+                }
+                arraycopy(input, index, output, position, literals);
+                index += literals;
+                position += literals;
+                if (index >= end) {
+                    break;
+                }
+                int matchOffset = (input[index++] & 0xFF) | ((input[index++] & 0xFF) << 8);
+                int match = token & 0x0F;
+                if (match == 15) {
+                    int value;
+                    do {
+                        value = input[index++] & 0xFF;
+                        match += value;
+                    } while (value == 255);
+                }
+                match += MIN_MATCH;
+                int reference = position - matchOffset;
+                if (matchOffset == 0 || reference < 0) {
+                    throw new IOException("Malformed compressed block");
+                }
+                for (int i = 0; i < match; i++) {
+                    output[position++] = output[reference + i];
+                }
+            }
+        } catch (IndexOutOfBoundsException exception) {
+            throw new IOException("Malformed compressed block", exception);
+        }
+        return position;
+    }
+
+    private static int hash(int value) {
+        return (value * -1640531535) >>> (32 - HASH_BITS);
+    }
+
+    private static int readInt(byte[] buffer, int index) {
+        return (buffer[index] & 0xFF) | (buffer[index + 1] & 0xFF) << 8 |
+                (buffer[index + 2] & 0xFF) << 16 | (buffer[index + 3] & 0xFF) << 24;
+    }
+
+    static void writeInt(byte[] buffer, int index, int value) {
+        buffer[index] = (byte) (value >>> 24);
+        buffer[index + 1] = (byte) (value >>> 16);
+        buffer[index + 2] = (byte) (value >>> 8);
+        buffer[index + 3] = (byte) value;
+    }
+
+    @Override
+    public InputStream getInputStream(InputStream input) throws IOException {
+        return new LzInputStream(input);
+    }
+}
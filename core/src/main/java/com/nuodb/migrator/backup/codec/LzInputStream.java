@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.codec;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.nuodb.migrator.backup.codec.LzCodec.STORED;
+import static com.nuodb.migrator.backup.codec.LzCodec.decompress;
+import static java.lang.String.format;
+
+/**
+ * Reads blocks written by {@link LzCodec}.
+ */
+public class LzInputStream extends InputStream {
+
+    private final DataInputStream input;
+    private byte[] compressed = new byte[0];
+    private byte[] block = new byte[0];
+    private int length;
+    private int position;
+
+    public LzInputStream(InputStream input) {
+        this.input = new DataInputStream(input);
+    }
+
+    @Override
+    public int read() throws IOException {
+        return hasBlock() ? block[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!hasBlock()) {
+            return -1;
+        }
+        int count = Math.min(length, this.length - position);
+        System.arraycopy(block, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return length - position;
+    }
+
+    protected boolean hasBlock() throws IOException {
+        while (position == length) {
+            if (!readBlock()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected boolean readBlock() throws IOException {
+        int length;
+        try {
+            length = input.readInt();
+        } catch (EOFException exception) {
+            return false;
+        }
+        int stored = input.readInt();
+        boolean uncompressed = (stored & STORED) != 0;
+        stored &= ~STORED;
+        if (length < 0 || stored < 0) {
+            throw new IOException("Malformed block header");
+        }
+        // stored blocks hold exactly length bytes, compressed blocks are written only if smaller than uncompressed
+        if (uncompressed ? stored != length : stored >= length) {
+            throw new IOException(format("Corrupt block of %d byte(s) stored in %d byte(s)", length, stored));
+        }
+        if (block.length < length) {
+            block = new byte[length];
+        }
+        if (uncompressed) {
+            input.readFully(block, 0, stored);
+        } else {
+            if (compressed.length < stored) {
+                compressed = new byte[stored];
+            }
+            input.readFully(compressed, 0, stored);
+            if (decompress(compressed, 0, stored, block) != length) {
+                throw new IOException("Malformed compressed block");
+            }
+        }
+        this.length = length;
+        this.position = 0;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -43,6 +43,13 @@ public interface InputFormat extends Format {
 
     Value[] readValues();
 
+    /**
+     * Sets values of a row returned by {@link #readValues()} through the value handle list.
+     *
+     * @param values row values to set.
+     */
+    void setValues(Value[] values);
+
     void readEnd();
 
     void setReader(Reader reader);
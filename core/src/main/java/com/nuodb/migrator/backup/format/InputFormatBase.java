@@ -125,15 +125,20 @@ public abstract class InputFormatBase extends FormatBase implements InputFormat
     public boolean read() {
         Value[] values = readValues();
         if (values != null) {
-            int index = 0;
-            for (ValueHandle valueHandle : getValueHandleList()) {
-                valueHandle.getValueFormat().setValue(values[index++],
-                        valueHandle.getJdbcValueAccess(), valueHandle.getJdbcValueAccessOptions());
-            }
+            setValues(values);
         }
         return values != null;
     }
 
+    @Override
+    public void setValues(Value[] values) {
+        int index = 0;
+        for (ValueHandle valueHandle : getValueHandleList()) {
+            valueHandle.getValueFormat().setValue(values[index++],
+                    valueHandle.getJdbcValueAccess(), valueHandle.getJdbcValueAccessOptions());
+        }
+    }
+
     @Override
     public void close() {
         if (hasReader()) {
@@ -42,6 +42,7 @@ import java.io.Writer;
 import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.getValues;
 
 /**
  * @author Sergey Bushik
@@ -149,14 +150,7 @@ public abstract class OutputFormatBase extends FormatBase implements OutputForma
 
     @Override
     public void write() {
-        int index = 0;
-        ValueHandleList valueHandleList = getValueHandleList();
-        Value[] values = new Value[valueHandleList.size()];
-        for (ValueHandle valueHandle : valueHandleList) {
-            values[index++] = valueHandle.getValueFormat().getValue(
-                    valueHandle.getJdbcValueAccess(), valueHandle.getJdbcValueAccessOptions());
-        }
-        writeValues(values);
+        writeValues(getValues(getValueHandleList()));
     }
 
     public abstract void writeValues(Value[] values);
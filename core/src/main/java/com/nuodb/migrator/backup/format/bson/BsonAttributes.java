@@ -39,4 +39,6 @@ public interface BsonAttributes {
     final String FORMAT = "bson";
 
     final String ROWS_FIELD = "rs";
+
+    final String REFERENCE_FIELD = "ref";
 }
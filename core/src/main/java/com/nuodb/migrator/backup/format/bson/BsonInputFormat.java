@@ -35,18 +35,24 @@ import com.nuodb.migrator.backup.format.value.Value;
 import com.nuodb.migrator.backup.format.value.ValueType;
 import de.undercouch.bson4jackson.BsonFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.util.BitSet;
 import java.util.List;
 
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.END_OBJECT;
 import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
 import static com.fasterxml.jackson.core.JsonToken.VALUE_NULL;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_STRING;
 import static com.nuodb.migrator.backup.format.utils.BitSetUtils.EMPTY;
 import static com.nuodb.migrator.backup.format.utils.BitSetUtils.fromByteArray;
 import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.reference;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
 import static de.undercouch.bson4jackson.BsonGenerator.Feature.ENABLE_STREAMING;
 
@@ -109,15 +115,19 @@ public class BsonInputFormat extends InputFormatBase implements BsonAttributes {
                 BitSet nulls = isNextToken(VALUE_NULL) ? EMPTY :
                         fromByteArray((byte[]) bsonReader.getEmbeddedObject());
                 while (index < length) {
+                    ValueType valueType = valueTypes.get(index);
+                    valueType = valueType != null ? valueType : STRING;
                     Object value;
                     if (nulls.get(index)) {
                         value = null;
+                    } else if (isNextToken(START_ARRAY)) {
+                        value = readBlocks(valueType);
+                    } else if (isToken(bsonReader.getCurrentToken(), START_OBJECT)) {
+                        values[index++] = reference(readReference(), valueType);
+                        continue;
                     } else {
-                        bsonReader.nextToken();
                         value = bsonReader.getEmbeddedObject();
                     }
-                    ValueType valueType = valueTypes.get(index);
-                    valueType = valueType != null ? valueType : STRING;
                     switch (valueType) {
                         case BINARY:
                             values[index] = binary((byte[]) value);
@@ -136,6 +146,46 @@ public class BsonInputFormat extends InputFormatBase implements BsonAttributes {
         return values;
     }
 
+    /**
+     * Reads value of a large object written as an array of binary or string blocks. The blocks are concatenated in
+     * memory, as rows are bound to batched statements after the reader moved past them, so the value can't be streamed
+     * from the chunk. Large objects above the lob threshold of the dump are written to separate files and are streamed
+     * from the files on load instead.
+     *
+     * @param valueType type of the value.
+     * @return concatenated blocks.
+     * @throws IOException if blocks can't be read.
+     */
+    protected Object readBlocks(ValueType valueType) throws IOException {
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        StringBuilder string = new StringBuilder();
+        while (!isNextToken(END_ARRAY)) {
+            if (isToken(bsonReader.getCurrentToken(), VALUE_STRING)) {
+                string.append(bsonReader.getText());
+            } else {
+                binary.write((byte[]) bsonReader.getEmbeddedObject());
+            }
+        }
+        return valueType == STRING ? string.toString() : binary.toByteArray();
+    }
+
+    /**
+     * Reads reference to a large object written to a separate file as an embedded document with a single field.
+     *
+     * @return name of the large object file.
+     * @throws IOException if reference can't be read.
+     */
+    protected String readReference() throws IOException {
+        String reference = null;
+        while (!isNextToken(END_OBJECT)) {
+            if (isToken(bsonReader.getCurrentToken(), VALUE_STRING) &&
+                    REFERENCE_FIELD.equals(bsonReader.getCurrentName())) {
+                reference = bsonReader.getText();
+            }
+        }
+        return reference;
+    }
+
     protected boolean isNextToken(JsonToken... tokens) throws IOException {
         return isToken(bsonReader.nextToken(), tokens);
     }
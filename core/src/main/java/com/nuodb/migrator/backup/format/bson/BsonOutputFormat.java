@@ -30,15 +30,22 @@ package com.nuodb.migrator.backup.format.bson;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.nuodb.migrator.backup.format.OutputFormatBase;
 import com.nuodb.migrator.backup.format.OutputFormatException;
+import com.nuodb.migrator.backup.format.value.ReferenceValue;
+import com.nuodb.migrator.backup.format.value.StreamValue;
 import com.nuodb.migrator.backup.format.value.Value;
 import de.undercouch.bson4jackson.BsonFactory;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.PushbackReader;
 import java.io.Writer;
 import java.util.BitSet;
 
 import static com.nuodb.migrator.backup.format.utils.BitSetUtils.toByteArray;
+import static com.nuodb.migrator.backup.format.utils.BlockUtils.newBinaryBlock;
+import static com.nuodb.migrator.backup.format.utils.BlockUtils.newPushbackReader;
+import static com.nuodb.migrator.backup.format.utils.BlockUtils.newStringBlock;
+import static com.nuodb.migrator.backup.format.utils.BlockUtils.read;
 import static de.undercouch.bson4jackson.BsonGenerator.Feature.ENABLE_STREAMING;
 
 /**
@@ -106,7 +113,13 @@ public class BsonOutputFormat extends OutputFormatBase implements BsonAttributes
             }
             for (int i = 0; i < values.length; i++) {
                 Value value = values[i];
-                if (!value.isNull()) {
+                if (value instanceof ReferenceValue) {
+                    bsonWriter.writeStartObject();
+                    bsonWriter.writeStringField(REFERENCE_FIELD, ((ReferenceValue) value).getReference());
+                    bsonWriter.writeEndObject();
+                } else if (value instanceof StreamValue) {
+                    writeStreamValue((StreamValue) value);
+                } else if (!value.isNull()) {
                     switch (getValueTypes().get(i)) {
                         case BINARY:
                             bsonWriter.writeBinary(value.asBytes());
@@ -123,6 +136,35 @@ public class BsonOutputFormat extends OutputFormatBase implements BsonAttributes
         }
     }
 
+    /**
+     * Writes stream value as an array of fixed-size blocks, as the length of a bson binary or string element is written
+     * ahead of its content and the length of the large object is not known until its stream is read.
+     *
+     * @param value to write.
+     * @throws IOException if value can't be written.
+     */
+    protected void writeStreamValue(StreamValue value) throws IOException {
+        bsonWriter.writeStartArray();
+        switch (value.getValueType()) {
+            case BINARY:
+                byte[] binaryBlock = newBinaryBlock();
+                int binaryLength;
+                while ((binaryLength = read(value.asInputStream(), binaryBlock)) > 0) {
+                    bsonWriter.writeBinary(binaryBlock, 0, binaryLength);
+                }
+                break;
+            case STRING:
+                PushbackReader reader = newPushbackReader(value.asReader());
+                char[] stringBlock = newStringBlock();
+                int stringLength;
+                while ((stringLength = read(reader, stringBlock)) > 0) {
+                    bsonWriter.writeString(stringBlock, 0, stringLength);
+                }
+                break;
+        }
+        bsonWriter.writeEndArray();
+    }
+
     @Override
     public void writeEnd() {
         try {
@@ -74,6 +74,13 @@ public interface CsvAttributes {
     final Character DELIMITER = DELIMITER_COMMA;
 
     final char COMMENT_START = '#';
+    /**
+     * Prefix of the record comment listing references to large objects written to separate files, as column index and
+     * file name pairs, i.e. ref:1=users.csv.1.2.lob/3=users.csv.1.4.lob
+     */
+    final String COMMENT_REFERENCES = "ref:";
+    final char REFERENCE_SEPARATOR = '/';
+    final char REFERENCE_INDEX_SEPARATOR = '=';
     final String ENCODING = getProperty("file.encoding");
     final boolean QUOTING = false;
     final Character QUOTE = '"';
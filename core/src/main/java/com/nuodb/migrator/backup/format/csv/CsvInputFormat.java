@@ -44,6 +44,8 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
 import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.*;
+import static java.lang.Integer.parseInt;
+import static java.lang.String.format;
 import static java.lang.String.valueOf;
 
 /**
@@ -96,6 +98,13 @@ public class CsvInputFormat extends InputFormatBase implements CsvAttributes {
         return iterator.hasNext() ? readRecord() : null;
     }
 
+    /**
+     * Reads the next record, which the parser holds in memory as a whole, so inline large objects are decoded to a
+     * single string or byte array each. Large objects above the lob threshold of the dump are written to separate files
+     * and are streamed from the files on load instead.
+     *
+     * @return values of the record.
+     */
     protected Value[] readRecord() {
         CSVRecord record = iterator.next();
         List<ValueType> valueTypes = getValueTypes();
@@ -120,9 +129,41 @@ public class CsvInputFormat extends InputFormatBase implements CsvAttributes {
             index++;
         }
         fill(values, valueTypes, index);
+        readReferences(record, values);
         return values;
     }
 
+    /**
+     * Replaces values of the fields listed by the references comment of the record with references to the large
+     * objects written to separate files.
+     *
+     * @param record to read references comment of.
+     * @param values of the record.
+     */
+    protected void readReferences(CSVRecord record, Value[] values) {
+        String comment = record.getComment();
+        if (comment == null) {
+            return;
+        }
+        List<ValueType> valueTypes = getValueTypes();
+        for (String line : StringUtils.split(comment, LINE_SEPARATOR)) {
+            line = line.trim();
+            if (!line.startsWith(COMMENT_REFERENCES)) {
+                continue;
+            }
+            for (String reference : StringUtils.split(line.substring(COMMENT_REFERENCES.length()),
+                    REFERENCE_SEPARATOR)) {
+                int separator = reference.indexOf(REFERENCE_INDEX_SEPARATOR);
+                if (separator < 0) {
+                    throw new InputFormatException(format("Malformed large object reference %s", reference));
+                }
+                int index = parseInt(reference.substring(0, separator));
+                ValueType type = valueTypes.get(index);
+                values[index] = reference(reference.substring(separator + 1), type != null ? type : STRING);
+            }
+        }
+    }
+
     @Override
     public void readEnd() {
     }
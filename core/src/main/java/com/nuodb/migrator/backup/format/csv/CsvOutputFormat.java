@@ -29,6 +29,8 @@ package com.nuodb.migrator.backup.format.csv;
 
 import com.nuodb.migrator.backup.format.OutputFormatBase;
 import com.nuodb.migrator.backup.format.OutputFormatException;
+import com.nuodb.migrator.backup.format.value.ReferenceValue;
+import com.nuodb.migrator.backup.format.value.StreamValue;
 import com.nuodb.migrator.backup.format.value.Value;
 import com.nuodb.migrator.backup.format.value.ValueHandle;
 import org.apache.commons.csv.CSVFormat;
@@ -37,9 +39,16 @@ import org.apache.commons.csv.CSVPrinter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.PushbackReader;
 import java.io.Writer;
 
 import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
+import static com.nuodb.migrator.backup.format.utils.BlockUtils.newBinaryBlock;
+import static com.nuodb.migrator.backup.format.utils.BlockUtils.newPushbackReader;
+import static com.nuodb.migrator.backup.format.utils.BlockUtils.newStringBlock;
+import static com.nuodb.migrator.backup.format.utils.BlockUtils.read;
+import static java.util.Arrays.copyOf;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
 import static java.lang.String.valueOf;
 import static java.nio.charset.Charset.forName;
 
@@ -50,6 +59,8 @@ import static java.nio.charset.Charset.forName;
 public class CsvOutputFormat extends OutputFormatBase implements CsvAttributes {
 
     private String doubleQuote;
+    private CsvFormatBuilder csvFormatBuilder;
+    private Writer writer;
     private CSVPrinter csvPrinter;
 
     @Override
@@ -64,10 +75,11 @@ public class CsvOutputFormat extends OutputFormatBase implements CsvAttributes {
 
     @Override
     protected void init(Writer writer) {
-        CsvFormatBuilder builder = new CsvFormatBuilder(this);
+        CsvFormatBuilder builder = csvFormatBuilder = new CsvFormatBuilder(this);
         CSVFormat format = builder.build();
         doubleQuote = valueOf(builder.getQuote()) + valueOf(builder.getQuote());
-        csvPrinter = new CSVPrinter(wrapWriter(writer), format);
+        writer = this.writer = wrapWriter(writer);
+        csvPrinter = new CSVPrinter(writer, format);
     }
 
     @Override
@@ -85,6 +97,10 @@ public class CsvOutputFormat extends OutputFormatBase implements CsvAttributes {
     @Override
     public void writeValues(Value[] values) {
         try {
+            if (hasStreamValues(values)) {
+                writeStreamValues(values);
+                return;
+            }
             String[] record = new String[values.length];
             for (int i = 0; i < values.length; i++) {
                 String value = null;
@@ -107,6 +123,135 @@ public class CsvOutputFormat extends OutputFormatBase implements CsvAttributes {
         }
     }
 
+    protected boolean hasStreamValues(Value[] values) {
+        for (Value value : values) {
+            if (value instanceof StreamValue || value instanceof ReferenceValue) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the record directly to the underlying writer, as the printer accepts whole field values only. Stream
+     * values are encoded in fixed-size blocks, binary blocks are encoded with base64, so that heap use doesn't depend on
+     * the size of the large object. Fields are always quoted in quoting mode and escaped otherwise, which the parser
+     * reads back the same way as the fields of the printer. References to large objects written to separate files are
+     * listed by the comment preceding the record and their fields are left empty.
+     *
+     * @param values of the record with stream values.
+     * @throws IOException if record can't be written.
+     */
+    protected void writeStreamValues(Value[] values) throws IOException {
+        writeReferences(values);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(csvFormatBuilder.getDelimiter());
+            }
+            Value value = values[i];
+            if (value.isNull() || value instanceof ReferenceValue) {
+                continue;
+            }
+            boolean quoting = csvFormatBuilder.isQuoting();
+            if (quoting) {
+                writer.write(csvFormatBuilder.getQuote());
+            }
+            boolean empty;
+            if (value instanceof StreamValue) {
+                empty = writeStreamValue((StreamValue) value, getValueTypes().get(i) == BINARY, i == 0);
+            } else {
+                String field = getValueTypes().get(i) == BINARY ? BASE64.encode(value.asBytes()) : value.asString();
+                empty = field.length() == 0;
+                writeField(field.toCharArray(), field.length(), i == 0);
+            }
+            if (empty) {
+                writeField(doubleQuote.toCharArray(), doubleQuote.length(), i == 0);
+            }
+            if (quoting) {
+                writer.write(csvFormatBuilder.getQuote());
+            }
+        }
+        writer.write(csvFormatBuilder.getLineSeparator());
+    }
+
+    protected void writeReferences(Value[] values) throws IOException {
+        StringBuilder references = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] instanceof ReferenceValue) {
+                references.append(references.length() == 0 ? COMMENT_REFERENCES : valueOf(REFERENCE_SEPARATOR));
+                references.append(i).append(REFERENCE_INDEX_SEPARATOR);
+                references.append(((ReferenceValue) values[i]).getReference());
+            }
+        }
+        if (references.length() > 0) {
+            writer.write(csvFormatBuilder.getCommentStart());
+            writer.write(' ');
+            writer.write(references.toString());
+            writer.write(csvFormatBuilder.getLineSeparator());
+        }
+    }
+
+    protected boolean writeStreamValue(StreamValue value, boolean binary, boolean first) throws IOException {
+        boolean empty = true;
+        if (binary) {
+            byte[] block = newBinaryBlock();
+            int length;
+            while ((length = read(value.asInputStream(), block)) > 0) {
+                char[] encoded = BASE64.encode(length == block.length ? block : copyOf(block, length)).toCharArray();
+                writeField(encoded, encoded.length, first && empty);
+                empty = false;
+            }
+        } else {
+            PushbackReader reader = newPushbackReader(value.asReader());
+            char[] block = newStringBlock();
+            int length;
+            while ((length = read(reader, block)) > 0) {
+                writeField(block, length, first && empty);
+                empty = false;
+            }
+        }
+        return empty;
+    }
+
+    /**
+     * Writes a part of the field, doubling quotes in quoting mode or escaping line breaks, delimiters, escapes and the
+     * comment start of the record otherwise.
+     *
+     * @param field  characters of the field.
+     * @param length number of characters to write.
+     * @param start  true if the characters start the record.
+     * @throws IOException if field can't be written.
+     */
+    protected void writeField(char[] field, int length, boolean start) throws IOException {
+        char quote = csvFormatBuilder.getQuote();
+        char escape = csvFormatBuilder.getEscape();
+        char delimiter = csvFormatBuilder.getDelimiter();
+        Character commentStart = csvFormatBuilder.getCommentStart();
+        boolean quoting = csvFormatBuilder.isQuoting();
+        for (int i = 0; i < length; i++) {
+            char c = field[i];
+            if (quoting) {
+                if (c == quote) {
+                    writer.write(quote);
+                } else if (c == escape) {
+                    writer.write(escape);
+                }
+                writer.write(c);
+            } else if (c == '\r') {
+                writer.write(escape);
+                writer.write('r');
+            } else if (c == '\n') {
+                writer.write(escape);
+                writer.write('n');
+            } else if (c == delimiter || c == escape || (start && i == 0 && commentStart != null && c == commentStart)) {
+                writer.write(escape);
+                writer.write(c);
+            } else {
+                writer.write(c);
+            }
+        }
+    }
+
     @Override
     public void writeEnd() {
         try {
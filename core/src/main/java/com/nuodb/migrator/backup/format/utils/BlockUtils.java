@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackReader;
+import java.io.Reader;
+
+import static java.lang.Character.isHighSurrogate;
+
+/**
+ * Reads stream values in fixed-size blocks, so that output formats encode large objects with constant heap use.
+ */
+public class BlockUtils {
+
+    /**
+     * Size of binary block is a multiple of 3, so that base64 encoded blocks concatenate without padding into the
+     * encoding of the whole stream.
+     */
+    public static final int BINARY_BLOCK_SIZE = 3 * 4096;
+
+    public static final int STRING_BLOCK_SIZE = 8192;
+
+    public static byte[] newBinaryBlock() {
+        return new byte[BINARY_BLOCK_SIZE];
+    }
+
+    public static char[] newStringBlock() {
+        return new char[STRING_BLOCK_SIZE];
+    }
+
+    /**
+     * Reads a full block unless the end of the stream is reached.
+     *
+     * @param input to read block from.
+     * @param block to read into.
+     * @return number of bytes read, 0 at the end of the stream.
+     * @throws IOException if stream can't be read.
+     */
+    public static int read(InputStream input, byte[] block) throws IOException {
+        int length = 0;
+        int read;
+        while (length < block.length && (read = input.read(block, length, block.length - length)) != -1) {
+            length += read;
+        }
+        return length;
+    }
+
+    /**
+     * Reads a full block unless the end of the stream is reached. A high surrogate ending the block is pushed back to
+     * the reader, so that a block never splits a surrogate pair and can be encoded on its own.
+     *
+     * @param reader to read block from.
+     * @param block  to read into.
+     * @return number of characters read, 0 at the end of the stream.
+     * @throws IOException if stream can't be read.
+     */
+    public static int read(PushbackReader reader, char[] block) throws IOException {
+        int length = 0;
+        int read;
+        while (length < block.length && (read = reader.read(block, length, block.length - length)) != -1) {
+            length += read;
+        }
+        if (length > 1 && isHighSurrogate(block[length - 1])) {
+            reader.unread(block[--length]);
+        }
+        return length;
+    }
+
+    public static PushbackReader newPushbackReader(Reader reader) {
+        return reader instanceof PushbackReader ? (PushbackReader) reader : new PushbackReader(reader);
+    }
+}
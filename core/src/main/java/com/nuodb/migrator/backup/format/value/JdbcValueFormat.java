@@ -28,12 +28,16 @@
 package com.nuodb.migrator.backup.format.value;
 
 import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.type.JdbcStreamBlob;
+import com.nuodb.migrator.jdbc.type.JdbcStreamClob;
 import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
 
 import javax.sql.rowset.serial.SerialRef;
 import java.io.*;
 import java.math.BigDecimal;
 import java.net.URL;
+import java.sql.Blob;
+import java.sql.Clob;
 import java.sql.Ref;
 import java.sql.RowId;
 import java.sql.Types;
@@ -52,6 +56,12 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
  */
 public class JdbcValueFormat extends ValueFormatBase<Object> {
 
+    /**
+     * Enables stream values for blob, clob and nclob columns, which are read from the result set in blocks by output
+     * formats rather than being materialized on heap.
+     */
+    public static final String STREAM_LOBS = "STREAM_LOBS";
+
     @Override
     protected Value doGetValue(JdbcValueAccess<Object> access, Map<String, Object> options) throws Exception {
         Object result;
@@ -79,10 +89,14 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
             case Types.NCHAR:
                 value = string(access.getValue(String.class, options));
                 break;
+            case Types.BLOB:
+                value = isStreamLobs(options) ?
+                        binary(access.getValue(InputStream.class, options)) :
+                        binary(access.getValue(byte[].class, options));
+                break;
             case Types.BINARY:
             case Types.VARBINARY:
             case Types.LONGVARBINARY:
-            case Types.BLOB:
                 value = binary(access.getValue(byte[].class, options));
                 break;
             case Types.OTHER:
@@ -93,7 +107,9 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
                 break;
             case Types.CLOB:
             case Types.NCLOB:
-                value = string(access.getValue(String.class, options));
+                value = isStreamLobs(options) ?
+                        string(access.getValue(Reader.class, options)) :
+                        string(access.getValue(String.class, options));
                 break;
             case Types.REF:
                 result = access.getValue(options);
@@ -124,7 +140,7 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
     @Override
     protected void doSetValue(Value value, JdbcValueAccess<Object> access, Map<String, Object> options) throws Exception {
         Field field = access.getField();
-        final String result = value.asString();
+        final String result = isLob(field) ? null : value.asString();
         switch (field.getTypeCode()) {
             case Types.BIT:
             case Types.BOOLEAN:
@@ -172,13 +188,11 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
                 access.setValue(read(value.asBytes()), options);
                 break;
             case Types.BLOB:
-                access.setValue(value.asBytes(), options);
+                access.setValue(createBlob(value), options);
                 break;
             case Types.CLOB:
-                access.setValue(result, options);
-                break;
             case Types.NCLOB:
-                access.setValue(result, options);
+                access.setValue(createClob(value), options);
                 break;
             case Types.REF:
                 access.setValue(!isEmpty(result) ? read(value.asBytes()) : null,
@@ -196,6 +210,56 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
         }
     }
 
+    protected boolean isStreamLobs(Map<String, Object> options) {
+        return options != null && Boolean.TRUE.equals(options.get(STREAM_LOBS));
+    }
+
+    protected boolean isLob(Field field) {
+        switch (field.getTypeCode()) {
+            case Types.BLOB:
+            case Types.CLOB:
+            case Types.NCLOB:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Creates blob bound to the statement with a binary stream, so that the value is not copied to a driver's blob.
+     *
+     * @param value to bind.
+     * @return blob backed by the stream of the value or null if value is null.
+     */
+    protected Blob createBlob(Value value) {
+        if (value.isNull()) {
+            return null;
+        } else if (value instanceof StreamValue) {
+            StreamValue streamValue = (StreamValue) value;
+            return new JdbcStreamBlob(streamValue.asInputStream(), streamValue.getLength());
+        } else {
+            byte[] bytes = value.asBytes();
+            return new JdbcStreamBlob(new ByteArrayInputStream(bytes), bytes.length);
+        }
+    }
+
+    /**
+     * Creates clob bound to the statement with a character stream, so that the value is not copied to a driver's clob.
+     *
+     * @param value to bind.
+     * @return clob backed by the stream of the value or null if value is null.
+     */
+    protected Clob createClob(Value value) {
+        if (value.isNull()) {
+            return null;
+        } else if (value instanceof StreamValue) {
+            return new JdbcStreamClob(((StreamValue) value).asReader());
+        } else {
+            String string = value.asString();
+            return new JdbcStreamClob(new StringReader(string), string.length());
+        }
+    }
+
     protected byte[] write(Object object) throws IOException {
         if (object == null) {
             return null;
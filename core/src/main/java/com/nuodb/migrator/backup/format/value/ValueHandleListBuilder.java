@@ -54,6 +54,8 @@ public abstract class ValueHandleListBuilder {
 
     private TimeZone timeZone;
 
+    private boolean streamLobs;
+
     private Collection<? extends Field> fields;
 
     private ValueFormatRegistry valueFormatRegistry;
@@ -146,6 +148,14 @@ public abstract class ValueHandleListBuilder {
                     jdbcValueAccessOptions.put(JdbcDateValueBase.TIMEZONE, getTimeZone());
                 }
                 break;
+            case Types.BLOB:
+            case Types.CLOB:
+            case Types.NCLOB:
+                if (isStreamLobs()) {
+                    jdbcValueAccessOptions = newHashMap();
+                    jdbcValueAccessOptions.put(JdbcValueFormat.STREAM_LOBS, true);
+                }
+                break;
             default:
         }
         return jdbcValueAccessOptions;
@@ -169,6 +179,15 @@ public abstract class ValueHandleListBuilder {
         return this;
     }
 
+    public boolean isStreamLobs() {
+        return streamLobs;
+    }
+
+    public ValueHandleListBuilder withStreamLobs(boolean streamLobs) {
+        this.streamLobs = streamLobs;
+        return this;
+    }
+
     public Collection<? extends Field> getFields() {
         return fields;
     }
@@ -187,7 +206,7 @@ public abstract class ValueHandleListBuilder {
         return this;
     }
 
-    static class SimpleValueHandle extends SimpleField implements ValueHandle {
+    public static class SimpleValueHandle extends SimpleField implements ValueHandle {
 
         private ValueType valueType;
         private ValueFormat valueFormat;
@@ -242,6 +261,6 @@ public abstract class ValueHandleListBuilder {
         }
     }
 
-    static class SimpleValueHandleList extends SimpleFieldList<ValueHandle> implements ValueHandleList {
+    public static class SimpleValueHandleList extends SimpleFieldList<ValueHandle> implements ValueHandleList {
     }
 }
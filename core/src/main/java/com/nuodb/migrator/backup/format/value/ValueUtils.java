@@ -27,11 +27,25 @@
  */
 package com.nuodb.migrator.backup.format.value;
 
+import com.google.common.io.InputSupplier;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.AutoCloseInputStream;
+import org.apache.commons.io.input.ReaderInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
+import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
 import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static java.lang.Math.max;
+import static java.lang.String.format;
 
 /**
  * @author Sergey Bushik
@@ -56,6 +70,110 @@ public class ValueUtils {
         }
     }
 
+    /**
+     * Estimates number of bytes carried by the value, which is the length of binary value or the number of characters
+     * of string value. Stream and reference values are not materialized and are counted by their length if it's known,
+     * e.g. the length of the large object file.
+     *
+     * @param value to estimate size of.
+     * @return estimated size in bytes.
+     */
+    public static long getSize(Value value) {
+        if (value == null || value.isNull()) {
+            return 0;
+        } else if (value instanceof StreamValue) {
+            return max(((StreamValue) value).getLength(), 0);
+        } else if (value instanceof ReferenceValue) {
+            return max(((ReferenceValue) value).getLength(), 0);
+        }
+        switch (value.getValueType()) {
+            case STRING:
+                return value.asString().length();
+            default:
+                return value.asBytes().length;
+        }
+    }
+
+    public static long getSize(Value[] values) {
+        long size = 0;
+        for (Value value : values) {
+            size += getSize(value);
+        }
+        return size;
+    }
+
+    /**
+     * Extracts values of the current row of the result set the value handles are bound to.
+     *
+     * @param valueHandleList value handles of the columns.
+     * @return values of the row.
+     */
+    public static Value[] getValues(ValueHandleList valueHandleList) {
+        int index = 0;
+        Value[] values = new Value[valueHandleList.size()];
+        for (ValueHandle valueHandle : valueHandleList) {
+            values[index++] = valueHandle.getValueFormat().getValue(
+                    valueHandle.getJdbcValueAccess(), valueHandle.getJdbcValueAccessOptions());
+        }
+        return values;
+    }
+
+    /**
+     * Closes stream values of the row once they are written.
+     *
+     * @param values of the row.
+     * @throws IOException if stream can't be closed.
+     */
+    public static void close(Value[] values) throws IOException {
+        for (Value value : values) {
+            if (value instanceof StreamValue) {
+                ((StreamValue) value).close();
+            }
+        }
+    }
+
+    public static Value binary(InputStream value) {
+        return value == null ? BINARY_NULL : new BinaryStreamValue(value);
+    }
+
+    public static Value string(Reader value) {
+        return value == null ? STRING_NULL : new StringStreamValue(value);
+    }
+
+    /**
+     * Creates binary value of a large object, which opens a new stream from the supplier each time its content is
+     * requested, so that the value can be bound more than once, e.g. when a batch is retried. Streams opened by the
+     * value are kept open until the value is closed.
+     *
+     * @param input  supplier of the large object content.
+     * @param length number of bytes of the content or -1 if unknown.
+     * @return binary stream value.
+     */
+    public static Value binary(InputSupplier<? extends InputStream> input, long length) {
+        return new BinarySupplierValue(input, length);
+    }
+
+    /**
+     * Creates string value of a large object, which opens a new stream from the supplier and decodes it with the given
+     * charset each time its content is requested. Streams opened by the value are kept open until the value is closed.
+     *
+     * @param input   supplier of the encoded large object content.
+     * @param charset charset of the content.
+     * @param length  number of encoded bytes of the content or -1 if unknown.
+     * @return string stream value.
+     */
+    public static Value string(InputSupplier<? extends InputStream> input, Charset charset, long length) {
+        return new StringSupplierValue(input, charset, length);
+    }
+
+    public static Value reference(String reference, ValueType valueType) {
+        return reference(reference, valueType, -1);
+    }
+
+    public static Value reference(String reference, ValueType valueType, long length) {
+        return new ReferenceValueImpl(reference, valueType, length);
+    }
+
     public static Value binary(byte[] value) {
         return value == null ? BINARY_NULL : new BinaryValue(value);
     }
@@ -115,6 +233,337 @@ public class ValueUtils {
         }
     }
 
+    static class BinaryStreamValue implements StreamValue {
+
+        private final transient InputStream value;
+
+        public BinaryStreamValue(InputStream value) {
+            this.value = value;
+        }
+
+        @Override
+        public InputStream asInputStream() {
+            return value;
+        }
+
+        @Override
+        public Reader asReader() {
+            return new InputStreamReader(value);
+        }
+
+        @Override
+        public String asString() {
+            return new String(asBytes());
+        }
+
+        @Override
+        public byte[] asBytes() {
+            try {
+                return IOUtils.toByteArray(value);
+            } catch (IOException exception) {
+                throw new ValueFormatException(exception);
+            }
+        }
+
+        @Override
+        public boolean isNull() {
+            return false;
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return BINARY;
+        }
+
+        @Override
+        public void close() throws IOException {
+            value.close();
+        }
+
+        @Override
+        public long getLength() {
+            return -1;
+        }
+
+        @Override
+        public String toString() {
+            return "BinaryStream{" + value + '}';
+        }
+    }
+
+    static class StringStreamValue implements StreamValue {
+
+        private final transient Reader value;
+
+        public StringStreamValue(Reader value) {
+            this.value = value;
+        }
+
+        @Override
+        public InputStream asInputStream() {
+            return new ReaderInputStream(value);
+        }
+
+        @Override
+        public Reader asReader() {
+            return value;
+        }
+
+        @Override
+        public String asString() {
+            try {
+                return IOUtils.toString(value);
+            } catch (IOException exception) {
+                throw new ValueFormatException(exception);
+            }
+        }
+
+        @Override
+        public byte[] asBytes() {
+            return asString().getBytes();
+        }
+
+        @Override
+        public boolean isNull() {
+            return false;
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return STRING;
+        }
+
+        @Override
+        public void close() throws IOException {
+            value.close();
+        }
+
+        @Override
+        public long getLength() {
+            return -1;
+        }
+
+        @Override
+        public String toString() {
+            return "StringStream{" + value + '}';
+        }
+    }
+
+    /**
+     * Value of a large object opening a new stream from the supplier each time its content is requested. Drivers read
+     * streams bound to a statement when it's executed, so the opened streams are tracked and closed by {@link #close()}
+     * once the statement is executed or its batch is cleared, after which the value can be opened again.
+     */
+    static abstract class SupplierValue implements StreamValue {
+
+        private final transient InputSupplier<? extends InputStream> input;
+        private final transient Collection<InputStream> streams = newArrayList();
+        private final long length;
+
+        protected SupplierValue(InputSupplier<? extends InputStream> input, long length) {
+            this.input = input;
+            this.length = length;
+        }
+
+        protected InputStream open() {
+            InputStream stream;
+            try {
+                stream = new AutoCloseInputStream(input.getInput());
+            } catch (IOException exception) {
+                throw new ValueFormatException(exception);
+            }
+            synchronized (streams) {
+                streams.add(stream);
+            }
+            return stream;
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public boolean isNull() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            synchronized (streams) {
+                for (InputStream stream : streams) {
+                    try {
+                        stream.close();
+                    } catch (IOException exception) {
+                        failure = failure != null ? failure : exception;
+                    }
+                }
+                streams.clear();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        public InputSupplier<? extends InputStream> getInput() {
+            return input;
+        }
+    }
+
+    static class BinarySupplierValue extends SupplierValue {
+
+        public BinarySupplierValue(InputSupplier<? extends InputStream> input, long length) {
+            super(input, length);
+        }
+
+        @Override
+        public InputStream asInputStream() {
+            return open();
+        }
+
+        @Override
+        public Reader asReader() {
+            return new InputStreamReader(asInputStream());
+        }
+
+        @Override
+        public String asString() {
+            return new String(asBytes());
+        }
+
+        @Override
+        public byte[] asBytes() {
+            try {
+                return IOUtils.toByteArray(asInputStream());
+            } catch (IOException exception) {
+                throw new ValueFormatException(exception);
+            }
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return BINARY;
+        }
+
+        @Override
+        public String toString() {
+            return "BinarySupplier{" + getInput() + '}';
+        }
+    }
+
+    static class StringSupplierValue extends SupplierValue {
+
+        private final transient Charset charset;
+
+        public StringSupplierValue(InputSupplier<? extends InputStream> input, Charset charset, long length) {
+            super(input, length);
+            this.charset = charset;
+        }
+
+        @Override
+        public InputStream asInputStream() {
+            return new ReaderInputStream(asReader());
+        }
+
+        @Override
+        public Reader asReader() {
+            return new InputStreamReader(open(), charset);
+        }
+
+        @Override
+        public String asString() {
+            try {
+                return IOUtils.toString(asReader());
+            } catch (IOException exception) {
+                throw new ValueFormatException(exception);
+            }
+        }
+
+        @Override
+        public byte[] asBytes() {
+            return asString().getBytes();
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return STRING;
+        }
+
+        @Override
+        public String toString() {
+            return "StringSupplier{" + getInput() + '}';
+        }
+    }
+
+    static class ReferenceValueImpl implements ReferenceValue {
+
+        private final String reference;
+        private final ValueType valueType;
+        private final long length;
+
+        public ReferenceValueImpl(String reference, ValueType valueType, long length) {
+            this.reference = reference;
+            this.valueType = valueType;
+            this.length = length;
+        }
+
+        @Override
+        public String getReference() {
+            return reference;
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public String asString() {
+            throw new ValueFormatException(format("Reference to large object %s is not resolved", reference));
+        }
+
+        @Override
+        public byte[] asBytes() {
+            throw new ValueFormatException(format("Reference to large object %s is not resolved", reference));
+        }
+
+        @Override
+        public boolean isNull() {
+            return false;
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return valueType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            ReferenceValueImpl that = (ReferenceValueImpl) o;
+
+            if (reference != null ? !reference.equals(that.reference) : that.reference != null) return false;
+            if (valueType != that.valueType) return false;
+
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = reference != null ? reference.hashCode() : 0;
+            result = 31 * result + (valueType != null ? valueType.hashCode() : 0);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "Reference{'" + reference + "'}";
+        }
+    }
+
     static class StringValue implements Value {
 
         public String value;
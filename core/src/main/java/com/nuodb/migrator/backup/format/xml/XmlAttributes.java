@@ -48,8 +48,10 @@ public interface XmlAttributes {
     final String ELEMENT_ROWS = "rs";
     final String ELEMENT_COLUMN = "c";
     final String ELEMENT_ROW = "r";
+    final String ELEMENT_BINARY_BLOCK = "b";
     final String ATTRIBUTE_NULLS = "ns";
     final String ATTRIBUTE_VALUE_TYPE = "vt";
+    final String ATTRIBUTE_REFERENCE = "ref";
     final String ATTRIBUTE_VALUE_TYPE_STRING = "s";
     final String ATTRIBUTE_VALUE_TYPE_BINARY = "b";
 
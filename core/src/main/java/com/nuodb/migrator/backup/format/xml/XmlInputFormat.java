@@ -41,12 +41,15 @@ import java.io.Reader;
 import java.util.BitSet;
 import java.util.List;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
 import static com.nuodb.migrator.backup.format.utils.BitSetUtils.EMPTY;
 import static com.nuodb.migrator.backup.format.utils.BitSetUtils.fromHexString;
 import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.reference;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static java.lang.String.format;
 import static javax.xml.XMLConstants.NULL_NS_URI;
 import static javax.xml.stream.XMLInputFactory.newInstance;
 
@@ -98,18 +101,24 @@ public class XmlInputFormat extends InputFormatBase implements XmlAttributes {
             int index = 0;
             while (index < length) {
                 String value = null;
+                String reference = null;
                 ValueType valueType = valueTypes.get(index);
                 if (!nulls.get(index) && isNextElement(ELEMENT_COLUMN)) {
                     try {
+                        reference = getAttributeValue(NULL_NS_URI, ATTRIBUTE_REFERENCE);
                         ValueType valueLevel = VALUE_TYPES.fromAlias(
                                 getAttributeValue(NULL_NS_URI, ATTRIBUTE_VALUE_TYPE));
                         valueType = valueLevel != null ? valueLevel : valueType;
-                        value = xmlReader.getElementText();
+                        value = getElementText();
                     } catch (XMLStreamException exception) {
                         throw new InputFormatException(exception);
                     }
                 }
                 valueType = valueType != null ? valueType : STRING;
+                if (reference != null) {
+                    values[index++] = reference(reference, valueType);
+                    continue;
+                }
                 switch (valueType) {
                     case BINARY:
                         values[index] = binary(BASE64.decode(value));
@@ -124,6 +133,37 @@ public class XmlInputFormat extends InputFormatBase implements XmlAttributes {
         return values;
     }
 
+    /**
+     * Reads text of the column, which is a content of the column mixed with base64 encoded binary block elements for
+     * string values streamed from large objects. The text is collected in memory, large objects above the lob threshold
+     * of the dump are written to separate files and are streamed from the files on load instead.
+     *
+     * @return text of the column.
+     * @throws XMLStreamException if text can't be read.
+     */
+    protected String getElementText() throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int event;
+        while ((event = xmlReader.next()) != XMLStreamConstants.END_ELEMENT) {
+            switch (event) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    text.append(xmlReader.getText());
+                    break;
+                case XMLStreamConstants.START_ELEMENT:
+                    if (isCurrentElement(ELEMENT_BINARY_BLOCK)) {
+                        text.append(new String(BASE64.decode(xmlReader.getElementText()), UTF_8));
+                    } else {
+                        throw new InputFormatException(format("Unexpected %s element", xmlReader.getLocalName()));
+                    }
+                    break;
+            }
+        }
+        return text.toString();
+    }
+
     protected boolean nextElement() {
         while (xmlReader.getEventType() != XMLStreamConstants.END_DOCUMENT) {
             try {
@@ -29,18 +29,28 @@ package com.nuodb.migrator.backup.format.xml;
 
 import com.nuodb.migrator.backup.format.OutputFormatBase;
 import com.nuodb.migrator.backup.format.OutputFormatException;
+import com.nuodb.migrator.backup.format.value.ReferenceValue;
+import com.nuodb.migrator.backup.format.value.StreamValue;
 import com.nuodb.migrator.backup.format.value.Value;
 import com.nuodb.migrator.backup.format.value.ValueType;
 
 import javax.xml.XMLConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.io.PushbackReader;
 import java.io.Writer;
 import java.util.BitSet;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
 import static com.nuodb.migrator.backup.format.utils.BitSetUtils.toHexString;
+import static com.nuodb.migrator.backup.format.utils.BlockUtils.newBinaryBlock;
+import static com.nuodb.migrator.backup.format.utils.BlockUtils.newPushbackReader;
+import static com.nuodb.migrator.backup.format.utils.BlockUtils.newStringBlock;
+import static com.nuodb.migrator.backup.format.utils.BlockUtils.read;
+import static java.util.Arrays.copyOf;
 import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
 import static com.nuodb.migrator.backup.format.xml.XmlUtils.isValid;
 import static javax.xml.stream.XMLOutputFactory.newInstance;
@@ -99,7 +109,14 @@ public class XmlOutputFormat extends OutputFormatBase implements XmlAttributes {
             }
             int i = 0;
             for (Value value : values) {
-                if (!value.isNull()) {
+                if (value instanceof ReferenceValue) {
+                    xmlWriter.writeEmptyElement(ELEMENT_COLUMN);
+                    xmlWriter.writeAttribute(ATTRIBUTE_REFERENCE, ((ReferenceValue) value).getReference());
+                } else if (value instanceof StreamValue) {
+                    xmlWriter.writeStartElement(ELEMENT_COLUMN);
+                    writeStreamValue((StreamValue) value, getValueTypes().get(i));
+                    xmlWriter.writeEndElement();
+                } else if (!value.isNull()) {
                     ValueType valueType = getValueTypes().get(i);
                     xmlWriter.writeStartElement(ELEMENT_COLUMN);
                     String content;
@@ -119,6 +136,42 @@ public class XmlOutputFormat extends OutputFormatBase implements XmlAttributes {
             xmlWriter.writeEndElement();
         } catch (XMLStreamException e) {
             throw new OutputFormatException(e);
+        } catch (IOException exception) {
+            throw new OutputFormatException(exception);
+        }
+    }
+
+    /**
+     * Writes content of the stream value in fixed-size blocks. Binary blocks are encoded with base64, string blocks
+     * are written as characters unless they contain characters not allowed in xml, which are encoded to utf-8 and
+     * base64 and wrapped to a binary block element, as the value type of the column can't be changed once its content is written.
+     *
+     * @param value     to write.
+     * @param valueType type of the column.
+     * @throws IOException        if stream can't be read.
+     * @throws XMLStreamException if content can't be written.
+     */
+    protected void writeStreamValue(StreamValue value, ValueType valueType) throws IOException, XMLStreamException {
+        if (valueType == BINARY) {
+            byte[] block = newBinaryBlock();
+            int length;
+            while ((length = read(value.asInputStream(), block)) > 0) {
+                xmlWriter.writeCharacters(BASE64.encode(length == block.length ? block : copyOf(block, length)));
+            }
+        } else {
+            PushbackReader reader = newPushbackReader(value.asReader());
+            char[] block = newStringBlock();
+            int length;
+            while ((length = read(reader, block)) > 0) {
+                String content = new String(block, 0, length);
+                if (isValid(content)) {
+                    xmlWriter.writeCharacters(block, 0, length);
+                } else {
+                    xmlWriter.writeStartElement(ELEMENT_BINARY_BLOCK);
+                    xmlWriter.writeCharacters(BASE64.encode(content.getBytes(UTF_8)));
+                    xmlWriter.writeEndElement();
+                }
+            }
         }
     }
 
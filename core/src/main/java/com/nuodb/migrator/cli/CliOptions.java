@@ -73,6 +73,7 @@ public interface CliOptions {
     final String OUTPUT_OPTION = "output.*";
     final String OUTPUT_TYPE_OPTION = "output.type";
     final String OUTPUT_PATH_OPTION = "output.path";
+    final String OUTPUT_COMPRESSION_OPTION = "output.compression";
 
     final String MIGRATION_MODE_DATA_OPTION = "data";
     final String MIGRATION_MODE_SCHEMA_OPTION = "schema";
@@ -80,13 +81,18 @@ public interface CliOptions {
     final String TABLE_OPTION = "table";
     final String TABLE_TYPE_OPTION = "table.type";
     final String TABLE_FILTER_OPTION = "table.*.filter";
+    final String TABLE_WATERMARK_OPTION = "table.*.watermark";
+    final String TABLE_THREADS_OPTION = "table.*.threads";
+    final String TABLE_PRIORITY_OPTION = "table.*.priority";
     final String TABLE_INSERT_OPTION = "table.*.insert";
     final String TABLE_REPLACE_OPTION = "table.*.replace";
 
     final String THREADS_OPTION = "threads";
     final String THREADS_SHORT_OPTION = "t";
+    final String THREADS_PER_TABLE_OPTION = "threads.per.table";
 
     final String QUERY_LIMIT_OPTION = "query.limit";
+    final String QUERY_LIMIT_ROW_COUNT_OPTION = "query.limit.row.count";
 
     final String QUERY_OPTION = "query";
 
@@ -103,6 +109,19 @@ public interface CliOptions {
     final String COMMIT_STRATEGY_OPTION = "commit.strategy";
     final String COMMIT_STRATEGY_ATTRIBUTES_OPTION = "commit.*";
 
+    final String BATCH_SIZE_OPTION = "batch.size";
+    final String PIPELINE_SIZE_OPTION = "pipeline.size";
+    final String FETCH_MEMORY_OPTION = "fetch.memory";
+    final String MEMORY_BUDGET_OPTION = "memory.budget";
+    final String LOB_THRESHOLD_OPTION = "lob.threshold";
+    final String INSERT_ROWS_OPTION = "insert.rows";
+    final String PARALLEL_CHUNKS_OPTION = "parallel.chunks";
+    final String RESUME_OPTION = "resume";
+    final String JOURNAL_OPTION = "journal";
+    final String CONSISTENT_SNAPSHOT_OPTION = "consistent.snapshot";
+    final String INCREMENT_OPTION = "increment";
+    final String REJECT_LIMIT_OPTION = "reject.limit";
+
     final String INPUT_OPTION = "input.*";
     final String INPUT_PATH_OPTION = "input.path";
 
@@ -79,6 +79,8 @@ public interface CliResources {
     final String OUTPUT_TYPE_ARGUMENT_NAME = "com.nuodb.migrator.output.type.argument.name";
     final String OUTPUT_PATH_OPTION_DESCRIPTION = "com.nuodb.migrator.output.path.option.description";
     final String OUTPUT_PATH_ARGUMENT_NAME = "com.nuodb.migrator.output.path.argument.name";
+    final String OUTPUT_COMPRESSION_OPTION_DESCRIPTION = "com.nuodb.migrator.output.compression.option.description";
+    final String OUTPUT_COMPRESSION_ARGUMENT_NAME = "com.nuodb.migrator.output.compression.argument.name";
     final String OUTPUT_OPTION_DESCRIPTION = "com.nuodb.migrator.output.option.description";
     final String OUTPUT_OPTION_ARGUMENT_NAME = "com.nuodb.migrator.output.argument.description";
 
@@ -93,6 +95,12 @@ public interface CliResources {
     final String TABLE_ARGUMENT_NAME = "com.nuodb.migrator.table.argument.name";
     final String TABLE_FILTER_OPTION_DESCRIPTION = "com.nuodb.migrator.table.filter.option.description";
     final String TABLE_FILTER_ARGUMENT_NAME = "com.nuodb.migrator.table.filter.argument.name";
+    final String TABLE_WATERMARK_OPTION_DESCRIPTION = "com.nuodb.migrator.table.watermark.option.description";
+    final String TABLE_WATERMARK_ARGUMENT_NAME = "com.nuodb.migrator.table.watermark.argument.name";
+    final String TABLE_THREADS_OPTION_DESCRIPTION = "com.nuodb.migrator.table.threads.option.description";
+    final String TABLE_THREADS_ARGUMENT_NAME = "com.nuodb.migrator.table.threads.argument.name";
+    final String TABLE_PRIORITY_OPTION_DESCRIPTION = "com.nuodb.migrator.table.priority.option.description";
+    final String TABLE_PRIORITY_ARGUMENT_NAME = "com.nuodb.migrator.table.priority.argument.name";
 
     final String QUERY_GROUP_NAME = "com.nuodb.migrator.query.group.name";
     final String QUERY_OPTION_DESCRIPTION = "com.nuodb.migrator.query.option.description";
@@ -100,8 +108,23 @@ public interface CliResources {
 
     final String THREADS_OPTION_DESCRIPTION = "com.nuodb.migrator.threads.option.description";
     final String THREADS_ARGUMENT_NAME = "com.nuodb.migrator.threads.argument.name";
+    final String THREADS_PER_TABLE_OPTION_DESCRIPTION = "com.nuodb.migrator.threads.per.table.option.description";
+    final String THREADS_PER_TABLE_ARGUMENT_NAME = "com.nuodb.migrator.threads.per.table.argument.name";
+    final String DUMP_RESUME_OPTION_DESCRIPTION = "com.nuodb.migrator.dump.resume.option.description";
+    final String CONSISTENT_SNAPSHOT_OPTION_DESCRIPTION =
+            "com.nuodb.migrator.consistent.snapshot.option.description";
+    final String DUMP_PIPELINE_SIZE_OPTION_DESCRIPTION = "com.nuodb.migrator.dump.pipeline.size.option.description";
+    final String FETCH_MEMORY_OPTION_DESCRIPTION = "com.nuodb.migrator.fetch.memory.option.description";
+    final String FETCH_MEMORY_ARGUMENT_NAME = "com.nuodb.migrator.fetch.memory.argument.name";
+    final String MEMORY_BUDGET_OPTION_DESCRIPTION = "com.nuodb.migrator.memory.budget.option.description";
+    final String MEMORY_BUDGET_ARGUMENT_NAME = "com.nuodb.migrator.memory.budget.argument.name";
+    final String LOB_THRESHOLD_OPTION_DESCRIPTION = "com.nuodb.migrator.lob.threshold.option.description";
+    final String LOB_THRESHOLD_ARGUMENT_NAME = "com.nuodb.migrator.lob.threshold.argument.name";
     final String QUERY_LIMIT_OPTION_DESCRIPTION = "com.nuodb.migrator.query.limit.option.description";
     final String QUERY_LIMIT_ARGUMENT_NAME = "com.nuodb.migrator.query.limit.argument.name";
+    final String QUERY_LIMIT_ROW_COUNT_OPTION_DESCRIPTION =
+            "com.nuodb.migrator.query.limit.row.count.option.description";
+    final String QUERY_LIMIT_ROW_COUNT_ARGUMENT_NAME = "com.nuodb.migrator.query.limit.row.count.argument.name";
 
     final String LOAD_GROUP_NAME = "com.nuodb.migrator.load.group.name";
     final String TARGET_GROUP_NAME = "com.nuodb.migrator.target.group.name";
@@ -132,6 +155,23 @@ public interface CliResources {
     final String COMMIT_STRATEGY_ATTRIBUTES_OPTION_DESCRIPTION = "com.nuodb.migrator.commit.strategy.attributes.option.description";
     final String COMMIT_STRATEGY_ATTRIBUTES_ARGUMENT_NAME = "com.nuodb.migrator.commit.strategy.attributes.argument.name";
 
+    final String LOAD_THREADS_OPTION_DESCRIPTION = "com.nuodb.migrator.load.threads.option.description";
+    final String PARALLEL_CHUNKS_OPTION_DESCRIPTION = "com.nuodb.migrator.parallel.chunks.option.description";
+    final String PARALLEL_CHUNKS_ARGUMENT_NAME = "com.nuodb.migrator.parallel.chunks.argument.name";
+    final String BATCH_SIZE_OPTION_DESCRIPTION = "com.nuodb.migrator.batch.size.option.description";
+    final String BATCH_SIZE_ARGUMENT_NAME = "com.nuodb.migrator.batch.size.argument.name";
+    final String PIPELINE_SIZE_OPTION_DESCRIPTION = "com.nuodb.migrator.pipeline.size.option.description";
+    final String PIPELINE_SIZE_ARGUMENT_NAME = "com.nuodb.migrator.pipeline.size.argument.name";
+    final String INSERT_ROWS_OPTION_DESCRIPTION = "com.nuodb.migrator.insert.rows.option.description";
+    final String INSERT_ROWS_ARGUMENT_NAME = "com.nuodb.migrator.insert.rows.argument.name";
+    final String RESUME_OPTION_DESCRIPTION = "com.nuodb.migrator.resume.option.description";
+    final String JOURNAL_OPTION_DESCRIPTION = "com.nuodb.migrator.journal.option.description";
+    final String JOURNAL_ARGUMENT_NAME = "com.nuodb.migrator.journal.argument.name";
+    final String INCREMENT_OPTION_DESCRIPTION = "com.nuodb.migrator.increment.option.description";
+    final String INCREMENT_ARGUMENT_NAME = "com.nuodb.migrator.increment.argument.name";
+    final String REJECT_LIMIT_OPTION_DESCRIPTION = "com.nuodb.migrator.reject.limit.option.description";
+    final String REJECT_LIMIT_ARGUMENT_NAME = "com.nuodb.migrator.reject.limit.argument.name";
+
     final String SCHEMA_GROUP_NAME = "com.nuodb.migrator.schema.group.name";
     final String SCHEMA_OUTPUT_GROUP_NAME = "com.nuodb.migrator.schema.output.group.name";
     final String META_DATA_OPTION_DESCRIPTION = "com.nuodb.migrator.meta.data.option.description";
@@ -29,9 +29,11 @@ package com.nuodb.migrator.cli.run;
 
 import com.nuodb.migrator.cli.parse.Group;
 import com.nuodb.migrator.cli.parse.Option;
+import com.nuodb.migrator.cli.parse.OptionException;
 import com.nuodb.migrator.cli.parse.OptionSet;
 import com.nuodb.migrator.cli.parse.option.GroupBuilder;
 import com.nuodb.migrator.cli.parse.option.OptionFormat;
+import com.nuodb.migrator.jdbc.dialect.RowCountType;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.spec.DumpJobSpec;
@@ -47,10 +49,12 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newLinkedHashSet;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
+import static com.nuodb.migrator.jdbc.dialect.RowCountType.EXACT;
 import static com.nuodb.migrator.utils.Priority.LOW;
 import static java.lang.Integer.MAX_VALUE;
 import static java.lang.Integer.parseInt;
 import static java.lang.Long.parseLong;
+import static java.lang.String.format;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 /**
@@ -82,6 +86,7 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
         DumpJobSpec dumpJobSpec = new DumpJobSpec();
         dumpJobSpec.setSourceSpec(parseSourceGroup(optionSet, this));
         dumpJobSpec.setOutputSpec(parseOutputGroup(optionSet, this));
+        dumpJobSpec.setCompression(parseOutputCompressionOption(optionSet, this));
         dumpJobSpec.setMigrationModes(parseMigrationModeGroup(optionSet, this));
         parseDataMigrationGroup(optionSet, dumpJobSpec);
         parseSchemaMigrationGroup(optionSet, dumpJobSpec);
@@ -99,7 +104,15 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
         group.withOption(createQueryGroup());
         group.withOption(createTimeZoneOption());
         group.withOption(createThreadsOption());
+        group.withOption(createThreadsPerTableOption());
         group.withOption(createQueryLimitOption());
+        group.withOption(createQueryLimitRowCountOption());
+        group.withOption(createPipelineSizeOption());
+        group.withOption(createFetchMemoryOption());
+        group.withOption(createMemoryBudgetOption());
+        group.withOption(createLobThresholdOption());
+        group.withOption(createResumeOption());
+        group.withOption(createConsistentSnapshotOption());
         return group.build();
     }
 
@@ -137,6 +150,42 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
                 ).build();
 
         group.withOption(tableFilter);
+
+        Option tableWatermark = newRegexOptionBuilder().
+                withName(TABLE_WATERMARK_OPTION).
+                withDescription(getMessage(TABLE_WATERMARK_OPTION_DESCRIPTION)).
+                withRegex(TABLE_WATERMARK_OPTION, 1, LOW).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(TABLE_WATERMARK_ARGUMENT_NAME)).
+                                withMinimum(1).
+                                withRequired(true).build()
+                ).build();
+        group.withOption(tableWatermark);
+
+        Option tableThreads = newRegexOptionBuilder().
+                withName(TABLE_THREADS_OPTION).
+                withDescription(getMessage(TABLE_THREADS_OPTION_DESCRIPTION)).
+                withRegex(TABLE_THREADS_OPTION, 1, LOW).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(TABLE_THREADS_ARGUMENT_NAME)).
+                                withMinimum(1).
+                                withRequired(true).build()
+                ).build();
+        group.withOption(tableThreads);
+
+        Option tablePriority = newRegexOptionBuilder().
+                withName(TABLE_PRIORITY_OPTION).
+                withDescription(getMessage(TABLE_PRIORITY_OPTION_DESCRIPTION)).
+                withRegex(TABLE_PRIORITY_OPTION, 1, LOW).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(TABLE_PRIORITY_ARGUMENT_NAME)).
+                                withMinimum(1).
+                                withRequired(true).build()
+                ).build();
+        group.withOption(tablePriority);
         return group.build();
     }
 
@@ -151,6 +200,68 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
                 ).build();
     }
 
+    protected Option createThreadsPerTableOption() {
+        return newBasicOptionBuilder().
+                withName(THREADS_PER_TABLE_OPTION).
+                withDescription(getMessage(THREADS_PER_TABLE_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(THREADS_PER_TABLE_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createPipelineSizeOption() {
+        return newBasicOptionBuilder().
+                withName(PIPELINE_SIZE_OPTION).
+                withDescription(getMessage(DUMP_PIPELINE_SIZE_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(PIPELINE_SIZE_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createFetchMemoryOption() {
+        return newBasicOptionBuilder().
+                withName(FETCH_MEMORY_OPTION).
+                withDescription(getMessage(FETCH_MEMORY_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(FETCH_MEMORY_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createMemoryBudgetOption() {
+        return newBasicOptionBuilder().
+                withName(MEMORY_BUDGET_OPTION).
+                withDescription(getMessage(MEMORY_BUDGET_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(MEMORY_BUDGET_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createLobThresholdOption() {
+        return newBasicOptionBuilder().
+                withName(LOB_THRESHOLD_OPTION).
+                withDescription(getMessage(LOB_THRESHOLD_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(LOB_THRESHOLD_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createResumeOption() {
+        return newBasicOptionBuilder().
+                withName(RESUME_OPTION).
+                withDescription(getMessage(DUMP_RESUME_OPTION_DESCRIPTION)).build();
+    }
+
+    protected Option createConsistentSnapshotOption() {
+        return newBasicOptionBuilder().
+                withName(CONSISTENT_SNAPSHOT_OPTION).
+                withDescription(getMessage(CONSISTENT_SNAPSHOT_OPTION_DESCRIPTION)).build();
+    }
+
     protected Option createQueryGroup() {
         GroupBuilder group = newGroupBuilder().withName(getMessage(QUERY_GROUP_NAME)).withMaximum(MAX_VALUE);
 
@@ -183,12 +294,30 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
                 ).build();
     }
 
+    protected Option createQueryLimitRowCountOption() {
+        return newBasicOptionBuilder().
+                withName(QUERY_LIMIT_ROW_COUNT_OPTION).
+                withDescription(getMessage(QUERY_LIMIT_ROW_COUNT_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(QUERY_LIMIT_ROW_COUNT_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
     protected void parseDataMigrationGroup(OptionSet optionSet, DumpJobSpec jobSpec) {
         parseTableGroup(optionSet, jobSpec);
         jobSpec.setQuerySpecs(parseQueryGroup(optionSet));
         jobSpec.setTimeZone(parseTimeZoneOption(optionSet, this));
         jobSpec.setThreads(parseThreadsOption(optionSet, this));
+        jobSpec.setTableThreads(parseThreadsPerTableOption(optionSet, this));
         jobSpec.setQueryLimit(parseQueryLimitOption(optionSet, this));
+        jobSpec.setRowCountType(parseQueryLimitRowCountOption(optionSet, this));
+        jobSpec.setPipelineSize(parsePipelineSizeOption(optionSet, this));
+        jobSpec.setFetchMemory(parseFetchMemoryOption(optionSet, this));
+        jobSpec.setMemoryBudget(parseMemoryBudgetOption(optionSet, this));
+        jobSpec.setLobThreshold(parseLobThresholdOption(optionSet, this));
+        jobSpec.setResume(optionSet.hasOption(RESUME_OPTION));
+        jobSpec.setConsistentSnapshot(optionSet.hasOption(CONSISTENT_SNAPSHOT_OPTION));
     }
 
     protected void parseTableGroup(OptionSet optionSet, DumpJobSpec jobSpec) {
@@ -205,6 +334,33 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
             }
             tableSpec.setFilter(iterator.next());
         }
+        for (Iterator<String> iterator = optionSet.<String>getValues(
+                TABLE_WATERMARK_OPTION).iterator(); iterator.hasNext(); ) {
+            String name = iterator.next();
+            TableSpec tableSpec = tableQueryMapping.get(name);
+            if (tableSpec == null) {
+                tableQueryMapping.put(name, tableSpec = new TableSpec(name));
+            }
+            tableSpec.setWatermark(iterator.next());
+        }
+        for (Iterator<String> iterator = optionSet.<String>getValues(
+                TABLE_THREADS_OPTION).iterator(); iterator.hasNext(); ) {
+            String name = iterator.next();
+            TableSpec tableSpec = tableQueryMapping.get(name);
+            if (tableSpec == null) {
+                tableQueryMapping.put(name, tableSpec = new TableSpec(name));
+            }
+            tableSpec.setThreads(parseInt(iterator.next()));
+        }
+        for (Iterator<String> iterator = optionSet.<String>getValues(
+                TABLE_PRIORITY_OPTION).iterator(); iterator.hasNext(); ) {
+            String name = iterator.next();
+            TableSpec tableSpec = tableQueryMapping.get(name);
+            if (tableSpec == null) {
+                tableQueryMapping.put(name, tableSpec = new TableSpec(name));
+            }
+            tableSpec.setPriority(parseInt(iterator.next()));
+        }
         jobSpec.setTableSpecs(newArrayList(tableQueryMapping.values()));
     }
 
@@ -216,9 +372,29 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
         return querySpecs;
     }
 
-    protected Integer parseThreadsOption(OptionSet optionSet, Option option) {
-        String threadsValue = (String) optionSet.getValue(THREADS_OPTION);
-        return !isEmpty(threadsValue) ? parseInt(threadsValue) : null;
+    protected Integer parsePipelineSizeOption(OptionSet optionSet, Option option) {
+        String pipelineSizeValue = (String) optionSet.getValue(PIPELINE_SIZE_OPTION);
+        return !isEmpty(pipelineSizeValue) ? parseInt(pipelineSizeValue) : null;
+    }
+
+    protected Long parseFetchMemoryOption(OptionSet optionSet, Option option) {
+        String fetchMemoryValue = (String) optionSet.getValue(FETCH_MEMORY_OPTION);
+        return !isEmpty(fetchMemoryValue) ? parseLong(fetchMemoryValue) : null;
+    }
+
+    protected Long parseMemoryBudgetOption(OptionSet optionSet, Option option) {
+        String memoryBudgetValue = (String) optionSet.getValue(MEMORY_BUDGET_OPTION);
+        return !isEmpty(memoryBudgetValue) ? parseLong(memoryBudgetValue) : null;
+    }
+
+    protected Long parseLobThresholdOption(OptionSet optionSet, Option option) {
+        String lobThresholdValue = (String) optionSet.getValue(LOB_THRESHOLD_OPTION);
+        return !isEmpty(lobThresholdValue) ? parseLong(lobThresholdValue) : null;
+    }
+
+    protected Integer parseThreadsPerTableOption(OptionSet optionSet, Option option) {
+        String tableThreadsValue = (String) optionSet.getValue(THREADS_PER_TABLE_OPTION);
+        return !isEmpty(tableThreadsValue) ? parseInt(tableThreadsValue) : null;
     }
 
     protected QueryLimit parseQueryLimitOption(OptionSet optionSet, Option option) {
@@ -226,6 +402,20 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
         return !isEmpty(queryLimitValue) ? new QueryLimit(parseLong(queryLimitValue)) : null;
     }
 
+    protected RowCountType parseQueryLimitRowCountOption(OptionSet optionSet, Option option) {
+        String rowCountValue = (String) optionSet.getValue(QUERY_LIMIT_ROW_COUNT_OPTION);
+        if (isEmpty(rowCountValue)) {
+            return EXACT;
+        }
+        for (RowCountType rowCountType : RowCountType.values()) {
+            if (rowCountType.name().equalsIgnoreCase(rowCountValue)) {
+                return rowCountType;
+            }
+        }
+        throw new OptionException(format("Unexpected value for %s option, valid values are exact or approx",
+                QUERY_LIMIT_ROW_COUNT_OPTION), option);
+    }
+
     @Override
     protected Group createSchemaMigrationGroup() {
         GroupBuilder group = newGroupBuilder().withName(getMessage(SCHEMA_MIGRATION_GROUP_NAME));
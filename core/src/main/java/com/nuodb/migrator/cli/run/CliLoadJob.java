@@ -38,7 +38,12 @@ import com.nuodb.migrator.spec.LoadJobSpec;
 import java.util.Map;
 
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
+import static com.nuodb.migrator.spec.LoadJobSpec.LATEST_INCREMENT;
 import static com.nuodb.migrator.utils.Priority.LOW;
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 /**
  * @author Sergey Bushik
@@ -79,11 +84,107 @@ public class CliLoadJob extends CliJob<LoadJobSpec> {
     protected Option createDataMigrationGroup() {
         GroupBuilder group = newGroupBuilder().withName(getMessage(DATA_MIGRATION_GROUP_NAME));
         group.withOption(createCommitGroup());
+        group.withOption(createBatchSizeOption());
+        group.withOption(createPipelineSizeOption());
+        group.withOption(createInsertRowsOption());
         group.withOption(createInsertTypeGroup());
         group.withOption(createTimeZoneOption());
+        group.withOption(createThreadsOption());
+        group.withOption(createParallelChunksOption());
+        group.withOption(createRejectLimitOption());
+        group.withOption(createResumeOption());
+        group.withOption(createJournalOption());
+        group.withOption(createIncrementOption());
         return group.build();
     }
 
+    protected Option createThreadsOption() {
+        return newBasicOptionBuilder().
+                withName(THREADS_OPTION).
+                withAlias(THREADS_SHORT_OPTION, OptionFormat.SHORT).
+                withDescription(getMessage(LOAD_THREADS_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(THREADS_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createParallelChunksOption() {
+        return newBasicOptionBuilder().
+                withName(PARALLEL_CHUNKS_OPTION).
+                withDescription(getMessage(PARALLEL_CHUNKS_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(PARALLEL_CHUNKS_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createRejectLimitOption() {
+        return newBasicOptionBuilder().
+                withName(REJECT_LIMIT_OPTION).
+                withDescription(getMessage(REJECT_LIMIT_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(REJECT_LIMIT_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createResumeOption() {
+        return newBasicOptionBuilder().
+                withName(RESUME_OPTION).
+                withDescription(getMessage(RESUME_OPTION_DESCRIPTION)).build();
+    }
+
+    protected Option createJournalOption() {
+        return newBasicOptionBuilder().
+                withName(JOURNAL_OPTION).
+                withDescription(getMessage(JOURNAL_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(JOURNAL_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createIncrementOption() {
+        return newBasicOptionBuilder().
+                withName(INCREMENT_OPTION).
+                withDescription(getMessage(INCREMENT_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(INCREMENT_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createBatchSizeOption() {
+        return newBasicOptionBuilder().
+                withName(BATCH_SIZE_OPTION).
+                withDescription(getMessage(BATCH_SIZE_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(BATCH_SIZE_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createPipelineSizeOption() {
+        return newBasicOptionBuilder().
+                withName(PIPELINE_SIZE_OPTION).
+                withDescription(getMessage(PIPELINE_SIZE_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(PIPELINE_SIZE_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
+    protected Option createInsertRowsOption() {
+        return newBasicOptionBuilder().
+                withName(INSERT_ROWS_OPTION).
+                withDescription(getMessage(INSERT_ROWS_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(INSERT_ROWS_ARGUMENT_NAME)).build()
+                ).build();
+    }
+
     protected Option createInsertTypeGroup() {
         GroupBuilder group = newGroupBuilder().withName(getMessage(INSERT_TYPE_GROUP_NAME));
 
@@ -110,10 +211,59 @@ public class CliLoadJob extends CliJob<LoadJobSpec> {
 
     protected void parseDataMigrationGroup(OptionSet optionSet, Option option, LoadJobSpec jobSpec) {
         jobSpec.setCommitStrategy(parseCommitGroup(optionSet, this));
+        jobSpec.setBatchSize(parseBatchSizeOption(optionSet, this));
+        jobSpec.setPipelineSize(parsePipelineSizeOption(optionSet, this));
+        jobSpec.setInsertRows(parseInsertRowsOption(optionSet, this));
         jobSpec.setTimeZone(parseTimeZoneOption(optionSet, this));
+        jobSpec.setThreads(parseThreadsOption(optionSet, this));
+        jobSpec.setParallelChunks(parseParallelChunksOption(optionSet, this));
+        jobSpec.setRejectLimit(parseRejectLimitOption(optionSet, this));
+        jobSpec.setResume(optionSet.hasOption(RESUME_OPTION));
+        jobSpec.setJournal(optionSet.hasOption(JOURNAL_OPTION));
+        jobSpec.setJournalPath(parseJournalOption(optionSet, this));
+        jobSpec.setIncrement(parseIncrementOption(optionSet, this));
         parseInsertTypeGroup(optionSet, jobSpec);
     }
 
+    protected boolean parseParallelChunksOption(OptionSet optionSet, Option option) {
+        Object parallelChunks = optionSet.getValue(PARALLEL_CHUNKS_OPTION);
+        return parallelChunks != null ? parseBoolean(String.valueOf(parallelChunks)) :
+                optionSet.hasOption(PARALLEL_CHUNKS_OPTION);
+    }
+
+    protected String parseJournalOption(OptionSet optionSet, Option option) {
+        String journalValue = (String) optionSet.getValue(JOURNAL_OPTION);
+        return !isEmpty(journalValue) ? journalValue : null;
+    }
+
+    protected Integer parseIncrementOption(OptionSet optionSet, Option option) {
+        String incrementValue = (String) optionSet.getValue(INCREMENT_OPTION);
+        if (!isEmpty(incrementValue)) {
+            return parseInt(incrementValue);
+        }
+        return optionSet.hasOption(INCREMENT_OPTION) ? LATEST_INCREMENT : null;
+    }
+
+    protected Integer parseBatchSizeOption(OptionSet optionSet, Option option) {
+        String batchSizeValue = (String) optionSet.getValue(BATCH_SIZE_OPTION);
+        return !isEmpty(batchSizeValue) ? parseInt(batchSizeValue) : null;
+    }
+
+    protected Integer parsePipelineSizeOption(OptionSet optionSet, Option option) {
+        String pipelineSizeValue = (String) optionSet.getValue(PIPELINE_SIZE_OPTION);
+        return !isEmpty(pipelineSizeValue) ? parseInt(pipelineSizeValue) : null;
+    }
+
+    protected Integer parseInsertRowsOption(OptionSet optionSet, Option option) {
+        String insertRowsValue = (String) optionSet.getValue(INSERT_ROWS_OPTION);
+        return !isEmpty(insertRowsValue) ? parseInt(insertRowsValue) : null;
+    }
+
+    protected Long parseRejectLimitOption(OptionSet optionSet, Option option) {
+        String rejectLimitValue = (String) optionSet.getValue(REJECT_LIMIT_OPTION);
+        return !isEmpty(rejectLimitValue) ? parseLong(rejectLimitValue) : null;
+    }
+
     protected void parseInsertTypeGroup(OptionSet optionSet, LoadJobSpec loadJobSpec) {
         loadJobSpec.setInsertType(optionSet.hasOption(REPLACE_OPTION) ? InsertType.REPLACE : InsertType.INSERT);
         Map<String, InsertType> tableInsertTypes = Maps.newHashMap();
@@ -30,6 +30,7 @@ package com.nuodb.migrator.cli.run;
 import com.google.common.base.Function;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
+import com.nuodb.migrator.backup.BackupException;
 import com.nuodb.migrator.cli.CliSupport;
 import com.nuodb.migrator.cli.parse.Group;
 import com.nuodb.migrator.cli.parse.Option;
@@ -41,9 +42,12 @@ import com.nuodb.migrator.cli.processor.JdbcTypeOptionProcessor;
 import com.nuodb.migrator.cli.processor.NuoDBTypesOptionProcessor;
 import com.nuodb.migrator.cli.validation.ConnectionGroupInfo;
 import com.nuodb.migrator.jdbc.JdbcConstants;
+import com.nuodb.migrator.jdbc.commit.AdaptiveCommitStrategy;
 import com.nuodb.migrator.jdbc.commit.BatchCommitStrategy;
 import com.nuodb.migrator.jdbc.commit.CommitStrategy;
 import com.nuodb.migrator.jdbc.commit.SingleCommitStrategy;
+import com.nuodb.migrator.jdbc.commit.SizeCommitStrategy;
+import com.nuodb.migrator.jdbc.commit.TimeCommitStrategy;
 import com.nuodb.migrator.jdbc.dialect.IdentifierNormalizer;
 import com.nuodb.migrator.jdbc.dialect.IdentifierQuoting;
 import com.nuodb.migrator.jdbc.metadata.MetaDataType;
@@ -68,6 +72,7 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newHashSet;
 import static com.google.common.collect.Sets.newLinkedHashSet;
+import static com.nuodb.migrator.backup.codec.Codecs.newCodec;
 import static com.nuodb.migrator.backup.format.csv.CsvAttributes.FORMAT;
 import static com.nuodb.migrator.cli.validation.ConnectionGroupValidators.addConnectionGroupValidators;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
@@ -116,6 +121,9 @@ public class CliRunSupport extends CliSupport {
 
     public static final String COMMIT_STRATEGY_SINGLE = "single";
     public static final String COMMIT_STRATEGY_BATCH = "batch";
+    public static final String COMMIT_STRATEGY_ADAPTIVE = "adaptive";
+    public static final String COMMIT_STRATEGY_TIME = "time";
+    public static final String COMMIT_STRATEGY_SIZE = "size";
     private JdbcTypeOptionProcessor jdbcTypeOptionProcessor = new JdbcTypeOptionProcessor();
 
     /**
@@ -244,6 +252,15 @@ public class CliRunSupport extends CliSupport {
                 ).build();
         group.withOption(path);
 
+        Option compression = newBasicOptionBuilder().
+                withName(OUTPUT_COMPRESSION_OPTION).
+                withDescription(getMessage(OUTPUT_COMPRESSION_OPTION_DESCRIPTION)).
+                withArgument(
+                        newArgumentBuilder().
+                                withName(getMessage(OUTPUT_COMPRESSION_ARGUMENT_NAME)).build()
+                ).build();
+        group.withOption(compression);
+
         OptionFormat optionFormat = new OptionFormat(getOptionFormat());
         optionFormat.setValuesSeparator(null);
 
@@ -318,6 +335,9 @@ public class CliRunSupport extends CliSupport {
         Map<String, CommitStrategy> commitStrategyMapping = new TreeMap<String, CommitStrategy>(CASE_INSENSITIVE_ORDER);
         commitStrategyMapping.put(COMMIT_STRATEGY_SINGLE, SingleCommitStrategy.INSTANCE);
         commitStrategyMapping.put(COMMIT_STRATEGY_BATCH, new BatchCommitStrategy());
+        commitStrategyMapping.put(COMMIT_STRATEGY_ADAPTIVE, new AdaptiveCommitStrategy());
+        commitStrategyMapping.put(COMMIT_STRATEGY_TIME, new TimeCommitStrategy());
+        commitStrategyMapping.put(COMMIT_STRATEGY_SIZE, new SizeCommitStrategy());
         return commitStrategyMapping;
     }
 
@@ -625,6 +645,18 @@ public class CliRunSupport extends CliSupport {
         return resource;
     }
 
+    protected String parseOutputCompressionOption(OptionSet optionSet, Option option) {
+        String compression = (String) optionSet.getValue(OUTPUT_COMPRESSION_OPTION);
+        if (isEmpty(compression)) {
+            return null;
+        }
+        try {
+            return newCodec(compression).getName();
+        } catch (BackupException exception) {
+            throw new OptionException(exception.getMessage(), option);
+        }
+    }
+
     protected Collection<MigrationMode> parseMigrationModeGroup(OptionSet optionSet, Option option) {
         return parseMigrationModeGroup(optionSet, option, newHashSet(MigrationMode.values()));
     }
@@ -670,6 +702,11 @@ public class CliRunSupport extends CliSupport {
         }
     }
 
+    protected Integer parseThreadsOption(OptionSet optionSet, Option option) {
+        String threadsValue = (String) optionSet.getValue(THREADS_OPTION);
+        return !isEmpty(threadsValue) ? parseInt(threadsValue) : null;
+    }
+
     protected CommitStrategy parseCommitGroup(OptionSet optionSet, Option option) {
         Map<String, CommitStrategy> commitStrategyMapping = createCommitStrategyMapping();
         String commitStrategyValue = (String) optionSet.getValue(COMMIT_STRATEGY_OPTION, COMMIT_STRATEGY_BATCH);
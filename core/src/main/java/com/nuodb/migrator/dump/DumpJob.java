@@ -29,27 +29,45 @@ package com.nuodb.migrator.dump;
 
 import com.nuodb.migrator.backup.Backup;
 import com.nuodb.migrator.backup.BackupManager;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.QueryRowSet;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.TableRowSet;
 import com.nuodb.migrator.backup.XmlBackupManager;
+import com.nuodb.migrator.backup.format.sql.SqlAttributes;
 import com.nuodb.migrator.jdbc.metadata.Column;
 import com.nuodb.migrator.jdbc.metadata.Database;
 import com.nuodb.migrator.jdbc.metadata.MetaDataType;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.metadata.inspector.InspectionScope;
 import com.nuodb.migrator.jdbc.metadata.inspector.TableInspectionScope;
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.RowCountType;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.jdbc.session.SnapshotSessionFactory;
 import com.nuodb.migrator.job.HasServicesJobBase;
 import com.nuodb.migrator.spec.*;
 import com.nuodb.migrator.spec.MetaDataSpec;
+import com.nuodb.migrator.utils.MemoryBudget;
+import org.apache.commons.lang3.StringUtils;
 
+import java.io.File;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
 
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Predicates.instanceOf;
+import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.nuodb.migrator.backup.BackupManager.LOBS;
 import static com.nuodb.migrator.backup.XmlMetaDataHandlerBase.META_DATA_SPEC;
 import static com.nuodb.migrator.dump.DumpWriter.THREADS;
 import static com.nuodb.migrator.jdbc.JdbcUtils.close;
@@ -61,8 +79,13 @@ import static com.nuodb.migrator.spec.MigrationMode.DATA;
 import static com.nuodb.migrator.spec.MigrationMode.SCHEMA;
 import static com.nuodb.migrator.utils.Collections.contains;
 import static com.nuodb.migrator.utils.Collections.isEmpty;
+import static java.lang.Runtime.getRuntime;
 import static java.lang.String.format;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.regex.Pattern.compile;
+import static java.util.regex.Pattern.quote;
 import static java.sql.Connection.*;
+import static org.apache.commons.io.FilenameUtils.getBaseName;
 import static org.apache.commons.lang3.ArrayUtils.indexOf;
 
 /**
@@ -71,9 +94,20 @@ import static org.apache.commons.lang3.ArrayUtils.indexOf;
 @SuppressWarnings({"unchecked", "ToArrayCallWithZeroLengthArrayArgument"})
 public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
 
+    public static final String JOURNAL_EXTENSION = ".dump.journal";
+
+    /**
+     * Default size in bytes (characters for character large objects) above which large objects are written to separate
+     * files
+     */
+    public static final long LOB_THRESHOLD = 1024 * 1024;
+
     private BackupManager backupManager;
     private DumpWriter dumpWriter;
     private Session sourceSession;
+    private ExecutorService codecExecutor;
+    private DumpJournal dumpJournal;
+    private SnapshotSessionFactory snapshotSessionFactory;
 
     public DumpJob() {
     }
@@ -91,14 +125,34 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         setSourceSession(session);
 
         setBackupManager(createBackupManager());
+        if (getCompression() != null) {
+            codecExecutor = createCodecExecutor();
+            getBackupManager().setCodecExecutor(codecExecutor);
+        }
 
         Collection<MigrationMode> migrationModes = getMigrationModes();
         DumpWriter dumpWriter = null;
         if (contains(migrationModes, DATA)) {
             dumpWriter = new DumpWriter();
             dumpWriter.setQueryLimit(getQueryLimit());
+            dumpWriter.setRowCountType(getRowCountType());
             dumpWriter.setThreads(getThreads() != null ? getThreads() : THREADS);
+            dumpWriter.setTableThreads(getTableThreads());
             dumpWriter.setTimeZone(getTimeZone());
+            dumpWriter.setCompression(getCompression());
+            if (getPipelineSize() != null) {
+                dumpWriter.setPipelineSize(getPipelineSize());
+            }
+            if (getFetchMemory() != null) {
+                dumpWriter.setFetchMemory(getFetchMemory());
+            }
+            if (getMemoryBudget() != null) {
+                dumpWriter.setMemoryBudget(new MemoryBudget(getMemoryBudget()));
+            }
+            dumpWriter.setLobThreshold(getLobThreshold());
+            dumpJournal = createDumpJournal();
+            dumpJournal.open(isResume());
+            dumpWriter.setDumpJournal(dumpJournal);
 
             dumpWriter.setBackupManager(getBackupManager());
             dumpWriter.setFormat(getFormat());
@@ -116,6 +170,20 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         return new XmlBackupManager(getPath());
     }
 
+    protected DumpJournal createDumpJournal() {
+        BackupManager backupManager = getBackupManager();
+        return new DumpJournal(new File(backupManager.getDir(),
+                getBaseName(backupManager.getBackup()) + JOURNAL_EXTENSION));
+    }
+
+    /**
+     * Creates executor compressing blocks of chunks concurrently, so that compression scales with the number of
+     * processors rather than with the number of dump threads.
+     */
+    protected ExecutorService createCodecExecutor() {
+        return newFixedThreadPool(getRuntime().availableProcessors());
+    }
+
     protected SessionFactory createSessionFactory() {
         SessionFactory sessionFactory = newSessionFactory(
                 createConnectionProviderFactory().
@@ -132,11 +200,15 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
     @Override
     public void execute() throws Exception {
         Database database = inspect();
-        Backup backup = new Backup(getOutputSpec().getType());
+        Backup backup = createBackup();
+        Collection<RowSet> replacedRowSets = newArrayList();
         Collection<MigrationMode> migrationModes = getMigrationModes();
         if (contains(migrationModes, DATA)) {
             DumpWriter dumpWriter = getDumpWriter();
             dumpWriter.setDatabase(database);
+            if (isConsistentSnapshot()) {
+                openSnapshot(dumpWriter);
+            }
             Collection<TableSpec> tableSpecs = getTableSpecs();
             if (isEmpty(tableSpecs)) {
                 String[] tableTypes = getTableTypes();
@@ -163,13 +235,32 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
                         }
                     }
                     String filter = tableSpec.getFilter();
-                    dumpWriter.addTable(table, columns, filter);
+                    TableRowSet rowSet = getRowSet(backup, table);
+                    String watermark = tableSpec.getWatermark();
+                    // row set is replaced unless it's appended with rows beyond its high watermark
+                    if (rowSet != null && (watermark == null || rowSet.getHighWatermark() == null)) {
+                        backup.getRowSets().remove(rowSet);
+                        replacedRowSets.add(rowSet);
+                        rowSet = null;
+                    }
+                    if (watermark != null) {
+                        dumpWriter.addTable(table, columns, filter, table.getColumn(watermark), rowSet);
+                    } else {
+                        dumpWriter.addTable(table, columns, filter);
+                    }
+                    if (tableSpec.getThreads() != null || tableSpec.getPriority() != null) {
+                        dumpWriter.setTableSchedule(table, tableSpec.getThreads(), tableSpec.getPriority());
+                    }
                 }
             }
+            Collection<RowSet> queryRowSets = newArrayList(filter(backup.getRowSets(), instanceOf(QueryRowSet.class)));
+            backup.getRowSets().removeAll(queryRowSets);
+            replacedRowSets.addAll(queryRowSets);
             for (QuerySpec querySpec : getQuerySpecs()) {
                 dumpWriter.addQuery(querySpec.getQuery());
             }
             dumpWriter.write(backup);
+            markReplaced(backup, replacedRowSets);
         }
         if (contains(migrationModes, SCHEMA)) {
             backup.setDatabase(database);
@@ -177,11 +268,161 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         Map context = newHashMap();
         context.put(META_DATA_SPEC, getMetaDataSpec());
         getBackupManager().writeBackup(backup, context);
+        deleteChunks(backup, replacedRowSets);
+        if (dumpJournal != null) {
+            dumpJournal.delete();
+        }
+    }
+
+    /**
+     * Marks row sets written in place of the row sets of the previous runs as replaced, so that loading of the
+     * increment doesn't load their rows again. Row sets are matched by names, which are derived from the tables and
+     * queries.
+     *
+     * @param backup          written backup.
+     * @param replacedRowSets row sets of the previous runs removed from the backup.
+     */
+    protected void markReplaced(Backup backup, Collection<RowSet> replacedRowSets) {
+        Collection<String> names = newHashSet();
+        for (RowSet rowSet : replacedRowSets) {
+            names.add(rowSet.getName());
+        }
+        for (RowSet rowSet : backup.getRowSets()) {
+            if (names.contains(rowSet.getName())) {
+                rowSet.setReplaced(true);
+            }
+        }
+    }
+
+    /**
+     * Deletes chunk files of the replaced row sets together with the large objects written next to them, once the
+     * catalog referencing the new chunks is written. Files still referenced by the backup are kept.
+     *
+     * @param backup          written backup.
+     * @param replacedRowSets row sets of the previous runs removed from the backup.
+     */
+    protected void deleteChunks(Backup backup, Collection<RowSet> replacedRowSets) {
+        Collection<String> names = newHashSet();
+        for (RowSet rowSet : backup.getRowSets()) {
+            for (Chunk chunk : rowSet.getChunks()) {
+                names.add(chunk.getName());
+            }
+        }
+        File dir = new File(getBackupManager().getDir());
+        File[] lobs = new File(dir, LOBS).listFiles();
+        for (RowSet rowSet : replacedRowSets) {
+            for (Chunk chunk : rowSet.getChunks()) {
+                if (names.contains(chunk.getName())) {
+                    continue;
+                }
+                deleteFile(new File(dir, chunk.getName()));
+                Pattern lob = compile(quote(chunk.getName()) + "\\.\\d+\\.\\d+\\." + quote(DumpQueryWork.LOB));
+                for (int i = 0; lobs != null && i < lobs.length; i++) {
+                    if (lob.matcher(lobs[i].getName()).matches()) {
+                        deleteFile(lobs[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    protected void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("File %s of the replaced row set can't be deleted", file.getPath()));
+            }
+        } else if (logger.isTraceEnabled()) {
+            logger.trace(format("Deleted file %s of the replaced row set", file.getPath()));
+        }
+    }
+
+    /**
+     * Creates backup to write row sets to. If any of the tables is dumped with a watermark column and the catalog
+     * exists, the backup is read from the catalog and its increment is advanced, so that row sets of the previous runs
+     * are appended with chunks of the new rows.
+     *
+     * @return backup to write.
+     */
+    protected Backup createBackup() {
+        BackupManager backupManager = getBackupManager();
+        if (!isIncremental() || !new File(backupManager.getDir(), backupManager.getBackup()).exists()) {
+            return new Backup(getFormat());
+        }
+        Backup backup = backupManager.readBackup();
+        if (!StringUtils.equals(backup.getFormat(), getFormat())) {
+            throw new DumpException(format("Incremental dump format %s differs from %s format of the backup",
+                    getFormat(), backup.getFormat()));
+        }
+        backup.setIncrement(backup.getIncrement() + 1);
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Appending backup with increment %d", backup.getIncrement()));
+        }
+        return backup;
+    }
+
+    protected boolean isIncremental() {
+        Collection<TableSpec> tableSpecs = getTableSpecs();
+        if (contains(getMigrationModes(), DATA) && tableSpecs != null) {
+            for (TableSpec tableSpec : tableSpecs) {
+                if (tableSpec.getWatermark() != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    protected TableRowSet getRowSet(Backup backup, Table table) {
+        for (RowSet rowSet : backup.getRowSets()) {
+            if (rowSet instanceof TableRowSet) {
+                TableRowSet tableRowSet = (TableRowSet) rowSet;
+                if (equal(tableRowSet.getCatalog(), table.getCatalog().getName()) &&
+                        equal(tableRowSet.getSchema(), table.getSchema().getName()) &&
+                        equal(tableRowSet.getTable(), table.getName())) {
+                    return tableRowSet;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Exports snapshot from the source session and joins sessions of the planning and the worker threads to it, so
+     * that high watermarks, row counts and all the query splits are selected as of the same point in time. The source
+     * session keeps the snapshot until the job is released.
+     *
+     * @param dumpWriter to open snapshot sessions for.
+     * @throws SQLException if the snapshot can't be exported or joined.
+     */
+    protected void openSnapshot(DumpWriter dumpWriter) throws SQLException {
+        Session session = getSourceSession();
+        Dialect dialect = session.getDialect();
+        if (!dialect.supportsSnapshot()) {
+            throw new DumpException(format("Consistent snapshot is not supported by %s",
+                    dialect.getClass().getName()));
+        }
+        snapshotSessionFactory = new SnapshotSessionFactory(dumpWriter.getSessionFactory(),
+                dialect.createSnapshot(session.getConnection()));
+        snapshotSessionFactory.join(dumpWriter.getThreads() + dumpWriter.getPlanThreads());
+        dumpWriter.setSessionFactory(snapshotSessionFactory);
     }
 
     @Override
     public void release() throws Exception {
-        close(sourceSession);
+        try {
+            if (snapshotSessionFactory != null) {
+                snapshotSessionFactory.close();
+                snapshotSessionFactory.getSnapshot().close();
+            }
+        } finally {
+            close(sourceSession);
+            if (dumpJournal != null) {
+                dumpJournal.close();
+            }
+            if (codecExecutor != null) {
+                codecExecutor.shutdownNow();
+            }
+        }
     }
 
     protected Database inspect() throws SQLException {
@@ -231,10 +472,53 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         return getJobSpec().getMigrationModes();
     }
 
+    protected String getCompression() {
+        return getJobSpec().getCompression();
+    }
+
     protected Integer getThreads() {
         return getJobSpec().getThreads();
     }
 
+    protected Integer getPipelineSize() {
+        return getJobSpec().getPipelineSize();
+    }
+
+    protected Long getFetchMemory() {
+        return getJobSpec().getFetchMemory();
+    }
+
+    protected Long getMemoryBudget() {
+        return getJobSpec().getMemoryBudget();
+    }
+
+    /**
+     * Large objects are written to separate files above the default threshold unless the threshold is specified, as
+     * input formats decode inline values to memory on load, while the files are streamed to the target database. The
+     * sql format has no reference encoding and writes all the values inline.
+     *
+     * @return size above which large objects are written to separate files or null to write them inline.
+     */
+    protected Long getLobThreshold() {
+        Long lobThreshold = getJobSpec().getLobThreshold();
+        if (lobThreshold == null && !SqlAttributes.FORMAT.equals(getFormat())) {
+            lobThreshold = LOB_THRESHOLD;
+        }
+        return lobThreshold;
+    }
+
+    protected boolean isResume() {
+        return getJobSpec().isResume();
+    }
+
+    protected boolean isConsistentSnapshot() {
+        return getJobSpec().isConsistentSnapshot();
+    }
+
+    protected Integer getTableThreads() {
+        return getJobSpec().getTableThreads();
+    }
+
     protected ResourceSpec getOutputSpec() {
         return getJobSpec().getOutputSpec();
     }
@@ -270,4 +554,8 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
     public QueryLimit getQueryLimit() {
         return getJobSpec().getQueryLimit();
     }
+
+    public RowCountType getRowCountType() {
+        return getJobSpec().getRowCountType();
+    }
 }
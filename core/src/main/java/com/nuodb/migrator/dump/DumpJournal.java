@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.dump;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.split.QuerySplit;
+import org.slf4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static org.apache.commons.codec.digest.DigestUtils.md5Hex;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Journal of query splits dumped to chunks, kept in a file next to the backup catalog, which is written only once the
+ * dump completes. Columns of a row set are appended to the journal when its first split is dumped, every dumped split
+ * is appended as a line with the split signature followed by names and row counts of its chunks, preceded by a line
+ * listing large object files written by the split if there are any. Lines are terminated
+ * with done marker, so that a line torn by a crash is ignored. The journal is read back when the dump is resumed, so
+ * that splits of the same plan are skipped.
+ */
+public class DumpJournal {
+
+    public static final String DONE = "done";
+    private static final String COLUMNS = "columns";
+    private static final String SPLIT = "split";
+    private static final String LOBS = "lobs";
+    private static final String SEPARATOR = "\t";
+    private static final String UTF_8 = "UTF-8";
+
+    private final transient Logger logger = getLogger(getClass());
+
+    private final File file;
+    private final Map<String, Collection<Column>> columns = newHashMap();
+    private final Map<String, Collection<Chunk>> splits = newHashMap();
+    private final Map<String, Collection<String>> lobs = newHashMap();
+    private final Set<String> journaled = newHashSet();
+    private Writer writer;
+
+    public DumpJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Signature of the query split, which tells whether the split of the resumed dump is the same as the dumped one.
+     *
+     * @param querySplit        query split.
+     * @param hasNextQuerySplit whether the split is followed by other splits, which changes names of the chunks.
+     * @param compression       compression of the chunks.
+     * @param increment         increment of the backup.
+     * @return signature of the split.
+     */
+    public static String getSignature(QuerySplit querySplit, boolean hasNextQuerySplit, String compression,
+                                      int increment) {
+        StringBuilder signature = new StringBuilder();
+        signature.append(querySplit.getSplitIndex());
+        signature.append(SEPARATOR).append(querySplit.getQuery());
+        QueryLimit queryLimit = querySplit.getQueryLimit();
+        if (queryLimit != null) {
+            signature.append(SEPARATOR).append(queryLimit.getOffset());
+            signature.append(SEPARATOR).append(queryLimit.getCount());
+        }
+        signature.append(SEPARATOR).append(hasNextQuerySplit);
+        signature.append(SEPARATOR).append(compression);
+        signature.append(SEPARATOR).append(increment);
+        return md5Hex(signature.toString());
+    }
+
+    /**
+     * Opens the journal for writing, reading splits recorded by the previous dump if it's resumed.
+     *
+     * @param resume true to keep and read existing journal, false to start it over.
+     */
+    public synchronized void open(boolean resume) {
+        try {
+            if (resume && file.exists()) {
+                read();
+            }
+            writer = new OutputStreamWriter(new FileOutputStream(file, resume), UTF_8);
+        } catch (IOException exception) {
+            throw new DumpException(format("Can't open dump journal %s", file), exception);
+        }
+    }
+
+    protected void read() throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] entry = line.split(SEPARATOR, -1);
+                if (entry.length < 3 || !DONE.equals(entry[entry.length - 1])) {
+                    continue;
+                }
+                if (COLUMNS.equals(entry[0]) && entry.length % 2 == 1) {
+                    Collection<Column> columns = newArrayList();
+                    for (int index = 2; index < entry.length - 1; index += 2) {
+                        columns.add(new Column(entry[index], isEmpty(entry[index + 1]) ? null : entry[index + 1]));
+                    }
+                    this.columns.put(entry[1], columns);
+                } else if (SPLIT.equals(entry[0]) && entry.length % 2 == 0) {
+                    Collection<Chunk> chunks = newArrayList();
+                    for (int index = 3; index < entry.length - 1; index += 2) {
+                        Chunk chunk = new Chunk();
+                        chunk.setName(entry[index]);
+                        chunk.setRowCount(parseLong(entry[index + 1]));
+                        chunks.add(chunk);
+                    }
+                    splits.put(getSplit(entry[1], entry[2]), chunks);
+                } else if (LOBS.equals(entry[0])) {
+                    lobs.put(getSplit(entry[1], entry[2]), newArrayList(asList(entry).subList(3, entry.length - 1)));
+                }
+            }
+        } finally {
+            closeQuietly(reader);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Dump journal %s lists %d dumped split(s) of %d row set(s)",
+                    file, splits.size(), columns.size()));
+        }
+    }
+
+    /**
+     * Returns columns of the row set recorded by the previous dump.
+     *
+     * @param rowSet row set name.
+     * @return columns of the row set or null if the row set wasn't dumped.
+     */
+    public synchronized Collection<Column> getColumns(String rowSet) {
+        return columns.get(rowSet);
+    }
+
+    /**
+     * Returns chunks of the split recorded by the previous dump, which are copied, so that they can be added to the
+     * row set.
+     *
+     * @param rowSet    row set name.
+     * @param signature signature of the split.
+     * @return chunks of the split or null if the split wasn't dumped.
+     */
+    public synchronized Collection<Chunk> getChunks(String rowSet, String signature) {
+        Collection<Chunk> chunks = splits.get(getSplit(rowSet, signature));
+        if (chunks == null) {
+            return null;
+        }
+        Collection<Chunk> copy = newArrayList();
+        for (Chunk chunk : chunks) {
+            Chunk chunkCopy = new Chunk();
+            chunkCopy.setName(chunk.getName());
+            chunkCopy.setRowCount(chunk.getRowCount());
+            copy.add(chunkCopy);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns names of the large object files written by the split recorded by the previous dump.
+     *
+     * @param rowSet    row set name.
+     * @param signature signature of the split.
+     * @return large object files of the split, which is empty if the split has written none.
+     */
+    public synchronized Collection<String> getLobs(String rowSet, String signature) {
+        Collection<String> lobs = this.lobs.get(getSplit(rowSet, signature));
+        return lobs != null ? newArrayList(lobs) : Collections.<String>emptyList();
+    }
+
+    /**
+     * Appends the dumped split and columns of its row set, unless they are journaled already, to the journal.
+     *
+     * @param rowSet    row set the split was dumped to.
+     * @param signature signature of the split.
+     * @param chunks    chunks of the split.
+     * @param lobs      large object files written by the split.
+     */
+    public synchronized void dumped(RowSet rowSet, String signature, Collection<Chunk> chunks,
+                                    Collection<String> lobs) {
+        try {
+            String name = rowSet.getName();
+            if (journaled.add(name)) {
+                writer.write(COLUMNS);
+                writer.write(SEPARATOR);
+                writer.write(name);
+                for (Column column : rowSet.getColumns()) {
+                    writer.write(SEPARATOR);
+                    writer.write(column.getName());
+                    writer.write(SEPARATOR);
+                    writer.write(column.getValueType() != null ? column.getValueType() : "");
+                }
+                writer.write(SEPARATOR);
+                writer.write(DONE);
+                writer.write('\n');
+            }
+            if (!lobs.isEmpty()) {
+                writer.write(LOBS);
+                writer.write(SEPARATOR);
+                writer.write(name);
+                writer.write(SEPARATOR);
+                writer.write(signature);
+                for (String lob : lobs) {
+                    writer.write(SEPARATOR);
+                    writer.write(lob);
+                }
+                writer.write(SEPARATOR);
+                writer.write(DONE);
+                writer.write('\n');
+            }
+            writer.write(SPLIT);
+            writer.write(SEPARATOR);
+            writer.write(name);
+            writer.write(SEPARATOR);
+            writer.write(signature);
+            for (Chunk chunk : chunks) {
+                writer.write(SEPARATOR);
+                writer.write(chunk.getName());
+                writer.write(SEPARATOR);
+                writer.write(String.valueOf(chunk.getRowCount()));
+            }
+            writer.write(SEPARATOR);
+            writer.write(DONE);
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException exception) {
+            throw new DumpException(format("Can't write dump journal %s", file), exception);
+        }
+    }
+
+    protected String getSplit(String rowSet, String signature) {
+        return rowSet + SEPARATOR + signature;
+    }
+
+    public synchronized void close() {
+        closeQuietly(writer);
+    }
+
+    /**
+     * Closes and deletes the journal once the backup catalog is written.
+     */
+    public synchronized void delete() {
+        close();
+        if (file.exists() && !file.delete()) {
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("Can't delete dump journal %s", file));
+            }
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
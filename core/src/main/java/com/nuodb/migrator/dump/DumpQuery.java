@@ -43,6 +43,8 @@ public class DumpQuery {
     private QuerySplitter querySplitter;
     private Collection<? extends Field> columns;
     private RowSet rowSet;
+    private Integer threads;
+    private int priority;
 
     public DumpQuery(QuerySplitter querySplitter, RowSet rowSet) {
         this.querySplitter = querySplitter;
@@ -66,4 +68,25 @@ public class DumpQuery {
     public RowSet getRowSet() {
         return rowSet;
     }
+
+    /**
+     * Maximum number of threads dumping splits of this query at the same time.
+     *
+     * @return number of threads or null if the number of threads per table of the scheduler applies.
+     */
+    public Integer getThreads() {
+        return threads;
+    }
+
+    public void setThreads(Integer threads) {
+        this.threads = threads;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
 }
@@ -34,10 +34,12 @@ import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
 import com.nuodb.migrator.jdbc.metadata.Database;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.utils.MemoryBudget;
 
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import static java.lang.Runtime.getRuntime;
 
@@ -50,6 +52,21 @@ public interface DumpQueryContext {
 
     final int THREADS = getRuntime().availableProcessors();
 
+    /**
+     * Default number of rows fetched ahead of the thread encoding them to chunks
+     */
+    final int PIPELINE_SIZE = 1024;
+
+    /**
+     * Default memory in bytes for the rows fetched by a single round trip of every work
+     */
+    final long FETCH_MEMORY = 4 * 1024 * 1024;
+
+    /**
+     * Default number of bytes of the fetched rows held in memory by all the works until the rows are written
+     */
+    final long MEMORY_BUDGET = getRuntime().maxMemory() / 2;
+
     int getThreads();
 
     void setThreads(int threads);
@@ -62,6 +79,15 @@ public interface DumpQueryContext {
 
     void setExecutor(Executor executor);
 
+    /**
+     * Executor running fetch stages of the pipelined works, every work runs at most one fetch stage at a time.
+     *
+     * @return executor of the fetch stages.
+     */
+    ExecutorService getFetchExecutor();
+
+    void setFetchExecutor(ExecutorService fetchExecutor);
+
     TimeZone getTimeZone();
 
     void setTimeZone(TimeZone timeZone);
@@ -93,4 +119,28 @@ public interface DumpQueryContext {
     ValueFormatRegistry getValueFormatRegistry();
 
     void setValueFormatRegistry(ValueFormatRegistry valueFormatRegistry);
+
+    String getCompression();
+
+    void setCompression(String compression);
+
+    Integer getPipelineSize();
+
+    void setPipelineSize(Integer pipelineSize);
+
+    Long getFetchMemory();
+
+    void setFetchMemory(Long fetchMemory);
+
+    MemoryBudget getMemoryBudget();
+
+    void setMemoryBudget(MemoryBudget memoryBudget);
+
+    Long getLobThreshold();
+
+    void setLobThreshold(Long lobThreshold);
+
+    DumpJournal getDumpJournal();
+
+    void setDumpJournal(DumpJournal dumpJournal);
 }
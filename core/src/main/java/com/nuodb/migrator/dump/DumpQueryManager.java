@@ -31,6 +31,8 @@ import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.jdbc.session.Work;
 import com.nuodb.migrator.jdbc.session.WorkManager;
 
+import java.util.Collection;
+
 /**
  * @author Sergey Bushik
  */
@@ -47,4 +49,13 @@ public interface DumpQueryManager extends WorkManager {
     void writeEnd(DumpQuery dumpQuery, Work work, Chunk chunk);
 
     void writeEnd(DumpQuery dumpQuery, Work work);
+
+    /**
+     * Adds chunks of the split dumped by the interrupted dump, which is skipped by the resumed dump.
+     *
+     * @param dumpQuery  dump query the split belongs to.
+     * @param splitIndex index of the split.
+     * @param chunks     chunks of the split.
+     */
+    void resumed(DumpQuery dumpQuery, int splitIndex, Collection<Chunk> chunks);
 }
@@ -0,0 +1,412 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.dump;
+
+import com.nuodb.migrator.MigratorException;
+import com.nuodb.migrator.jdbc.split.QuerySplit;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+
+/**
+ * Schedules splits of dump queries on a fixed number of threads in the longest-processing-time-first order, the next
+ * split is taken from the dump query of the highest priority and then of the highest estimated cost among the queries
+ * having less than {@link #getTableThreads()} splits running. The limit is exceeded only if all queries with planned
+ * splits are at the limit, so that the threads are not left idle while the last large table is dumped. The number of
+ * threads set for a dump query with {@link DumpQuery#setThreads(Integer)} is never exceeded.
+ * <p/>
+ * The caller blocks in {@link #acquire()} until a thread is free and a split is planned, so no more splits are handed
+ * to the executor than there are threads. Time splits spent queued before a thread took them and time the caller was
+ * blocked are recorded and exposed as metrics.
+ * <p/>
+ * Splits are planned concurrently with their execution, planners add dump queries with {@link #addDumpQuery(DumpQuery)}
+ * up front, estimate their costs and add their splits as soon as each split is planned. Dump query is planned once
+ * {@link #planned(DumpQuery)} is called for it.
+ */
+public class DumpQueryScheduler {
+
+    /**
+     * Cost of a dump query which was not estimated, such queries are scheduled first
+     */
+    public static final double UNKNOWN_COST = Double.MAX_VALUE;
+
+    private final int threads;
+    private final int tableThreads;
+    private final List<ScheduledQuery> scheduledQueries = newArrayList();
+    private final Map<DumpQuery, ScheduledQuery> scheduledQueryMap = newHashMap();
+    private int planning;
+    private int running;
+    private Throwable failure;
+    private long queueWaits;
+    private long queueWaitTime;
+    private long maxQueueWaitTime;
+    private long threadWaits;
+    private long threadWaitTime;
+    private long planWaits;
+    private long planWaitTime;
+
+    public DumpQueryScheduler(int threads, int tableThreads) {
+        this.threads = max(threads, 1);
+        this.tableThreads = max(tableThreads, 1);
+    }
+
+    /**
+     * Adds dump query to be planned, its cost is unknown until {@link #setCost(DumpQuery, double)} is called.
+     *
+     * @param dumpQuery dump query to schedule splits of.
+     */
+    public synchronized void addDumpQuery(DumpQuery dumpQuery) {
+        ScheduledQuery scheduledQuery = new ScheduledQuery(dumpQuery);
+        scheduledQueryMap.put(dumpQuery, scheduledQuery);
+        schedule(scheduledQuery);
+        planning++;
+    }
+
+    /**
+     * Sets estimated cost of a dump query keeping queries ordered by descending priority and cost, queries of the same
+     * priority and cost are kept in the order of addition.
+     *
+     * @param dumpQuery dump query to set cost of.
+     * @param cost      estimated cost of the query.
+     */
+    public synchronized void setCost(DumpQuery dumpQuery, double cost) {
+        ScheduledQuery scheduledQuery = getScheduledQuery(dumpQuery);
+        scheduledQueries.remove(scheduledQuery);
+        scheduledQuery.setCost(cost);
+        schedule(scheduledQuery);
+    }
+
+    protected void schedule(ScheduledQuery scheduledQuery) {
+        int priority = scheduledQuery.getDumpQuery().getPriority();
+        double cost = scheduledQuery.getCost();
+        int index = 0;
+        while (index < scheduledQueries.size()) {
+            ScheduledQuery next = scheduledQueries.get(index);
+            int nextPriority = next.getDumpQuery().getPriority();
+            if (nextPriority < priority || (nextPriority == priority && next.getCost() < cost)) {
+                break;
+            }
+            index++;
+        }
+        scheduledQueries.add(index, scheduledQuery);
+    }
+
+    public synchronized void addQuerySplit(DumpQuery dumpQuery, QuerySplit querySplit, boolean hasNextQuerySplit) {
+        getScheduledQuery(dumpQuery).getScheduledSplits().add(
+                new ScheduledSplit(dumpQuery, querySplit, hasNextQuerySplit));
+        notifyAll();
+    }
+
+    /**
+     * Marks dump query planned, no more splits will be added for it.
+     *
+     * @param dumpQuery planned dump query.
+     */
+    public synchronized void planned(DumpQuery dumpQuery) {
+        ScheduledQuery scheduledQuery = getScheduledQuery(dumpQuery);
+        if (!scheduledQuery.isPlanned()) {
+            scheduledQuery.setPlanned(true);
+            planning--;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Fails planning, the failure is thrown from {@link #acquire()}.
+     *
+     * @param failure planning failure.
+     */
+    public synchronized void failure(Throwable failure) {
+        if (this.failure == null) {
+            this.failure = failure;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Waits for a free thread and for a planned split, the caller is expected to call {@link #release(DumpQuery)}
+     * once the split is processed.
+     *
+     * @return the next split to execute or null if all dump queries are planned and their splits are taken.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public synchronized ScheduledSplit acquire() throws InterruptedException {
+        while (true) {
+            if (failure != null) {
+                throw failure instanceof MigratorException ? (MigratorException) failure : new DumpException(failure);
+            }
+            if (running < threads) {
+                ScheduledSplit scheduledSplit = acquire(true);
+                if (scheduledSplit == null) {
+                    scheduledSplit = acquire(false);
+                }
+                if (scheduledSplit != null) {
+                    ScheduledQuery scheduledQuery = getScheduledQuery(scheduledSplit.getDumpQuery());
+                    scheduledQuery.setRunning(scheduledQuery.getRunning() + 1);
+                    running++;
+                    long queueWait = nanoTime() - scheduledSplit.getQueued();
+                    scheduledQuery.setQueueWaitTime(scheduledQuery.getQueueWaitTime() + queueWait);
+                    queueWaits++;
+                    queueWaitTime += queueWait;
+                    maxQueueWaitTime = max(maxQueueWaitTime, queueWait);
+                    return scheduledSplit;
+                }
+                if (planning == 0 && !hasScheduledSplits()) {
+                    return null;
+                }
+            }
+            boolean threadWait = running >= threads;
+            long start = nanoTime();
+            wait();
+            if (threadWait) {
+                threadWaits++;
+                threadWaitTime += nanoTime() - start;
+            } else {
+                planWaits++;
+                planWaitTime += nanoTime() - start;
+            }
+        }
+    }
+
+    protected ScheduledSplit acquire(boolean limitThreads) {
+        for (Iterator<ScheduledQuery> iterator = scheduledQueries.iterator(); iterator.hasNext(); ) {
+            ScheduledQuery scheduledQuery = iterator.next();
+            Integer queryThreads = scheduledQuery.getDumpQuery().getThreads();
+            if (queryThreads != null && scheduledQuery.getRunning() >= max(queryThreads, 1)) {
+                continue;
+            }
+            if (limitThreads && scheduledQuery.getRunning() >= tableThreads) {
+                continue;
+            }
+            ScheduledSplit scheduledSplit = scheduledQuery.getScheduledSplits().poll();
+            if (scheduledSplit != null) {
+                return scheduledSplit;
+            }
+            if (scheduledQuery.isPlanned() && scheduledQuery.getRunning() == 0) {
+                iterator.remove();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tells whether any split is planned and not yet taken, which may be held back by the threads of its dump query.
+     *
+     * @return true if there are splits to acquire.
+     */
+    protected boolean hasScheduledSplits() {
+        for (ScheduledQuery scheduledQuery : scheduledQueries) {
+            if (!scheduledQuery.getScheduledSplits().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Frees thread held by a split of the dump query.
+     *
+     * @param dumpQuery dump query which split is processed.
+     */
+    public synchronized void release(DumpQuery dumpQuery) {
+        ScheduledQuery scheduledQuery = getScheduledQuery(dumpQuery);
+        scheduledQuery.setRunning(scheduledQuery.getRunning() - 1);
+        running--;
+        notifyAll();
+    }
+
+    public synchronized int getRunning(DumpQuery dumpQuery) {
+        return getScheduledQuery(dumpQuery).getRunning();
+    }
+
+    /**
+     * Total time splits of the dump query were queued between planning and being taken by a thread.
+     *
+     * @param dumpQuery dump query to get queue wait time of.
+     * @return queue wait time in nanoseconds.
+     */
+    public synchronized long getQueueWaitTime(DumpQuery dumpQuery) {
+        return getScheduledQuery(dumpQuery).getQueueWaitTime();
+    }
+
+    /**
+     * Number of splits taken by threads.
+     *
+     * @return number of acquired splits.
+     */
+    public synchronized long getQueueWaits() {
+        return queueWaits;
+    }
+
+    /**
+     * Total time splits were queued between planning and being taken by a thread.
+     *
+     * @return queue wait time in nanoseconds.
+     */
+    public synchronized long getQueueWaitTime() {
+        return queueWaitTime;
+    }
+
+    public synchronized long getMaxQueueWaitTime() {
+        return maxQueueWaitTime;
+    }
+
+    /**
+     * Number of times the caller of {@link #acquire()} was blocked as all the threads were busy.
+     *
+     * @return number of waits for a free thread.
+     */
+    public synchronized long getThreadWaits() {
+        return threadWaits;
+    }
+
+    public synchronized long getThreadWaitTime() {
+        return threadWaitTime;
+    }
+
+    /**
+     * Number of times the caller of {@link #acquire()} was blocked as a thread was free while no split could be taken,
+     * either none was planned yet or the planned ones were held back by the threads of their dump queries.
+     *
+     * @return number of waits for a split.
+     */
+    public synchronized long getPlanWaits() {
+        return planWaits;
+    }
+
+    public synchronized long getPlanWaitTime() {
+        return planWaitTime;
+    }
+
+    protected ScheduledQuery getScheduledQuery(DumpQuery dumpQuery) {
+        return scheduledQueryMap.get(dumpQuery);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getTableThreads() {
+        return tableThreads;
+    }
+
+    public static class ScheduledSplit {
+
+        private final DumpQuery dumpQuery;
+        private final QuerySplit querySplit;
+        private final boolean hasNextQuerySplit;
+        private final long queued = nanoTime();
+
+        public ScheduledSplit(DumpQuery dumpQuery, QuerySplit querySplit, boolean hasNextQuerySplit) {
+            this.dumpQuery = dumpQuery;
+            this.querySplit = querySplit;
+            this.hasNextQuerySplit = hasNextQuerySplit;
+        }
+
+        /**
+         * @return time in nanoseconds the split was queued at.
+         */
+        public long getQueued() {
+            return queued;
+        }
+
+        public DumpQuery getDumpQuery() {
+            return dumpQuery;
+        }
+
+        public QuerySplit getQuerySplit() {
+            return querySplit;
+        }
+
+        public boolean isHasNextQuerySplit() {
+            return hasNextQuerySplit;
+        }
+    }
+
+    static class ScheduledQuery {
+
+        private final DumpQuery dumpQuery;
+        private final Queue<ScheduledSplit> scheduledSplits = new LinkedList<ScheduledSplit>();
+        private double cost = UNKNOWN_COST;
+        private boolean planned;
+        private int running;
+        private long queueWaitTime;
+
+        public ScheduledQuery(DumpQuery dumpQuery) {
+            this.dumpQuery = dumpQuery;
+        }
+
+        public DumpQuery getDumpQuery() {
+            return dumpQuery;
+        }
+
+        public Queue<ScheduledSplit> getScheduledSplits() {
+            return scheduledSplits;
+        }
+
+        public double getCost() {
+            return cost;
+        }
+
+        public void setCost(double cost) {
+            this.cost = cost;
+        }
+
+        public boolean isPlanned() {
+            return planned;
+        }
+
+        public void setPlanned(boolean planned) {
+            this.planned = planned;
+        }
+
+        public int getRunning() {
+            return running;
+        }
+
+        public void setRunning(int running) {
+            this.running = running;
+        }
+
+        public long getQueueWaitTime() {
+            return queueWaitTime;
+        }
+
+        public void setQueueWaitTime(long queueWaitTime) {
+            this.queueWaitTime = queueWaitTime;
+        }
+    }
+}
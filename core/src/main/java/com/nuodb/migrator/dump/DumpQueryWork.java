@@ -27,34 +27,73 @@
  */
 package com.nuodb.migrator.dump;
 
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupManager;
 import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.backup.QueryRowSet;
 import com.nuodb.migrator.backup.RowSet;
 import com.nuodb.migrator.backup.format.OutputFormat;
+import com.nuodb.migrator.backup.format.value.JdbcValueFormat;
+import com.nuodb.migrator.backup.format.value.StreamValue;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueHandle;
 import com.nuodb.migrator.backup.format.value.ValueHandleList;
+import com.nuodb.migrator.backup.format.value.ValueUtils;
 import com.nuodb.migrator.jdbc.JdbcUtils;
 import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.DialectUtils;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.model.FieldFactory;
 import com.nuodb.migrator.jdbc.query.StatementCallback;
 import com.nuodb.migrator.jdbc.session.WorkBase;
 import com.nuodb.migrator.jdbc.split.QuerySplit;
 import com.nuodb.migrator.utils.ObjectUtils;
-
+import com.nuodb.migrator.utils.RowBuffer;
+import org.slf4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.indexOf;
 import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.backup.codec.Codecs.newCodec;
+import static com.nuodb.migrator.backup.format.utils.BlockUtils.newBinaryBlock;
+import static com.nuodb.migrator.backup.format.utils.BlockUtils.newStringBlock;
 import static com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.newBuilder;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.reference;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
 import static com.nuodb.migrator.utils.Predicates.equalTo;
 import static com.nuodb.migrator.utils.Predicates.instanceOf;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Runtime.getRuntime;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
 import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.apache.commons.lang3.StringUtils.join;
 import static org.apache.commons.lang3.StringUtils.lowerCase;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * @author Sergey Bushik
@@ -63,7 +102,9 @@ import static org.apache.commons.lang3.StringUtils.lowerCase;
 public class DumpQueryWork extends WorkBase {
 
     private static final String QUERY = "query";
+    static final String LOB = "lob";
 
+    protected final transient Logger logger = getLogger(getClass());
     private final DumpQueryContext dumpQueryContext;
     private final DumpQueryManager dumpQueryManager;
     private final DumpQuery dumpQuery;
@@ -71,9 +112,11 @@ public class DumpQueryWork extends WorkBase {
     private final boolean hasNextQuerySplit;
 
     private ResultSet resultSet;
+    private boolean autoCommit;
     private ValueHandleList valueHandleList;
     private OutputFormat outputFormat;
     private Collection<Chunk> chunks;
+    private final Collection<String> lobs = newArrayList();
 
     public DumpQueryWork(DumpQueryContext dumpQueryContext, DumpQueryManager dumpQueryManager, DumpQuery dumpQuery,
                          QuerySplit querySplit, boolean hasNextQuerySplit) {
@@ -87,10 +130,15 @@ public class DumpQueryWork extends WorkBase {
     @Override
     public void init() throws Exception {
         final Dialect dialect = getSession().getDialect();
+        autoCommit = getSession().getConnection().getAutoCommit();
         resultSet = querySplit.getResultSet(getSession().getConnection(), new StatementCallback() {
             @Override
             public void executeStatement(Statement statement) throws SQLException {
-                dialect.setStreamResults(statement, dumpQuery.getColumns() != null);
+                if (dumpQuery.getColumns() != null) {
+                    dialect.setFetchSize(statement, getFetchSize(dialect));
+                } else {
+                    dialect.setStreamResults(statement, false);
+                }
             }
         });
 
@@ -99,6 +147,7 @@ public class DumpQueryWork extends WorkBase {
                 withFields(dumpQuery.getColumns() != null ? dumpQuery.getColumns() : FieldFactory
                         .newFieldList(resultSet)).
                 withTimeZone(dumpQueryContext.getTimeZone()).
+                withStreamLobs(true).
                 withValueFormatRegistry(dumpQueryContext.getValueFormatRegistry()).build();
 
         RowSet rowSet = dumpQuery.getRowSet();
@@ -113,17 +162,101 @@ public class DumpQueryWork extends WorkBase {
         }
     }
 
+    /**
+     * Derives fetch size from the fetch memory of the work, which is capped by an equal share of a quarter of the heap
+     * among the worker threads, so that concurrent fetches of wide rows don't exhaust the heap.
+     *
+     * @param dialect to derive fetch size with.
+     * @return number of rows to fetch in a single round trip.
+     */
+    protected int getFetchSize(Dialect dialect) {
+        long fetchMemory = getRuntime().maxMemory() / 4 / max(dumpQueryContext.getThreads(), 1);
+        if (dumpQueryContext.getFetchMemory() != null) {
+            fetchMemory = min(fetchMemory, dumpQueryContext.getFetchMemory());
+        }
+        int fetchSize = dialect.getFetchSize(dumpQuery.getColumns(), fetchMemory);
+        if (logger.isTraceEnabled()) {
+            logger.trace(format("Fetching %d rows per round trip within %d bytes", fetchSize, fetchMemory));
+        }
+        return fetchSize;
+    }
+
     @Override
     public void execute() throws Exception {
         DumpQueryManager dumpQueryManager = getDumpQueryManager();
         DumpQuery dumpQuery = getDumpQuery();
         dumpQueryManager.writeStart(dumpQuery, this);
 
-        ResultSet resultSet = getResultSet();
-        OutputFormat outputFormat = getOutputFormat();
+        Integer pipelineSize = dumpQueryContext.getPipelineSize();
+        boolean pipeline = pipelineSize != null && pipelineSize > 0 && !isStreamLobs(getValueHandleList());
+        RowFetcher rowFetcher = new RowFetcher(getResultSet(), getValueHandleList(),
+                pipeline ? new RowBuffer<Value[]>(pipelineSize) : null,
+                dumpQueryContext.getMemoryBudget(), getRowWidth(getValueHandleList()));
+        try {
+            if (rowFetcher.getRowBuffer() != null) {
+                write(rowFetcher);
+            } else {
+                write(rowFetcher, null);
+            }
+        } finally {
+            rowFetcher.release();
+        }
+        dumpQueryManager.writeEnd(dumpQuery, this);
+        if (dumpQueryManager.canWrite(dumpQuery, this)) {
+            dumped();
+        }
+    }
+
+    /**
+     * Dumps the split in two stages, the fetch stage fetches rows and extracts their values on a thread of the fetch
+     * executor into the bounded row buffer, while the current thread encodes buffered rows to chunks, so that round
+     * trips to the source database overlap with encoding.
+     *
+     * @param rowFetcher fetch stage of the split.
+     * @throws Exception if rows can't be fetched or written.
+     */
+    protected void write(RowFetcher rowFetcher) throws Exception {
+        RowBuffer<Value[]> rowBuffer = rowFetcher.getRowBuffer();
+        long start = nanoTime();
+        Future<?> fetch = dumpQueryContext.getFetchExecutor().submit(rowFetcher);
+        try {
+            write(rowFetcher, rowBuffer);
+        } finally {
+            rowBuffer.abort();
+            try {
+                fetch.get();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException exception) {
+                // fetch stage passes its failures to the writer through the row buffer
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            long time = nanoTime() - start;
+            logger.debug(format("Split %d of %s pipeline: buffer capacity %d, average depth %.1f, max depth %d, " +
+                    "fetcher busy %d ms idle %d ms, writer busy %d ms idle %d ms",
+                    querySplit.getSplitIndex() + 1, dumpQuery.getRowSet().getName(), rowBuffer.getCapacity(),
+                    rowBuffer.getAverageDepth(), rowBuffer.getMaxDepth(),
+                    NANOSECONDS.toMillis(rowFetcher.getTime() - rowBuffer.getPutWaitTime()),
+                    NANOSECONDS.toMillis(rowBuffer.getPutWaitTime()),
+                    NANOSECONDS.toMillis(time - rowBuffer.getTakeWaitTime()),
+                    NANOSECONDS.toMillis(rowBuffer.getTakeWaitTime())));
+        }
+    }
 
+    /**
+     * Writes rows to chunks, starting a new chunk whenever the current one reaches its maximum size. Bytes of each row
+     * are returned to the memory budget as soon as the row is written.
+     *
+     * @param rowFetcher fetcher of the rows.
+     * @param rowBuffer  buffer to take rows from or null if rows are fetched from the result set by this thread.
+     * @throws Exception if rows can't be fetched or written.
+     */
+    protected void write(RowFetcher rowFetcher, RowBuffer<Value[]> rowBuffer) throws Exception {
+        OutputFormat outputFormat = getOutputFormat();
         Chunk chunk = null;
-        while (dumpQueryManager.canWrite(dumpQuery, this) && resultSet.next()) {
+        Value[] values;
+        while (dumpQueryManager.canWrite(dumpQuery, this) && (values = getValues(rowFetcher, rowBuffer)) != null) {
             if (chunk == null) {
                 writeStart(chunk = addChunk());
             }
@@ -131,22 +264,164 @@ public class DumpQueryWork extends WorkBase {
                 writeEnd(chunk);
                 writeStart(chunk = addChunk());
             }
-            outputFormat.write();
+            try {
+                outputFormat.writeValues(writeLobs(chunk, values));
+            } finally {
+                ValueUtils.close(values);
+            }
+            rowFetcher.release(values);
             dumpQueryManager.write(dumpQuery, this, chunk);
         }
         if (chunk != null) {
             writeEnd(chunk);
         }
-        dumpQueryManager.writeEnd(dumpQuery, this);
+    }
+
+    /**
+     * Writes large objects above the threshold to separate files managed by the backup manager and replaces them in
+     * the row with references to the files, so that chunks stay small and fast to parse. Large objects within the
+     * threshold are read to memory and written inline.
+     *
+     * @param chunk  chunk the row is written to.
+     * @param values of the row, which are not changed.
+     * @return values of the row to write to the chunk.
+     * @throws IOException if large object can't be read or written.
+     */
+    protected Value[] writeLobs(Chunk chunk, Value[] values) throws IOException {
+        Long lobThreshold = dumpQueryContext.getLobThreshold();
+        if (lobThreshold == null) {
+            return values;
+        }
+        Value[] row = null;
+        for (int column = 0; column < values.length; column++) {
+            if (values[column] instanceof StreamValue) {
+                row = row != null ? row : copyOf(values, values.length);
+                row[column] = writeLob(chunk, column, (StreamValue) values[column], lobThreshold);
+            }
+        }
+        return row != null ? row : values;
+    }
+
+    protected Value writeLob(Chunk chunk, int column, StreamValue value, long lobThreshold) throws IOException {
+        String lobName = getLobName(chunk, column);
+        BackupManager backupManager = dumpQueryContext.getBackupManager();
+        long lobLength;
+        if (value.getValueType() == BINARY) {
+            InputStream input = value.asInputStream();
+            ByteArrayOutputStream head = new ByteArrayOutputStream();
+            byte[] block = newBinaryBlock();
+            int length;
+            while (head.size() <= lobThreshold && (length = input.read(block)) != -1) {
+                head.write(block, 0, length);
+            }
+            if (head.size() <= lobThreshold) {
+                return binary(head.toByteArray());
+            }
+            OutputStream output = backupManager.openLobOutput(lobName);
+            try {
+                head.writeTo(output);
+                lobLength = head.size() + ByteStreams.copy(input, output);
+            } finally {
+                output.close();
+            }
+        } else {
+            Reader reader = value.asReader();
+            StringBuilder head = new StringBuilder();
+            char[] block = newStringBlock();
+            int length;
+            while (head.length() <= lobThreshold && (length = reader.read(block)) != -1) {
+                head.append(block, 0, length);
+            }
+            if (head.length() <= lobThreshold) {
+                return string(head.toString());
+            }
+            Writer writer = new OutputStreamWriter(backupManager.openLobOutput(lobName), UTF_8);
+            try {
+                writer.append(head);
+                lobLength = head.length() + CharStreams.copy(reader, writer);
+            } finally {
+                writer.close();
+            }
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace(format("Large object of column %d written to %s", column + 1, lobName));
+        }
+        lobs.add(lobName);
+        return reference(lobName, value.getValueType(), lobLength);
+    }
+
+    /**
+     * Names file of a large object after the chunk, the row of the chunk and the column the large object is written
+     * from, e.g. users.csv.12.3.lob
+     *
+     * @param chunk  chunk the row is written to.
+     * @param column index of the column.
+     * @return large object file name.
+     */
+    protected String getLobName(Chunk chunk, int column) {
+        return join(asList(chunk.getName(), chunk.getRowCount() + 1, column + 1, LOB), ".");
+    }
+
+    /**
+     * Large objects are read as streams, which are valid only until the result set moves to the next row, so the rows
+     * with streamed large objects are fetched and written by the same thread without the row buffer.
+     *
+     * @param valueHandleList value handles of the columns.
+     * @return true if any of the columns is streamed.
+     */
+    protected boolean isStreamLobs(ValueHandleList valueHandleList) {
+        for (ValueHandle valueHandle : valueHandleList) {
+            Map<String, Object> options = valueHandle.getJdbcValueAccessOptions();
+            if (options != null && Boolean.TRUE.equals(options.get(JdbcValueFormat.STREAM_LOBS))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected Value[] getValues(RowFetcher rowFetcher, RowBuffer<Value[]> rowBuffer) throws Exception {
+        return rowBuffer != null ? rowBuffer.take() : rowFetcher.fetch();
+    }
+
+    protected long getRowWidth(ValueHandleList valueHandleList) {
+        return DialectUtils.getRowWidth(valueHandleList);
+    }
+
+    /**
+     * Records the split, its chunks and large object files to the dump journal once all rows of the split are written.
+     */
+    protected void dumped() {
+        DumpJournal dumpJournal = dumpQueryContext.getDumpJournal();
+        if (dumpJournal != null) {
+            dumpJournal.dumped(dumpQuery.getRowSet(), DumpJournal.getSignature(querySplit, hasNextQuerySplit,
+                    dumpQueryContext.getCompression(), getIncrement()), chunks, lobs);
+        }
     }
 
     @Override
     public void close() throws Exception {
         JdbcUtils.close(resultSet);
+        restoreAutoCommit();
+    }
+
+    /**
+     * Restores auto commit of the session if it was turned off by the dialect to fetch rows with a cursor, so that the
+     * transaction the rows were fetched in ends and the session is returned in the state it was opened in.
+     *
+     * @throws SQLException if auto commit can't be restored.
+     */
+    protected void restoreAutoCommit() throws SQLException {
+        if (autoCommit) {
+            Connection connection = getSession().getConnection();
+            if (!connection.getAutoCommit()) {
+                connection.setAutoCommit(true);
+            }
+        }
     }
 
     protected void writeStart(Chunk chunk) throws Exception {
-        outputFormat.setOutputStream(dumpQueryContext.getBackupManager().openOutput(chunk.getName()));
+        outputFormat.setOutputStream(dumpQueryContext.getBackupManager().openOutput(
+                chunk.getName(), chunk.getCompression()));
         outputFormat.init();
         outputFormat.writeStart();
 
@@ -168,11 +443,28 @@ public class DumpQueryWork extends WorkBase {
     protected Chunk createChunk(int chunkIndex) {
         Chunk chunk = new Chunk();
         chunk.setName(getChunkName(chunkIndex));
+        chunk.setCompression(dumpQueryContext.getCompression());
+        chunk.setIncrement(getIncrement());
         return chunk;
     }
 
+    /**
+     * Increment of the backup the row set is written to, chunks appended by incremental runs are named after the
+     * increment not to overwrite chunks of the previous runs.
+     *
+     * @return current increment of the backup.
+     */
+    protected int getIncrement() {
+        Backup backup = dumpQuery.getRowSet().getBackup();
+        return backup != null ? backup.getIncrement() : 0;
+    }
+
     protected String getChunkName(int chunkIndex) {
         Collection parts = newArrayList(getRowSetName());
+        int increment = getIncrement();
+        if (increment > 0) {
+            parts.add("inc" + increment);
+        }
         int splitIndex = getQuerySplit().getSplitIndex();
         if (splitIndex != 0 || isHasNextQuerySplit()) {
             parts.add(splitIndex + 1);
@@ -181,10 +473,18 @@ public class DumpQueryWork extends WorkBase {
             parts.add(chunkIndex + 1);
         }
         parts.add(dumpQueryContext.getFormat());
+        String compression = dumpQueryContext.getCompression();
+        if (compression != null) {
+            parts.add(newCodec(compression).getExtension());
+        }
         return lowerCase(join(parts, "."));
     }
 
     protected String getRowSetName() {
+        return getRowSetName(dumpQuery);
+    }
+
+    static String getRowSetName(DumpQuery dumpQuery) {
         String rowSetName;
         if (dumpQuery instanceof DumpTable) {
             Table table = ((DumpTable) dumpQuery).getTable();
@@ -246,6 +546,13 @@ public class DumpQueryWork extends WorkBase {
         this.chunks = chunks;
     }
 
+    /**
+     * @return names of the large object files written by the work.
+     */
+    public Collection<String> getLobs() {
+        return lobs;
+    }
+
     @Override
     public String toString() {
         return ObjectUtils.toString(this, asList("queryDesc", "querySplit", "hasNextQuerySplit"));
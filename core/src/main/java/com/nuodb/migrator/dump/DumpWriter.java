@@ -30,33 +30,54 @@ package com.nuodb.migrator.dump;
 import com.nuodb.migrator.MigratorException;
 import com.nuodb.migrator.backup.Backup;
 import com.nuodb.migrator.backup.BackupManager;
+import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.backup.QueryRowSet;
+import com.nuodb.migrator.backup.RowSet;
 import com.nuodb.migrator.backup.TableRowSet;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
+import com.nuodb.migrator.dump.DumpQueryScheduler.ScheduledSplit;
 import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.DialectUtils;
+import com.nuodb.migrator.jdbc.dialect.RowCountType;
 import com.nuodb.migrator.jdbc.metadata.Column;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.metadata.Database;
 import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.model.Field;
 import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
 import com.nuodb.migrator.jdbc.session.Work;
 import com.nuodb.migrator.jdbc.session.WorkManager;
+import com.nuodb.migrator.jdbc.split.QuerySplit;
 import com.nuodb.migrator.jdbc.split.QuerySplitter;
+import com.nuodb.migrator.utils.MemoryBudget;
 import org.slf4j.Logger;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Queue;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 
 import static com.google.common.collect.Iterables.get;
+import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newLinkedHashSet;
 import static com.nuodb.migrator.jdbc.JdbcUtils.close;
+import static com.nuodb.migrator.dump.DumpQueryScheduler.UNKNOWN_COST;
+import static com.nuodb.migrator.jdbc.dialect.RowCountType.APPROX;
 import static com.nuodb.migrator.jdbc.dialect.RowCountType.EXACT;
 import static com.nuodb.migrator.jdbc.query.Queries.newQuery;
 import static com.nuodb.migrator.jdbc.split.QuerySplitters.*;
@@ -64,7 +85,16 @@ import static com.nuodb.migrator.jdbc.split.RowCountStrategies.newCachingStrateg
 import static com.nuodb.migrator.jdbc.split.RowCountStrategies.newHandlerStrategy;
 import static com.nuodb.migrator.utils.Collections.isEmpty;
 import static java.lang.Long.MAX_VALUE;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.sql.Types.*;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.lang3.StringUtils.join;
+import static org.apache.commons.lang3.StringUtils.replace;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -73,8 +103,16 @@ import static org.slf4j.LoggerFactory.getLogger;
 @SuppressWarnings({"unchecked", "ThrowableResultOfMethodCallIgnored"})
 public class DumpWriter implements DumpQueryContext {
 
+    /**
+     * Default number of threads planning query splits, each holding its own session
+     */
+    public static final int PLAN_THREADS = 2;
+
     protected final transient Logger logger = getLogger(getClass());
     private QueryLimit queryLimit;
+    private RowCountType rowCountType = EXACT;
+    private Integer tableThreads;
+    private int planThreads = PLAN_THREADS;
     private Collection<DumpQuery> dumpQueries = newLinkedHashSet();
     private DumpQueryContext dumpQueryContext = new SimpleDumpQueryContext();
 
@@ -107,10 +145,156 @@ public class DumpWriter implements DumpQueryContext {
         addDumpQuery(createDumpQuery(table, columns, filter, queryLimit));
     }
 
+    /**
+     * Adds a table to the writing queue dumping only rows with the watermark column beyond the high watermark of the
+     * row set, the row set is appended with chunks of the new rows. Dumped rows are bounded with the current maximum
+     * of the watermark column, which becomes the new high watermark, so that rows inserted during the dump are
+     * picked up by the next run.
+     *
+     * @param table     to include into dump.
+     * @param columns   only specified columns will be writing.
+     * @param filter    to filter rows with.
+     * @param watermark column with monotonically increasing values.
+     * @param rowSet    row set dumped by the previous run or null if the table is dumped for the first time.
+     * @throws SQLException if the high watermark can't be selected.
+     */
+    public void addTable(Table table, Collection<Column> columns, String filter, Column watermark,
+                         TableRowSet rowSet) throws SQLException {
+        String lowWatermark = rowSet != null ? rowSet.getHighWatermark() : null;
+        if (rowSet == null) {
+            rowSet = new TableRowSet(table);
+        }
+        Dialect dialect = getSession().getDialect();
+        String column = watermark.getName(dialect);
+        Collection<String> filters = newArrayList();
+        if (filter != null) {
+            filters.add("(" + filter + ")");
+        }
+        if (lowWatermark != null) {
+            filters.add(column + " > " + getWatermarkLiteral(watermark, lowWatermark));
+        }
+        String highWatermark = getHighWatermark(table, watermark, filters);
+        if (highWatermark != null) {
+            filters.add(column + " <= " + getWatermarkLiteral(watermark, highWatermark));
+            rowSet.setHighWatermark(highWatermark);
+        } else if (lowWatermark != null) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(format("Table %s has no rows beyond %s watermark, table skipped",
+                        table.getQualifiedName(null), lowWatermark));
+            }
+            return;
+        }
+        rowSet.setWatermark(watermark.getName());
+        String watermarkFilter = filters.isEmpty() ? null : join(filters, " AND ");
+        addDumpQuery(createDumpQuery(table, columns, watermarkFilter, getQueryLimit(), rowSet));
+    }
+
+    /**
+     * Selects maximum value of the watermark column among the filtered rows of the table.
+     *
+     * @param table     to select from.
+     * @param watermark watermark column.
+     * @param filters   filters of the rows.
+     * @return string representation of the maximum value or null if no rows match the filters.
+     * @throws SQLException if the query fails.
+     */
+    protected String getHighWatermark(Table table, Column watermark, Collection<String> filters)
+            throws SQLException {
+        Dialect dialect = getSession().getDialect();
+        SelectQuery query = new SelectQuery();
+        query.setDialect(dialect);
+        query.column("MAX(" + watermark.getName(dialect) + ")");
+        query.from(table.getQualifiedName(dialect));
+        for (String filter : filters) {
+            query.where(filter);
+        }
+        Statement statement = getSession().getConnection().createStatement();
+        ResultSet resultSet = null;
+        try {
+            resultSet = statement.executeQuery(query.toString());
+            return resultSet.next() ? getWatermark(watermark, resultSet) : null;
+        } finally {
+            close(resultSet);
+            close(statement);
+        }
+    }
+
+    protected String getWatermark(Column watermark, ResultSet resultSet) throws SQLException {
+        Object value;
+        switch (watermark.getTypeCode()) {
+            case DATE:
+                value = resultSet.getDate(1);
+                break;
+            case TIME:
+                value = resultSet.getTime(1);
+                break;
+            case TIMESTAMP:
+                value = resultSet.getTimestamp(1);
+                break;
+            default:
+                value = resultSet.getObject(1);
+                break;
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Renders watermark value as a literal, date and time values are rendered with JDBC escape syntax, which is
+     * translated by the driver into the native syntax of the source database. Values are parsed before rendering, so
+     * that a tampered catalog can't inject SQL into the query.
+     *
+     * @param watermark watermark column.
+     * @param value     string representation of the watermark value.
+     * @return SQL literal of the value.
+     */
+    protected String getWatermarkLiteral(Column watermark, String value) {
+        switch (watermark.getTypeCode()) {
+            case DATE:
+                return "{d '" + Date.valueOf(value) + "'}";
+            case TIME:
+                return "{t '" + Time.valueOf(value) + "'}";
+            case TIMESTAMP:
+                return "{ts '" + Timestamp.valueOf(value) + "'}";
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case DECIMAL:
+            case NUMERIC:
+            case REAL:
+            case FLOAT:
+            case DOUBLE:
+                return new BigDecimal(value).toPlainString();
+            default:
+                return "'" + replace(value, "'", "''") + "'";
+        }
+    }
+
     protected void addDumpQuery(DumpQuery dumpQuery) {
         dumpQueries.add(dumpQuery);
     }
 
+    /**
+     * Overrides scheduling of the table added to the writing queue, the number of threads dumping its splits at the
+     * same time and its priority over other tables.
+     *
+     * @param table    added table.
+     * @param threads  maximum number of threads for the table or null to apply the number of threads per table.
+     * @param priority priority of the table or null for the default priority, splits of tables with higher priority
+     *                 are dumped first.
+     */
+    public void setTableSchedule(Table table, Integer threads, Integer priority) {
+        for (DumpQuery dumpQuery : dumpQueries) {
+            if (dumpQuery instanceof DumpTable && ((DumpTable) dumpQuery).getTable() == table) {
+                dumpQuery.setThreads(threads);
+                dumpQuery.setPriority(priority != null ? priority : 0);
+            }
+        }
+    }
+
     public Backup write() throws Exception {
         return write(createBackup());
     }
@@ -121,24 +305,168 @@ public class DumpWriter implements DumpQueryContext {
 
     public Backup write(Backup backup, DumpQueryManager dumpQueryManager) throws Exception {
         boolean awaitTermination = true;
+        ExecutorService planExecutor = null;
         try {
             backup.setFormat(getFormat());
-            Connection connection = getSession().getConnection();
+            DumpQueryScheduler dumpQueryScheduler = createDumpQueryScheduler();
             for (DumpQuery dumpQuery : getDumpQueries()) {
-                backup.addRowSet(dumpQuery.getRowSet());
-                while (dumpQuery.getQuerySplitter().hasNextQuerySplit(connection)) {
-                    executeWork(dumpQueryManager, createWork(dumpQueryManager, dumpQuery));
+                // row sets appended by incremental dumps are already in the backup
+                if (dumpQuery.getRowSet().getBackup() != backup) {
+                    backup.addRowSet(dumpQuery.getRowSet());
                 }
+                dumpQueryScheduler.addDumpQuery(dumpQuery);
             }
+            for (DumpQuery dumpQuery : getDumpQueries()) {
+                // row set names identify dumped splits in the dump journal
+                RowSet rowSet = dumpQuery.getRowSet();
+                if (rowSet.getName() == null) {
+                    rowSet.setName(DumpQueryWork.getRowSetName(dumpQuery));
+                }
+            }
+            planExecutor = plan(dumpQueryManager, dumpQueryScheduler);
+            ScheduledSplit scheduledSplit;
+            while ((scheduledSplit = dumpQueryScheduler.acquire()) != null) {
+                DumpQuery dumpQuery = scheduledSplit.getDumpQuery();
+                try {
+                    executeWork(dumpQueryManager, createWork(dumpQueryManager, scheduledSplit),
+                            dumpQueryScheduler, dumpQuery);
+                } catch (Throwable failure) {
+                    dumpQueryScheduler.release(dumpQuery);
+                    throw failure;
+                }
+            }
+            logSchedule(dumpQueryScheduler);
         } catch (Throwable failure) {
             awaitTermination = false;
             throw failure instanceof MigratorException ? (MigratorException) failure : new DumpException(failure);
         } finally {
+            if (planExecutor != null) {
+                planExecutor.shutdownNow();
+            }
             closeDumpQueryManager(dumpQueryManager, awaitTermination);
         }
         return backup;
     }
 
+    /**
+     * Plans splits of the dump queries on {@link #getPlanThreads()} threads, each planning thread opens its own
+     * session and takes the next dump query once the splits of the previous one are passed to the scheduler.
+     *
+     * @param dumpQueryManager   manager to pass chunks of the resumed splits to.
+     * @param dumpQueryScheduler scheduler to pass planned splits to.
+     * @return executor running planning threads.
+     */
+    protected ExecutorService plan(final DumpQueryManager dumpQueryManager,
+                                   final DumpQueryScheduler dumpQueryScheduler) {
+        final Queue<DumpQuery> dumpQueries = new ConcurrentLinkedQueue<DumpQuery>(getDumpQueries());
+        int planThreads = max(min(getPlanThreads(), dumpQueries.size()), 1);
+        if (logger.isTraceEnabled()) {
+            logger.trace(format("Planning splits with %d thread(s)", planThreads));
+        }
+        ExecutorService planExecutor = newFixedThreadPool(planThreads);
+        for (int planThread = 0; planThread < planThreads; planThread++) {
+            planExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Session session = null;
+                    try {
+                        DumpQuery dumpQuery;
+                        while (!currentThread().isInterrupted() && (dumpQuery = dumpQueries.poll()) != null) {
+                            if (session == null) {
+                                session = getSessionFactory().openSession();
+                            }
+                            plan(session, dumpQueryManager, dumpQueryScheduler, dumpQuery);
+                        }
+                    } catch (Throwable failure) {
+                        dumpQueryScheduler.failure(failure);
+                    } finally {
+                        close(session);
+                    }
+                }
+            });
+        }
+        planExecutor.shutdown();
+        return planExecutor;
+    }
+
+    protected void plan(Session session, DumpQueryManager dumpQueryManager, DumpQueryScheduler dumpQueryScheduler,
+                        DumpQuery dumpQuery) throws Exception {
+        try {
+            Connection connection = session.getConnection();
+            dumpQueryScheduler.setCost(dumpQuery, getCost(session, dumpQuery));
+            QuerySplitter querySplitter = dumpQuery.getQuerySplitter();
+            while (querySplitter.hasNextQuerySplit(connection)) {
+                QuerySplit querySplit = querySplitter.getNextQuerySplit(connection);
+                boolean hasNextQuerySplit = querySplitter.hasNextQuerySplit(connection);
+                if (!resume(dumpQueryManager, dumpQuery, querySplit, hasNextQuerySplit)) {
+                    dumpQueryScheduler.addQuerySplit(dumpQuery, querySplit, hasNextQuerySplit);
+                }
+            }
+        } finally {
+            dumpQueryScheduler.planned(dumpQuery);
+        }
+    }
+
+    /**
+     * Skips the split if the dump journal lists the split with the same signature as dumped and all of its chunk and
+     * large object files exist, chunks of the skipped split are passed to the dump query manager.
+     *
+     * @param dumpQueryManager  manager to pass chunks of the skipped split to.
+     * @param dumpQuery         dump query of the split.
+     * @param querySplit        planned split.
+     * @param hasNextQuerySplit whether the split is followed by other splits.
+     * @return true if the split is skipped.
+     */
+    protected boolean resume(DumpQueryManager dumpQueryManager, DumpQuery dumpQuery, QuerySplit querySplit,
+                             boolean hasNextQuerySplit) {
+        DumpJournal dumpJournal = getDumpJournal();
+        if (dumpJournal == null) {
+            return false;
+        }
+        RowSet rowSet = dumpQuery.getRowSet();
+        Backup backup = rowSet.getBackup();
+        int increment = backup != null ? backup.getIncrement() : 0;
+        String signature = DumpJournal.getSignature(querySplit, hasNextQuerySplit, getCompression(), increment);
+        Collection<Chunk> chunks = dumpJournal.getChunks(rowSet.getName(), signature);
+        if (chunks == null) {
+            return false;
+        }
+        for (String lob : dumpJournal.getLobs(rowSet.getName(), signature)) {
+            if (getBackupManager().getLobLength(lob) < 0) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug(format("Large object %s of the dumped split is missing, split %d of %s is dumped " +
+                            "again", lob, querySplit.getSplitIndex(), rowSet.getName()));
+                }
+                return false;
+            }
+        }
+        for (Chunk chunk : chunks) {
+            if (!getBackupManager().exists(chunk.getName())) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug(format("Chunk %s of the dumped split is missing, split %d of %s is dumped again",
+                            chunk.getName(), querySplit.getSplitIndex(), rowSet.getName()));
+                }
+                return false;
+            }
+            chunk.setCompression(getCompression());
+            chunk.setIncrement(increment);
+        }
+        synchronized (rowSet) {
+            if (isEmpty(rowSet.getColumns())) {
+                Collection<com.nuodb.migrator.backup.Column> columns = dumpJournal.getColumns(rowSet.getName());
+                if (columns != null) {
+                    rowSet.setColumns(newArrayList(columns));
+                }
+            }
+        }
+        dumpQueryManager.resumed(dumpQuery, querySplit.getSplitIndex(), chunks);
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Split %d of %s is dumped according to the dump journal, skipping it",
+                    querySplit.getSplitIndex(), rowSet.getName()));
+        }
+        return true;
+    }
+
     protected Backup createBackup() {
         return new Backup();
     }
@@ -147,15 +475,79 @@ public class DumpWriter implements DumpQueryContext {
         return new SimpleDumpQueryManager();
     }
 
-    protected Work createWork(DumpQueryManager dumpQueryManager, DumpQuery dumpQuery) throws Exception {
-        DumpQueryContext dumpQueryContext = getDumpQueryContext();
-        Connection connection = dumpQueryContext.getSession().getConnection();
-        QuerySplitter querySplitter = dumpQuery.getQuerySplitter();
-        return new DumpQueryWork(dumpQueryContext, dumpQueryManager, dumpQuery,
-                querySplitter.getNextQuerySplit(connection), querySplitter.hasNextQuerySplit(connection));
+    protected void logSchedule(DumpQueryScheduler dumpQueryScheduler) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Dump scheduler: %d split(s) queued %d ms in total, %d ms at most, " +
+                    "waited %d time(s) %d ms for a free thread, %d time(s) %d ms for a split",
+                    dumpQueryScheduler.getQueueWaits(),
+                    NANOSECONDS.toMillis(dumpQueryScheduler.getQueueWaitTime()),
+                    NANOSECONDS.toMillis(dumpQueryScheduler.getMaxQueueWaitTime()),
+                    dumpQueryScheduler.getThreadWaits(), NANOSECONDS.toMillis(dumpQueryScheduler.getThreadWaitTime()),
+                    dumpQueryScheduler.getPlanWaits(), NANOSECONDS.toMillis(dumpQueryScheduler.getPlanWaitTime())));
+        }
+        if (logger.isTraceEnabled()) {
+            for (DumpQuery dumpQuery : getDumpQueries()) {
+                logger.trace(format("Splits of %s queued %d ms in total", dumpQuery.getRowSet().getName(),
+                        NANOSECONDS.toMillis(dumpQueryScheduler.getQueueWaitTime(dumpQuery))));
+            }
+        }
+    }
+
+    protected DumpQueryScheduler createDumpQueryScheduler() {
+        int threads = getThreads();
+        return new DumpQueryScheduler(threads, getTableThreads() != null ? getTableThreads() : (threads + 1) / 2);
+    }
+
+    /**
+     * Estimates cost of dumping a table as its approximate row count multiplied by the row width derived from the
+     * column types, the cost of a query or of a table which rows can't be estimated is unknown.
+     *
+     * @param session   session to estimate row count with.
+     * @param dumpQuery dump query to estimate.
+     * @return estimated cost of the dump query.
+     */
+    protected double getCost(Session session, DumpQuery dumpQuery) {
+        if (!(dumpQuery instanceof DumpTable)) {
+            return UNKNOWN_COST;
+        }
+        DumpTable dumpTable = (DumpTable) dumpQuery;
+        Long rowCount = getRowCount(session, dumpTable);
+        return rowCount != null ? rowCount * (double) getRowWidth(dumpTable.getColumns()) : UNKNOWN_COST;
+    }
+
+    protected Long getRowCount(Session session, DumpTable dumpTable) {
+        Dialect dialect = session.getDialect();
+        Table table = dumpTable.getTable();
+        String filter = dumpTable.getFilter();
+        if (!dialect.supportsRowCount(table, null, filter, APPROX)) {
+            return null;
+        }
+        try {
+            return dialect.createRowCountHandler(table, null, filter, APPROX).getRowCount(session.getConnection());
+        } catch (SQLException exception) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(format("Can't estimate row count of %s table", table.getQualifiedName(null)),
+                        exception);
+            }
+            return null;
+        }
+    }
+
+    protected long getRowWidth(Collection<? extends Field> fields) {
+        return DialectUtils.getRowWidth(fields);
+    }
+
+    protected Work createWork(DumpQueryManager dumpQueryManager, ScheduledSplit scheduledSplit) throws Exception {
+        return new DumpQueryWork(getDumpQueryContext(), dumpQueryManager, scheduledSplit.getDumpQuery(),
+                scheduledSplit.getQuerySplit(), scheduledSplit.isHasNextQuerySplit());
     }
 
     protected void executeWork(final WorkManager workManager, final Work work) {
+        executeWork(workManager, work, null, null);
+    }
+
+    protected void executeWork(final WorkManager workManager, final Work work,
+                               final DumpQueryScheduler dumpQueryScheduler, final DumpQuery dumpQuery) {
         Executor executor = dumpQueryContext.getExecutor();
         executor.execute(new Runnable() {
             @Override
@@ -168,6 +560,9 @@ public class DumpWriter implements DumpQueryContext {
                     workManager.failure(work, exception);
                 } finally {
                     close(session);
+                    if (dumpQueryScheduler != null) {
+                        dumpQueryScheduler.release(dumpQuery);
+                    }
                 }
             }
         });
@@ -188,6 +583,14 @@ public class DumpWriter implements DumpQueryContext {
                 }
             }
         }
+        // interrupts fetch stages of the works left running after a failure
+        getFetchExecutor().shutdownNow();
+        MemoryBudget memoryBudget = getMemoryBudget();
+        if (memoryBudget != null && logger.isDebugEnabled()) {
+            logger.debug(format("Memory budget of %d bytes was waited for %d time(s), %d ms in total",
+                    memoryBudget.getCapacity(), memoryBudget.getWaits(),
+                    NANOSECONDS.toMillis(memoryBudget.getWaitTime())));
+        }
         Map<Work, Throwable> failures = dumpQueryManager.getFailures();
         if (!isEmpty(failures)) {
             final Throwable failure = get(failures.values(), 0);
@@ -204,8 +607,12 @@ public class DumpWriter implements DumpQueryContext {
     }
 
     protected DumpQuery createDumpQuery(Table table, Collection<Column> columns, String filter, QueryLimit queryLimit) {
-        return new DumpTable(table, columns, filter, createQuerySplitter(table, columns, filter, queryLimit),
-                new TableRowSet(table));
+        return createDumpQuery(table, columns, filter, queryLimit, new TableRowSet(table));
+    }
+
+    protected DumpQuery createDumpQuery(Table table, Collection<Column> columns, String filter, QueryLimit queryLimit,
+                                        TableRowSet rowSet) {
+        return new DumpTable(table, columns, filter, createQuerySplitter(table, columns, filter, queryLimit), rowSet);
     }
 
     protected QuerySplitter createQuerySplitter(Table table, Collection<Column> columns, String filter,
@@ -213,9 +620,17 @@ public class DumpWriter implements DumpQueryContext {
         QuerySplitter querySplitter;
         Query query = newQuery(table, columns, filter);
         Dialect dialect = getSession().getDialect();
-        if (queryLimit != null && supportsLimitSplitter(dialect, table, filter)) {
+        if (queryLimit != null && supportsRangeSplitter(dialect, table, filter)) {
+            querySplitter = newRangeSplitter(dialect, table, columns, filter, queryLimit);
+        } else if (queryLimit != null && supportsKeysetSplitter(dialect, table)) {
+            querySplitter = newKeysetSplitter(dialect, table, columns, filter, queryLimit);
+        } else if (queryLimit != null && supportsLimitSplitter(dialect, table, filter, getRowCountType())) {
+            querySplitter = newLimitSplitter(dialect, newCachingStrategy(newHandlerStrategy(
+                    dialect.createRowCountHandler(table, null, filter, getRowCountType()))), getRowCountType(),
+                    query, queryLimit);
+        } else if (queryLimit != null && supportsLimitSplitter(dialect, table, filter, EXACT)) {
             querySplitter = newLimitSplitter(dialect, newCachingStrategy(newHandlerStrategy(
-                    dialect.createRowCountHandler(table, null, filter, EXACT))), query, queryLimit);
+                    dialect.createRowCountHandler(table, null, filter, EXACT))), EXACT, query, queryLimit);
         } else {
             querySplitter = newNoLimitSplitter(query);
         }
@@ -230,6 +645,41 @@ public class DumpWriter implements DumpQueryContext {
         this.queryLimit = queryLimit;
     }
 
+    public RowCountType getRowCountType() {
+        return rowCountType;
+    }
+
+    /**
+     * Sets type of row counts used to size limit query splits, approximate row counts are taken from the statistics
+     * of the source database instead of counting rows of every table.
+     *
+     * @param rowCountType row count type, exact by default.
+     */
+    public void setRowCountType(RowCountType rowCountType) {
+        this.rowCountType = rowCountType;
+    }
+
+    public Integer getTableThreads() {
+        return tableThreads;
+    }
+
+    /**
+     * Sets maximum number of threads dumping splits of a single table while other tables are waiting.
+     *
+     * @param tableThreads number of threads per table, defaults to a half of threads if not set.
+     */
+    public void setTableThreads(Integer tableThreads) {
+        this.tableThreads = tableThreads;
+    }
+
+    public int getPlanThreads() {
+        return planThreads;
+    }
+
+    public void setPlanThreads(int planThreads) {
+        this.planThreads = planThreads;
+    }
+
     public Collection<DumpQuery> getDumpQueries() {
         return dumpQueries;
     }
@@ -271,6 +721,14 @@ public class DumpWriter implements DumpQueryContext {
         return dumpQueryContext.getExecutor();
     }
 
+    public ExecutorService getFetchExecutor() {
+        return dumpQueryContext.getFetchExecutor();
+    }
+
+    public void setFetchExecutor(ExecutorService fetchExecutor) {
+        dumpQueryContext.setFetchExecutor(fetchExecutor);
+    }
+
     @Override
     public void setExecutor(Executor executor) {
         dumpQueryContext.setExecutor(executor);
@@ -355,4 +813,95 @@ public class DumpWriter implements DumpQueryContext {
     public void setValueFormatRegistry(ValueFormatRegistry valueFormatRegistry) {
         dumpQueryContext.setValueFormatRegistry(valueFormatRegistry);
     }
+
+    @Override
+    public String getCompression() {
+        return dumpQueryContext.getCompression();
+    }
+
+    @Override
+    public void setCompression(String compression) {
+        dumpQueryContext.setCompression(compression);
+    }
+
+    @Override
+    public Integer getPipelineSize() {
+        return dumpQueryContext.getPipelineSize();
+    }
+
+    /**
+     * Sets number of rows fetched and extracted ahead by a separate thread of every work, while the work encodes
+     * previous rows to chunks.
+     *
+     * @param pipelineSize number of rows buffered per work, rows are fetched and encoded by the same thread if the
+     *                     size is null or not positive.
+     */
+    @Override
+    public void setPipelineSize(Integer pipelineSize) {
+        dumpQueryContext.setPipelineSize(pipelineSize);
+    }
+
+    @Override
+    public Long getFetchMemory() {
+        return dumpQueryContext.getFetchMemory();
+    }
+
+    /**
+     * Sets memory in bytes for the rows fetched by a single round trip of every work, the fetch size is derived by the
+     * dialect from this memory and from the estimated row width.
+     *
+     * @param fetchMemory fetch memory of a work in bytes.
+     */
+    @Override
+    public void setFetchMemory(Long fetchMemory) {
+        dumpQueryContext.setFetchMemory(fetchMemory);
+    }
+
+    @Override
+    public MemoryBudget getMemoryBudget() {
+        return dumpQueryContext.getMemoryBudget();
+    }
+
+    /**
+     * Sets budget of bytes of the fetched rows held in memory by all the works until the rows are written, works wait
+     * for the budget before fetching next rows once it's exhausted.
+     *
+     * @param memoryBudget memory budget shared by the works.
+     */
+    @Override
+    public void setMemoryBudget(MemoryBudget memoryBudget) {
+        dumpQueryContext.setMemoryBudget(memoryBudget);
+    }
+
+    @Override
+    public Long getLobThreshold() {
+        return dumpQueryContext.getLobThreshold();
+    }
+
+    /**
+     * Sets size in bytes, or in characters for character large objects, above which large objects are written to
+     * separate files managed by the backup manager instead of chunks, null writes all large objects inline.
+     *
+     * @param lobThreshold size above which large objects are written to separate files.
+     */
+    @Override
+    public void setLobThreshold(Long lobThreshold) {
+        dumpQueryContext.setLobThreshold(lobThreshold);
+    }
+
+    @Override
+    public DumpJournal getDumpJournal() {
+        return dumpQueryContext.getDumpJournal();
+    }
+
+    /**
+     * Sets journal recording dumped splits, if the journal was read back from the interrupted dump the splits it
+     * lists are skipped.
+     *
+     * @param dumpJournal dump journal or null if splits are not journaled.
+     */
+    @Override
+    public void setDumpJournal(DumpJournal dumpJournal) {
+        dumpQueryContext.setDumpJournal(dumpJournal);
+    }
 }
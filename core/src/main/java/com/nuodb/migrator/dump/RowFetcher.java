@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.dump;
+
+import com.nuodb.migrator.MigratorException;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueHandleList;
+import com.nuodb.migrator.utils.MemoryBudget;
+import com.nuodb.migrator.utils.RowBuffer;
+
+import java.sql.ResultSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.nuodb.migrator.backup.format.value.ValueUtils.close;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.getSize;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.getValues;
+import static java.lang.System.nanoTime;
+
+/**
+ * Fetch stage of the pipelined dump, fetches rows of a query split and extracts their values, putting them to the row
+ * buffer until the result set ends or the buffer is aborted by the writer stage encoding rows to chunks. Without the
+ * row buffer rows are fetched by the writer itself with {@link #fetch()}.
+ * <p/>
+ * Bytes of every row are acquired from the memory budget shared by all the works before the row is materialized and
+ * are released by the writer with {@link #release(Value[])} once the row is written.
+ * <p/>
+ * The size of a value is only known once the value is read, so the budget bounds the number of rows materialized, not
+ * the size of a single row: a row wider than the estimate is held in memory while its fetcher waits for the rest of
+ * its size, and the heap may exceed the budget by one such row per fetcher. Large objects streamed by the value
+ * formats aren't materialized by the fetcher and aren't counted.
+ */
+public class RowFetcher implements Runnable {
+
+    private final ResultSet resultSet;
+    private final ValueHandleList valueHandleList;
+    private final RowBuffer<Value[]> rowBuffer;
+    private final MemoryBudget memoryBudget;
+    private final long rowWidth;
+    private final AtomicLong bytes = new AtomicLong();
+    private volatile long time;
+
+    /**
+     * @param resultSet       result set to fetch rows from.
+     * @param valueHandleList value handles extracting row values.
+     * @param rowBuffer       buffer to put rows to or null if rows are fetched by the writer.
+     * @param memoryBudget    budget to acquire bytes of rows from or null if memory is not limited.
+     * @param rowWidth        estimated width of a row acquired before it's materialized.
+     */
+    public RowFetcher(ResultSet resultSet, ValueHandleList valueHandleList, RowBuffer<Value[]> rowBuffer,
+                      MemoryBudget memoryBudget, long rowWidth) {
+        this.resultSet = resultSet;
+        this.valueHandleList = valueHandleList;
+        this.rowBuffer = rowBuffer;
+        this.memoryBudget = memoryBudget;
+        this.rowWidth = rowWidth;
+    }
+
+    @Override
+    public void run() {
+        long start = nanoTime();
+        try {
+            Value[] values;
+            while ((values = fetch()) != null) {
+                if (!rowBuffer.put(values)) {
+                    release(values);
+                    return;
+                }
+            }
+            rowBuffer.close();
+        } catch (Throwable failure) {
+            rowBuffer.fail(failure instanceof MigratorException ? failure : new DumpException(failure));
+        } finally {
+            time = nanoTime() - start;
+        }
+    }
+
+    /**
+     * Fetches next row, waiting for the memory budget first. The estimated row width is acquired before the values
+     * are materialized and is then exchanged for the actual size of the values, waiting while the budget is exhausted
+     * or overdrawn, so that the fetcher doesn't materialize further rows until the others release their bytes.
+     *
+     * @return values of the next row or null if there are no more rows.
+     * @throws Exception if the row can't be fetched.
+     */
+    public Value[] fetch() throws Exception {
+        if (memoryBudget == null) {
+            return resultSet.next() ? getValues(valueHandleList) : null;
+        }
+        long acquired = memoryBudget.acquire(rowWidth);
+        Value[] values;
+        try {
+            values = resultSet.next() ? getValues(valueHandleList) : null;
+        } finally {
+            memoryBudget.release(acquired);
+        }
+        if (values != null) {
+            long size = getSize(values);
+            try {
+                memoryBudget.acquire(size);
+            } catch (InterruptedException exception) {
+                close(values);
+                throw exception;
+            }
+            bytes.addAndGet(size);
+        }
+        return values;
+    }
+
+    /**
+     * Releases bytes of the written row to the memory budget.
+     *
+     * @param values written row.
+     */
+    public void release(Value[] values) {
+        if (memoryBudget != null) {
+            long size = getSize(values);
+            bytes.addAndGet(-size);
+            memoryBudget.release(size);
+        }
+    }
+
+    /**
+     * Releases bytes of all the rows fetched and not yet written, which are dropped when the split is aborted.
+     */
+    public void release() {
+        if (memoryBudget != null) {
+            memoryBudget.release(bytes.getAndSet(0));
+        }
+    }
+
+    public ResultSet getResultSet() {
+        return resultSet;
+    }
+
+    public RowBuffer<Value[]> getRowBuffer() {
+        return rowBuffer;
+    }
+
+    public MemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * @return nanoseconds the fetcher was running.
+     */
+    public long getTime() {
+        return time;
+    }
+}
@@ -33,12 +33,15 @@ import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
 import com.nuodb.migrator.jdbc.metadata.Database;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
-import com.nuodb.migrator.utils.BlockingThreadPoolExecutor;
+import com.nuodb.migrator.utils.MemoryBudget;
 import org.slf4j.Logger;
 
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.google.common.collect.Maps.newHashMap;
 import static java.lang.String.format;
@@ -55,6 +58,7 @@ public class SimpleDumpQueryContext implements DumpQueryContext {
     private int threads = THREADS;
     private Database database;
     private Executor executor;
+    private ExecutorService fetchExecutor;
     private TimeZone timeZone;
     private Session session;
     private SessionFactory sessionFactory;
@@ -63,6 +67,12 @@ public class SimpleDumpQueryContext implements DumpQueryContext {
     private Map<String, Object> formatAttributes = newHashMap();
     private FormatFactory formatFactory;
     private ValueFormatRegistry valueFormatRegistry;
+    private String compression;
+    private Integer pipelineSize = PIPELINE_SIZE;
+    private Long fetchMemory = FETCH_MEMORY;
+    private MemoryBudget memoryBudget;
+    private Long lobThreshold;
+    private DumpJournal dumpJournal;
 
     @Override
     public int getThreads() {
@@ -73,6 +83,7 @@ public class SimpleDumpQueryContext implements DumpQueryContext {
     public void setThreads(int threads) {
         this.threads = threads;
         this.executor = null;
+        this.fetchExecutor = null;
     }
 
     @Override
@@ -95,14 +106,46 @@ public class SimpleDumpQueryContext implements DumpQueryContext {
 
     @Override
     public void setExecutor(Executor executor) {
-        this.executor = this.executor;
+        this.executor = executor;
     }
 
+    /**
+     * Creates a fixed thread pool for the splits, the dump query scheduler hands out no more splits than there are
+     * threads and blocks the dispatcher until a thread is released, so the queue of the pool never grows beyond a
+     * split per thread and submission never waits on the queue.
+     *
+     * @return executor of the splits.
+     */
     protected Executor createExecutor() {
         if (logger.isTraceEnabled()) {
-            logger.trace(format("Using blocking thread pool with %d thread(s)", getThreads()));
+            logger.trace(format("Using fixed thread pool with %d thread(s)", getThreads()));
         }
-        return new BlockingThreadPoolExecutor(getThreads(), 100L, MILLISECONDS);
+        return new ThreadPoolExecutor(getThreads(), getThreads(), 0L, MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>());
+    }
+
+    @Override
+    public ExecutorService getFetchExecutor() {
+        if (fetchExecutor == null) {
+            fetchExecutor = createFetchExecutor();
+        }
+        return fetchExecutor;
+    }
+
+    @Override
+    public void setFetchExecutor(ExecutorService fetchExecutor) {
+        this.fetchExecutor = fetchExecutor;
+    }
+
+    /**
+     * Creates a fixed thread pool for the fetch stages sized to the number of threads running the splits, as every
+     * split runs at most one fetch stage, a fetch stage never waits in the queue for a thread.
+     *
+     * @return executor of the fetch stages.
+     */
+    protected ExecutorService createFetchExecutor() {
+        return new ThreadPoolExecutor(getThreads(), getThreads(), 0L, MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>());
     }
 
     @Override
@@ -184,4 +227,67 @@ public class SimpleDumpQueryContext implements DumpQueryContext {
     public void setValueFormatRegistry(ValueFormatRegistry valueFormatRegistry) {
         this.valueFormatRegistry = valueFormatRegistry;
     }
+
+    @Override
+    public String getCompression() {
+        return compression;
+    }
+
+    @Override
+    public void setCompression(String compression) {
+        this.compression = compression;
+    }
+
+    @Override
+    public Integer getPipelineSize() {
+        return pipelineSize;
+    }
+
+    @Override
+    public void setPipelineSize(Integer pipelineSize) {
+        this.pipelineSize = pipelineSize;
+    }
+
+    @Override
+    public Long getFetchMemory() {
+        return fetchMemory;
+    }
+
+    @Override
+    public void setFetchMemory(Long fetchMemory) {
+        this.fetchMemory = fetchMemory;
+    }
+
+    @Override
+    public MemoryBudget getMemoryBudget() {
+        if (memoryBudget == null) {
+            memoryBudget = new MemoryBudget(MEMORY_BUDGET);
+        }
+        return memoryBudget;
+    }
+
+    @Override
+    public void setMemoryBudget(MemoryBudget memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    @Override
+    public Long getLobThreshold() {
+        return lobThreshold;
+    }
+
+    @Override
+    public void setLobThreshold(Long lobThreshold) {
+        this.lobThreshold = lobThreshold;
+    }
+
+    @Override
+    public DumpJournal getDumpJournal() {
+        return dumpJournal;
+    }
+
+    @Override
+    public void setDumpJournal(DumpJournal dumpJournal) {
+        this.dumpJournal = dumpJournal;
+    }
 }
@@ -27,11 +27,6 @@
  */
 package com.nuodb.migrator.dump;
 
-import com.google.common.base.Predicate;
-import com.google.common.base.Supplier;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
-import com.google.common.primitives.Ints;
 import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.backup.Column;
 import com.nuodb.migrator.backup.RowSet;
@@ -40,15 +35,13 @@ import com.nuodb.migrator.jdbc.session.SimpleWorkManager;
 import com.nuodb.migrator.jdbc.session.Work;
 
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.Map;
-import java.util.Set;
+import java.util.SortedMap;
 
-import static com.google.common.collect.Iterables.all;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newConcurrentMap;
-import static com.google.common.collect.Multimaps.newSetMultimap;
-import static com.google.common.collect.Sets.newTreeSet;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newTreeMap;
 import static com.nuodb.migrator.backup.format.value.ValueType.toAlias;
 
 /**
@@ -58,18 +51,11 @@ import static com.nuodb.migrator.backup.format.value.ValueType.toAlias;
 public class SimpleDumpQueryManager extends SimpleWorkManager implements DumpQueryManager {
 
     private final Map<DumpQuery, Boolean> dumpQueryInitMap = newConcurrentMap();
-    private Multimap<DumpQuery, DumpQueryWork> dumpQueryWorkMap = newSetMultimap(
-            Maps.<DumpQuery, Collection<DumpQueryWork>>newHashMap(), new Supplier<Set<DumpQueryWork>>() {
-        @Override
-        public Set<DumpQueryWork> get() {
-            return newTreeSet(new Comparator<DumpQueryWork>() {
-                @Override
-                public int compare(DumpQueryWork w1, DumpQueryWork w2) {
-                    return Ints.compare(w1.getQuerySplit().getSplitIndex(), w2.getQuerySplit().getSplitIndex());
-                }
-            });
-        }
-    });
+    /**
+     * Chunks of the row set written by the previous runs, which are kept ahead of the chunks of the dumped splits
+     */
+    private final Map<DumpQuery, Collection<Chunk>> dumpQueryChunksMap = newHashMap();
+    private final Map<DumpQuery, SortedMap<Integer, Collection<Chunk>>> splitChunksMap = newHashMap();
 
     @Override
     public void writeStart(DumpQuery dumpQuery, Work work) {
@@ -110,17 +96,33 @@ public class SimpleDumpQueryManager extends SimpleWorkManager implements DumpQue
     @Override
     public void writeEnd(DumpQuery dumpQuery, Work work) {
         DumpQueryWork dumpQueryWork = (DumpQueryWork) work;
+        addChunks(dumpQuery, dumpQueryWork.getQuerySplit().getSplitIndex(), dumpQueryWork.getChunks());
+    }
+
+    @Override
+    public void resumed(DumpQuery dumpQuery, int splitIndex, Collection<Chunk> chunks) {
+        RowSet rowSet = dumpQuery.getRowSet();
+        synchronized (rowSet) {
+            for (Chunk chunk : chunks) {
+                rowSet.setRowCount(rowSet.getRowCount() + chunk.getRowCount());
+            }
+            addChunks(dumpQuery, splitIndex, chunks);
+        }
+    }
+
+    protected void addChunks(DumpQuery dumpQuery, int splitIndex, Collection<Chunk> splitChunks) {
         RowSet rowSet = dumpQuery.getRowSet();
         synchronized (rowSet) {
-            dumpQueryWorkMap.put(dumpQuery, dumpQueryWork);
-            final Collection<Chunk> chunks = newArrayList();
-            all(dumpQueryWorkMap.get(dumpQuery), new Predicate<DumpQueryWork>() {
-                @Override
-                public boolean apply(DumpQueryWork dumpQueryWork) {
-                    chunks.addAll(dumpQueryWork.getChunks());
-                    return true;
-                }
-            });
+            SortedMap<Integer, Collection<Chunk>> chunksMap = splitChunksMap.get(dumpQuery);
+            if (chunksMap == null) {
+                dumpQueryChunksMap.put(dumpQuery, newArrayList(rowSet.getChunks()));
+                splitChunksMap.put(dumpQuery, chunksMap = newTreeMap());
+            }
+            chunksMap.put(splitIndex, splitChunks);
+            Collection<Chunk> chunks = newArrayList(dumpQueryChunksMap.get(dumpQuery));
+            for (Collection<Chunk> chunk : chunksMap.values()) {
+                chunks.addAll(chunk);
+            }
             rowSet.setChunks(chunks);
         }
     }
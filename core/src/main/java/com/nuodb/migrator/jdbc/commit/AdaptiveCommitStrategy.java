@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.commit;
+
+import com.google.common.collect.MapMaker;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.utils.ObjectUtils;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static java.lang.Long.parseLong;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Commits after a batch of statements, the size of which is tuned on every commit to maximize throughput. Rows per
+ * second of the last transaction, commit time included, are compared with the previous transaction and the batch
+ * size keeps moving in the same direction while throughput grows, otherwise the direction is reversed. The batch size
+ * stays within minimum and maximum bounds and is tuned per connection, as row widths differ between tables loaded by
+ * concurrent workers.
+ */
+public class AdaptiveCommitStrategy extends CommitStrategyBase {
+
+    public static final String ATTRIBUTE_BATCH_SIZE = "batch.size";
+    public static final String ATTRIBUTE_MIN_BATCH_SIZE = "min.batch.size";
+    public static final String ATTRIBUTE_MAX_BATCH_SIZE = "max.batch.size";
+
+    public static final long BATCH_SIZE = 1000;
+    public static final long MIN_BATCH_SIZE = 100;
+    public static final long MAX_BATCH_SIZE = 100000;
+    /**
+     * Multiplier applied to the batch size on every step
+     */
+    public static final double FACTOR = 1.5;
+
+    private final transient Logger logger = getLogger(getClass());
+    private final transient Map<Connection, Transaction> transactions = new MapMaker().weakKeys().makeMap();
+
+    private long batchSize = BATCH_SIZE;
+    private long minBatchSize = MIN_BATCH_SIZE;
+    private long maxBatchSize = MAX_BATCH_SIZE;
+
+    @Override
+    public void onExecute(Statement statement, Query query) throws SQLException {
+        onExecute(statement, 1);
+    }
+
+    @Override
+    public void onExecuteBatch(Statement statement, Query query, int statements) throws SQLException {
+        onExecute(statement, statements);
+    }
+
+    protected void onExecute(Statement statement, int count) throws SQLException {
+        Connection connection = statement.getConnection();
+        Transaction transaction = transactions.get(connection);
+        if (transaction == null) {
+            transactions.put(connection, transaction = new Transaction(getInitialBatchSize()));
+        }
+        transaction.statements += count;
+        if (transaction.statements >= transaction.batchSize) {
+            long start = nanoTime();
+            commit(connection);
+            long end = nanoTime();
+            tune(transaction, end - start, end - transaction.start);
+            transaction.statements = 0;
+            transaction.start = end;
+        }
+    }
+
+    /**
+     * Moves batch size of the connection one step towards higher throughput.
+     *
+     * @param transaction committed transaction.
+     * @param commitTime  nanoseconds spent on commit.
+     * @param time        nanoseconds elapsed since the previous commit.
+     */
+    protected void tune(Transaction transaction, long commitTime, long time) {
+        double throughput = transaction.statements * (double) SECONDS.toNanos(1) / max(time, 1);
+        if (throughput < transaction.throughput) {
+            transaction.increase = !transaction.increase;
+        }
+        long batchSize = transaction.batchSize;
+        long nextBatchSize = transaction.increase ? (long) (batchSize * FACTOR) : (long) (batchSize / FACTOR);
+        nextBatchSize = min(max(nextBatchSize, getMinBatchSize()), getMaxBatchSize());
+        if (nextBatchSize == batchSize) {
+            transaction.increase = !transaction.increase;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Committed %d statements in %d ms, commit took %d ms, %.1f statements/s " +
+                    "(previous %.1f statements/s), batch size %d -> %d",
+                    transaction.statements, NANOSECONDS.toMillis(time), NANOSECONDS.toMillis(commitTime),
+                    throughput, transaction.throughput, batchSize, nextBatchSize));
+        }
+        transaction.throughput = throughput;
+        transaction.batchSize = nextBatchSize;
+    }
+
+    protected long getInitialBatchSize() {
+        return min(max(getBatchSize(), getMinBatchSize()), getMaxBatchSize());
+    }
+
+    @Override
+    public void setAttributes(Map<String, Object> attributes) {
+        Object batchSizeValue = attributes.get(ATTRIBUTE_BATCH_SIZE);
+        if (batchSizeValue instanceof String && !isEmpty((String) batchSizeValue)) {
+            setBatchSize(parseLong((String) batchSizeValue));
+        }
+        Object minBatchSizeValue = attributes.get(ATTRIBUTE_MIN_BATCH_SIZE);
+        if (minBatchSizeValue instanceof String && !isEmpty((String) minBatchSizeValue)) {
+            setMinBatchSize(parseLong((String) minBatchSizeValue));
+        }
+        Object maxBatchSizeValue = attributes.get(ATTRIBUTE_MAX_BATCH_SIZE);
+        if (maxBatchSizeValue instanceof String && !isEmpty((String) maxBatchSizeValue)) {
+            setMaxBatchSize(parseLong((String) maxBatchSizeValue));
+        }
+    }
+
+    public long getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(long batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getMinBatchSize() {
+        return minBatchSize;
+    }
+
+    public void setMinBatchSize(long minBatchSize) {
+        this.minBatchSize = minBatchSize;
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(long maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        AdaptiveCommitStrategy that = (AdaptiveCommitStrategy) o;
+
+        if (batchSize != that.batchSize) return false;
+        if (maxBatchSize != that.maxBatchSize) return false;
+        if (minBatchSize != that.minBatchSize) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (batchSize ^ (batchSize >>> 32));
+        result = 31 * result + (int) (minBatchSize ^ (minBatchSize >>> 32));
+        result = 31 * result + (int) (maxBatchSize ^ (maxBatchSize >>> 32));
+        return result;
+    }
+
+    public String toString() {
+        return ObjectUtils.toString(this);
+    }
+
+    /**
+     * State of the current transaction of a connection
+     */
+    protected static class Transaction {
+
+        private long batchSize;
+        private long statements;
+        private long start = nanoTime();
+        private double throughput;
+        private boolean increase = true;
+
+        public Transaction(long batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+}
@@ -27,9 +27,11 @@
  */
 package com.nuodb.migrator.jdbc.commit;
 
+import com.google.common.collect.MapMaker;
 import com.nuodb.migrator.jdbc.query.Query;
 import com.nuodb.migrator.utils.ObjectUtils;
 
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Map;
@@ -40,22 +42,51 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 /**
  * @author Sergey Bushik
  */
-public class BatchCommitStrategy implements CommitStrategy {
+public class BatchCommitStrategy extends CommitStrategyBase {
 
     public static final String ATTRIBUTE_BATCH_SIZE = "batch.size";
 
     public static final long BATCH_SIZE = 1000;
 
-    private transient long statements;
+    /**
+     * Number of uncommitted statements per connection, as the strategy is shared by concurrent load workers
+     */
+    private final transient Map<Connection, Long> statements = new MapMaker().weakKeys().makeMap();
     private long batchSize = BATCH_SIZE;
 
     @Override
     public void onExecute(Statement statement, Query query) throws SQLException {
-        statements++;
-        if (statements > getBatchSize()) {
-            statement.getConnection().commit();
-            statements = 0;
+        onExecute(statement, 1);
+    }
+
+    @Override
+    public void onExecuteBatch(Statement statement, Query query, int statements) throws SQLException {
+        onExecute(statement, statements);
+    }
+
+    protected void onExecute(Statement statement, int count) throws SQLException {
+        Connection connection = statement.getConnection();
+        Long statements = this.statements.get(connection);
+        statements = (statements != null ? statements : 0) + count;
+        if (statements > getBatchSize() || isCommit(connection)) {
+            commit(connection);
+            statements = 0L;
+            onCommit(connection);
         }
+        this.statements.put(connection, statements);
+    }
+
+    /**
+     * Allows subclasses to commit before the batch of statements is full.
+     *
+     * @param connection connection to commit.
+     * @return true if connection should be committed.
+     */
+    protected boolean isCommit(Connection connection) {
+        return false;
+    }
+
+    protected void onCommit(Connection connection) {
     }
 
     @Override
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.commit;
+
+import com.nuodb.migrator.jdbc.query.Query;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Base commit strategy notifying registered commit listeners after every commit it makes. Hooks declared here rather
+ * than on {@link CommitStrategy} are optional, so that custom strategies implementing the interface keep working,
+ * callers check whether the strategy extends this class before invoking them.
+ */
+public abstract class CommitStrategyBase implements CommitStrategy {
+
+    private final transient Collection<CommitListener> commitListeners = new CopyOnWriteArrayList<CommitListener>();
+
+    public void addCommitListener(CommitListener commitListener) {
+        commitListeners.add(commitListener);
+    }
+
+    public void removeCommitListener(CommitListener commitListener) {
+        commitListeners.remove(commitListener);
+    }
+
+    /**
+     * Invoked after values of one or more rows were bound to the statement, before it is executed or added to a batch.
+     *
+     * @param statement statement with bound values.
+     * @param query     query of the statement.
+     * @param bytes     estimated number of bytes of the bound values.
+     * @throws SQLException if commit fails.
+     */
+    public void onBind(Statement statement, Query query, long bytes) throws SQLException {
+    }
+
+    /**
+     * Invoked after a batch of statements was sent to the database with {@link Statement#executeBatch()} or after a
+     * multi row insert statement was executed.
+     *
+     * @param statement  executed statement.
+     * @param query      query of the statement.
+     * @param statements number of statements in the executed batch or number of rows inserted by the statement.
+     * @throws SQLException if commit fails.
+     */
+    public abstract void onExecuteBatch(Statement statement, Query query, int statements) throws SQLException;
+
+    /**
+     * Commits connection and notifies commit listeners.
+     *
+     * @param connection to commit.
+     * @throws SQLException if commit fails.
+     */
+    protected void commit(Connection connection) throws SQLException {
+        connection.commit();
+        for (CommitListener commitListener : commitListeners) {
+            commitListener.onCommit(connection);
+        }
+    }
+}
@@ -37,7 +37,7 @@ import java.util.Map;
 /**
  * @author Sergey Bushik
  */
-public class SingleCommitStrategy implements CommitStrategy {
+public class SingleCommitStrategy extends CommitStrategyBase {
 
     public static final CommitStrategy INSTANCE = new SingleCommitStrategy();
 
@@ -52,6 +52,10 @@ public class SingleCommitStrategy implements CommitStrategy {
     public void onExecute(Statement statement, Query query) throws SQLException {
     }
 
+    @Override
+    public void onExecuteBatch(Statement statement, Query query, int statements) throws SQLException {
+    }
+
     public String toString() {
         return ObjectUtils.toString(this);
     }
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.commit;
+
+import com.google.common.collect.MapMaker;
+import com.nuodb.migrator.jdbc.query.Query;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static java.lang.Long.parseLong;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Commits when estimated size of values bound in a transaction reaches the configured number of bytes, or after a
+ * batch of statements if the size limit is not reached, so that transactions stay bounded in memory regardless of
+ * the row width.
+ */
+public class SizeCommitStrategy extends BatchCommitStrategy {
+
+    public static final String ATTRIBUTE_SIZE = "size";
+
+    /**
+     * Default transaction size in bytes
+     */
+    public static final long SIZE = 32 * 1024 * 1024;
+    /**
+     * Batch size used as a fallback to the size limit
+     */
+    public static final long FALLBACK_BATCH_SIZE = 100000;
+
+    /**
+     * Bytes bound in the current transaction per connection
+     */
+    private final transient Map<Connection, Long> sizes = new MapMaker().weakKeys().makeMap();
+    private long size = SIZE;
+
+    public SizeCommitStrategy() {
+        setBatchSize(FALLBACK_BATCH_SIZE);
+    }
+
+    @Override
+    public void onBind(Statement statement, Query query, long bytes) throws SQLException {
+        Connection connection = statement.getConnection();
+        Long size = sizes.get(connection);
+        sizes.put(connection, (size != null ? size : 0) + bytes);
+    }
+
+    @Override
+    protected boolean isCommit(Connection connection) {
+        Long size = sizes.get(connection);
+        return size != null && size >= getSize();
+    }
+
+    @Override
+    protected void onCommit(Connection connection) {
+        sizes.put(connection, 0L);
+    }
+
+    @Override
+    public void setAttributes(Map<String, Object> attributes) {
+        super.setAttributes(attributes);
+        Object sizeValue = attributes.get(ATTRIBUTE_SIZE);
+        if (sizeValue instanceof String && !isEmpty((String) sizeValue)) {
+            setSize(parseLong((String) sizeValue));
+        }
+    }
+
+    /**
+     * @return transaction size in bytes.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false;
+
+        SizeCommitStrategy that = (SizeCommitStrategy) o;
+
+        if (size != that.size) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + (int) (size ^ (size >>> 32));
+        return result;
+    }
+}
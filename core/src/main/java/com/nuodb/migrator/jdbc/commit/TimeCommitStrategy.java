@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.commit;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.MapMaker;
+import com.nuodb.migrator.jdbc.query.Query;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static com.google.common.base.Ticker.systemTicker;
+import static java.lang.Long.parseLong;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Commits when a transaction has been open for longer than the configured time, or after a batch of statements if
+ * the time limit is not reached, whichever comes first. The transaction is timed from the first values bound after
+ * the previous commit, so that time spent binding the first batch counts against the limit.
+ */
+public class TimeCommitStrategy extends BatchCommitStrategy {
+
+    public static final String ATTRIBUTE_TIME = "time";
+
+    /**
+     * Default commit interval in milliseconds
+     */
+    public static final long TIME = 10000;
+    /**
+     * Batch size used as a fallback to the time limit
+     */
+    public static final long FALLBACK_BATCH_SIZE = 100000;
+
+    /**
+     * Start of the current transaction per connection in nanoseconds
+     */
+    private final transient Map<Connection, Long> starts = new MapMaker().weakKeys().makeMap();
+    private transient Ticker ticker = systemTicker();
+    private long time = TIME;
+
+    public TimeCommitStrategy() {
+        setBatchSize(FALLBACK_BATCH_SIZE);
+    }
+
+    @Override
+    public void onBind(Statement statement, Query query, long bytes) throws SQLException {
+        start(statement.getConnection());
+    }
+
+    /**
+     * Starts timing transaction of the connection unless it's already started.
+     *
+     * @param connection connection to start transaction timing for.
+     * @return start of the transaction in nanoseconds.
+     */
+    protected long start(Connection connection) {
+        Long start = starts.get(connection);
+        if (start == null) {
+            starts.put(connection, start = ticker.read());
+        }
+        return start;
+    }
+
+    @Override
+    protected boolean isCommit(Connection connection) {
+        return ticker.read() - start(connection) >= MILLISECONDS.toNanos(getTime());
+    }
+
+    @Override
+    protected void onCommit(Connection connection) {
+        starts.remove(connection);
+    }
+
+    @Override
+    public void setAttributes(Map<String, Object> attributes) {
+        super.setAttributes(attributes);
+        Object timeValue = attributes.get(ATTRIBUTE_TIME);
+        if (timeValue instanceof String && !isEmpty((String) timeValue)) {
+            setTime(parseLong((String) timeValue));
+        }
+    }
+
+    /**
+     * @return commit interval in milliseconds.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    public Ticker getTicker() {
+        return ticker;
+    }
+
+    public void setTicker(Ticker ticker) {
+        this.ticker = ticker;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false;
+
+        TimeCommitStrategy that = (TimeCommitStrategy) o;
+
+        if (time != that.time) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + (int) (time ^ (time >>> 32));
+        return result;
+    }
+}
@@ -29,6 +29,7 @@ package com.nuodb.migrator.jdbc.dialect;
 
 import com.nuodb.migrator.jdbc.metadata.*;
 import com.nuodb.migrator.jdbc.metadata.resolver.ServiceResolver;
+import com.nuodb.migrator.jdbc.model.Field;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.type.*;
@@ -36,6 +37,7 @@ import com.nuodb.migrator.jdbc.type.*;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collection;
 import java.util.Map;
 import java.util.TimeZone;
 
@@ -60,6 +62,8 @@ public interface Dialect {
 
     boolean supportsTransactionIsolation(int transactionIsolationLevel);
 
+    boolean supportsSnapshot();
+
     boolean supportsIfExistsBeforeDropTable();
 
     boolean supportsIfExistsAfterDropTable();
@@ -86,12 +90,18 @@ public interface Dialect {
 
     boolean supportsLimitParameters();
 
+    boolean supportsMultiRowInsert();
+
     boolean supportsCatalogs();
 
     boolean supportsSchemas();
 
     LimitHandler createLimitHandler(String query, QueryLimit queryLimit);
 
+    boolean supportsTableSample();
+
+    String getTableSample(String table, double percent);
+
     boolean supportsRowCount(Table table, Column column, String filter, RowCountType rowCountType);
 
     RowCountHandler createRowCountHandler(Table table, Column column, String filter, RowCountType rowCountType);
@@ -100,6 +110,8 @@ public interface Dialect {
 
     String getNoColumnsInsert();
 
+    int getMaxParameters();
+
     String getCascadeConstraints();
 
     String getDropForeignKey();
@@ -160,8 +172,14 @@ public interface Dialect {
 
     void setStreamResults(Statement statement, boolean streamResults) throws SQLException;
 
+    int getFetchSize(Collection<? extends Field> fields, long fetchMemory);
+
+    void setFetchSize(Statement statement, int fetchSize) throws SQLException;
+
     void setTransactionIsolation(Connection connection, int[] levels) throws SQLException;
 
+    Snapshot createSnapshot(Connection connection) throws SQLException;
+
     String quote(String value);
 
     String openQuote();
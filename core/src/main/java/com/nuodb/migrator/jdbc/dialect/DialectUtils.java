@@ -27,6 +27,12 @@
  */
 package com.nuodb.migrator.jdbc.dialect;
 
+import com.nuodb.migrator.jdbc.model.Field;
+
+import java.util.Collection;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static org.apache.commons.lang3.StringUtils.*;
 
 /**
@@ -36,6 +42,15 @@ public class DialectUtils {
 
     public static final String NULL = "NULL";
 
+    /**
+     * Width of a column of unknown size used to estimate the width of a row
+     */
+    public static final int COLUMN_WIDTH = 8;
+    /**
+     * Limits width of LOB and other wide columns estimating the width of a row
+     */
+    public static final int MAX_COLUMN_WIDTH = 4096;
+
     public static String stripQuotes(Dialect dialect, String name) {
         String openQuote = dialect.openQuote();
         String closeQuote = dialect.closeQuote();
@@ -45,4 +60,19 @@ public class DialectUtils {
         }
         return name;
     }
+
+    /**
+     * Estimates width of a row in bytes from the sizes of its columns.
+     *
+     * @param fields columns of the row.
+     * @return estimated row width, at least one byte.
+     */
+    public static long getRowWidth(Collection<? extends Field> fields) {
+        long rowWidth = 0;
+        for (Field field : fields) {
+            Integer size = field.getSize();
+            rowWidth += size != null && size > 0 ? min(size, MAX_COLUMN_WIDTH) : COLUMN_WIDTH;
+        }
+        return max(rowWidth, 1);
+    }
 }
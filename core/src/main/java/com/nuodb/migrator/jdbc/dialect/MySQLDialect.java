@@ -91,6 +91,16 @@ public class MySQLDialect extends SimpleDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsSnapshot() {
+        return true;
+    }
+
+    @Override
+    public Snapshot createSnapshot(Connection connection) throws SQLException {
+        return new MySQLSnapshot(this, connection);
+    }
+
     @Override
     public boolean supportsColumnCheck() {
         return false;
@@ -151,6 +161,19 @@ public class MySQLDialect extends SimpleDialect {
         statement.setFetchSize(streamResults ? Integer.MIN_VALUE : 0);
     }
 
+    /**
+     * MySQL driver ignores positive fetch sizes unless server side cursors are enabled with useCursorFetch, so the
+     * rows are streamed one by one instead, which is bounded in memory regardless of the row width.
+     *
+     * @param statement to stream results of.
+     * @param fetchSize ignored.
+     * @throws SQLException
+     */
+    @Override
+    public void setFetchSize(Statement statement, int fetchSize) throws SQLException {
+        setStreamResults(statement, true);
+    }
+
     @Override
     public boolean supportsLimit() {
         return true;
@@ -161,6 +184,16 @@ public class MySQLDialect extends SimpleDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return true;
+    }
+
+    @Override
+    public int getMaxParameters() {
+        return 65535;
+    }
+
     @Override
     public boolean supportsCatalogs() {
         return true;
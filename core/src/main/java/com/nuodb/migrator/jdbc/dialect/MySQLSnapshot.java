@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.dialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static java.sql.Connection.TRANSACTION_REPEATABLE_READ;
+
+/**
+ * MySQL can't share a snapshot between connections, instead all the connections start their transactions with
+ * consistent snapshot under a global read lock, which is released as soon as the last connection joins.
+ */
+public class MySQLSnapshot extends SnapshotBase {
+
+    private boolean locked;
+
+    public MySQLSnapshot(Dialect dialect, Connection connection) throws SQLException {
+        super(dialect, connection);
+        execute(connection, "FLUSH TABLES WITH READ LOCK");
+        locked = true;
+        join(connection);
+    }
+
+    @Override
+    public void join(Connection connection) throws SQLException {
+        if (!locked) {
+            throw new DialectException("Global read lock is released, connection can't join the snapshot");
+        }
+        begin(connection, TRANSACTION_REPEATABLE_READ);
+        execute(connection, "START TRANSACTION WITH CONSISTENT SNAPSHOT");
+    }
+
+    @Override
+    public void joined() throws SQLException {
+        if (locked) {
+            execute(getConnection(), "UNLOCK TABLES");
+            locked = false;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        joined();
+        super.close();
+    }
+}
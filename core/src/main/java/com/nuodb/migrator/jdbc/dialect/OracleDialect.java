@@ -34,6 +34,7 @@ import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.type.JdbcTypeDesc;
 import com.nuodb.migrator.match.Regex;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -124,6 +125,16 @@ public class OracleDialect extends SimpleDialect {
         return newArrayList(TRANSACTION_READ_COMMITTED, TRANSACTION_SERIALIZABLE).contains(level);
     }
 
+    @Override
+    public boolean supportsSnapshot() {
+        return true;
+    }
+
+    @Override
+    public Snapshot createSnapshot(Connection connection) throws SQLException {
+        return new OracleSnapshot(this, connection);
+    }
+
     @Override
     public boolean supportsSessionTimeZone() {
         return true;
@@ -209,6 +220,16 @@ public class OracleDialect extends SimpleDialect {
         return new OracleLimitHandler(this, query, queryLimit);
     }
 
+    @Override
+    public boolean supportsTableSample() {
+        return true;
+    }
+
+    @Override
+    public String getTableSample(String table, double percent) {
+        return table + " SAMPLE (" + BigDecimal.valueOf(percent).toPlainString() + ")";
+    }
+
     @Override
     public boolean supportsRowCount(Table table, Column column, String filter, RowCountType rowCountType) {
         return (rowCountType == APPROX && column == null && filter == null) || (rowCountType == EXACT);
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.dialect;
+
+import com.nuodb.migrator.jdbc.JdbcUtils;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static java.lang.Long.parseLong;
+import static java.sql.Connection.TRANSACTION_READ_COMMITTED;
+
+/**
+ * Captures current system change number and puts the exporting and the joining sessions to flashback mode at this
+ * number, queries of the sessions then read the data as of the captured SCN.
+ */
+public class OracleSnapshot extends SnapshotBase {
+
+    private final long scn;
+
+    public OracleSnapshot(Dialect dialect, Connection connection) throws SQLException {
+        super(dialect, connection);
+        scn = parseLong(executeQuery(connection, "SELECT DBMS_FLASHBACK.GET_SYSTEM_CHANGE_NUMBER FROM DUAL"));
+        // high watermarks and row counts are selected on the exporting connection
+        join(connection);
+    }
+
+    @Override
+    public void join(Connection connection) throws SQLException {
+        // flashback mode can only be enabled at the beginning of a transaction
+        begin(connection, TRANSACTION_READ_COMMITTED);
+        CallableStatement statement = connection.prepareCall(
+                "BEGIN DBMS_FLASHBACK.ENABLE_AT_SYSTEM_CHANGE_NUMBER(?); END;");
+        try {
+            statement.setLong(1, scn);
+            statement.execute();
+        } finally {
+            JdbcUtils.close(statement);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        execute(getConnection(), "BEGIN DBMS_FLASHBACK.DISABLE; END;");
+        super.close();
+    }
+
+    public long getScn() {
+        return scn;
+    }
+}
@@ -33,6 +33,7 @@ import com.nuodb.migrator.jdbc.metadata.Identifiable;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -76,6 +77,16 @@ public class PostgreSQLDialect extends SimpleDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsSnapshot() {
+        return true;
+    }
+
+    @Override
+    public Snapshot createSnapshot(Connection connection) throws SQLException {
+        return new PostgreSQLSnapshot(this, connection);
+    }
+
     @Override
     public void setSessionTimeZone(Connection connection, TimeZone timeZone) throws SQLException {
         Statement statement = connection.createStatement();
@@ -87,6 +98,24 @@ public class PostgreSQLDialect extends SimpleDialect {
         }
     }
 
+    /**
+     * PostgreSQL driver fetches all the rows at once unless the statement is executed in a transaction, so auto commit
+     * is turned off to fetch rows with a cursor. The caller restores auto commit of the connection once the rows are
+     * fetched and the statement is closed.
+     *
+     * @param statement to set fetch size on.
+     * @param fetchSize number of rows to fetch at once.
+     * @throws SQLException
+     */
+    @Override
+    public void setFetchSize(Statement statement, int fetchSize) throws SQLException {
+        Connection connection = statement.getConnection();
+        if (connection.getAutoCommit()) {
+            connection.setAutoCommit(false);
+        }
+        statement.setFetchSize(fetchSize);
+    }
+
     protected String timeZoneAsValue(TimeZone timeZone) {
         int rawOffset = timeZone.getRawOffset();
         int dstSavings = timeZone.getDSTSavings();
@@ -139,6 +168,16 @@ public class PostgreSQLDialect extends SimpleDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return true;
+    }
+
+    @Override
+    public int getMaxParameters() {
+        return 32767;
+    }
+
     @Override
     public boolean supportsCatalogs() {
         return true;
@@ -154,6 +193,23 @@ public class PostgreSQLDialect extends SimpleDialect {
         return new PostgreSQLLimitHandler(this, query, queryLimit);
     }
 
+    /**
+     * TABLESAMPLE clause is available since PostgreSQL 9.5
+     */
+    @Override
+    public boolean supportsTableSample() {
+        DatabaseInfo databaseInfo = getDatabaseInfo();
+        Integer majorVersion = databaseInfo != null ? databaseInfo.getMajorVersion() : null;
+        Integer minorVersion = databaseInfo != null ? databaseInfo.getMinorVersion() : null;
+        return majorVersion != null && (majorVersion > 9 || (majorVersion == 9 && minorVersion != null &&
+                minorVersion >= 5));
+    }
+
+    @Override
+    public String getTableSample(String table, double percent) {
+        return table + " TABLESAMPLE SYSTEM (" + BigDecimal.valueOf(percent).toPlainString() + ")";
+    }
+
     @Override
     public boolean supportsRowCount(Table table, Column column, String filter, RowCountType rowCountType) {
         return rowCountType == APPROX || rowCountType == EXACT;
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.dialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static java.sql.Connection.TRANSACTION_REPEATABLE_READ;
+
+/**
+ * Exports snapshot of the repeatable read transaction with pg_export_snapshot() and imports it to the joining
+ * transactions with SET TRANSACTION SNAPSHOT. The exporting transaction is kept open until the snapshot is closed.
+ */
+public class PostgreSQLSnapshot extends SnapshotBase {
+
+    private final String snapshotId;
+
+    public PostgreSQLSnapshot(Dialect dialect, Connection connection) throws SQLException {
+        super(dialect, connection);
+        begin(connection, TRANSACTION_REPEATABLE_READ);
+        snapshotId = executeQuery(connection, "SELECT pg_export_snapshot()");
+    }
+
+    @Override
+    public void join(Connection connection) throws SQLException {
+        begin(connection, TRANSACTION_REPEATABLE_READ);
+        execute(connection, "SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+    }
+
+    public String getSnapshotId() {
+        return snapshotId;
+    }
+}
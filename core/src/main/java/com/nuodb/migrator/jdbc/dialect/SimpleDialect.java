@@ -38,6 +38,7 @@ import com.nuodb.migrator.jdbc.metadata.TriggerEvent;
 import com.nuodb.migrator.jdbc.metadata.TriggerTime;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.metadata.resolver.SimpleServiceResolverAware;
+import com.nuodb.migrator.jdbc.model.Field;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.type.JdbcType;
 import com.nuodb.migrator.jdbc.type.JdbcTypeAdapter;
@@ -68,9 +69,12 @@ import java.util.regex.Pattern;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.jdbc.dialect.DialectUtils.NULL;
+import static com.nuodb.migrator.jdbc.dialect.DialectUtils.getRowWidth;
 import static com.nuodb.migrator.jdbc.dialect.IdentifierNormalizers.NOOP;
 import static com.nuodb.migrator.jdbc.dialect.IdentifierQuotings.ALWAYS;
 import static com.nuodb.migrator.jdbc.dialect.RowCountType.EXACT;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.String.valueOf;
 import static java.sql.Connection.*;
 import static org.apache.commons.lang3.StringUtils.equalsIgnoreCase;
@@ -80,6 +84,15 @@ import static org.apache.commons.lang3.StringUtils.equalsIgnoreCase;
  */
 public class SimpleDialect extends SimpleServiceResolverAware<Dialect> implements Dialect {
 
+    /**
+     * Minimum number of rows fetched in a single round trip
+     */
+    public static final int MIN_FETCH_SIZE = 100;
+    /**
+     * Maximum number of rows fetched in a single round trip
+     */
+    public static final int MAX_FETCH_SIZE = 10000;
+
     private static final Pattern ALLOWED_IDENTIFIER_PATTERN = Pattern.compile("[a-zA-Z0-9_]*");
     private static final ScriptEscapeUtils SCRIPT_ESCAPE_UTILS = new ScriptEscapeUtils(
             new LookupTranslator(new String[][]{
@@ -241,6 +254,17 @@ public class SimpleDialect extends SimpleServiceResolverAware<Dialect> implement
         return "VALUES ()";
     }
 
+    /**
+     * Maximum number of parameters in a prepared statement, conservative by default as the limit depends on the
+     * driver.
+     *
+     * @return maximum number of parameter markers.
+     */
+    @Override
+    public int getMaxParameters() {
+        return 2000;
+    }
+
     @Override
     public String getNullColumnString() {
         return "";
@@ -278,6 +302,16 @@ public class SimpleDialect extends SimpleServiceResolverAware<Dialect> implement
         ).contains(level);
     }
 
+    @Override
+    public boolean supportsSnapshot() {
+        return false;
+    }
+
+    @Override
+    public Snapshot createSnapshot(Connection connection) throws SQLException {
+        throw new DialectException("Consistent snapshot is not supported by " + getClass().getName());
+    }
+
     @Override
     public void setTransactionIsolation(Connection connection, int[] levels) throws SQLException {
         if (levels != null) {
@@ -433,6 +467,34 @@ public class SimpleDialect extends SimpleServiceResolverAware<Dialect> implement
         return false;
     }
 
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return false;
+    }
+
+    /**
+     * Supports selecting a random sample of table rows, which is used to pick split boundaries without counting or
+     * scanning all of the table rows.
+     *
+     * @return true if table sample clause is supported.
+     */
+    @Override
+    public boolean supportsTableSample() {
+        return false;
+    }
+
+    /**
+     * Returns table reference restricted to a random sample of its rows.
+     *
+     * @param table   table name.
+     * @param percent percentage of rows to sample.
+     * @return table reference with sample clause.
+     */
+    @Override
+    public String getTableSample(String table, double percent) {
+        return table;
+    }
+
     @Override
     public boolean supportsCatalogs() {
         return false;
@@ -680,6 +742,25 @@ public class SimpleDialect extends SimpleServiceResolverAware<Dialect> implement
     public void setStreamResults(Statement statement, boolean streamResults) throws SQLException {
     }
 
+    /**
+     * Number of rows of the estimated width fitting into the fetch memory, bounded by {@link #MIN_FETCH_SIZE} and
+     * {@link #MAX_FETCH_SIZE} so that narrow rows don't exhaust the driver and wide rows are still fetched in batches.
+     *
+     * @param fields      fetched columns.
+     * @param fetchMemory memory in bytes available for the rows of a single fetch.
+     * @return fetch size.
+     */
+    @Override
+    public int getFetchSize(Collection<? extends Field> fields, long fetchMemory) {
+        long fetchSize = fetchMemory / getRowWidth(fields);
+        return (int) max(min(fetchSize, MAX_FETCH_SIZE), MIN_FETCH_SIZE);
+    }
+
+    @Override
+    public void setFetchSize(Statement statement, int fetchSize) throws SQLException {
+        statement.setFetchSize(fetchSize);
+    }
+
     @Override
     public boolean supportsDropConstraints() {
         return true;
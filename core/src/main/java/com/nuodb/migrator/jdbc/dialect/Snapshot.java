@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.dialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Point in time view of the database exported by one connection and shared by the connections joining it, so that
+ * queries running concurrently on different connections observe the same data. The exporting connection reads the
+ * data as of the snapshot too until the snapshot is closed.
+ */
+public interface Snapshot {
+
+    Dialect getDialect();
+
+    /**
+     * Makes all subsequent queries on the connection read the data as of this snapshot.
+     *
+     * @param connection to join to the snapshot.
+     * @throws SQLException if the connection can't join the snapshot.
+     */
+    void join(Connection connection) throws SQLException;
+
+    /**
+     * Invoked once all the connections have joined, releases locks held while the connections were joining.
+     *
+     * @throws SQLException if the locks can't be released.
+     */
+    void joined() throws SQLException;
+
+    /**
+     * Releases the snapshot on the exporting connection.
+     *
+     * @throws SQLException if the snapshot can't be released.
+     */
+    void close() throws SQLException;
+}
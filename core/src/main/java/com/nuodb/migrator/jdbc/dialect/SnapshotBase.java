@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.dialect;
+
+import com.nuodb.migrator.jdbc.JdbcUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+
+public abstract class SnapshotBase implements Snapshot {
+
+    private Dialect dialect;
+    private Connection connection;
+
+    protected SnapshotBase(Dialect dialect, Connection connection) {
+        this.dialect = dialect;
+        this.connection = connection;
+    }
+
+    /**
+     * Ends the current transaction on the connection, so that the next statement starts a new one with the specified
+     * isolation level.
+     *
+     * @param connection to start transaction on.
+     * @param level      transaction isolation level.
+     * @throws SQLException if transaction can't be started.
+     */
+    protected void begin(Connection connection, int level) throws SQLException {
+        if (connection.getAutoCommit()) {
+            connection.setAutoCommit(false);
+        } else {
+            connection.commit();
+        }
+        if (connection.getTransactionIsolation() != level) {
+            connection.setTransactionIsolation(level);
+        }
+    }
+
+    protected void execute(Connection connection, String query) throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            statement.execute(query);
+        } finally {
+            JdbcUtils.close(statement);
+        }
+    }
+
+    protected String executeQuery(Connection connection, String query) throws SQLException {
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = null;
+        try {
+            resultSet = statement.executeQuery(query);
+            if (!resultSet.next()) {
+                throw new DialectException("Snapshot query returned no rows " + query);
+            }
+            return resultSet.getString(1);
+        } finally {
+            JdbcUtils.close(resultSet);
+            JdbcUtils.close(statement);
+        }
+    }
+
+    @Override
+    public void joined() throws SQLException {
+    }
+
+    @Override
+    public void close() throws SQLException {
+        Connection connection = getConnection();
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+    }
+
+    @Override
+    public Dialect getDialect() {
+        return dialect;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+}
@@ -46,6 +46,7 @@ public class InsertQueryBuilder implements QueryBuilder<InsertQuery> {
     private InsertType insertType;
     private Table table;
     private boolean qualifyNames = QUALIFY_NAMES;
+    private int rows = 1;
     private Collection<String> columns = Lists.newArrayList();
 
     @Override
@@ -54,6 +55,7 @@ public class InsertQueryBuilder implements QueryBuilder<InsertQuery> {
         insertQuery.setInsertType(insertType);
         insertQuery.setQualifyNames(qualifyNames);
         insertQuery.setInto(table);
+        insertQuery.setRows(rows);
         Database database = table.getDatabase();
         if (dialect != null) {
             insertQuery.setDialect(dialect);
@@ -93,6 +95,11 @@ public class InsertQueryBuilder implements QueryBuilder<InsertQuery> {
         return this;
     }
 
+    public InsertQueryBuilder rows(int rows) {
+        this.rows = rows;
+        return this;
+    }
+
     public InsertQueryBuilder columns(Collection<String> columns) {
         this.columns = columns;
         return this;
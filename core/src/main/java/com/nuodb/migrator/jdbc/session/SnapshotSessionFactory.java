@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.session;
+
+import com.nuodb.migrator.jdbc.JdbcUtils;
+import com.nuodb.migrator.jdbc.dialect.Snapshot;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+
+import static com.google.common.collect.Maps.newConcurrentMap;
+import static com.google.common.collect.Queues.newLinkedBlockingQueue;
+import static java.lang.String.format;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Hands out sessions joined to the shared snapshot. As some databases require all the sessions to join the snapshot
+ * while a global lock is held, the sessions are opened at once by {@link #join(int)} and reused afterwards, a session
+ * closed by a caller is returned to the pool and is closed for real by {@link #close()}.
+ */
+public class SnapshotSessionFactory extends SessionFactoryBase {
+
+    private final transient Logger logger = getLogger(getClass());
+
+    private final SessionFactory sessionFactory;
+    private final Snapshot snapshot;
+    private final Map<Connection, Session> sessions = newConcurrentMap();
+    private final BlockingQueue<Session> idleSessions = newLinkedBlockingQueue();
+
+    public SnapshotSessionFactory(SessionFactory sessionFactory, Snapshot snapshot) {
+        this.sessionFactory = sessionFactory;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Opens the specified number of sessions and joins them to the snapshot.
+     *
+     * @param sessions number of sessions to open, which is the maximum number of concurrently open sessions.
+     * @throws SQLException if session can't be opened or can't join the snapshot.
+     */
+    public void join(int sessions) throws SQLException {
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Joining %d session(s) to the snapshot", sessions));
+        }
+        try {
+            for (int index = 0; index < sessions; index++) {
+                Session session = sessionFactory.openSession();
+                this.sessions.put(session.getConnection(), session);
+                snapshot.join(session.getConnection());
+                idleSessions.add(session);
+            }
+        } finally {
+            snapshot.joined();
+        }
+    }
+
+    @Override
+    protected Session open(Map<Object, Object> context) throws SQLException {
+        Session session;
+        try {
+            session = idleSessions.take();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new SessionException("Waiting for a snapshot session was interrupted", exception);
+        }
+        return new SessionBase(this, session.getConnection(), session.getDialect(), context);
+    }
+
+    @Override
+    protected void close(Session session) throws SQLException {
+        Session pooled = sessions.get(session.getConnection());
+        if (pooled != null) {
+            idleSessions.add(pooled);
+        }
+    }
+
+    /**
+     * Closes all the sessions joined to the snapshot.
+     */
+    public void close() {
+        for (Session session : sessions.values()) {
+            JdbcUtils.close(session);
+        }
+        sessions.clear();
+        idleSessions.clear();
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+}
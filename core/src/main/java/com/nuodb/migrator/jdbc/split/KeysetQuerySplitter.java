@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.split;
+
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.LimitHandler;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
+import com.nuodb.migrator.jdbc.query.SelectQueryBuilder;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+
+import static com.nuodb.migrator.jdbc.JdbcUtils.close;
+import static com.nuodb.migrator.jdbc.query.Queries.newQuery;
+import static com.nuodb.migrator.jdbc.query.QueryLimitUtils.getCount;
+import static java.util.Collections.singleton;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Splits table by ranges of an ordered single column key, each split selects rows with {@code key > ? AND key <= ?},
+ * where the upper bound is the key of the {@link QueryLimit#getCount()}-th row following the lower bound. Unlike
+ * limit splitter, which skips all preceding rows with {@code OFFSET}, the cost of a split doesn't depend on its
+ * position in the table and the splits are disjoint regardless of the rows order. The last split is open ended.
+ */
+public class KeysetQuerySplitter extends QuerySplitterBase<PreparedStatement> {
+
+    private final Dialect dialect;
+    private final Table table;
+    private final Collection<Column> columns;
+    private final String filter;
+    private final Column key;
+
+    private Object lowerKey;
+    private boolean lastQuerySplit;
+
+    protected KeysetQuerySplitter(Dialect dialect, Table table, Collection<Column> columns, String filter,
+                                  Column key, QueryLimit queryLimit) {
+        super(newQuery(table, columns, filter), queryLimit, null);
+        this.dialect = dialect;
+        this.table = table;
+        this.columns = columns;
+        this.filter = filter;
+        this.key = key;
+    }
+
+    @Override
+    protected boolean hasNextQuerySplit(Connection connection, int splitIndex) throws SQLException {
+        return splitIndex == 0 || !lastQuerySplit;
+    }
+
+    @Override
+    protected QueryLimit createQueryLimit(Connection connection, int splitIndex) throws SQLException {
+        long count = getCount(getQueryLimit());
+        Object upperKey = getUpperKey(connection, lowerKey, count);
+        KeysetQueryLimit keysetQueryLimit = new KeysetQueryLimit(count, lowerKey, upperKey);
+        lowerKey = upperKey;
+        lastQuerySplit = upperKey == null;
+        return keysetQueryLimit;
+    }
+
+    /**
+     * Selects key of the row closing the split, which is the count-th row with the key above the lower key.
+     *
+     * @param connection connection to select key with.
+     * @param lowerKey   lower exclusive key or null for the first split.
+     * @param count      number of rows per split.
+     * @return upper inclusive key or null if less than count rows are remaining.
+     * @throws SQLException if selecting key fails.
+     */
+    protected Object getUpperKey(Connection connection, Object lowerKey, long count) throws SQLException {
+        SelectQuery query = createQuery(singleton(key), lowerKey, null);
+        query.orderBy(key.getName(dialect));
+        LimitHandler limitHandler = dialect.createLimitHandler(query.toString(), new QueryLimit(1L, count - 1));
+        PreparedStatement statement = connection.prepareStatement(limitHandler.getLimitQuery(true));
+        ResultSet resultSet = null;
+        try {
+            int column = 1;
+            column += limitHandler.bindParametersAtStart(statement, column);
+            column += bindKeys(statement, column, lowerKey, null);
+            limitHandler.bindParametersAtEnd(statement, column);
+            resultSet = statement.executeQuery();
+            return resultSet.next() ? resultSet.getObject(1) : null;
+        } finally {
+            close(resultSet);
+            close(statement);
+        }
+    }
+
+    /**
+     * Creates query restricted to the range of keys, where null key leaves corresponding side of the range open.
+     */
+    protected SelectQuery createQuery(Collection<Column> columns, Object lowerKey, Object upperKey) {
+        SelectQueryBuilder builder = new SelectQueryBuilder();
+        builder.dialect(dialect);
+        builder.from(table);
+        if (columns != null) {
+            for (Column column : columns) {
+                builder.column(column);
+            }
+        }
+        if (!isEmpty(filter)) {
+            builder.filter("(" + filter + ")");
+        }
+        String name = key.getName(dialect);
+        if (lowerKey != null) {
+            builder.filter(name + " > ?");
+        }
+        if (upperKey != null) {
+            builder.filter(name + " <= ?");
+        }
+        return builder.build();
+    }
+
+    protected int bindKeys(PreparedStatement statement, int column, Object lowerKey,
+                           Object upperKey) throws SQLException {
+        int count = 0;
+        if (lowerKey != null) {
+            statement.setObject(column + count++, lowerKey);
+        }
+        if (upperKey != null) {
+            statement.setObject(column + count++, upperKey);
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isParameterized() {
+        return true;
+    }
+
+    @Override
+    protected PreparedStatement createStatement(Connection connection, QueryLimit queryLimit,
+                                                int splitIndex) throws SQLException {
+        return prepareStatement(connection, queryLimit, splitIndex);
+    }
+
+    @Override
+    protected PreparedStatement prepareStatement(Connection connection, QueryLimit queryLimit,
+                                                 int splitIndex) throws SQLException {
+        KeysetQueryLimit keysetQueryLimit = (KeysetQueryLimit) queryLimit;
+        Query query = createQuery(columns, keysetQueryLimit.getLowerKey(), keysetQueryLimit.getUpperKey());
+        PreparedStatement statement = connection.prepareStatement(query.toString());
+        bindKeys(statement, 1, keysetQueryLimit.getLowerKey(), keysetQueryLimit.getUpperKey());
+        return statement;
+    }
+
+    @Override
+    protected ResultSet executeStatement(PreparedStatement statement, QueryLimit queryLimit,
+                                         int splitIndex) throws SQLException {
+        return statement.executeQuery();
+    }
+
+    public Dialect getDialect() {
+        return dialect;
+    }
+
+    public Column getKey() {
+        return key;
+    }
+
+    public Table getTable() {
+        return table;
+    }
+
+    public Collection<Column> getColumns() {
+        return columns;
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    /**
+     * Query limit of a split holding its range of keys.
+     */
+    public static class KeysetQueryLimit extends QueryLimit {
+
+        private final Object lowerKey;
+        private final Object upperKey;
+
+        public KeysetQueryLimit(Long count, Object lowerKey, Object upperKey) {
+            super(count);
+            this.lowerKey = lowerKey;
+            this.upperKey = upperKey;
+        }
+
+        public Object getLowerKey() {
+            return lowerKey;
+        }
+
+        public Object getUpperKey() {
+            return upperKey;
+        }
+    }
+}
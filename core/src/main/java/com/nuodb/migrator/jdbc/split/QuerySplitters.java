@@ -28,13 +28,22 @@
 package com.nuodb.migrator.jdbc.split;
 
 import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.RowCountType;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Index;
+import com.nuodb.migrator.jdbc.metadata.PrimaryKey;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.query.Query;
 
+import java.sql.PreparedStatement;
 import java.sql.Statement;
+import java.util.Collection;
 
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.nuodb.migrator.jdbc.dialect.RowCountType.APPROX;
 import static com.nuodb.migrator.jdbc.dialect.RowCountType.EXACT;
+import static java.sql.Types.*;
 
 /**
  * Static factories for creating query splitters.
@@ -44,12 +53,104 @@ import static com.nuodb.migrator.jdbc.dialect.RowCountType.EXACT;
 public class QuerySplitters {
 
     public static boolean supportsLimitSplitter(Dialect dialect, Table table, String filter) {
-        return dialect.supportsLimitOffset() && dialect.supportsRowCount(table, null, filter, EXACT);
+        return supportsLimitSplitter(dialect, table, filter, EXACT);
+    }
+
+    public static boolean supportsLimitSplitter(Dialect dialect, Table table, String filter,
+                                                RowCountType rowCountType) {
+        return dialect.supportsLimitOffset() && dialect.supportsRowCount(table, null, filter, rowCountType);
     }
 
     public static QuerySplitter<Statement> newLimitSplitter(Dialect dialect, RowCountStrategy rowCountStrategy,
                                                             Query query, QueryLimit queryLimit) {
-        return new LimitQuerySplitter(dialect, rowCountStrategy, query, queryLimit, null);
+        return newLimitSplitter(dialect, rowCountStrategy, EXACT, query, queryLimit);
+    }
+
+    /**
+     * Creates limit splitter sizing splits by the row count of the given type, if the row count is approximate the
+     * last split is open-ended.
+     */
+    public static QuerySplitter<Statement> newLimitSplitter(Dialect dialect, RowCountStrategy rowCountStrategy,
+                                                            RowCountType rowCountType, Query query,
+                                                            QueryLimit queryLimit) {
+        return new LimitQuerySplitter(dialect, rowCountStrategy, rowCountType, query, queryLimit, null);
+    }
+
+    public static boolean supportsKeysetSplitter(Dialect dialect, Table table) {
+        return dialect.supportsLimitOffset() && getKeysetKey(table) != null;
+    }
+
+    /**
+     * Returns column of the single column primary key or of the single column unique index on a not nullable
+     * column, which rows can be split by.
+     *
+     * @param table to find key column of.
+     * @return key column or null if the table has no suitable key.
+     */
+    public static Column getKeysetKey(Table table) {
+        PrimaryKey primaryKey = table.getPrimaryKey();
+        if (primaryKey != null && primaryKey.getColumns().size() == 1) {
+            return getOnlyElement(primaryKey.getColumns());
+        }
+        for (Index index : table.getIndexes()) {
+            Collection<Column> columns = index.getColumns();
+            if (index.isUnique() && columns.size() == 1 && !getOnlyElement(columns).isNullable()) {
+                return getOnlyElement(columns);
+            }
+        }
+        return null;
+    }
+
+    public static QuerySplitter<PreparedStatement> newKeysetSplitter(Dialect dialect, Table table,
+                                                                     Collection<Column> columns, String filter,
+                                                                     QueryLimit queryLimit) {
+        return new KeysetQuerySplitter(dialect, table, columns, filter, getKeysetKey(table), queryLimit);
+    }
+
+    public static boolean supportsRangeSplitter(Dialect dialect, Table table) {
+        return supportsRangeSplitter(dialect, table, null);
+    }
+
+    /**
+     * Range splitter plans splits from a table sample if the dialect supports sampling, or from minimum and maximum
+     * of an integral key, or of a temporal key if the dialect estimates row count of the table from its statistics.
+     */
+    public static boolean supportsRangeSplitter(Dialect dialect, Table table, String filter) {
+        Column key = getKeysetKey(table);
+        return key != null && (dialect.supportsTableSample() || isIntegral(key) ||
+                (isTemporal(key) && dialect.supportsRowCount(table, null, filter, APPROX)));
+    }
+
+    public static boolean isTemporal(Column column) {
+        switch (column.getTypeCode()) {
+            case DATE:
+            case TIME:
+            case TIMESTAMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public static boolean isIntegral(Column column) {
+        switch (column.getTypeCode()) {
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+                return true;
+            case NUMERIC:
+            case DECIMAL:
+                return column.getScale() != null && column.getScale() == 0;
+            default:
+                return false;
+        }
+    }
+
+    public static QuerySplitter<PreparedStatement> newRangeSplitter(Dialect dialect, Table table,
+                                                                    Collection<Column> columns, String filter,
+                                                                    QueryLimit queryLimit) {
+        return new RangeQuerySplitter(dialect, table, columns, filter, getKeysetKey(table), queryLimit);
     }
 
     public static QuerySplitter<Statement> newNoLimitSplitter(Query query) {
@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.split;
+
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.query.SelectQuery;
+import org.slf4j.Logger;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.jdbc.JdbcUtils.close;
+import static com.nuodb.migrator.jdbc.dialect.RowCountType.APPROX;
+import static com.nuodb.migrator.jdbc.query.QueryLimitUtils.getCount;
+import static com.nuodb.migrator.jdbc.split.QuerySplitters.isIntegral;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.math.BigInteger.ONE;
+import static java.math.BigInteger.valueOf;
+import static java.sql.Types.DATE;
+import static java.sql.Types.TIME;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Splits table by key ranges planned up front without counting table rows. If the dialect supports table sampling
+ * the boundaries are quantiles of keys selected from a random sample of the table, which is sized to hold about
+ * {@link #SAMPLE_ROWS} keys per split. Otherwise the key is expected to be integral or temporal and the span between
+ * its {@code MIN} and {@code MAX} values is cut into ranges of equal width. For integral keys the number of ranges is
+ * the span divided by {@link QueryLimit#getCount()}, which matches the number of rows per split for dense keys. For
+ * temporal keys, which are cut in milliseconds, it's the row count estimated by the dialect from table statistics
+ * divided by {@link QueryLimit#getCount()}, a single range is planned if there is no estimate. The number of ranges
+ * is capped by {@link #MAX_SPLITS}. The last range is open-ended, so that rows with keys above the selected maximum
+ * are dumped too.
+ */
+public class RangeQuerySplitter extends KeysetQuerySplitter {
+
+    /**
+     * Number of sampled keys per split
+     */
+    public static final int SAMPLE_ROWS = 100;
+    /**
+     * Bounds of sample percent accepted by the dialects
+     */
+    public static final double MIN_SAMPLE_PERCENT = 0.000001;
+    public static final double MAX_SAMPLE_PERCENT = 99.999999;
+    /**
+     * Maximum number of splits planned from minimum and maximum keys
+     */
+    public static final int MAX_SPLITS = 10000;
+
+    protected final transient Logger logger = getLogger(getClass());
+
+    private List<Object> sampleKeys;
+    private BigInteger minKey;
+    private BigInteger rangeWidth;
+    private int splits;
+    private boolean planned;
+
+    protected RangeQuerySplitter(Dialect dialect, Table table, Collection<Column> columns, String filter,
+                                 Column key, QueryLimit queryLimit) {
+        super(dialect, table, columns, filter, key, queryLimit);
+    }
+
+    @Override
+    protected boolean hasNextQuerySplit(Connection connection, int splitIndex) throws SQLException {
+        plan(connection);
+        return splitIndex == 0 || splitIndex < getSplits();
+    }
+
+    @Override
+    protected QueryLimit createQueryLimit(Connection connection, int splitIndex) throws SQLException {
+        plan(connection);
+        return new KeysetQueryLimit(getCount(getQueryLimit()), getLowerKey(splitIndex), getUpperKey(splitIndex));
+    }
+
+    protected void plan(Connection connection) throws SQLException {
+        if (planned) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        if (getDialect().supportsTableSample()) {
+            sampleKeys = getSampleKeys(connection);
+        } else {
+            selectMinMaxKeys(connection);
+        }
+        planned = true;
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Planned %d split(s) of %s table in %d ms", getSplits(),
+                    getTable().getQualifiedName(null), System.currentTimeMillis() - start));
+        }
+    }
+
+    /**
+     * Selects keys from a random sample of the table, keeping every {@link #SAMPLE_ROWS}-th of the ordered sampled
+     * keys as an upper bound of a split.
+     */
+    protected List<Object> getSampleKeys(Connection connection) throws SQLException {
+        long count = getCount(getQueryLimit());
+        double percent = min(max(100.0 * SAMPLE_ROWS / count, MIN_SAMPLE_PERCENT), MAX_SAMPLE_PERCENT);
+        long step = max(1, Math.round(count * percent / 100));
+        String key = getKey().getName(getDialect());
+        SelectQuery query = createQuery(key, getDialect().getTableSample(
+                getTable().getQualifiedName(getDialect()), percent));
+        query.orderBy(key);
+        List<Object> sampleKeys = newArrayList();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = null;
+        try {
+            resultSet = statement.executeQuery(query.toString());
+            for (long row = 1; resultSet.next(); row++) {
+                if (row % step == 0) {
+                    sampleKeys.add(resultSet.getObject(1));
+                }
+            }
+        } finally {
+            close(resultSet);
+            close(statement);
+        }
+        return sampleKeys;
+    }
+
+    /**
+     * Selects minimum and maximum keys and plans the number of splits and the width of their ranges, the number of
+     * splits for temporal keys is sized by the estimated row count.
+     */
+    protected void selectMinMaxKeys(Connection connection) throws SQLException {
+        String key = getKey().getName(getDialect());
+        SelectQuery query = createQuery("MIN(" + key + "), MAX(" + key + ")",
+                getTable().getQualifiedName(getDialect()));
+        BigInteger minKey = null;
+        BigInteger maxKey = null;
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = null;
+        try {
+            resultSet = statement.executeQuery(query.toString());
+            if (resultSet.next()) {
+                minKey = getIntegerKey(resultSet, 1);
+                maxKey = getIntegerKey(resultSet, 2);
+            }
+        } finally {
+            close(resultSet);
+            close(statement);
+        }
+        if (minKey != null && maxKey != null) {
+            BigInteger span = maxKey.subtract(minKey).add(ONE);
+            BigInteger count = valueOf(getCount(getQueryLimit()));
+            BigInteger rows;
+            if (isIntegral(getKey())) {
+                rows = span;
+            } else {
+                Long rowCount = getRowCount(connection);
+                rows = rowCount != null ? valueOf(rowCount) : ONE;
+            }
+            BigInteger splits = rows.add(count.subtract(ONE)).divide(count);
+            this.splits = splits.min(valueOf(MAX_SPLITS)).max(ONE).intValue();
+            this.rangeWidth = span.add(valueOf(this.splits - 1)).divide(valueOf(this.splits));
+            this.minKey = minKey;
+        }
+    }
+
+    /**
+     * Estimates row count of the table from its statistics with the dialect's approximate row count handler.
+     *
+     * @return estimated row count or null if the dialect can't estimate it.
+     */
+    protected Long getRowCount(Connection connection) {
+        Dialect dialect = getDialect();
+        Table table = getTable();
+        if (!dialect.supportsRowCount(table, null, getFilter(), APPROX)) {
+            return null;
+        }
+        try {
+            return dialect.createRowCountHandler(table, null, getFilter(), APPROX).getRowCount(connection);
+        } catch (SQLException exception) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(format("Can't estimate row count of %s table, planning single split",
+                        table.getQualifiedName(null)), exception);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Reads key from the result set as an integer, temporal keys are read as milliseconds.
+     */
+    protected BigInteger getIntegerKey(ResultSet resultSet, int column) throws SQLException {
+        if (isIntegral(getKey())) {
+            BigDecimal key = resultSet.getBigDecimal(column);
+            return key != null ? key.toBigInteger() : null;
+        } else {
+            Timestamp key = resultSet.getTimestamp(column);
+            return key != null ? valueOf(key.getTime()) : null;
+        }
+    }
+
+    /**
+     * Converts integer back to a key value of the column type.
+     */
+    protected Object getKeyValue(BigInteger key) {
+        if (isIntegral(getKey())) {
+            return key.bitLength() < Long.SIZE ? (Object) key.longValue() : new BigDecimal(key);
+        }
+        switch (getKey().getTypeCode()) {
+            case DATE:
+                return new Date(key.longValue());
+            case TIME:
+                return new Time(key.longValue());
+            default:
+                return new Timestamp(key.longValue());
+        }
+    }
+
+    protected SelectQuery createQuery(String columns, String from) {
+        SelectQuery query = new SelectQuery();
+        query.setDialect(getDialect());
+        query.column(columns);
+        query.from(from);
+        if (!isEmpty(getFilter())) {
+            query.where(getFilter());
+        }
+        return query;
+    }
+
+    protected int getSplits() {
+        if (sampleKeys != null) {
+            return sampleKeys.size() + 1;
+        } else if (minKey != null) {
+            return splits;
+        } else {
+            return 1;
+        }
+    }
+
+    protected Object getLowerKey(int splitIndex) {
+        return splitIndex > 0 ? getUpperKey(splitIndex - 1) : null;
+    }
+
+    protected Object getUpperKey(int splitIndex) {
+        if (sampleKeys != null) {
+            return splitIndex < sampleKeys.size() ? sampleKeys.get(splitIndex) : null;
+        } else if (minKey != null) {
+            return splitIndex < getSplits() - 1 ? getKeyValue(minKey.add(
+                    rangeWidth.multiply(valueOf(splitIndex + 1))).subtract(ONE)) : null;
+        } else {
+            return null;
+        }
+    }
+}
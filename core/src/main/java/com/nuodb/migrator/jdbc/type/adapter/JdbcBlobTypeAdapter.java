@@ -32,6 +32,7 @@ import com.nuodb.migrator.jdbc.type.JdbcTypeAdapter;
 import com.nuodb.migrator.jdbc.type.JdbcTypeAdapterBase;
 import com.nuodb.migrator.jdbc.type.JdbcTypeException;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Blob;
@@ -97,9 +98,19 @@ public class JdbcBlobTypeAdapter extends JdbcTypeAdapterBase<Blob> {
             }
         } else if (valueClass.isAssignableFrom(InputStream.class)) {
             initBlobBeforeAccess(connection, value);
-            X x = (X) value.getBinaryStream();
-            releaseBlobAfterAccess(connection, value);
-            return x;
+            final Connection blobConnection = connection;
+            final Blob blob = value;
+            return (X) new FilterInputStream(value.getBinaryStream()) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    try {
+                        releaseBlobAfterAccess(blobConnection, blob);
+                    } catch (SQLException exception) {
+                        throw new IOException(exception);
+                    }
+                }
+            };
         } else {
             throw newUnwrapFailure(valueClass);
         }
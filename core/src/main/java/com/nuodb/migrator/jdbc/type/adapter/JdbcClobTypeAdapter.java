@@ -33,6 +33,8 @@ import com.nuodb.migrator.jdbc.type.JdbcTypeAdapter;
 import com.nuodb.migrator.jdbc.type.JdbcTypeAdapterBase;
 import com.nuodb.migrator.jdbc.type.JdbcTypeException;
 
+import java.io.FilterInputStream;
+import java.io.FilterReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -123,19 +125,42 @@ public class JdbcClobTypeAdapter extends JdbcTypeAdapterBase<Clob> {
             }
         } else if (valueClass.isAssignableFrom(Reader.class)) {
             initClobBeforeAccess(connection, value);
-            X x = (X) value.getCharacterStream();
-            releaseClobAfterAccess(connection, value);
-            return x;
+            final Connection clobConnection = connection;
+            final Clob clob = value;
+            return (X) new FilterReader(value.getCharacterStream()) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    releaseClob(clobConnection, clob);
+                }
+            };
         } else if (valueClass.isAssignableFrom(InputStream.class)) {
             initClobBeforeAccess(connection, value);
-            X x = (X) value.getAsciiStream();
-            releaseClobAfterAccess(connection, value);
-            return x;
+            final Connection clobConnection = connection;
+            final Clob clob = value;
+            return (X) new FilterInputStream(value.getAsciiStream()) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    releaseClob(clobConnection, clob);
+                }
+            };
         } else {
             throw newUnwrapFailure(valueClass);
         }
     }
 
+    /**
+     * Releases clob once its stream is closed, as streams can't be read after the clob is released.
+     */
+    private void releaseClob(Connection connection, Clob clob) throws IOException {
+        try {
+            releaseClobAfterAccess(connection, clob);
+        } catch (SQLException exception) {
+            throw new IOException(exception);
+        }
+    }
+
     protected Clob createClob(Connection connection) throws SQLException {
         return jdbcLobTypeSupport.createClob(connection);
     }
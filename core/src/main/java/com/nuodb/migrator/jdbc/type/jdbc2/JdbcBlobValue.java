@@ -28,6 +28,7 @@
 package com.nuodb.migrator.jdbc.type.jdbc2;
 
 import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.type.JdbcStreamBlob;
 import com.nuodb.migrator.jdbc.type.JdbcTypeValue;
 import com.nuodb.migrator.jdbc.type.JdbcTypeValueBase;
 
@@ -54,6 +55,15 @@ public class JdbcBlobValue extends JdbcTypeValueBase<Blob> {
     @Override
     protected void setNullSafeValue(PreparedStatement statement, Blob value, int index,
                                     Field field, Map<String, Object> options) throws SQLException {
-        statement.setBlob(index, value);
+        if (value instanceof JdbcStreamBlob) {
+            long length = value.length();
+            if (length >= 0 && length <= Integer.MAX_VALUE) {
+                statement.setBinaryStream(index, value.getBinaryStream(), (int) length);
+            } else {
+                statement.setBinaryStream(index, value.getBinaryStream());
+            }
+        } else {
+            statement.setBlob(index, value);
+        }
     }
 }
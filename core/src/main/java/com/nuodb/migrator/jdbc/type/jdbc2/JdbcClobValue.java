@@ -28,6 +28,7 @@
 package com.nuodb.migrator.jdbc.type.jdbc2;
 
 import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.type.JdbcStreamClob;
 import com.nuodb.migrator.jdbc.type.JdbcTypeValue;
 import com.nuodb.migrator.jdbc.type.JdbcTypeValueBase;
 
@@ -54,6 +55,15 @@ public class JdbcClobValue extends JdbcTypeValueBase<Clob> {
     @Override
     protected void setNullSafeValue(PreparedStatement statement, Clob value, int index,
                                     Field field, Map<String, Object> options) throws SQLException {
-        statement.setClob(index, value);
+        if (value instanceof JdbcStreamClob) {
+            long length = value.length();
+            if (length >= 0 && length <= Integer.MAX_VALUE) {
+                statement.setCharacterStream(index, value.getCharacterStream(), (int) length);
+            } else {
+                statement.setCharacterStream(index, value.getCharacterStream());
+            }
+        } else {
+            statement.setClob(index, value);
+        }
     }
 }
@@ -28,6 +28,7 @@
 package com.nuodb.migrator.jdbc.type.jdbc4;
 
 import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.type.JdbcStreamClob;
 import com.nuodb.migrator.jdbc.type.JdbcTypeValue;
 import com.nuodb.migrator.jdbc.type.JdbcTypeValueBase;
 import com.nuodb.migrator.jdbc.type.JdbcTypeDesc;
@@ -67,6 +68,15 @@ public class JdbcNClobValue extends JdbcTypeValueBase<NClob> {
     @Override
     protected void setNullSafeValue(PreparedStatement statement, NClob value, int index,
                                     Field field, Map<String, Object> options) throws SQLException {
-        statement.setNClob(index, value);
+        if (value instanceof JdbcStreamClob) {
+            long length = value.length();
+            if (length >= 0 && length <= Integer.MAX_VALUE) {
+                statement.setCharacterStream(index, value.getCharacterStream(), (int) length);
+            } else {
+                statement.setCharacterStream(index, value.getCharacterStream());
+            }
+        } else {
+            statement.setNClob(index, value);
+        }
     }
 }
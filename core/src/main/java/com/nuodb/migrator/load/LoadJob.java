@@ -28,6 +28,8 @@
 package com.nuodb.migrator.load;
 
 import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.io.InputSupplier;
 import com.nuodb.migrator.MigratorException;
 import com.nuodb.migrator.backup.Backup;
 import com.nuodb.migrator.backup.BackupManager;
@@ -37,12 +39,19 @@ import com.nuodb.migrator.backup.RowSet;
 import com.nuodb.migrator.backup.XmlBackupManager;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.InputFormat;
+import com.nuodb.migrator.backup.format.value.ReferenceValue;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueFormatException;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
 import com.nuodb.migrator.backup.format.value.ValueHandleList;
 import com.nuodb.migrator.backup.format.value.ValueHandleListBuilder;
+import com.nuodb.migrator.backup.format.value.ValueUtils;
 import com.nuodb.migrator.jdbc.JdbcUtils;
 import com.nuodb.migrator.jdbc.commit.CommitStrategy;
+import com.nuodb.migrator.jdbc.commit.CommitStrategyBase;
+import com.nuodb.migrator.jdbc.dialect.Dialect;
 import com.nuodb.migrator.jdbc.metadata.Database;
+import com.nuodb.migrator.jdbc.metadata.ForeignKey;
 import com.nuodb.migrator.jdbc.metadata.MetaDataType;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.metadata.generator.ConnectionScriptExporter;
@@ -51,6 +60,7 @@ import com.nuodb.migrator.jdbc.metadata.generator.ScriptGeneratorManager;
 import com.nuodb.migrator.jdbc.metadata.inspector.InspectionScope;
 import com.nuodb.migrator.jdbc.metadata.inspector.TableInspectionScope;
 import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.query.InsertQuery;
 import com.nuodb.migrator.jdbc.query.InsertQueryBuilder;
 import com.nuodb.migrator.jdbc.query.InsertType;
 import com.nuodb.migrator.jdbc.query.Query;
@@ -59,31 +69,73 @@ import com.nuodb.migrator.jdbc.query.StatementFactory;
 import com.nuodb.migrator.jdbc.query.StatementTemplate;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.jdbc.session.SimpleWorkManager;
+import com.nuodb.migrator.jdbc.session.Work;
+import com.nuodb.migrator.jdbc.session.WorkManager;
 import com.nuodb.migrator.job.ScriptGeneratorJobBase;
 import com.nuodb.migrator.spec.ConnectionSpec;
 import com.nuodb.migrator.spec.LoadJobSpec;
 import com.nuodb.migrator.spec.MigrationMode;
 import com.nuodb.migrator.spec.ResourceSpec;
+import com.nuodb.migrator.utils.BlockingThreadPoolExecutor;
+import com.nuodb.migrator.utils.RowBuffer;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.collect.Iterables.filter;
+import static com.google.common.collect.Iterables.get;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.newBuilder;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.getSize;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
 import static com.nuodb.migrator.jdbc.JdbcUtils.close;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.*;
 import static com.nuodb.migrator.jdbc.session.SessionFactories.newSessionFactory;
 import static com.nuodb.migrator.jdbc.session.SessionObservers.newSessionTimeZoneSetter;
+import static com.nuodb.migrator.spec.LoadJobSpec.LATEST_INCREMENT;
 import static com.nuodb.migrator.spec.MigrationMode.DATA;
 import static com.nuodb.migrator.spec.MigrationMode.SCHEMA;
 import static com.nuodb.migrator.utils.Collections.contains;
 import static com.nuodb.migrator.utils.Collections.isEmpty;
+import static java.lang.Long.MAX_VALUE;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.String.format;
+import static java.lang.System.arraycopy;
+import static java.lang.System.nanoTime;
+import static java.sql.Statement.EXECUTE_FAILED;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.copyOfRange;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.io.FilenameUtils.getBaseName;
 
 /**
  * @author Sergey Bushik
@@ -91,10 +143,19 @@ import static java.lang.String.format;
 @SuppressWarnings("ConstantConditions")
 public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
 
+    /**
+     * Extension of the load journal file created next to the backup catalog
+     */
+    public static final String JOURNAL_EXTENSION = ".journal";
+
     private RowSetMapper rowSetMapper = new SimpleRowSetMapper();
 
     private BackupManager backupManager;
     private ValueFormatRegistry valueFormatRegistry;
+    private SessionFactory targetSessionFactory;
+    private LoadJournal loadJournal;
+    private RejectWriter rejectWriter;
+    private ExecutorService readerExecutor;
 
     public LoadJob() {
     }
@@ -109,8 +170,10 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
 
         setBackupManager(createBackupManager());
 
+        SessionFactory targetSessionFactory;
+        setTargetSessionFactory(targetSessionFactory = createTargetSessionFactory());
         Session targetSession;
-        setTargetSession(targetSession = createTargetSessionFactory().openSession());
+        setTargetSession(targetSession = targetSessionFactory.openSession());
 
         Collection<MigrationMode> migrationModes = getMigrationModes();
         FormatFactory formatFactory = null;
@@ -142,20 +205,7 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         }
         // import data
         if (contains(migrationModes, DATA)) {
-            Connection connection = getTargetSession().getConnection();
-            Database target = inspect();
-            try {
-                for (RowSet rowSet : backup.getRowSets()) {
-                    load(rowSet, target);
-                }
-                connection.commit();
-            } catch (MigratorException exception) {
-                connection.rollback();
-                throw exception;
-            } catch (Exception exception) {
-                connection.rollback();
-                throw new LoadException(exception);
-            }
+            load(backup, inspect());
         }
         // import remaining scripts for indexes
         if (contains(migrationModes, SCHEMA)) {
@@ -167,6 +217,395 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         }
     }
 
+    /**
+     * Loads row sets recording committed chunks to the load journal if the load is journaled or resumed, the journal
+     * is used to skip loaded chunks when the load is resumed.
+     *
+     * @param backup   to load row sets from.
+     * @param database inspected target database.
+     * @throws Exception if any row set fails to load.
+     */
+    protected void load(Backup backup, Database database) throws Exception {
+        LoadJournal loadJournal = isResume() || isJournal() ? openLoadJournal() : null;
+        setLoadJournal(loadJournal);
+        RejectWriter rejectWriter = createRejectWriter();
+        setRejectWriter(rejectWriter);
+        Integer pipelineSize = getPipelineSize();
+        if (pipelineSize != null && pipelineSize > 0) {
+            setReaderExecutor(createReaderExecutor());
+        }
+        CommitStrategy commitStrategy = getJobSpec().getCommitStrategy();
+        if (loadJournal != null && commitStrategy instanceof CommitStrategyBase) {
+            ((CommitStrategyBase) commitStrategy).addCommitListener(loadJournal);
+        } else if (loadJournal != null && commitStrategy != null && logger.isWarnEnabled()) {
+            logger.warn(format("Commits made by %s commit strategy are not journaled, chunks are journaled when " +
+                    "their row sets are committed", commitStrategy.getClass().getName()));
+        }
+        try {
+            loadRowSets(backup, database);
+        } finally {
+            if (loadJournal != null) {
+                if (commitStrategy instanceof CommitStrategyBase) {
+                    ((CommitStrategyBase) commitStrategy).removeCommitListener(loadJournal);
+                }
+                loadJournal.close();
+            }
+            if (rejectWriter != null) {
+                rejectWriter.close();
+            }
+            ExecutorService readerExecutor = getReaderExecutor();
+            if (readerExecutor != null) {
+                readerExecutor.shutdownNow();
+                setReaderExecutor(null);
+            }
+        }
+    }
+
+    /**
+     * Loads row sets in the order of the scheduler. Foreign keys which form cycles can't be satisfied by any load
+     * order, so unless the schema is loaded by this job, in which case foreign keys are created after the data, they
+     * are dropped on the target before the row sets are loaded and created again afterwards.
+     *
+     * @param backup   to load row sets from.
+     * @param database inspected target database.
+     * @throws Exception if any row set fails to load.
+     */
+    protected void loadRowSets(Backup backup, Database database) throws Exception {
+        RowSetScheduler scheduler = createScheduler(backup);
+        Collection<ForeignKey> foreignKeys = newArrayList();
+        if (!contains(getMigrationModes(), SCHEMA)) {
+            foreignKeys = dropForeignKeys(scheduler.getDeferredForeignKeys());
+        }
+        boolean loaded = false;
+        try {
+            loadRowSets(scheduler, database);
+            loaded = true;
+        } finally {
+            createForeignKeys(foreignKeys, loaded);
+        }
+    }
+
+    protected void loadRowSets(RowSetScheduler scheduler, Database database) throws Exception {
+        Integer threads = getThreads();
+        if (threads != null && threads > 1) {
+            load(scheduler, database, threads);
+        } else {
+            Session session = getTargetSession();
+            Connection connection = session.getConnection();
+            try {
+                RowSet rowSet;
+                while ((rowSet = scheduler.next()) != null) {
+                    load(session, rowSet, getChunks(rowSet), database);
+                    scheduler.loaded(rowSet);
+                }
+                commit(connection);
+            } catch (MigratorException exception) {
+                rollback(connection);
+                throw exception;
+            } catch (Exception exception) {
+                rollback(connection);
+                throw new LoadException(exception);
+            }
+        }
+    }
+
+    /**
+     * Loads row sets concurrently, each row set is loaded and committed or rolled back by a separate work on its own
+     * session opened from the target session factory. Row sets are handed to works by the scheduler, which releases a
+     * row set once row sets it references with foreign keys are loaded.
+     *
+     * @param scheduler hands row sets to load.
+     * @param database  inspected target database.
+     * @param threads   number of worker threads.
+     * @throws Exception if any row set fails to load.
+     */
+    protected void load(final RowSetScheduler scheduler, Database database, int threads) throws Exception {
+        Executor executor = createExecutor(threads);
+        final WorkManager workManager = createWorkManager();
+        boolean awaitTermination = true;
+        try {
+            RowSet rowSet;
+            while ((rowSet = scheduler.next()) != null) {
+                final RowSet loadRowSet = rowSet;
+                Collection<Collection<Chunk>> workChunks = getWorkChunks(rowSet);
+                final AtomicInteger works = new AtomicInteger(workChunks.size());
+                for (Collection<Chunk> chunks : workChunks) {
+                    executeWork(executor, workManager, createWork(workManager, rowSet, chunks, database),
+                            new Runnable() {
+                                @Override
+                                public void run() {
+                                    if (!isEmpty(workManager.getFailures())) {
+                                        scheduler.abort();
+                                    } else if (works.decrementAndGet() == 0) {
+                                        scheduler.loaded(loadRowSet);
+                                    }
+                                }
+                            });
+                }
+            }
+        } catch (Throwable failure) {
+            awaitTermination = false;
+            throw failure instanceof MigratorException ? (MigratorException) failure : new LoadException(failure);
+        } finally {
+            closeExecutor(executor, workManager, awaitTermination);
+        }
+    }
+
+    /**
+     * Drops foreign keys on the target, a foreign key which fails to drop, for instance as it was not created on the
+     * target, is skipped.
+     *
+     * @param foreignKeys to drop.
+     * @return foreign keys dropped.
+     * @throws Exception if script generator manager can't be created.
+     */
+    protected Collection<ForeignKey> dropForeignKeys(Collection<ForeignKey> foreignKeys) throws Exception {
+        Collection<ForeignKey> dropped = newArrayList();
+        if (foreignKeys.isEmpty()) {
+            return dropped;
+        }
+        ScriptGeneratorManager scriptGeneratorManager = createScriptGeneratorManager();
+        for (ForeignKey foreignKey : foreignKeys) {
+            try {
+                exportScripts(scriptGeneratorManager.getDropScripts(foreignKey));
+                dropped.add(foreignKey);
+                if (logger.isInfoEnabled()) {
+                    logger.info(format("Foreign key %s of %s is dropped until the load completes",
+                            foreignKey.getName(), foreignKey.getForeignTable().getQualifiedName(null)));
+                }
+            } catch (Exception exception) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn(format("Foreign key %s of %s is not dropped", foreignKey.getName(),
+                            foreignKey.getForeignTable().getQualifiedName(null)), exception);
+                }
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Creates dropped foreign keys again. If the load failed the data may violate foreign keys, in which case a
+     * failure to create them is logged rather than thrown to keep the load failure.
+     *
+     * @param foreignKeys to create.
+     * @param loaded      whether row sets are loaded successfully.
+     * @throws Exception if foreign keys fail to create after successful load.
+     */
+    protected void createForeignKeys(Collection<ForeignKey> foreignKeys, boolean loaded) throws Exception {
+        if (foreignKeys.isEmpty()) {
+            return;
+        }
+        ScriptGeneratorManager scriptGeneratorManager = createScriptGeneratorManager();
+        for (ForeignKey foreignKey : foreignKeys) {
+            try {
+                exportScripts(scriptGeneratorManager.getCreateScripts(foreignKey));
+            } catch (Exception exception) {
+                if (loaded) {
+                    throw exception;
+                }
+                if (logger.isWarnEnabled()) {
+                    logger.warn(format("Foreign key %s of %s is not created", foreignKey.getName(),
+                            foreignKey.getForeignTable().getQualifiedName(null)), exception);
+                }
+            }
+        }
+    }
+
+    /**
+     * Commits connection and journals chunks loaded on it.
+     *
+     * @param connection to commit.
+     * @throws SQLException if commit fails.
+     */
+    protected void commit(Connection connection) throws SQLException {
+        connection.commit();
+        LoadJournal loadJournal = getLoadJournal();
+        if (loadJournal != null) {
+            loadJournal.onCommit(connection);
+        }
+    }
+
+    protected void rollback(Connection connection) throws SQLException {
+        LoadJournal loadJournal = getLoadJournal();
+        if (loadJournal != null) {
+            loadJournal.onRollback(connection);
+        }
+        connection.rollback();
+    }
+
+    /**
+     * Opens the load journal, which is read if the load is resumed and started over otherwise.
+     *
+     * @return opened load journal.
+     */
+    protected LoadJournal openLoadJournal() {
+        LoadJournal loadJournal = createLoadJournal();
+        File file = loadJournal.getFile();
+        if (isResume() && !file.exists()) {
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("Load journal %s doesn't exist, all chunks are loaded", file));
+            }
+        } else if (!isResume() && file.exists()) {
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("Load journal %s is started over, previously journaled chunks will be loaded " +
+                        "again if the load is resumed", file));
+            }
+        }
+        try {
+            loadJournal.open(isResume());
+        } catch (LoadException exception) {
+            throw new LoadException(format("Can't open load journal %s for writing, specify writable journal path " +
+                    "or load without journal", file), exception.getCause());
+        }
+        return loadJournal;
+    }
+
+    /**
+     * Creates load journal at the journal path or next to the backup catalog if the path is not specified.
+     *
+     * @return load journal.
+     */
+    protected LoadJournal createLoadJournal() {
+        String journalPath = getJournalPath();
+        if (journalPath != null) {
+            return new LoadJournal(new File(journalPath));
+        }
+        BackupManager backupManager = getBackupManager();
+        return new LoadJournal(new File(backupManager.getDir(),
+                getBaseName(backupManager.getBackup()) + JOURNAL_EXTENSION));
+    }
+
+    /**
+     * Creates writer of rejected rows if the reject limit is set, otherwise the first failed row fails the load.
+     */
+    protected RejectWriter createRejectWriter() {
+        Long rejectLimit = getRejectLimit();
+        return rejectLimit != null && rejectLimit > 0 ? new RejectWriter(getBackupManager(), getFormatFactory(),
+                getFormatAttributes(), rejectLimit) : null;
+    }
+
+    protected Executor createExecutor(int threads) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(format("Using blocking thread pool with %d thread(s)", threads));
+        }
+        return new BlockingThreadPoolExecutor(threads, 100L, MILLISECONDS);
+    }
+
+    /**
+     * Creates a fixed thread pool for the reader stages of the pipelined load sized to the number of load threads, as
+     * every load work runs at most one reader stage at a time, a reader stage never waits in the queue for a thread.
+     *
+     * @return executor of the reader stages.
+     */
+    protected ExecutorService createReaderExecutor() {
+        Integer threads = getThreads();
+        int readerThreads = threads != null ? max(threads, 1) : 1;
+        return new ThreadPoolExecutor(readerThreads, readerThreads, 0L, MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>());
+    }
+
+    protected WorkManager createWorkManager() {
+        return new SimpleWorkManager();
+    }
+
+    protected RowSetScheduler createScheduler(Backup backup) {
+        return new RowSetScheduler(backup);
+    }
+
+    /**
+     * Splits chunks of a row set between load works. Chunks are loaded by a single work unless parallel chunks mode
+     * is on, in which case every chunk is handed to a separate work with its own connection and statement.
+     *
+     * @param rowSet to split chunks of.
+     * @return chunks to be loaded by every work.
+     */
+    protected Collection<Collection<Chunk>> getWorkChunks(RowSet rowSet) {
+        Collection<Collection<Chunk>> workChunks = newArrayList();
+        Collection<Chunk> chunks = getChunks(rowSet);
+        if (isParallelChunks() && chunks.size() > 1) {
+            for (Chunk chunk : chunks) {
+                workChunks.add(singleton(chunk));
+            }
+        } else {
+            workChunks.add(chunks);
+        }
+        return workChunks;
+    }
+
+    /**
+     * Chunks of the row set to load, if the increment is set only chunks appended by the incremental dumps starting
+     * from the increment are loaded. Row sets replaced by an incremental dump hold all rows of their tables or
+     * queries, which are already loaded from the previous increments, so they are skipped.
+     *
+     * @param rowSet to load chunks of.
+     * @return chunks to load.
+     */
+    protected Collection<Chunk> getChunks(RowSet rowSet) {
+        Integer increment = getIncrement();
+        if (increment == null) {
+            return rowSet.getChunks();
+        }
+        final int fromIncrement = increment != LATEST_INCREMENT ? increment : rowSet.getBackup().getIncrement();
+        Collection<Chunk> chunks = newArrayList(filter(rowSet.getChunks(), new Predicate<Chunk>() {
+            @Override
+            public boolean apply(Chunk chunk) {
+                return chunk.getIncrement() >= fromIncrement;
+            }
+        }));
+        if (rowSet.isReplaced() && fromIncrement > 0 && !chunks.isEmpty()) {
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("Row set %s was replaced by increment %d and holds all rows, row set skipped, " +
+                        "load it without increment to replace its rows", rowSet.getName(), get(chunks, 0).getIncrement()));
+            }
+            chunks = newArrayList();
+        }
+        return chunks;
+    }
+
+    protected Work createWork(WorkManager workManager, RowSet rowSet, Collection<Chunk> chunks, Database database) {
+        return new LoadRowSetWork(this, workManager, rowSet, chunks, database);
+    }
+
+    protected void executeWork(Executor executor, final WorkManager workManager, final Work work,
+                               final Runnable callback) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Session session = null;
+                try {
+                    session = getTargetSessionFactory().openSession();
+                    session.execute(work, workManager);
+                } catch (Exception exception) {
+                    workManager.failure(work, exception);
+                } finally {
+                    close(session);
+                    callback.run();
+                }
+            }
+        });
+    }
+
+    protected void closeExecutor(Executor executor, WorkManager workManager, boolean awaitTermination) {
+        if (executor instanceof ExecutorService) {
+            ExecutorService executorService = (ExecutorService) executor;
+            executorService.shutdown();
+            try {
+                if (awaitTermination) {
+                    executorService.awaitTermination(MAX_VALUE, SECONDS);
+                }
+            } catch (InterruptedException exception) {
+                if (logger.isTraceEnabled()) {
+                    logger.trace("Awaiting executor's termination was interrupted", exception);
+                }
+            }
+        }
+        Map<Work, Throwable> failures = workManager.getFailures();
+        if (!isEmpty(failures)) {
+            final Throwable failure = get(failures.values(), 0);
+            throw failure instanceof MigratorException ? (MigratorException) failure : new LoadException(failure);
+        }
+    }
+
     protected void exportScripts(Collection<String> scripts) throws Exception {
         ScriptExporter scriptExporter = createScriptExporter();
         try {
@@ -207,12 +646,18 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
                 DATABASE, CATALOG, MetaDataType.SCHEMA, TABLE, COLUMN).getObject(DATABASE);
     }
 
-    protected void load(final RowSet rowSet, Database database) throws SQLException {
-        if (!isEmpty(rowSet.getChunks())) {
-            final Connection connection = getTargetSession().getConnection();
+    protected void load(final Session session, final RowSet rowSet, final Collection<Chunk> chunks,
+                        Database database) throws SQLException {
+        if (!isEmpty(chunks)) {
+            final Connection connection = session.getConnection();
             final Table table = getRowSetMapper().map(rowSet, database);
             if (table != null) {
-                final Query query = createQuery(table, rowSet.getColumns());
+                int insertRows = getInsertRows(session.getDialect(), rowSet.getColumns().size());
+                if (insertRows > 1 && logger.isDebugEnabled()) {
+                    logger.debug(format("Loading %s table with %d rows per insert statement",
+                            table.getQualifiedName(null), insertRows));
+                }
+                final Query query = createQuery(table, rowSet.getColumns(), insertRows);
                 final StatementTemplate template = new StatementTemplate(connection);
                 template.executeStatement(
                         new StatementFactory<PreparedStatement>() {
@@ -225,7 +670,7 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
                             @Override
                             public void executeStatement(PreparedStatement statement)
                                     throws SQLException {
-                                load(rowSet, table, statement, query);
+                                load(session, rowSet, chunks, table, statement, query);
                             }
                         }
                 );
@@ -237,61 +682,804 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         }
     }
 
-    protected void load(RowSet rowSet, Table table, PreparedStatement statement, Query query) throws SQLException {
+    protected void load(Session session, RowSet rowSet, Collection<Chunk> chunks, Table table,
+                        PreparedStatement statement, Query query) throws SQLException {
         String format = rowSet.getBackup().getFormat();
         InputFormat inputFormat = getFormatFactory().createInputFormat(format, getFormatAttributes());
-        ValueHandleList valueHandleList = createValueHandleList(rowSet, table, statement);
-        CommitStrategy commitStrategy = getJobSpec().getCommitStrategy();
-        for (Chunk chunk : rowSet.getChunks()) {
+        ValueHandleList valueHandleList = createValueHandleList(session, rowSet, table, statement, getRows(query));
+        Integer pipelineSize = getPipelineSize();
+        for (Chunk chunk : chunks) {
+            if (isLoaded(chunk)) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug(format("Chunk %s is loaded according to the load journal, skipping it",
+                            chunk.getName()));
+                }
+                continue;
+            }
             inputFormat.setRowSet(rowSet);
             inputFormat.setValueHandleList(valueHandleList);
-            inputFormat.setInputStream(getBackupManager().openInput(chunk.getName()));
+            inputFormat.setInputStream(getBackupManager().openInput(chunk.getName(), chunk.getCompression()));
             inputFormat.init();
             if (logger.isTraceEnabled()) {
                 logger.trace(format("Loading %d rows from %s chunk to %s table",
                         chunk.getRowCount(), chunk.getName(), table.getQualifiedName(null)));
             }
-            inputFormat.readStart();
-            long row = 0;
-            while (inputFormat.read()) {
+            if (pipelineSize != null && pipelineSize > 0) {
+                load(session, new RowReader(inputFormat, new RowBuffer<Value[]>(pipelineSize)), chunk, table, statement, query);
+            } else {
+                inputFormat.readStart();
+                load(session, inputFormat, null, chunk, table, statement, query);
+                inputFormat.readEnd();
+            }
+            inputFormat.close();
+            loaded(statement, chunk);
+            if (getRejectWriter() != null) {
+                getRejectWriter().close(chunk);
+            }
+            if (logger.isTraceEnabled()) {
+                logger.trace(format("Chunk %s loaded", chunk.getName()));
+            }
+        }
+    }
+
+    /**
+     * Loads chunk in two stages, the reader stage decodes rows on a thread of the reader executor into the bounded row
+     * buffer, while the current thread binds buffered rows to the statement and executes it, so that parsing of the
+     * chunk overlaps with waiting for the database. If binding fails the buffer is aborted, which stops the reader
+     * stage, and the reader stage is waited for before returning.
+     *
+     * @param session   target session.
+     * @param rowReader reader stage of the chunk.
+     * @param chunk     chunk to load.
+     * @param table     target table.
+     * @param statement insert statement.
+     * @param query     insert query.
+     * @throws SQLException if statement for remaining rows can't be prepared.
+     */
+    protected void load(Session session, RowReader rowReader, Chunk chunk, Table table, PreparedStatement statement,
+                        Query query) throws SQLException {
+        RowBuffer<Value[]> rowBuffer = rowReader.getRowBuffer();
+        long start = nanoTime();
+        Future<?> read = getReaderExecutor().submit(rowReader);
+        try {
+            load(session, rowReader.getInputFormat(), rowBuffer, chunk, table, statement, query);
+        } finally {
+            rowBuffer.abort();
+            try {
+                read.get();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException exception) {
+                // reader stage passes its failures to the binder through the row buffer
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            long time = nanoTime() - start;
+            logger.debug(format("Chunk %s pipeline: buffer capacity %d, average depth %.1f, max depth %d, " +
+                    "reader busy %d ms idle %d ms, binder busy %d ms idle %d ms",
+                    chunk.getName(), rowBuffer.getCapacity(), rowBuffer.getAverageDepth(), rowBuffer.getMaxDepth(),
+                    NANOSECONDS.toMillis(rowReader.getTime() - rowBuffer.getPutWaitTime()),
+                    NANOSECONDS.toMillis(rowBuffer.getPutWaitTime()),
+                    NANOSECONDS.toMillis(time - rowBuffer.getTakeWaitTime()),
+                    NANOSECONDS.toMillis(rowBuffer.getTakeWaitTime())));
+        }
+    }
+
+    /**
+     * Loads rows of a chunk, which are either read with the input format or taken from the row buffer filled by the
+     * reader stage.
+     *
+     * @param session     target session.
+     * @param inputFormat input format of the chunk.
+     * @param rowBuffer   row buffer or null if rows are read directly.
+     * @param chunk       chunk to load.
+     * @param table       target table.
+     * @param statement   insert statement.
+     * @param query       insert query.
+     * @throws SQLException if statement for remaining rows can't be prepared.
+     */
+    protected void load(Session session, InputFormat inputFormat, RowBuffer<Value[]> rowBuffer, Chunk chunk, Table table,
+                        PreparedStatement statement, Query query) throws SQLException {
+        if (getRows(query) > 1) {
+            load(session, inputFormat, rowBuffer, chunk, table, statement, (InsertQuery) query);
+            return;
+        }
+        CommitStrategy commitStrategy = getJobSpec().getCommitStrategy();
+        Integer batchSize = getBatchSize();
+        boolean batch = batchSize != null && batchSize > 1;
+        boolean reject = getRejectWriter() != null;
+        // values of the batched rows are kept until the batch is executed to close the streams bound from them
+        List<Value[]> batchValues = batch ? new ArrayList<Value[]>(batchSize) : null;
+        long row = skip(inputFormat, rowBuffer, chunk);
+        int batchRows = 0;
+        Value[] values;
+        while ((values = readValues(inputFormat, rowBuffer)) != null) {
+            if (batch) {
+                try {
+                    inputFormat.setValues(values);
+                    onBind(commitStrategy, statement, query, values);
+                    statement.addBatch();
+                } catch (ValueFormatException exception) {
+                    if (!reject) {
+                        throw new LoadException(format("Error loading row %d from %s chunk to %s table",
+                                row + 1, chunk.getName(), table.getQualifiedName(null)), exception);
+                    }
+                    // rows batched before the rejected one are executed first, so that batched rows are adjacent
+                    if (batchRows > 0) {
+                        try {
+                            executeBatch(inputFormat, batchValues, chunk, table, statement, query,
+                                    commitStrategy, row - batchRows, batchRows);
+                        } finally {
+                            closeStreams(batchValues);
+                        }
+                        batchRows = 0;
+                    }
+                    try {
+                        reject(chunk, statement, values, row, exception);
+                    } finally {
+                        closeStreams(values);
+                    }
+                    row++;
+                    continue;
+                } catch (Exception exception) {
+                    throw new LoadException(format("Error loading row %d from %s chunk to %s table",
+                            row + 1, chunk.getName(), table.getQualifiedName(null)), exception);
+                }
+                batchValues.add(values);
+                if (++batchRows == batchSize) {
+                    try {
+                        executeBatch(inputFormat, reject ? batchValues : null, chunk, table, statement, query,
+                                commitStrategy, row - batchRows + 1, batchRows);
+                    } finally {
+                        closeStreams(batchValues);
+                    }
+                    batchRows = 0;
+                }
+            } else if (reject) {
+                try {
+                    onBind(commitStrategy, statement, query, values);
+                    executeRows(inputFormat, singletonList(values), false, chunk, statement, query, commitStrategy,
+                            row);
+                } catch (MigratorException exception) {
+                    throw exception;
+                } catch (Exception exception) {
+                    throw new LoadException(format("Error loading row %d from %s chunk to %s table",
+                            row + 1, chunk.getName(), table.getQualifiedName(null)), exception);
+                } finally {
+                    closeStreams(values);
+                }
+            } else {
                 try {
+                    inputFormat.setValues(values);
+                    onBind(commitStrategy, statement, query, values);
                     statement.execute();
+                    executed(statement, chunk, row + 1);
                     if (commitStrategy != null) {
                         commitStrategy.onExecute(statement, query);
                     }
                 } catch (Exception exception) {
                     throw new LoadException(format("Error loading row %d from %s chunk to %s table",
                             row + 1, chunk.getName(), table.getQualifiedName(null)), exception);
+                } finally {
+                    closeStreams(values);
                 }
-                row++;
             }
-            inputFormat.readEnd();
-            inputFormat.close();
+            row++;
+        }
+        if (batchRows > 0) {
+            try {
+                executeBatch(inputFormat, reject ? batchValues : null, chunk, table, statement, query,
+                        commitStrategy, row - batchRows, batchRows);
+            } finally {
+                closeStreams(batchValues);
+            }
+        }
+    }
+
+    /**
+     * Closes streams of the large objects bound from the rows and clears the rows. Drivers read the streams when the
+     * statement is executed, so the streams are closed once the statement is executed or its batch is cleared.
+     *
+     * @param rows values of the bound rows.
+     */
+    protected void closeStreams(Collection<Value[]> rows) {
+        for (Value[] values : rows) {
+            closeStreams(values);
+        }
+        rows.clear();
+    }
+
+    protected void closeStreams(Value[] values) {
+        try {
+            ValueUtils.close(values);
+        } catch (IOException exception) {
+            if (logger.isWarnEnabled()) {
+                logger.warn("Failed closing large object stream", exception);
+            }
+        }
+    }
+
+    /**
+     * Loads rows of a chunk with multi row insert statement, values of every {@link InsertQuery#getRows()} rows are
+     * bound to the statement at once. If the batch size is set bound statements are sent to the database in batches
+     * of that many statements. Rows remaining at the end of the chunk are inserted with a smaller statement prepared
+     * for their number.
+     *
+     * @param session     target session.
+     * @param inputFormat input format of the chunk.
+     * @param rowBuffer   row buffer or null if rows are read directly.
+     * @param chunk       chunk to load.
+     * @param table       target table.
+     * @param statement   multi row insert statement.
+     * @param query       multi row insert query.
+     * @throws SQLException if statement for remaining rows can't be prepared.
+     */
+    protected void load(Session session, InputFormat inputFormat, RowBuffer<Value[]> rowBuffer, Chunk chunk, Table table,
+                        PreparedStatement statement, InsertQuery query) throws SQLException {
+        CommitStrategy commitStrategy = getJobSpec().getCommitStrategy();
+        Integer batchSize = getBatchSize();
+        boolean batch = batchSize != null && batchSize > 1;
+        List<Value[]> batchValues = batch ? new ArrayList<Value[]>(batchSize) : null;
+        int rows = query.getRows();
+        int columns = query.getColumns().size();
+        Value[] values = new Value[rows * columns];
+        long row = skip(inputFormat, rowBuffer, chunk);
+        int statementRows = 0;
+        Value[] rowValues;
+        while ((rowValues = readValues(inputFormat, rowBuffer)) != null) {
+            arraycopy(rowValues, 0, values, statementRows * columns, columns);
+            row++;
+            if (++statementRows == rows) {
+                if (batch) {
+                    try {
+                        inputFormat.setValues(values);
+                        onBind(commitStrategy, statement, query, values);
+                        statement.addBatch();
+                    } catch (ValueFormatException exception) {
+                        if (getRejectWriter() == null) {
+                            throw new LoadException(format("Error loading rows %d-%d from %s chunk to %s table",
+                                    row - rows + 1, row, chunk.getName(), table.getQualifiedName(null)), exception);
+                        }
+                        // batched statements are executed first, then rows of the statement are isolated
+                        if (!batchValues.isEmpty()) {
+                            try {
+                                executeBatch(session, inputFormat, batchValues, chunk, table, statement, query,
+                                        commitStrategy, row - rows - batchValues.size() * rows);
+                            } finally {
+                                closeStreams(batchValues);
+                            }
+                        }
+                        execute(session, inputFormat, values, chunk, table, statement, query, commitStrategy,
+                                row - rows, rows);
+                        values = new Value[rows * columns];
+                        statementRows = 0;
+                        continue;
+                    } catch (Exception exception) {
+                        throw new LoadException(format("Error loading rows %d-%d from %s chunk to %s table",
+                                row - rows + 1, row, chunk.getName(), table.getQualifiedName(null)), exception);
+                    }
+                    batchValues.add(values);
+                    values = new Value[rows * columns];
+                    if (batchValues.size() == batchSize) {
+                        try {
+                            executeBatch(session, inputFormat, batchValues, chunk, table, statement, query,
+                                    commitStrategy, row - batchValues.size() * rows);
+                        } finally {
+                            closeStreams(batchValues);
+                        }
+                    }
+                } else {
+                    execute(session, inputFormat, values, chunk, table, statement, query, commitStrategy,
+                            row - rows, rows);
+                }
+                statementRows = 0;
+            }
+        }
+        if (batch && !batchValues.isEmpty()) {
+            try {
+                executeBatch(session, inputFormat, batchValues, chunk, table, statement, query, commitStrategy,
+                        row - statementRows - batchValues.size() * rows);
+            } finally {
+                closeStreams(batchValues);
+            }
+        }
+        if (statementRows > 0) {
+            RowSet rowSet = chunk.getRowSet();
+            Query remainderQuery = createQuery(table, rowSet.getColumns(), statementRows);
+            PreparedStatement remainder = statement.getConnection().prepareStatement(remainderQuery.toString());
+            try {
+                inputFormat.setValueHandleList(
+                        createValueHandleList(session, rowSet, table, remainder, statementRows));
+                execute(session, inputFormat, copyOf(values, statementRows * columns), chunk, table, remainder,
+                        remainderQuery, commitStrategy, row - statementRows, statementRows);
+            } finally {
+                close(remainder);
+            }
+        }
+    }
+
+    /**
+     * Binds values of one or more rows to the statement and executes it. If rows are rejected rather than failing
+     * the load the statement is bound and executed under a savepoint, if either fails failed rows are isolated with
+     * a single row insert statement.
+     *
+     * @param session        target session.
+     * @param inputFormat    input format holding value handles of the statement.
+     * @param values         values of all rows bound to the statement.
+     * @param chunk          chunk rows are read from.
+     * @param table          target table.
+     * @param statement      insert statement.
+     * @param query          insert query.
+     * @param commitStrategy commit strategy to notify.
+     * @param row            zero based index of the first row in the chunk.
+     * @param rows           number of rows inserted by the statement.
+     */
+    protected void execute(Session session, InputFormat inputFormat, Value[] values, Chunk chunk, Table table,
+                           PreparedStatement statement, Query query, CommitStrategy commitStrategy, long row,
+                           int rows) {
+        try {
+            if (getRejectWriter() != null) {
+                Connection connection = statement.getConnection();
+                Savepoint savepoint = connection.setSavepoint();
+                Exception failure = null;
+                try {
+                    inputFormat.setValues(values);
+                    onBind(commitStrategy, statement, query, values);
+                    statement.execute();
+                } catch (SQLException exception) {
+                    failure = exception;
+                } catch (ValueFormatException exception) {
+                    failure = exception;
+                }
+                if (failure != null) {
+                    connection.rollback(savepoint);
+                    reject(session, inputFormat, values, chunk, table, statement, commitStrategy, row, rows,
+                            failure);
+                    return;
+                }
+                release(connection, savepoint);
+            } else {
+                inputFormat.setValues(values);
+                onBind(commitStrategy, statement, query, values);
+                statement.execute();
+            }
+            executed(statement, chunk, row + rows);
+            onExecuteBatch(commitStrategy, statement, query, rows);
+        } catch (LoadException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new LoadException(format("Error loading rows %d-%d from %s chunk to %s table",
+                    row + 1, row + rows, chunk.getName(), table.getQualifiedName(null)), exception);
+        } finally {
+            closeStreams(values);
+        }
+    }
+
+    /**
+     * Sends accumulated batch of multi row insert statements to the database. If the batch fails the failed statement
+     * is located by the update counts returned from the driver, so that the error points to the chunk rows of that
+     * statement. If rows are rejected rather than failing the load the batch is executed under a savepoint, if it
+     * fails the statements are executed one by one to isolate failed rows with {@link #execute}.
+     *
+     * @param session        target session.
+     * @param inputFormat    input format holding value handles of the statement.
+     * @param batchValues    values of the batched statements.
+     * @param chunk          chunk rows are read from.
+     * @param table          target table.
+     * @param statement      multi row insert statement holding the batch.
+     * @param query          multi row insert query.
+     * @param commitStrategy commit strategy to notify.
+     * @param row            zero based index of the first batched row in the chunk.
+     */
+    protected void executeBatch(Session session, InputFormat inputFormat, List<Value[]> batchValues, Chunk chunk,
+                                Table table, PreparedStatement statement, InsertQuery query,
+                                CommitStrategy commitStrategy, long row) {
+        int rows = query.getRows();
+        int batchRows = batchValues.size() * rows;
+        try {
+            if (getRejectWriter() != null) {
+                Connection connection = statement.getConnection();
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    statement.executeBatch();
+                } catch (SQLException exception) {
+                    connection.rollback(savepoint);
+                    statement.clearBatch();
+                    for (int index = 0; index < batchValues.size(); index++) {
+                        execute(session, inputFormat, batchValues.get(index), chunk, table, statement, query,
+                                commitStrategy, row + index * rows, rows);
+                    }
+                    return;
+                }
+                release(connection, savepoint);
+            } else {
+                statement.executeBatch();
+            }
+            executed(statement, chunk, row + batchRows);
+            onExecuteBatch(commitStrategy, statement, query, batchRows);
+        } catch (BatchUpdateException exception) {
+            int failedStatement = getFailedRow(exception, batchValues.size());
+            if (failedStatement != -1) {
+                throw new LoadException(format("Error loading rows %d-%d from %s chunk to %s table",
+                        row + failedStatement * rows + 1, row + (failedStatement + 1) * rows, chunk.getName(),
+                        table.getQualifiedName(null)), exception);
+            } else {
+                throw new LoadException(format("Error loading rows %d-%d from %s chunk to %s table",
+                        row + 1, row + batchRows, chunk.getName(), table.getQualifiedName(null)), exception);
+            }
+        } catch (MigratorException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new LoadException(format("Error loading rows %d-%d from %s chunk to %s table",
+                    row + 1, row + batchRows, chunk.getName(), table.getQualifiedName(null)), exception);
+        }
+    }
+
+    /**
+     * Isolates failed rows of multi row insert statement by executing them with a single row insert statement.
+     */
+    protected void reject(Session session, InputFormat inputFormat, Value[] values, Chunk chunk, Table table,
+                          PreparedStatement statement, CommitStrategy commitStrategy, long row, int rows,
+                          Exception exception) throws SQLException {
+        RowSet rowSet = chunk.getRowSet();
+        int columns = values.length / rows;
+        List<Value[]> rowValues = newArrayList();
+        for (int index = 0; index < rows; index++) {
+            rowValues.add(copyOfRange(values, index * columns, (index + 1) * columns));
+        }
+        Query query = createQuery(table, rowSet.getColumns());
+        PreparedStatement single = statement.getConnection().prepareStatement(query.toString());
+        ValueHandleList valueHandleList = inputFormat.getValueHandleList();
+        try {
+            inputFormat.setValueHandleList(createValueHandleList(session, rowSet, table, single));
+            rejectRows(inputFormat, rowValues, chunk, single, query, commitStrategy, row, exception);
+        } finally {
+            inputFormat.setValueHandleList(valueHandleList);
+            close(single);
+        }
+    }
+
+    /**
+     * Binds and executes rows under a savepoint, so that if binding or execution fails the rows are rolled back alone
+     * and the failed ones are isolated by {@link #rejectRows}.
+     *
+     * @param inputFormat    input format holding value handles of the statement.
+     * @param rows           values of the rows.
+     * @param bound          true if rows are already added to the statement batch.
+     * @param chunk          chunk rows are read from.
+     * @param statement      single row insert statement.
+     * @param query          single row insert query.
+     * @param commitStrategy commit strategy to notify.
+     * @param row            zero based index of the first row in the chunk.
+     * @throws SQLException if savepoint can't be set or rolled back.
+     */
+    protected void executeRows(InputFormat inputFormat, List<Value[]> rows, boolean bound, Chunk chunk,
+                               PreparedStatement statement, Query query, CommitStrategy commitStrategy,
+                               long row) throws SQLException {
+        Connection connection = statement.getConnection();
+        Savepoint savepoint = connection.setSavepoint();
+        Exception failure = null;
+        try {
+            if (bound) {
+                statement.executeBatch();
+            } else if (rows.size() == 1) {
+                inputFormat.setValues(rows.get(0));
+                statement.execute();
+            } else {
+                for (Value[] values : rows) {
+                    inputFormat.setValues(values);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        } catch (SQLException exception) {
+            failure = exception;
+        } catch (ValueFormatException exception) {
+            failure = exception;
+        }
+        if (failure != null) {
+            connection.rollback(savepoint);
+            statement.clearBatch();
+            rejectRows(inputFormat, rows, chunk, statement, query, commitStrategy, row, failure);
+            return;
+        }
+        release(connection, savepoint);
+        executed(statement, chunk, row + rows.size());
+        onExecuteBatch(commitStrategy, statement, query, rows.size());
+    }
+
+    /**
+     * Bisects failed rows, each half is executed on its own so that clean halves are inserted and failed halves are
+     * split further until the failed rows are found and written to the reject chunk.
+     *
+     * @param inputFormat    input format holding value handles of the statement.
+     * @param rows           values of the failed rows.
+     * @param chunk          chunk rows are read from.
+     * @param statement      single row insert statement.
+     * @param query          single row insert query.
+     * @param commitStrategy commit strategy to notify.
+     * @param row            zero based index of the first row in the chunk.
+     * @param exception      error raised by the failed rows, either execution or value conversion error.
+     * @throws SQLException if savepoint can't be set or rolled back.
+     */
+    protected void rejectRows(InputFormat inputFormat, List<Value[]> rows, Chunk chunk, PreparedStatement statement,
+                              Query query, CommitStrategy commitStrategy, long row,
+                              Exception exception) throws SQLException {
+        if (rows.size() == 1) {
+            reject(chunk, statement, rows.get(0), row, exception);
+        } else {
+            int half = rows.size() / 2;
+            executeRows(inputFormat, rows.subList(0, half), false, chunk, statement, query, commitStrategy, row);
+            executeRows(inputFormat, rows.subList(half, rows.size()), false, chunk, statement, query,
+                    commitStrategy, row + half);
+        }
+    }
+
+    /**
+     * Writes the failed row to the reject chunk and counts it as executed.
+     *
+     * @param chunk     chunk the row is read from.
+     * @param statement statement the row has failed on.
+     * @param values    values of the row.
+     * @param row       zero based index of the row in the chunk.
+     * @param exception error raised by the row.
+     * @throws SQLException if the statement's connection can't be retrieved.
+     */
+    protected void reject(Chunk chunk, PreparedStatement statement, Value[] values, long row,
+                          Exception exception) throws SQLException {
+        getRejectWriter().reject(chunk, values, row, exception);
+        executed(statement, chunk, row + 1);
+    }
+
+    protected void release(Connection connection, Savepoint savepoint) {
+        try {
+            connection.releaseSavepoint(savepoint);
+        } catch (SQLException exception) {
             if (logger.isTraceEnabled()) {
-                logger.trace(format("Chunk %s loaded", chunk.getName()));
+                logger.trace("Savepoint release is not supported", exception);
             }
         }
     }
 
-    protected ValueHandleList createValueHandleList(final RowSet rowSet, final Table table,
+    protected boolean isLoaded(Chunk chunk) {
+        LoadJournal loadJournal = getLoadJournal();
+        return loadJournal != null && loadJournal.isLoaded(chunk.getName());
+    }
+
+    /**
+     * Fast-forwards through rows of the chunk committed by the previous load according to the load journal.
+     *
+     * @param inputFormat input format of the chunk.
+     * @param rowBuffer   row buffer or null if rows are read directly.
+     * @param chunk       chunk to skip rows of.
+     * @return number of skipped rows.
+     */
+    protected long skip(InputFormat inputFormat, RowBuffer<Value[]> rowBuffer, Chunk chunk) {
+        LoadJournal loadJournal = getLoadJournal();
+        long rows = loadJournal != null ? loadJournal.getRows(chunk.getName()) : 0;
+        long row = 0;
+        while (row < rows && readValues(inputFormat, rowBuffer) != null) {
+            row++;
+        }
+        if (row > 0 && logger.isDebugEnabled()) {
+            logger.debug(format("Skipped %d rows of %s chunk committed by the previous load", row, chunk.getName()));
+        }
+        return row;
+    }
+
+    /**
+     * Records the number of chunk rows sent to the database on the statement's connection, which are journaled
+     * when the connection is committed.
+     */
+    protected void executed(Statement statement, Chunk chunk, long rows) throws SQLException {
+        LoadJournal loadJournal = getLoadJournal();
+        if (loadJournal != null) {
+            loadJournal.executed(statement.getConnection(), chunk.getName(), rows);
+        }
+    }
+
+    /**
+     * Notifies commit strategy of the estimated size of values bound to the statement, strategies which don't extend
+     * {@link CommitStrategyBase} aren't interested in it.
+     *
+     * @param commitStrategy commit strategy to notify or null.
+     * @param statement      statement with bound values.
+     * @param query          query of the statement.
+     * @param values         values of one or more rows bound to the statement.
+     * @throws SQLException if commit fails.
+     */
+    protected void onBind(CommitStrategy commitStrategy, Statement statement, Query query,
+                          Value[] values) throws SQLException {
+        if (commitStrategy instanceof CommitStrategyBase) {
+            ((CommitStrategyBase) commitStrategy).onBind(statement, query, getSize(values));
+        }
+    }
+
+    /**
+     * Notifies commit strategy of the executed batch or multi row insert statement. Strategies which don't extend
+     * {@link CommitStrategyBase} are notified of every statement of the batch as if it was executed on its own.
+     *
+     * @param commitStrategy commit strategy to notify or null.
+     * @param statement      executed statement.
+     * @param query          query of the statement.
+     * @param statements     number of statements in the batch or number of rows inserted by the statement.
+     * @throws SQLException if commit fails.
+     */
+    protected void onExecuteBatch(CommitStrategy commitStrategy, Statement statement, Query query,
+                                  int statements) throws SQLException {
+        if (commitStrategy instanceof CommitStrategyBase) {
+            ((CommitStrategyBase) commitStrategy).onExecuteBatch(statement, query, statements);
+        } else if (commitStrategy != null) {
+            for (int index = 0; index < statements; index++) {
+                commitStrategy.onExecute(statement, query);
+            }
+        }
+    }
+
+    protected void loaded(Statement statement, Chunk chunk) throws SQLException {
+        LoadJournal loadJournal = getLoadJournal();
+        if (loadJournal != null) {
+            loadJournal.loaded(statement.getConnection(), chunk.getName());
+        }
+    }
+
+    protected Value[] readValues(InputFormat inputFormat, RowBuffer<Value[]> rowBuffer) {
+        Value[] values;
+        if (rowBuffer == null) {
+            values = inputFormat.readValues();
+        } else {
+            try {
+                values = rowBuffer.take();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new LoadException("Loading was interrupted", exception);
+            }
+        }
+        return values != null ? resolveReferences(values) : null;
+    }
+
+    /**
+     * Replaces references to large objects written to separate files with values, which open the files each time the
+     * values are bound, so that the files are streamed to the blob and clob parameters instead of being read to memory
+     * and rows can be bound again when a batch is retried.
+     *
+     * @param values of the row.
+     * @return values of the row with resolved references.
+     */
+    protected Value[] resolveReferences(Value[] values) {
+        for (int index = 0; index < values.length; index++) {
+            if (values[index] instanceof ReferenceValue) {
+                values[index] = resolveReference((ReferenceValue) values[index]);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Resolves reference to a value opening the large object file, the length of the file is passed along, so that the
+     * driver and the commit strategy know the size of the bound value.
+     *
+     * @param value reference to resolve.
+     * @return value streaming the large object file.
+     */
+    protected Value resolveReference(ReferenceValue value) {
+        final BackupManager backupManager = getBackupManager();
+        final String reference = value.getReference();
+        long length = backupManager.getLobLength(reference);
+        if (length < 0) {
+            throw new LoadException(format("Large object file %s referenced from the chunk is missing", reference));
+        }
+        InputSupplier<InputStream> input = new InputSupplier<InputStream>() {
+            @Override
+            public InputStream getInput() {
+                return backupManager.openLobInput(reference);
+            }
+        };
+        return value.getValueType() == BINARY ? binary(input, length) : string(input, UTF_8, length);
+    }
+
+    /**
+     * Sends accumulated batch of rows to the database. If the batch fails the failed row is located by the update
+     * counts returned from the driver, so that the error points to the same chunk row as for non batched load. If
+     * rows are rejected rather than failing the load the batch is executed under a savepoint and rows of the failed
+     * batch are bisected to find the rejected ones.
+     *
+     * @param inputFormat    input format holding value handles of the statement.
+     * @param batchValues    values of the batched rows or null if rows are not rejected.
+     * @param chunk          chunk rows are read from.
+     * @param table          target table.
+     * @param statement      prepared statement holding the batch.
+     * @param query          insert query.
+     * @param commitStrategy commit strategy to notify.
+     * @param row            zero based index of the first batched row in the chunk.
+     * @param batchRows      number of rows in the batch.
+     */
+    protected void executeBatch(InputFormat inputFormat, List<Value[]> batchValues, Chunk chunk, Table table,
+                                PreparedStatement statement, Query query, CommitStrategy commitStrategy, long row,
+                                int batchRows) {
+        if (batchValues != null) {
+            try {
+                executeRows(inputFormat, batchValues, true, chunk, statement, query, commitStrategy, row);
+            } catch (MigratorException exception) {
+                throw exception;
+            } catch (Exception exception) {
+                throw new LoadException(format("Error loading rows %d-%d from %s chunk to %s table",
+                        row + 1, row + batchRows, chunk.getName(), table.getQualifiedName(null)), exception);
+            }
+            return;
+        }
+        try {
+            statement.executeBatch();
+            executed(statement, chunk, row + batchRows);
+            onExecuteBatch(commitStrategy, statement, query, batchRows);
+        } catch (BatchUpdateException exception) {
+            int failedRow = getFailedRow(exception, batchRows);
+            if (failedRow != -1) {
+                throw new LoadException(format("Error loading row %d from %s chunk to %s table",
+                        row + failedRow + 1, chunk.getName(), table.getQualifiedName(null)), exception);
+            } else {
+                throw new LoadException(format("Error loading rows %d-%d from %s chunk to %s table",
+                        row + 1, row + batchRows, chunk.getName(), table.getQualifiedName(null)), exception);
+            }
+        } catch (Exception exception) {
+            throw new LoadException(format("Error loading rows %d-%d from %s chunk to %s table",
+                    row + 1, row + batchRows, chunk.getName(), table.getQualifiedName(null)), exception);
+        }
+    }
+
+    /**
+     * Returns index of the failed row in the batch or -1 if the driver doesn't tell which one has failed.
+     */
+    protected int getFailedRow(BatchUpdateException exception, int batchRows) {
+        int[] updateCounts = exception.getUpdateCounts();
+        if (updateCounts == null) {
+            return -1;
+        }
+        for (int index = 0; index < updateCounts.length; index++) {
+            if (updateCounts[index] == EXECUTE_FAILED) {
+                return index;
+            }
+        }
+        return updateCounts.length < batchRows ? updateCounts.length : -1;
+    }
+
+    protected ValueHandleList createValueHandleList(Session session, final RowSet rowSet, final Table table,
                                                     PreparedStatement statement) throws SQLException {
-        ValueHandleListBuilder builder = newBuilder(getTargetSession().getConnection(), statement);
-        builder.withDialect(getTargetSession().getDialect());
-        builder.withFields(newArrayList(transform(rowSet.getColumns(),
+        return createValueHandleList(session, rowSet, table, statement, 1);
+    }
+
+    /**
+     * Creates value handles for every parameter of the statement inserting the given number of rows, fields of the
+     * row set are repeated for each row.
+     */
+    protected ValueHandleList createValueHandleList(Session session, final RowSet rowSet, final Table table,
+                                                    PreparedStatement statement, int rows) throws SQLException {
+        ValueHandleListBuilder builder = newBuilder(session.getConnection(), statement);
+        builder.withDialect(session.getDialect());
+        Collection<Field> fields = newArrayList(transform(rowSet.getColumns(),
                 new Function<Column, Field>() {
                     @Override
                     public Field apply(Column column) {
                         return table.getColumn(column.getName());
                     }
-                })));
+                }));
+        Collection<Field> rowFields = newArrayList();
+        for (int row = 0; row < rows; row++) {
+            rowFields.addAll(fields);
+        }
+        builder.withFields(rowFields);
         builder.withTimeZone(getTimeZone());
         builder.withValueFormatRegistry(getValueFormatRegistry());
         return builder.build();
     }
 
     protected Query createQuery(Table table, Collection<Column> columns) {
+        return createQuery(table, columns, 1);
+    }
+
+    protected Query createQuery(Table table, Collection<Column> columns, int rows) {
         InsertQueryBuilder builder = new InsertQueryBuilder();
-        builder.insertType(getInsertType(table)).into(table);
+        builder.insertType(getInsertType(table)).into(table).rows(rows);
         builder.columns(newArrayList(transform(columns, new Function<Column, String>() {
             @Override
             public String apply(Column column) {
@@ -325,6 +1513,38 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         this.backupManager = backupManager;
     }
 
+    public LoadJournal getLoadJournal() {
+        return loadJournal;
+    }
+
+    public void setLoadJournal(LoadJournal loadJournal) {
+        this.loadJournal = loadJournal;
+    }
+
+    public RejectWriter getRejectWriter() {
+        return rejectWriter;
+    }
+
+    public void setRejectWriter(RejectWriter rejectWriter) {
+        this.rejectWriter = rejectWriter;
+    }
+
+    public ExecutorService getReaderExecutor() {
+        return readerExecutor;
+    }
+
+    public void setReaderExecutor(ExecutorService readerExecutor) {
+        this.readerExecutor = readerExecutor;
+    }
+
+    public SessionFactory getTargetSessionFactory() {
+        return targetSessionFactory;
+    }
+
+    public void setTargetSessionFactory(SessionFactory targetSessionFactory) {
+        this.targetSessionFactory = targetSessionFactory;
+    }
+
     public ValueFormatRegistry getValueFormatRegistry() {
         return valueFormatRegistry;
     }
@@ -365,6 +1585,68 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         return getJobSpec().getInsertType();
     }
 
+    protected Integer getThreads() {
+        return getJobSpec().getThreads();
+    }
+
+    protected boolean isParallelChunks() {
+        return getJobSpec().isParallelChunks();
+    }
+
+    protected Integer getBatchSize() {
+        return getJobSpec().getBatchSize();
+    }
+
+    /**
+     * Number of rows inserted by a single statement. Requested number of rows is lowered for wide tables, so that the
+     * statement stays under the maximum number of parameters allowed by the target dialect, which is logged.
+     *
+     * @param dialect target dialect.
+     * @param columns number of inserted columns.
+     * @return number of rows per insert statement.
+     */
+    protected int getInsertRows(Dialect dialect, int columns) {
+        Integer insertRows = getJobSpec().getInsertRows();
+        if (insertRows == null || insertRows <= 1 || columns == 0 || !dialect.supportsMultiRowInsert()) {
+            return 1;
+        }
+        int maxParameters = dialect.getMaxParameters();
+        int rows = max(1, min(insertRows, maxParameters / columns));
+        if (rows < insertRows && logger.isInfoEnabled()) {
+            logger.info(format("Rows per insert statement lowered from %d to %d, as %d columns per row would " +
+                    "exceed the limit of %d statement parameters", insertRows, rows, columns, maxParameters));
+        }
+        return rows;
+    }
+
+    protected int getRows(Query query) {
+        return query instanceof InsertQuery ? ((InsertQuery) query).getRows() : 1;
+    }
+
+    protected Long getRejectLimit() {
+        return getJobSpec().getRejectLimit();
+    }
+
+    protected boolean isResume() {
+        return getJobSpec().isResume();
+    }
+
+    protected boolean isJournal() {
+        return getJobSpec().isJournal();
+    }
+
+    protected String getJournalPath() {
+        return getJobSpec().getJournalPath();
+    }
+
+    protected Integer getIncrement() {
+        return getJobSpec().getIncrement();
+    }
+
+    protected Integer getPipelineSize() {
+        return getJobSpec().getPipelineSize();
+    }
+
     protected TimeZone getTimeZone() {
         return getJobSpec().getTimeZone();
     }
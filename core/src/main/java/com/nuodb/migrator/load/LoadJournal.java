@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.load;
+
+import com.google.common.collect.MapMaker;
+import com.nuodb.migrator.jdbc.commit.CommitListener;
+import org.slf4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.sql.Connection;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Journal of chunks committed to the target database, kept in a file next to the backup catalog. Progress of chunks
+ * executed on a connection is held until the connection is committed, then it's appended to the journal as a line
+ * with the chunk name and either the number of committed rows of the chunk or done marker. The journal is read back
+ * when the load is resumed, so that loaded chunks are skipped and partially loaded chunks are fast-forwarded. Each
+ * commit record is synced to the storage device before the commit listener returns.
+ */
+public class LoadJournal implements CommitListener {
+
+    public static final String DONE = "done";
+    private static final String SEPARATOR = "\t";
+    private static final String UTF_8 = "UTF-8";
+
+    private final transient Logger logger = getLogger(getClass());
+
+    private final File file;
+    private final Map<String, Long> rows = newHashMap();
+    private final Set<String> loaded = newHashSet();
+    /**
+     * Progress of chunks executed on a connection and not committed yet
+     */
+    private final Map<Connection, Map<String, String>> executed = new MapMaker().weakKeys().makeMap();
+    private FileOutputStream output;
+    private Writer writer;
+
+    public LoadJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens the journal for writing, reading progress recorded by the previous load if it's resumed.
+     *
+     * @param resume true to keep and read existing journal, false to start it over.
+     */
+    public synchronized void open(boolean resume) {
+        try {
+            if (resume && file.exists()) {
+                read();
+            }
+            output = new FileOutputStream(file, resume);
+            writer = new OutputStreamWriter(output, UTF_8);
+        } catch (IOException exception) {
+            throw new LoadException(format("Can't open load journal %s for writing", file), exception);
+        }
+    }
+
+    protected void read() throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] entry = line.split(SEPARATOR);
+                if (entry.length != 2) {
+                    continue;
+                }
+                if (DONE.equals(entry[1])) {
+                    loaded.add(entry[0]);
+                } else {
+                    rows.put(entry[0], parseLong(entry[1]));
+                }
+            }
+        } finally {
+            closeQuietly(reader);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Load journal %s lists %d loaded and %d partially loaded chunk(s)",
+                    file, loaded.size(), rows.size()));
+        }
+    }
+
+    /**
+     * Tells whether the chunk was fully loaded and committed.
+     *
+     * @param chunk chunk name.
+     * @return true if the chunk is loaded.
+     */
+    public synchronized boolean isLoaded(String chunk) {
+        return loaded.contains(chunk);
+    }
+
+    /**
+     * Returns number of rows of the chunk committed by the previous load.
+     *
+     * @param chunk chunk name.
+     * @return number of committed rows.
+     */
+    public synchronized long getRows(String chunk) {
+        Long rows = this.rows.get(chunk);
+        return rows != null ? rows : 0;
+    }
+
+    /**
+     * Records number of chunk rows executed on the connection, which are journaled on commit.
+     *
+     * @param connection connection rows were executed on.
+     * @param chunk      chunk name.
+     * @param rows       number of chunk rows executed so far.
+     */
+    public void executed(Connection connection, String chunk, long rows) {
+        getExecuted(connection).put(chunk, String.valueOf(rows));
+    }
+
+    /**
+     * Records that all rows of the chunk were executed on the connection.
+     *
+     * @param connection connection rows were executed on.
+     * @param chunk      chunk name.
+     */
+    public void loaded(Connection connection, String chunk) {
+        getExecuted(connection).put(chunk, DONE);
+    }
+
+    protected Map<String, String> getExecuted(Connection connection) {
+        Map<String, String> executed = this.executed.get(connection);
+        if (executed == null) {
+            this.executed.put(connection, executed = newLinkedHashMap());
+        }
+        return executed;
+    }
+
+    /**
+     * Appends progress of chunks executed on the committed connection to the journal.
+     *
+     * @param connection committed connection.
+     */
+    @Override
+    public void onCommit(Connection connection) {
+        Map<String, String> executed = this.executed.remove(connection);
+        if (executed != null && !executed.isEmpty()) {
+            write(executed);
+        }
+    }
+
+    /**
+     * Discards progress of chunks executed on the rolled back connection.
+     *
+     * @param connection rolled back connection.
+     */
+    public void onRollback(Connection connection) {
+        executed.remove(connection);
+    }
+
+    protected synchronized void write(Map<String, String> executed) {
+        try {
+            for (Map.Entry<String, String> entry : executed.entrySet()) {
+                writer.write(entry.getKey());
+                writer.write(SEPARATOR);
+                writer.write(entry.getValue());
+                writer.write('\n');
+            }
+            writer.flush();
+            output.getFD().sync();
+        } catch (IOException exception) {
+            throw new LoadException(format("Can't write load journal %s", file), exception);
+        }
+    }
+
+    public synchronized void close() {
+        closeQuietly(writer);
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
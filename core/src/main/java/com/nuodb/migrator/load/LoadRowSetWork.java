@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.load;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.jdbc.metadata.Database;
+import com.nuodb.migrator.jdbc.session.WorkBase;
+import com.nuodb.migrator.jdbc.session.WorkManager;
+import com.nuodb.migrator.utils.ObjectUtils;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.util.Collection;
+
+import static com.nuodb.migrator.utils.Collections.isEmpty;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Loads chunks of a row set on its own session and commits them, the chunks are rolled back if the load fails.
+ */
+public class LoadRowSetWork extends WorkBase {
+
+    private final transient Logger logger = getLogger(getClass());
+
+    private final LoadJob loadJob;
+    private final WorkManager workManager;
+    private final RowSet rowSet;
+    private final Collection<Chunk> chunks;
+    private final Database database;
+
+    public LoadRowSetWork(LoadJob loadJob, WorkManager workManager, RowSet rowSet, Database database) {
+        this(loadJob, workManager, rowSet, rowSet.getChunks(), database);
+    }
+
+    public LoadRowSetWork(LoadJob loadJob, WorkManager workManager, RowSet rowSet, Collection<Chunk> chunks,
+                          Database database) {
+        this.loadJob = loadJob;
+        this.workManager = workManager;
+        this.rowSet = rowSet;
+        this.chunks = chunks;
+        this.database = database;
+    }
+
+    @Override
+    public void execute() throws Exception {
+        if (!isEmpty(workManager.getFailures())) {
+            if (logger.isTraceEnabled()) {
+                logger.trace(format("Load failure reported, skipping %s row set", rowSet.getName()));
+            }
+            return;
+        }
+        Connection connection = getSession().getConnection();
+        try {
+            loadJob.load(getSession(), rowSet, chunks, database);
+            loadJob.commit(connection);
+        } catch (Exception exception) {
+            loadJob.rollback(connection);
+            throw exception;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+    }
+
+    public LoadJob getLoadJob() {
+        return loadJob;
+    }
+
+    public WorkManager getWorkManager() {
+        return workManager;
+    }
+
+    public RowSet getRowSet() {
+        return rowSet;
+    }
+
+    public Collection<Chunk> getChunks() {
+        return chunks;
+    }
+
+    public Database getDatabase() {
+        return database;
+    }
+
+    @Override
+    public String toString() {
+        return ObjectUtils.toString(this, asList("rowSet", "chunks"));
+    }
+}
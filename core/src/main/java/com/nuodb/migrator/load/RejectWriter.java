@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.load;
+
+import com.nuodb.migrator.backup.BackupManager;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.FormatFactory;
+import com.nuodb.migrator.backup.format.OutputFormat;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueHandle;
+import com.nuodb.migrator.backup.format.value.ValueHandleList;
+import com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.SimpleValueHandle;
+import com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.SimpleValueHandleList;
+import com.nuodb.migrator.backup.format.value.ValueType;
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.codec.Codecs.newCodec;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static java.lang.String.format;
+import static java.lang.System.arraycopy;
+import static org.apache.commons.io.FilenameUtils.getBaseName;
+import static org.apache.commons.io.FilenameUtils.getExtension;
+import static org.apache.commons.io.FilenameUtils.removeExtension;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Writes rows rejected by the target database to reject chunks, which are written next to the source chunks in the
+ * same format with an extra column holding the error message, so that rejected rows can be fixed and loaded later.
+ * Once the number of rejected rows exceeds the reject limit the load is failed.
+ */
+public class RejectWriter {
+
+    /**
+     * Inserted before the extension of the source chunk name to get name of the reject chunk
+     */
+    public static final String REJECT_SUFFIX = "reject";
+    /**
+     * Name of the column appended to rejected rows with the error message
+     */
+    public static final String ERROR_COLUMN = "load_error";
+
+    private final transient Logger logger = getLogger(getClass());
+
+    private final BackupManager backupManager;
+    private final FormatFactory formatFactory;
+    private final Map<String, Object> formatAttributes;
+    private final long rejectLimit;
+    private final AtomicLong rejected = new AtomicLong();
+    private final Map<String, OutputFormat> outputFormats = newHashMap();
+
+    public RejectWriter(BackupManager backupManager, FormatFactory formatFactory,
+                        Map<String, Object> formatAttributes, long rejectLimit) {
+        this.backupManager = backupManager;
+        this.formatFactory = formatFactory;
+        this.formatAttributes = formatAttributes;
+        this.rejectLimit = rejectLimit;
+    }
+
+    /**
+     * Writes rejected row of the chunk to the reject chunk.
+     *
+     * @param chunk     chunk the row is read from.
+     * @param values    values of the rejected row.
+     * @param row       zero based index of the row in the chunk.
+     * @param exception error raised by the target database.
+     * @throws LoadException if the reject limit is exceeded.
+     */
+    public void reject(Chunk chunk, Value[] values, long row, Exception exception) {
+        long rejected = this.rejected.incrementAndGet();
+        if (rejected > rejectLimit) {
+            throw new LoadException(format("Reject limit of %d rows is exceeded, error loading row %d from %s chunk",
+                    rejectLimit, row + 1, chunk.getName()), exception);
+        }
+        if (logger.isWarnEnabled()) {
+            logger.warn(format("Row %d from %s chunk is rejected: %s", row + 1, chunk.getName(),
+                    exception.getMessage()));
+        }
+        Value[] rejectValues = new Value[values.length + 1];
+        arraycopy(values, 0, rejectValues, 0, values.length);
+        rejectValues[values.length] = string(exception.getMessage());
+        synchronized (outputFormats) {
+            OutputFormat outputFormat = outputFormats.get(chunk.getName());
+            if (outputFormat == null) {
+                outputFormats.put(chunk.getName(), outputFormat = openOutputFormat(chunk));
+            }
+            outputFormat.writeValues(rejectValues);
+        }
+    }
+
+    protected OutputFormat openOutputFormat(Chunk chunk) {
+        RowSet rowSet = chunk.getRowSet();
+        String rejectChunk = getRejectChunk(chunk);
+        OutputFormat outputFormat = formatFactory.createOutputFormat(rowSet.getBackup().getFormat(), formatAttributes);
+        outputFormat.setRowSet(rowSet);
+        outputFormat.setValueHandleList(createValueHandleList(rowSet));
+        outputFormat.setOutputStream(backupManager.openOutput(rejectChunk, chunk.getCompression()));
+        outputFormat.init();
+        outputFormat.writeStart();
+        if (logger.isWarnEnabled()) {
+            logger.warn(format("Writing rows rejected from %s chunk to %s", chunk.getName(), rejectChunk));
+        }
+        return outputFormat;
+    }
+
+    protected ValueHandleList createValueHandleList(RowSet rowSet) {
+        ValueHandleList valueHandleList = new SimpleValueHandleList();
+        for (Column column : rowSet.getColumns()) {
+            valueHandleList.add(createValueHandle(column.getName(), ValueType.fromAlias(column.getValueType())));
+        }
+        valueHandleList.add(createValueHandle(ERROR_COLUMN, STRING));
+        return valueHandleList;
+    }
+
+    protected ValueHandle createValueHandle(String name, ValueType valueType) {
+        ValueHandle valueHandle = new SimpleValueHandle();
+        valueHandle.setName(name);
+        valueHandle.setValueType(valueType);
+        return valueHandle;
+    }
+
+    /**
+     * Closes reject chunk of the chunk if any of its rows were rejected.
+     *
+     * @param chunk source chunk.
+     */
+    public void close(Chunk chunk) {
+        OutputFormat outputFormat;
+        synchronized (outputFormats) {
+            outputFormat = outputFormats.remove(chunk.getName());
+        }
+        if (outputFormat != null) {
+            close(outputFormat);
+        }
+    }
+
+    public void close() {
+        synchronized (outputFormats) {
+            for (OutputFormat outputFormat : outputFormats.values()) {
+                close(outputFormat);
+            }
+            outputFormats.clear();
+        }
+        long rejected = getRejected();
+        if (rejected > 0 && logger.isWarnEnabled()) {
+            logger.warn(format("%d row(s) rejected", rejected));
+        }
+    }
+
+    protected void close(OutputFormat outputFormat) {
+        outputFormat.writeEnd();
+        outputFormat.close();
+    }
+
+    /**
+     * Returns name of the reject chunk, which is compressed the same way as the chunk, so users.csv.gz rows are
+     * rejected to users.reject.csv.gz.
+     */
+    public static String getRejectChunk(Chunk chunk) {
+        String name = chunk.getName();
+        String compression = chunk.getCompression();
+        if (compression == null) {
+            return getRejectChunk(name);
+        }
+        String extension = newCodec(compression).getExtension();
+        return getRejectChunk(removeExtension(name)) + "." + extension;
+    }
+
+    public static String getRejectChunk(String chunk) {
+        return getBaseName(chunk) + "." + REJECT_SUFFIX + "." + getExtension(chunk);
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getRejectLimit() {
+        return rejectLimit;
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.load;
+
+import com.nuodb.migrator.MigratorException;
+import com.nuodb.migrator.backup.format.InputFormat;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.utils.RowBuffer;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * Reader stage of the pipelined load, decodes rows of a chunk with the input format and puts them to the row buffer
+ * until the chunk ends or the buffer is aborted by the binder stage.
+ */
+public class RowReader implements Runnable {
+
+    private final InputFormat inputFormat;
+    private final RowBuffer<Value[]> rowBuffer;
+    private volatile long time;
+
+    public RowReader(InputFormat inputFormat, RowBuffer<Value[]> rowBuffer) {
+        this.inputFormat = inputFormat;
+        this.rowBuffer = rowBuffer;
+    }
+
+    @Override
+    public void run() {
+        long start = nanoTime();
+        try {
+            inputFormat.readStart();
+            Value[] values;
+            while ((values = inputFormat.readValues()) != null) {
+                if (!rowBuffer.put(values)) {
+                    return;
+                }
+            }
+            inputFormat.readEnd();
+            rowBuffer.close();
+        } catch (Throwable failure) {
+            rowBuffer.fail(failure instanceof MigratorException ? failure : new LoadException(failure));
+        } finally {
+            time = nanoTime() - start;
+        }
+    }
+
+    public InputFormat getInputFormat() {
+        return inputFormat;
+    }
+
+    public RowBuffer<Value[]> getRowBuffer() {
+        return rowBuffer;
+    }
+
+    /**
+     * @return nanoseconds the reader was running.
+     */
+    public long getTime() {
+        return time;
+    }
+}
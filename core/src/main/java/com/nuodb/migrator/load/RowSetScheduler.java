@@ -0,0 +1,348 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.load;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.jdbc.metadata.Database;
+import com.nuodb.migrator.jdbc.metadata.ForeignKey;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import org.slf4j.Logger;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.reverse;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newIdentityHashMap;
+import static com.google.common.collect.Queues.newArrayDeque;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.google.common.collect.Sets.newLinkedHashSet;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Orders row sets of a backup for loading, so that a row set is released to load workers only after row sets of all
+ * tables it references with foreign keys are loaded. Dependencies are taken from foreign keys of the source database
+ * stored in the backup. Among released row sets the one with the longest remaining dependency chain, measured in
+ * rows, is loaded first, which makes the largest independent row sets go first. Foreign keys forming cycles can't be
+ * satisfied by ordering, so they are not used for ordering and are reported as deferred, the load job drops them on
+ * the target for the time of the load.
+ */
+public class RowSetScheduler {
+
+    private static final Comparator<Node> NODE_COMPARATOR = new Comparator<Node>() {
+        @Override
+        public int compare(Node node1, Node node2) {
+            int compare = compareDesc(node1.rank, node2.rank);
+            return compare != 0 ? compare : compareDesc(node1.rowCount, node2.rowCount);
+        }
+
+        private int compareDesc(long value1, long value2) {
+            return value1 > value2 ? -1 : (value1 < value2 ? 1 : 0);
+        }
+    };
+
+    private final transient Logger logger = getLogger(getClass());
+
+    private final Map<RowSet, Node> nodes = newIdentityHashMap();
+    private final PriorityQueue<Node> ready = new PriorityQueue<Node>(11, NODE_COMPARATOR);
+    private final Collection<ForeignKey> deferredForeignKeys = newArrayList();
+    private int scheduled;
+    private boolean aborted;
+
+    public RowSetScheduler(Backup backup) {
+        this(backup.getRowSets(), backup.getDatabase());
+    }
+
+    public RowSetScheduler(Collection<RowSet> rowSets, Database database) {
+        for (RowSet rowSet : rowSets) {
+            nodes.put(rowSet, new Node(rowSet, getRowCount(rowSet)));
+        }
+        if (database != null) {
+            addDependencies(database);
+        }
+        deferCycles();
+        rank();
+        for (Node node : nodes.values()) {
+            if (node.pending == 0) {
+                ready.add(node);
+            }
+        }
+    }
+
+    /**
+     * Returns next row set ready for loading, waits until one of the scheduled row sets is loaded if there are no
+     * ready row sets.
+     *
+     * @return next row set to load or null if all row sets were scheduled or scheduling was aborted.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public synchronized RowSet next() throws InterruptedException {
+        while (!aborted && ready.isEmpty() && scheduled < nodes.size()) {
+            wait();
+        }
+        if (aborted || ready.isEmpty()) {
+            return null;
+        }
+        Node node = ready.poll();
+        scheduled++;
+        if (logger.isTraceEnabled()) {
+            logger.trace(format("Scheduling %s row set with %d rows, %d row set(s) pending",
+                    node.rowSet.getName(), node.rowCount, nodes.size() - scheduled));
+        }
+        return node.rowSet;
+    }
+
+    /**
+     * Marks row set as loaded and releases dependent row sets whose parents are all loaded.
+     *
+     * @param rowSet loaded row set.
+     */
+    public synchronized void loaded(RowSet rowSet) {
+        Node node = nodes.get(rowSet);
+        if (node != null) {
+            for (Node child : node.children) {
+                if (--child.pending == 0) {
+                    ready.add(child);
+                }
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Stops scheduling, the next call to {@link #next()} returns null.
+     */
+    public synchronized void abort() {
+        aborted = true;
+        notifyAll();
+    }
+
+    /**
+     * Foreign keys which are not satisfied by the load order as they form cycles.
+     *
+     * @return deferred foreign keys.
+     */
+    public Collection<ForeignKey> getDeferredForeignKeys() {
+        return deferredForeignKeys;
+    }
+
+    protected long getRowCount(RowSet rowSet) {
+        long rowCount = 0;
+        for (Chunk chunk : rowSet.getChunks()) {
+            rowCount += chunk.getRowCount();
+        }
+        return rowCount;
+    }
+
+    protected void addDependencies(Database database) {
+        Map<List<String>, Node> rowSets = newHashMap();
+        for (Node node : nodes.values()) {
+            if (node.rowSet instanceof TableRowSet) {
+                TableRowSet rowSet = (TableRowSet) node.rowSet;
+                rowSets.put(asList(rowSet.getCatalog(), rowSet.getSchema(), rowSet.getTable()), node);
+            }
+        }
+        Map<Table, Node> tables = newHashMap();
+        for (Table table : database.getTables()) {
+            Node node = rowSets.get(asList(table.getCatalog() != null ? table.getCatalog().getName() : null,
+                    table.getSchema() != null ? table.getSchema().getName() : null, table.getName()));
+            if (node != null) {
+                tables.put(table, node);
+            }
+        }
+        for (Map.Entry<Table, Node> entry : tables.entrySet()) {
+            Node child = entry.getValue();
+            for (ForeignKey foreignKey : entry.getKey().getForeignKeys()) {
+                Node parent = tables.get(foreignKey.getPrimaryTable());
+                if (parent == null) {
+                    continue;
+                }
+                if (parent == child) {
+                    deferForeignKey(foreignKey);
+                } else {
+                    if (child.parents.add(parent)) {
+                        parent.children.add(child);
+                        child.pending++;
+                    }
+                    child.foreignKeys.put(parent, foreignKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds strongly connected components of the dependency graph and removes dependencies inside of each
+     * component, foreign keys of such dependencies are deferred.
+     */
+    protected void deferCycles() {
+        for (Collection<Node> component : getComponents()) {
+            if (component.size() < 2) {
+                continue;
+            }
+            for (Node child : component) {
+                for (Iterator<Node> parents = child.parents.iterator(); parents.hasNext(); ) {
+                    Node parent = parents.next();
+                    if (component.contains(parent)) {
+                        parents.remove();
+                        parent.children.remove(child);
+                        child.pending--;
+                        for (ForeignKey foreignKey : child.foreignKeys.removeAll(parent)) {
+                            deferForeignKey(foreignKey);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    protected void deferForeignKey(ForeignKey foreignKey) {
+        if (logger.isWarnEnabled()) {
+            logger.warn(format("Foreign key %s from %s to %s forms a cycle, it is deferred until the load completes",
+                    foreignKey.getName(), foreignKey.getForeignTable().getQualifiedName(null),
+                    foreignKey.getPrimaryTable().getQualifiedName(null)));
+        }
+        deferredForeignKeys.add(foreignKey);
+    }
+
+    /**
+     * Kosaraju's algorithm with explicit stacks, so that long chains of tables do not overflow the call stack.
+     *
+     * @return strongly connected components of the dependency graph.
+     */
+    private Collection<Collection<Node>> getComponents() {
+        List<Node> order = newArrayList();
+        Set<Node> visited = newHashSet();
+        for (Node root : nodes.values()) {
+            if (!visited.add(root)) {
+                continue;
+            }
+            Deque<Node> stack = newArrayDeque();
+            Deque<Iterator<Node>> iterators = newArrayDeque();
+            stack.push(root);
+            iterators.push(root.children.iterator());
+            while (!stack.isEmpty()) {
+                Iterator<Node> iterator = iterators.peek();
+                if (iterator.hasNext()) {
+                    Node child = iterator.next();
+                    if (visited.add(child)) {
+                        stack.push(child);
+                        iterators.push(child.children.iterator());
+                    }
+                } else {
+                    order.add(stack.pop());
+                    iterators.pop();
+                }
+            }
+        }
+        Collection<Collection<Node>> components = newArrayList();
+        Set<Node> assigned = newHashSet();
+        for (Node root : reverse(order)) {
+            if (!assigned.add(root)) {
+                continue;
+            }
+            Collection<Node> component = newLinkedHashSet();
+            Deque<Node> stack = newArrayDeque();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                component.add(node);
+                for (Node parent : node.parents) {
+                    if (assigned.add(parent)) {
+                        stack.push(parent);
+                    }
+                }
+            }
+            components.add(component);
+        }
+        return components;
+    }
+
+    /**
+     * Ranks every node with the number of rows on the longest path from the node to the end of the acyclic
+     * dependency graph, the node itself included.
+     */
+    protected void rank() {
+        Map<Node, Integer> pending = newHashMap();
+        Deque<Node> queue = newArrayDeque();
+        for (Node node : nodes.values()) {
+            pending.put(node, node.pending);
+            if (node.pending == 0) {
+                queue.add(node);
+            }
+        }
+        List<Node> order = newArrayList();
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            order.add(node);
+            for (Node child : node.children) {
+                int count = pending.get(child) - 1;
+                pending.put(child, count);
+                if (count == 0) {
+                    queue.add(child);
+                }
+            }
+        }
+        for (Node node : reverse(order)) {
+            long rank = 0;
+            for (Node child : node.children) {
+                rank = Math.max(rank, child.rank);
+            }
+            node.rank = node.rowCount + rank;
+        }
+    }
+
+    static class Node {
+
+        private final RowSet rowSet;
+        private final long rowCount;
+        private final Set<Node> parents = newLinkedHashSet();
+        private final Set<Node> children = newLinkedHashSet();
+        private final Multimap<Node, ForeignKey> foreignKeys = ArrayListMultimap.create();
+        private int pending;
+        private long rank;
+
+        public Node(RowSet rowSet, long rowCount) {
+            this.rowSet = rowSet;
+            this.rowCount = rowCount;
+        }
+    }
+}
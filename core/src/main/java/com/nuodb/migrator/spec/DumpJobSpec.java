@@ -27,6 +27,7 @@
  */
 package com.nuodb.migrator.spec;
 
+import com.nuodb.migrator.jdbc.dialect.RowCountType;
 import com.nuodb.migrator.jdbc.metadata.MetaDataType;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
 
@@ -35,6 +36,7 @@ import java.util.TimeZone;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
+import static com.nuodb.migrator.jdbc.dialect.RowCountType.EXACT;
 import static com.nuodb.migrator.spec.MigrationMode.DATA;
 import static com.nuodb.migrator.spec.MigrationMode.SCHEMA;
 
@@ -45,12 +47,21 @@ public class DumpJobSpec extends JobSpecBase {
 
     private Collection<MigrationMode> migrationModes = newHashSet(DATA, SCHEMA);
     private Integer threads;
+    private Integer tableThreads;
     private TimeZone timeZone;
     private ConnectionSpec sourceSpec;
     private ResourceSpec outputSpec;
+    private String compression;
     private MetaDataSpec metaDataSpec = new MetaDataSpec();
     private Collection<QuerySpec> querySpecs = newArrayList();
     private QueryLimit queryLimit;
+    private RowCountType rowCountType = EXACT;
+    private boolean resume;
+    private boolean consistentSnapshot;
+    private Integer pipelineSize;
+    private Long fetchMemory;
+    private Long memoryBudget;
+    private Long lobThreshold;
 
     public Collection<MigrationMode> getMigrationModes() {
         return migrationModes;
@@ -68,6 +79,62 @@ public class DumpJobSpec extends JobSpecBase {
         this.threads = threads;
     }
 
+    public Integer getTableThreads() {
+        return tableThreads;
+    }
+
+    public void setTableThreads(Integer tableThreads) {
+        this.tableThreads = tableThreads;
+    }
+
+    public Integer getPipelineSize() {
+        return pipelineSize;
+    }
+
+    public void setPipelineSize(Integer pipelineSize) {
+        this.pipelineSize = pipelineSize;
+    }
+
+    public Long getFetchMemory() {
+        return fetchMemory;
+    }
+
+    public void setFetchMemory(Long fetchMemory) {
+        this.fetchMemory = fetchMemory;
+    }
+
+    public Long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public void setMemoryBudget(Long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    public Long getLobThreshold() {
+        return lobThreshold;
+    }
+
+    public void setLobThreshold(Long lobThreshold) {
+        this.lobThreshold = lobThreshold;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    public boolean isConsistentSnapshot() {
+        return consistentSnapshot;
+    }
+
+    public void setConsistentSnapshot(boolean consistentSnapshot) {
+        this.consistentSnapshot = consistentSnapshot;
+    }
+
     public TimeZone getTimeZone() {
         return timeZone;
     }
@@ -92,6 +159,14 @@ public class DumpJobSpec extends JobSpecBase {
         this.outputSpec = outputSpec;
     }
 
+    public String getCompression() {
+        return compression;
+    }
+
+    public void setCompression(String compression) {
+        this.compression = compression;
+    }
+
     public MetaDataSpec getMetaDataSpec() {
         return metaDataSpec;
     }
@@ -140,6 +215,14 @@ public class DumpJobSpec extends JobSpecBase {
         this.queryLimit = queryLimit;
     }
 
+    public RowCountType getRowCountType() {
+        return rowCountType;
+    }
+
+    public void setRowCountType(RowCountType rowCountType) {
+        this.rowCountType = rowCountType;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -152,10 +235,23 @@ public class DumpJobSpec extends JobSpecBase {
         if (migrationModes != null ? !migrationModes.equals(that.migrationModes) : that.migrationModes != null)
             return false;
         if (outputSpec != null ? !outputSpec.equals(that.outputSpec) : that.outputSpec != null) return false;
+        if (compression != null ? !compression.equals(that.compression) : that.compression != null) return false;
         if (queryLimit != null ? !queryLimit.equals(that.queryLimit) : that.queryLimit != null) return false;
         if (querySpecs != null ? !querySpecs.equals(that.querySpecs) : that.querySpecs != null) return false;
+        if (rowCountType != that.rowCountType) return false;
+        if (resume != that.resume) return false;
+        if (consistentSnapshot != that.consistentSnapshot) return false;
+        if (pipelineSize != null ? !pipelineSize.equals(that.pipelineSize) : that.pipelineSize != null)
+            return false;
+        if (fetchMemory != null ? !fetchMemory.equals(that.fetchMemory) : that.fetchMemory != null) return false;
+        if (memoryBudget != null ? !memoryBudget.equals(that.memoryBudget) : that.memoryBudget != null)
+            return false;
+        if (lobThreshold != null ? !lobThreshold.equals(that.lobThreshold) : that.lobThreshold != null)
+            return false;
         if (sourceSpec != null ? !sourceSpec.equals(that.sourceSpec) : that.sourceSpec != null) return false;
         if (threads != null ? !threads.equals(that.threads) : that.threads != null) return false;
+        if (tableThreads != null ? !tableThreads.equals(that.tableThreads) : that.tableThreads != null)
+            return false;
         if (timeZone != null ? !timeZone.equals(that.timeZone) : that.timeZone != null) return false;
 
         return true;
@@ -166,12 +262,21 @@ public class DumpJobSpec extends JobSpecBase {
         int result = super.hashCode();
         result = 31 * result + (migrationModes != null ? migrationModes.hashCode() : 0);
         result = 31 * result + (threads != null ? threads.hashCode() : 0);
+        result = 31 * result + (tableThreads != null ? tableThreads.hashCode() : 0);
+        result = 31 * result + (resume ? 1 : 0);
+        result = 31 * result + (consistentSnapshot ? 1 : 0);
+        result = 31 * result + (pipelineSize != null ? pipelineSize.hashCode() : 0);
+        result = 31 * result + (fetchMemory != null ? fetchMemory.hashCode() : 0);
+        result = 31 * result + (memoryBudget != null ? memoryBudget.hashCode() : 0);
+        result = 31 * result + (lobThreshold != null ? lobThreshold.hashCode() : 0);
         result = 31 * result + (timeZone != null ? timeZone.hashCode() : 0);
         result = 31 * result + (sourceSpec != null ? sourceSpec.hashCode() : 0);
         result = 31 * result + (outputSpec != null ? outputSpec.hashCode() : 0);
+        result = 31 * result + (compression != null ? compression.hashCode() : 0);
         result = 31 * result + (metaDataSpec != null ? metaDataSpec.hashCode() : 0);
         result = 31 * result + (querySpecs != null ? querySpecs.hashCode() : 0);
         result = 31 * result + (queryLimit != null ? queryLimit.hashCode() : 0);
+        result = 31 * result + (rowCountType != null ? rowCountType.hashCode() : 0);
         return result;
     }
 }
@@ -44,12 +44,27 @@ import static com.nuodb.migrator.spec.MigrationMode.SCHEMA;
  */
 public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
 
+    /**
+     * Stands for the latest increment of the backup being loaded
+     */
+    public static final int LATEST_INCREMENT = -1;
+
     private ConnectionSpec targetSpec;
     private Collection<MigrationMode> migrationModes = newHashSet(DATA, SCHEMA);
     private TimeZone timeZone;
     private ResourceSpec inputSpec;
     private InsertType insertType;
     private CommitStrategy commitStrategy;
+    private Integer batchSize;
+    private Integer pipelineSize;
+    private Integer insertRows;
+    private Integer threads;
+    private boolean parallelChunks;
+    private Long rejectLimit;
+    private boolean resume;
+    private boolean journal;
+    private String journalPath;
+    private Integer increment;
     private Map<String, InsertType> tableInsertTypes = newHashMap();
 
     public Collection<MigrationMode> getMigrationModes() {
@@ -92,6 +107,101 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
         this.commitStrategy = commitStrategy;
     }
 
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Integer getPipelineSize() {
+        return pipelineSize;
+    }
+
+    public void setPipelineSize(Integer pipelineSize) {
+        this.pipelineSize = pipelineSize;
+    }
+
+    public Integer getInsertRows() {
+        return insertRows;
+    }
+
+    public void setInsertRows(Integer insertRows) {
+        this.insertRows = insertRows;
+    }
+
+    public Integer getThreads() {
+        return threads;
+    }
+
+    public void setThreads(Integer threads) {
+        this.threads = threads;
+    }
+
+    public boolean isParallelChunks() {
+        return parallelChunks;
+    }
+
+    public void setParallelChunks(boolean parallelChunks) {
+        this.parallelChunks = parallelChunks;
+    }
+
+    public Long getRejectLimit() {
+        return rejectLimit;
+    }
+
+    public void setRejectLimit(Long rejectLimit) {
+        this.rejectLimit = rejectLimit;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    /**
+     * Journals chunks committed to the target database, so that the load can be resumed later.
+     *
+     * @return true to write the load journal even if the load is not resumed.
+     */
+    public boolean isJournal() {
+        return journal;
+    }
+
+    public void setJournal(boolean journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Path of the load journal, which is written next to the backup catalog if null.
+     *
+     * @return load journal path or null.
+     */
+    public String getJournalPath() {
+        return journalPath;
+    }
+
+    public void setJournalPath(String journalPath) {
+        this.journalPath = journalPath;
+    }
+
+    /**
+     * Loads only chunks appended by incremental dumps starting from the increment.
+     *
+     * @return first increment to load, {@link #LATEST_INCREMENT} for the latest increment or null to load all chunks.
+     */
+    public Integer getIncrement() {
+        return increment;
+    }
+
+    public void setIncrement(Integer increment) {
+        this.increment = increment;
+    }
+
     public ResourceSpec getInputSpec() {
         return inputSpec;
     }
@@ -118,6 +228,16 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
 
         if (commitStrategy != null ? !commitStrategy.equals(that.commitStrategy) : that.commitStrategy != null)
             return false;
+        if (batchSize != null ? !batchSize.equals(that.batchSize) : that.batchSize != null) return false;
+        if (pipelineSize != null ? !pipelineSize.equals(that.pipelineSize) : that.pipelineSize != null) return false;
+        if (insertRows != null ? !insertRows.equals(that.insertRows) : that.insertRows != null) return false;
+        if (threads != null ? !threads.equals(that.threads) : that.threads != null) return false;
+        if (parallelChunks != that.parallelChunks) return false;
+        if (rejectLimit != null ? !rejectLimit.equals(that.rejectLimit) : that.rejectLimit != null) return false;
+        if (resume != that.resume) return false;
+        if (journal != that.journal) return false;
+        if (journalPath != null ? !journalPath.equals(that.journalPath) : that.journalPath != null) return false;
+        if (increment != null ? !increment.equals(that.increment) : that.increment != null) return false;
         if (inputSpec != null ? !inputSpec.equals(that.inputSpec) : that.inputSpec != null) return false;
         if (insertType != that.insertType) return false;
         if (migrationModes != null ? !migrationModes.equals(that.migrationModes) : that.migrationModes != null)
@@ -139,6 +259,16 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
         result = 31 * result + (inputSpec != null ? inputSpec.hashCode() : 0);
         result = 31 * result + (insertType != null ? insertType.hashCode() : 0);
         result = 31 * result + (commitStrategy != null ? commitStrategy.hashCode() : 0);
+        result = 31 * result + (batchSize != null ? batchSize.hashCode() : 0);
+        result = 31 * result + (pipelineSize != null ? pipelineSize.hashCode() : 0);
+        result = 31 * result + (insertRows != null ? insertRows.hashCode() : 0);
+        result = 31 * result + (threads != null ? threads.hashCode() : 0);
+        result = 31 * result + (parallelChunks ? 1 : 0);
+        result = 31 * result + (rejectLimit != null ? rejectLimit.hashCode() : 0);
+        result = 31 * result + (resume ? 1 : 0);
+        result = 31 * result + (journal ? 1 : 0);
+        result = 31 * result + (journalPath != null ? journalPath.hashCode() : 0);
+        result = 31 * result + (increment != null ? increment.hashCode() : 0);
         result = 31 * result + (tableInsertTypes != null ? tableInsertTypes.hashCode() : 0);
         return result;
     }
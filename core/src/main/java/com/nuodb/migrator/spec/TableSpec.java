@@ -36,6 +36,9 @@ public class TableSpec {
     private String table;
     private Collection<String> columns;
     private String filter;
+    private String watermark;
+    private Integer threads;
+    private Integer priority;
 
     public TableSpec(String table) {
         this.table = table;
@@ -70,6 +73,46 @@ public class TableSpec {
         this.filter = filter;
     }
 
+    /**
+     * Column with monotonically increasing values, like an identifier or a last modification timestamp, used to dump
+     * only rows beyond the high watermark saved in the catalog by the previous run.
+     *
+     * @return watermark column name or null if the table is dumped entirely.
+     */
+    public String getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(String watermark) {
+        this.watermark = watermark;
+    }
+
+    /**
+     * Maximum number of threads dumping splits of the table at the same time.
+     *
+     * @return number of threads or null if the number of threads per table applies.
+     */
+    public Integer getThreads() {
+        return threads;
+    }
+
+    public void setThreads(Integer threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Scheduling priority of the table, splits of tables with higher priority are dumped first.
+     *
+     * @return priority of the table or null for the default priority.
+     */
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -80,6 +123,9 @@ public class TableSpec {
         if (columns != null ? !columns.equals(that.columns) : that.columns != null) return false;
         if (filter != null ? !filter.equals(that.filter) : that.filter != null) return false;
         if (table != null ? !table.equals(that.table) : that.table != null) return false;
+        if (watermark != null ? !watermark.equals(that.watermark) : that.watermark != null) return false;
+        if (threads != null ? !threads.equals(that.threads) : that.threads != null) return false;
+        if (priority != null ? !priority.equals(that.priority) : that.priority != null) return false;
 
         return true;
     }
@@ -89,6 +135,9 @@ public class TableSpec {
         int result = table != null ? table.hashCode() : 0;
         result = 31 * result + (columns != null ? columns.hashCode() : 0);
         result = 31 * result + (filter != null ? filter.hashCode() : 0);
+        result = 31 * result + (watermark != null ? watermark.hashCode() : 0);
+        result = 31 * result + (threads != null ? threads.hashCode() : 0);
+        result = 31 * result + (priority != null ? priority.hashCode() : 0);
         return result;
     }
 
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.utils;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
+
+/**
+ * Semaphore counting bytes held in memory by concurrent workers. A worker acquires bytes before it materializes data
+ * and waits while the budget is exhausted, so that workers slow down instead of running out of heap. A request larger
+ * than the whole budget waits until the whole budget is available and then overdraws it, so that a single huge row can
+ * still proceed while all the other requests wait until it's released.
+ */
+public class MemoryBudget {
+
+    private final long capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private long availableBytes;
+    private long waitTime;
+    private long waits;
+
+    public MemoryBudget(long capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity should be positive");
+        }
+        this.capacity = capacity;
+        this.availableBytes = capacity;
+    }
+
+    /**
+     * Acquires bytes, waits until enough bytes are released by others if the budget is exhausted or overdrawn.
+     *
+     * @param bytes number of bytes to acquire.
+     * @return number of bytes acquired.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public long acquire(long bytes) throws InterruptedException {
+        bytes = max(bytes, 0);
+        long required = min(bytes, capacity);
+        lock.lockInterruptibly();
+        try {
+            if (availableBytes < required) {
+                long start = nanoTime();
+                while (availableBytes < required) {
+                    available.await();
+                }
+                waitTime += nanoTime() - start;
+                waits++;
+            }
+            availableBytes -= bytes;
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns bytes to the budget waking up waiting workers.
+     *
+     * @param bytes number of bytes to release.
+     */
+    public void release(long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            availableBytes += bytes;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getAvailableBytes() {
+        lock.lock();
+        try {
+            return availableBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return nanoseconds workers waited for the budget in total.
+     */
+    public long getWaitTime() {
+        lock.lock();
+        try {
+            return waitTime;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of acquisitions which had to wait for the budget.
+     */
+    public long getWaits() {
+        lock.lock();
+        try {
+            return waits;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
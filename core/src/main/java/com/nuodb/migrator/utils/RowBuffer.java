@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.utils;
+
+import com.nuodb.migrator.MigratorException;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * Bounded ring buffer of rows handed from a producer stage to a consumer stage, like from the reader decoding a chunk
+ * to the binder of the insert statement or from the fetcher of a query split to the writer encoding chunks. Slots are
+ * allocated once, the producer blocks while the buffer is full and the consumer blocks while it is empty. Time spent
+ * blocked by each stage and the buffer depth are recorded, so that it's visible which of the stages is the bottleneck.
+ *
+ * @param <T> type of the rows.
+ */
+public class RowBuffer<T> {
+
+    private final Object[] rows;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private int head;
+    private int tail;
+    private int depth;
+    private boolean closed;
+    private boolean aborted;
+    private Throwable failure;
+
+    private long putWaitTime;
+    private long takeWaitTime;
+    private long depthTotal;
+    private long takes;
+    private int maxDepth;
+
+    public RowBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity should be positive");
+        }
+        this.rows = new Object[capacity];
+    }
+
+    /**
+     * Puts row to the buffer, waits for a free slot if the buffer is full.
+     *
+     * @param row row to put.
+     * @return false if the buffer was aborted by the consumer and the row was not added.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean put(T row) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (depth == rows.length && !aborted) {
+                long start = nanoTime();
+                while (depth == rows.length && !aborted) {
+                    notFull.await();
+                }
+                putWaitTime += nanoTime() - start;
+            }
+            if (aborted) {
+                return false;
+            }
+            rows[tail] = row;
+            tail = (tail + 1) % rows.length;
+            depth++;
+            maxDepth = Math.max(maxDepth, depth);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes next row from the buffer, waits for the row if the buffer is empty.
+     *
+     * @return next row or null if the buffer is closed and all rows are taken.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws MigratorException    if the producer failed.
+     */
+    @SuppressWarnings("unchecked")
+    public T take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (depth == 0 && !closed) {
+                long start = nanoTime();
+                while (depth == 0 && !closed) {
+                    notEmpty.await();
+                }
+                takeWaitTime += nanoTime() - start;
+            }
+            if (failure != null) {
+                throw failure instanceof MigratorException ?
+                        (MigratorException) failure : new MigratorException(failure);
+            }
+            if (depth == 0) {
+                return null;
+            }
+            depthTotal += depth;
+            takes++;
+            T row = (T) rows[head];
+            rows[head] = null;
+            head = (head + 1) % rows.length;
+            depth--;
+            notFull.signal();
+            return row;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks end of rows, the consumer takes remaining rows and then gets null.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the buffer on a producer failure, which is rethrown to the consumer.
+     *
+     * @param failure producer failure.
+     */
+    public void fail(Throwable failure) {
+        lock.lock();
+        try {
+            this.failure = failure;
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the producer, called by the consumer which won't take any more rows.
+     */
+    public void abort() {
+        lock.lock();
+        try {
+            aborted = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return rows.length;
+    }
+
+    public int getMaxDepth() {
+        lock.lock();
+        try {
+            return maxDepth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getAverageDepth() {
+        lock.lock();
+        try {
+            return takes > 0 ? (double) depthTotal / takes : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return nanoseconds the producer waited for free slots.
+     */
+    public long getPutWaitTime() {
+        lock.lock();
+        try {
+            return putWaitTime;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return nanoseconds the consumer waited for rows.
+     */
+    public long getTakeWaitTime() {
+        lock.lock();
+        try {
+            return takeWaitTime;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.codec;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class CodecTest {
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp() {
+        executor = newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @DataProvider(name = "codecs")
+    public Object[][] createCodecs() {
+        return new Object[][]{
+                {new GzipCodec(), false},
+                {new GzipCodec(), true},
+                {new LzCodec(), false},
+                {new LzCodec(), true}
+        };
+    }
+
+    @Test(dataProvider = "codecs")
+    public void testCompress(BlockCodecBase codec, boolean parallel) throws Exception {
+        codec.setBlockSize(4096);
+        codec.setExecutor(parallel ? executor : null);
+        byte[] data = createData();
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        OutputStream output = codec.getOutputStream(compressed);
+        output.write(data, 0, 1000);
+        output.write(data[1000]);
+        output.write(data, 1001, data.length - 1001);
+        output.close();
+        assertTrue(compressed.size() < data.length);
+
+        InputStream input = codec.getInputStream(new ByteArrayInputStream(compressed.toByteArray()));
+        assertEquals(IOUtils.toByteArray(input), data);
+    }
+
+    @Test(dataProvider = "codecs")
+    public void testIncompressible(BlockCodecBase codec, boolean parallel) throws Exception {
+        codec.setBlockSize(4096);
+        codec.setExecutor(parallel ? executor : null);
+        byte[] data = new byte[10000];
+        new Random(1).nextBytes(data);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        OutputStream output = codec.getOutputStream(compressed);
+        output.write(data);
+        output.close();
+
+        InputStream input = codec.getInputStream(new ByteArrayInputStream(compressed.toByteArray()));
+        assertEquals(IOUtils.toByteArray(input), data);
+    }
+
+    @DataProvider(name = "corruptBlocks")
+    public Object[][] createCorruptBlocks() {
+        return new Object[][]{
+                {16, 32 | LzCodec.STORED},
+                {32, 16 | LzCodec.STORED},
+                {16, 16},
+                {16, 32}
+        };
+    }
+
+    @Test(dataProvider = "corruptBlocks", expectedExceptions = IOException.class,
+            expectedExceptionsMessageRegExp = "Corrupt block.*")
+    public void testCorruptBlock(int length, int stored) throws Exception {
+        byte[] block = new byte[LzCodec.HEADER_SIZE + 64];
+        LzCodec.writeInt(block, 0, length);
+        LzCodec.writeInt(block, 4, stored);
+        IOUtils.toByteArray(new LzCodec().getInputStream(new ByteArrayInputStream(block)));
+    }
+
+    private static byte[] createData() {
+        StringBuilder data = new StringBuilder();
+        Random random = new Random(1);
+        for (int row = 0; row < 2000; row++) {
+            data.append(row).append(",\"user").append(random.nextInt(100)).append("\",\"2013-01-0").
+                    append(random.nextInt(9) + 1).append("\"\n");
+        }
+        return data.toString().getBytes();
+    }
+}
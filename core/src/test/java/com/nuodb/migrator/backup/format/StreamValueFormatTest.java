@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format;
+
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.bson.BsonInputFormat;
+import com.nuodb.migrator.backup.format.bson.BsonOutputFormat;
+import com.nuodb.migrator.backup.format.csv.CsvInputFormat;
+import com.nuodb.migrator.backup.format.csv.CsvOutputFormat;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueHandle;
+import com.nuodb.migrator.backup.format.value.ValueHandleList;
+import com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.SimpleValueHandle;
+import com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.SimpleValueHandleList;
+import com.nuodb.migrator.backup.format.value.ValueType;
+import com.nuodb.migrator.backup.format.xml.XmlInputFormat;
+import com.nuodb.migrator.backup.format.xml.XmlOutputFormat;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Random;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.format.csv.CsvAttributes.ATTRIBUTE_ENCODING;
+import static com.nuodb.migrator.backup.format.csv.CsvAttributes.ATTRIBUTE_QUOTING;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.reference;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Writes large objects as stream values and reads them back from each of the formats.
+ */
+public class StreamValueFormatTest {
+
+    @DataProvider(name = "formats")
+    public Object[][] createFormats() {
+        Map<String, Object> escaping = newHashMap();
+        escaping.put(ATTRIBUTE_ENCODING, "utf-8");
+        Map<String, Object> quoting = newHashMap(escaping);
+        quoting.put(ATTRIBUTE_QUOTING, "true");
+        return new Object[][]{
+                {new CsvOutputFormat(), new CsvInputFormat(), escaping},
+                {new CsvOutputFormat(), new CsvInputFormat(), quoting},
+                {new XmlOutputFormat(), new XmlInputFormat(), null},
+                {new BsonOutputFormat(), new BsonInputFormat(), null}
+        };
+    }
+
+    @Test(dataProvider = "formats")
+    public void testStreamValues(OutputFormat outputFormat, InputFormat inputFormat, Map<String, Object> attributes) {
+        String string = createString(20000);
+        byte[] bytes = createBytes(30000);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        outputFormat.setAttributes(attributes);
+        outputFormat.setValueHandleList(createValueHandleList());
+        outputFormat.setOutputStream(output);
+        outputFormat.init();
+        outputFormat.writeStart();
+        outputFormat.writeValues(new Value[]{
+                string(new StringReader(string)), binary(new ByteArrayInputStream(bytes))});
+        outputFormat.writeValues(new Value[]{
+                string(new StringReader("")), binary(new ByteArrayInputStream(new byte[0]))});
+        outputFormat.writeEnd();
+        outputFormat.close();
+
+        inputFormat.setAttributes(attributes);
+        inputFormat.setRowSet(createRowSet());
+        inputFormat.setInputStream(new ByteArrayInputStream(output.toByteArray()));
+        inputFormat.init();
+        inputFormat.readStart();
+        Value[] values = inputFormat.readValues();
+        assertEquals(values[0].asString(), string);
+        assertEquals(values[1].asBytes(), bytes);
+        values = inputFormat.readValues();
+        assertEquals(values[0].asString(), "");
+        assertEquals(values[1].asBytes(), new byte[0]);
+        assertNull(inputFormat.readValues());
+        inputFormat.readEnd();
+        inputFormat.close();
+    }
+
+    @Test(dataProvider = "formats")
+    public void testReferenceValues(OutputFormat outputFormat, InputFormat inputFormat,
+                                    Map<String, Object> attributes) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        outputFormat.setAttributes(attributes);
+        outputFormat.setValueHandleList(createValueHandleList());
+        outputFormat.setOutputStream(output);
+        outputFormat.init();
+        outputFormat.writeStart();
+        outputFormat.writeValues(new Value[]{reference("users.csv.1.1.lob", STRING), binary(new byte[]{1, 2})});
+        outputFormat.writeValues(new Value[]{string("#abc"), reference("users.csv.2.2.lob", BINARY)});
+        outputFormat.writeValues(new Value[]{string("abc"), binary(new byte[]{3})});
+        outputFormat.writeEnd();
+        outputFormat.close();
+
+        inputFormat.setAttributes(attributes);
+        inputFormat.setRowSet(createRowSet());
+        inputFormat.setInputStream(new ByteArrayInputStream(output.toByteArray()));
+        inputFormat.init();
+        inputFormat.readStart();
+        Value[] values = inputFormat.readValues();
+        assertEquals(values[0], reference("users.csv.1.1.lob", STRING));
+        assertEquals(values[1].asBytes(), new byte[]{1, 2});
+        values = inputFormat.readValues();
+        assertEquals(values[0].asString(), "#abc");
+        assertEquals(values[1], reference("users.csv.2.2.lob", BINARY));
+        values = inputFormat.readValues();
+        assertEquals(values[0].asString(), "abc");
+        assertEquals(values[1].asBytes(), new byte[]{3});
+        assertNull(inputFormat.readValues());
+        inputFormat.readEnd();
+        inputFormat.close();
+    }
+
+    protected String createString(int length) {
+        StringBuilder string = new StringBuilder("#");
+        String characters = "abc,|\"\r\n\u0001\uD83D\uDE00";
+        Random random = new Random(length);
+        while (string.length() < length) {
+            string.append(characters.charAt(random.nextInt(characters.length() - 2)));
+            if (random.nextInt(100) == 0) {
+                string.append(characters.substring(characters.length() - 2));
+            }
+        }
+        return string.toString();
+    }
+
+    protected byte[] createBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    protected ValueHandleList createValueHandleList() {
+        ValueHandleList valueHandleList = new SimpleValueHandleList();
+        valueHandleList.add(createValueHandle("text", STRING));
+        valueHandleList.add(createValueHandle("data", BINARY));
+        return valueHandleList;
+    }
+
+    protected ValueHandle createValueHandle(String name, ValueType valueType) {
+        ValueHandle valueHandle = new SimpleValueHandle();
+        valueHandle.setName(name);
+        valueHandle.setValueType(valueType);
+        return valueHandle;
+    }
+
+    protected RowSet createRowSet() {
+        RowSet rowSet = new RowSet();
+        rowSet.addColumn("text", ValueType.toAlias(STRING));
+        rowSet.addColumn("data", ValueType.toAlias(BINARY));
+        return rowSet;
+    }
+}
@@ -30,6 +30,7 @@ package com.nuodb.migrator.cli.run;
 import com.nuodb.migrator.cli.parse.Parser;
 import com.nuodb.migrator.cli.parse.parser.ParserImpl;
 import com.nuodb.migrator.backup.format.csv.CsvAttributes;
+import com.nuodb.migrator.jdbc.dialect.RowCountType;
 import com.nuodb.migrator.spec.*;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -68,6 +69,7 @@ public class CliDumpJobTest {
 
                 "--output.path=/tmp/dump.cat",
                 "--output.type=xml",
+                "--output.compression=lz",
 
                 "--output.csv.encoding=cp1251",
                 "--output.csv.delimiter=,",
@@ -79,9 +81,20 @@ public class CliDumpJobTest {
                 "--table=users",
                 "--table=users_roles",
                 "--table.users_roles.filter=role_id in (1,2,3,4,5)",
+                "--table.users.watermark=updated_at",
+                "--table.users.threads=2",
+                "--table.users.priority=1",
+                "--pipeline.size=500",
+                "--fetch.memory=1048576",
+                "--memory.budget=268435456",
+                "--lob.threshold=65536",
+                "--resume",
+                "--consistent.snapshot",
 
                 "--query=SELECT id, name, definition FROM definitions",
-                "--time.zone=GMT"
+                "--time.zone=GMT",
+                "--query.limit.row.count=approx",
+                "--threads.per.table=2"
         };
         parser.parse(arguments, cliDumpJob);
 
@@ -115,13 +128,30 @@ public class CliDumpJobTest {
         outputSpec.setAttributes(attributes);
 
         dumpSpec.setOutputSpec(outputSpec);
+        dumpSpec.setCompression("lz");
         dumpSpec.setTableSpecs(asList(
-                new TableSpec("users"),
+                createTableSpec("users", "updated_at", 2, 1),
                 new TableSpec("users_roles", "role_id in (1,2,3,4,5)")
         ));
         dumpSpec.setQuerySpecs(asList(new QuerySpec("SELECT id, name, definition FROM definitions")));
         dumpSpec.setTableTypes(new String[]{"TABLE", "SYSTEM TABLE"});
         dumpSpec.setTimeZone(TimeZone.getTimeZone("GMT"));
+        dumpSpec.setRowCountType(RowCountType.APPROX);
+        dumpSpec.setTableThreads(2);
+        dumpSpec.setPipelineSize(500);
+        dumpSpec.setFetchMemory(1048576L);
+        dumpSpec.setMemoryBudget(268435456L);
+        dumpSpec.setLobThreshold(65536L);
+        dumpSpec.setResume(true);
+        dumpSpec.setConsistentSnapshot(true);
         return dumpSpec;
     }
+
+    private static TableSpec createTableSpec(String table, String watermark, Integer threads, Integer priority) {
+        TableSpec tableSpec = new TableSpec(table);
+        tableSpec.setWatermark(watermark);
+        tableSpec.setThreads(threads);
+        tableSpec.setPriority(priority);
+        return tableSpec;
+    }
 }
@@ -76,7 +76,16 @@ public class CliLoadJobTest {
 
                 "--table.deployments.insert",
                 "--table.deployments_nodes.replace",
-                "--time.zone=GMT+2"
+                "--time.zone=GMT+2",
+                "--batch.size=500",
+                "--pipeline.size=1000",
+                "--insert.rows=100",
+                "--threads=4",
+                "--parallel.chunks=true",
+                "--reject.limit=10",
+                "--resume",
+                "--journal=/tmp/dump.journal",
+                "--increment=2"
         };
         parser.parse(arguments, cliLoadJob);
 
@@ -111,6 +120,16 @@ public class CliLoadJobTest {
         loadJobSpec.setTableInsertTypes(tableInsertTypes);
         loadJobSpec.setTimeZone(TimeZone.getTimeZone("GMT+2"));
         loadJobSpec.setCommitStrategy(new BatchCommitStrategy());
+        loadJobSpec.setBatchSize(500);
+        loadJobSpec.setPipelineSize(1000);
+        loadJobSpec.setInsertRows(100);
+        loadJobSpec.setThreads(4);
+        loadJobSpec.setParallelChunks(true);
+        loadJobSpec.setRejectLimit(10L);
+        loadJobSpec.setResume(true);
+        loadJobSpec.setJournal(true);
+        loadJobSpec.setJournalPath("/tmp/dump.journal");
+        loadJobSpec.setIncrement(2);
         return loadJobSpec;
     }
 }
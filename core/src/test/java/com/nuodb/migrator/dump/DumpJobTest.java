@@ -27,6 +27,11 @@
  */
 package com.nuodb.migrator.dump;
 
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.backup.XmlBackupManager;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistryResolver;
 import com.nuodb.migrator.jdbc.connection.ConnectionProvider;
@@ -42,18 +47,25 @@ import com.nuodb.migrator.jdbc.metadata.inspector.InspectionManager;
 import com.nuodb.migrator.job.JobExecution;
 import com.nuodb.migrator.job.JobExecutor;
 import com.nuodb.migrator.spec.DumpJobSpec;
+import com.nuodb.migrator.spec.ResourceSpec;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.Types;
+import java.util.Collection;
 import java.util.Map;
 
 import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.io.Files.createTempDir;
+import static com.nuodb.migrator.backup.BackupManager.LOBS;
+import static com.nuodb.migrator.dump.DumpJob.LOB_THRESHOLD;
 import static com.nuodb.migrator.jdbc.metadata.Identifier.EMPTY;
 import static com.nuodb.migrator.job.JobExecutors.createJobExecutor;
 import static org.mockito.BDDMockito.*;
@@ -61,8 +73,14 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.MockitoAnnotations.initMocks;
+import static java.util.Collections.singleton;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.apache.commons.io.FileUtils.touch;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 /**
  * @author Sergey Bushik
@@ -143,6 +161,70 @@ public class DumpJobTest {
         verify(dumpJob, times(1)).execute();
     }
 
+    @Test
+    public void testReplaceRowSets() throws Exception {
+        File dir = createTempDir();
+        try {
+            File lobs = new File(dir, LOBS);
+            lobs.mkdir();
+            touch(new File(dir, "users.csv"));
+            touch(new File(lobs, "users.csv.1.2.lob"));
+            touch(new File(lobs, "users.csv.gz.1.2.lob"));
+            touch(new File(dir, "users.inc1.csv"));
+            dumpJob.setBackupManager(new XmlBackupManager(dir.getPath()));
+
+            RowSet replaced = createRowSet("users", "users.csv", 0);
+            Backup backup = new Backup();
+            RowSet rowSet = createRowSet("users", "users.inc1.csv", 1);
+            backup.addRowSet(rowSet);
+            RowSet appended = createRowSet("orders", "orders.csv", 0);
+            backup.addRowSet(appended);
+            Collection<RowSet> replacedRowSets = singleton(replaced);
+
+            dumpJob.markReplaced(backup, replacedRowSets);
+            assertTrue(rowSet.isReplaced());
+            assertFalse(appended.isReplaced());
+
+            dumpJob.deleteChunks(backup, replacedRowSets);
+            assertFalse(new File(dir, "users.csv").exists());
+            assertFalse(new File(lobs, "users.csv.1.2.lob").exists());
+            assertTrue(new File(lobs, "users.csv.gz.1.2.lob").exists());
+            assertTrue(new File(dir, "users.inc1.csv").exists());
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    private static RowSet createRowSet(String name, String chunkName, int increment) {
+        RowSet rowSet = new TableRowSet();
+        rowSet.setName(name);
+        Chunk chunk = new Chunk();
+        chunk.setName(chunkName);
+        chunk.setIncrement(increment);
+        rowSet.addChunk(chunk);
+        return rowSet;
+    }
+
+    @DataProvider(name = "lobThreshold")
+    public Object[][] createLobThresholdData() {
+        return new Object[][]{
+                {"csv", null, LOB_THRESHOLD},
+                {"bson", null, LOB_THRESHOLD},
+                {"xml", 65536L, 65536L},
+                {"sql", null, null}
+        };
+    }
+
+    @Test(dataProvider = "lobThreshold")
+    public void testGetLobThreshold(String format, Long lobThreshold, Long expected) {
+        ResourceSpec outputSpec = new ResourceSpec();
+        outputSpec.setType(format);
+        DumpJobSpec dumpJobSpec = new DumpJobSpec();
+        dumpJobSpec.setOutputSpec(outputSpec);
+        dumpJobSpec.setLobThreshold(lobThreshold);
+        assertEquals(new DumpJob(dumpJobSpec).getLobThreshold(), expected);
+    }
+
     @Test
     public void testExecuteInSession() throws Throwable {
         Database database = new Database();
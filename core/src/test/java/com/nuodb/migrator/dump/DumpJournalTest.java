@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.dump;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import com.nuodb.migrator.jdbc.split.QuerySplit;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.Collection;
+import java.util.Collections;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.io.File.createTempFile;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.*;
+
+public class DumpJournalTest {
+
+    private File file;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        file = createTempFile("dump", ".journal");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        RowSet rowSet = new RowSet();
+        rowSet.setName("users");
+        rowSet.addColumn("id", "string");
+        rowSet.addColumn("name", "string");
+
+        DumpJournal dumpJournal = new DumpJournal(file);
+        dumpJournal.open(false);
+        dumpJournal.dumped(rowSet, "1", newArrayList(createChunk("users.1.csv", 10), createChunk("users.1.2.csv", 5)),
+                newArrayList("users.1.csv.3.2.lob", "users.1.2.csv.1.2.lob"));
+        dumpJournal.dumped(rowSet, "2", newArrayList(createChunk("users.2.csv", 7)), Collections.<String>emptyList());
+        dumpJournal.close();
+        // torn line of the interrupted dump
+        FileWriter writer = new FileWriter(file, true);
+        writer.write("split\tusers\t3\tusers.3.csv\t4");
+        writer.close();
+
+        dumpJournal = new DumpJournal(file);
+        dumpJournal.open(true);
+        assertEquals(dumpJournal.getColumns("users"), rowSet.getColumns());
+        Collection<Chunk> chunks = dumpJournal.getChunks("users", "1");
+        assertEquals(chunks, newArrayList(createChunk("users.1.csv", 10), createChunk("users.1.2.csv", 5)));
+        assertEquals(dumpJournal.getChunks("users", "2"), newArrayList(createChunk("users.2.csv", 7)));
+        assertEquals(dumpJournal.getLobs("users", "1"), newArrayList("users.1.csv.3.2.lob", "users.1.2.csv.1.2.lob"));
+        assertTrue(dumpJournal.getLobs("users", "2").isEmpty());
+        assertNull(dumpJournal.getChunks("users", "3"));
+        assertNull(dumpJournal.getChunks("roles", "1"));
+        dumpJournal.delete();
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testGetSignature() {
+        QuerySplit querySplit1 = createQuerySplit(0, "SELECT * FROM users LIMIT ? OFFSET ?", new QueryLimit(10L, 0L));
+        QuerySplit querySplit2 = createQuerySplit(0, "SELECT * FROM users LIMIT ? OFFSET ?", new QueryLimit(10L, 0L));
+        QuerySplit querySplit3 = createQuerySplit(0, "SELECT * FROM users LIMIT ? OFFSET ?", new QueryLimit(20L, 0L));
+        String signature = DumpJournal.getSignature(querySplit1, true, null, 0);
+        assertEquals(DumpJournal.getSignature(querySplit2, true, null, 0), signature);
+        assertNotEquals(DumpJournal.getSignature(querySplit3, true, null, 0), signature);
+        assertNotEquals(DumpJournal.getSignature(querySplit1, false, null, 0), signature);
+        assertNotEquals(DumpJournal.getSignature(querySplit1, true, "gzip", 0), signature);
+        assertNotEquals(DumpJournal.getSignature(querySplit1, true, null, 1), signature);
+    }
+
+    private static Chunk createChunk(String name, long rowCount) {
+        Chunk chunk = new Chunk();
+        chunk.setName(name);
+        chunk.setRowCount(rowCount);
+        return chunk;
+    }
+
+    private static QuerySplit createQuerySplit(int splitIndex, String sql, QueryLimit queryLimit) {
+        Query query = mock(Query.class);
+        given(query.toString()).willReturn(sql);
+        QuerySplit querySplit = mock(QuerySplit.class);
+        given(querySplit.getSplitIndex()).willReturn(splitIndex);
+        given(querySplit.getQuery()).willReturn(query);
+        given(querySplit.getQueryLimit()).willReturn(queryLimit);
+        return querySplit;
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.dump;
+
+import com.nuodb.migrator.dump.DumpQueryScheduler.ScheduledSplit;
+import com.nuodb.migrator.jdbc.split.QuerySplit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+public class DumpQuerySchedulerTest {
+
+    private DumpQuery small;
+    private DumpQuery large;
+
+    @BeforeMethod
+    public void setUp() {
+        small = new DumpQuery(null, null);
+        large = new DumpQuery(null, null);
+    }
+
+    private static void plan(DumpQueryScheduler dumpQueryScheduler, DumpQuery dumpQuery, double cost, int splits) {
+        dumpQueryScheduler.setCost(dumpQuery, cost);
+        for (int split = 0; split < splits; split++) {
+            dumpQueryScheduler.addQuerySplit(dumpQuery, mock(QuerySplit.class), split < splits - 1);
+        }
+        dumpQueryScheduler.planned(dumpQuery);
+    }
+
+    private static DumpQuery acquire(DumpQueryScheduler dumpQueryScheduler) throws InterruptedException {
+        ScheduledSplit scheduledSplit = dumpQueryScheduler.acquire();
+        return scheduledSplit != null ? scheduledSplit.getDumpQuery() : null;
+    }
+
+    @Test
+    public void testLargestFirst() throws Exception {
+        DumpQueryScheduler dumpQueryScheduler = new DumpQueryScheduler(4, 4);
+        dumpQueryScheduler.addDumpQuery(small);
+        dumpQueryScheduler.addDumpQuery(large);
+        plan(dumpQueryScheduler, small, 10, 1);
+        plan(dumpQueryScheduler, large, 1000, 3);
+
+        assertSame(acquire(dumpQueryScheduler), large);
+        assertSame(acquire(dumpQueryScheduler), large);
+        assertSame(acquire(dumpQueryScheduler), large);
+        assertSame(acquire(dumpQueryScheduler), small);
+        assertEquals(dumpQueryScheduler.getRunning(large), 3);
+    }
+
+    @Test
+    public void testTableThreads() throws Exception {
+        DumpQueryScheduler dumpQueryScheduler = new DumpQueryScheduler(2, 1);
+        dumpQueryScheduler.addDumpQuery(large);
+        dumpQueryScheduler.addDumpQuery(small);
+        plan(dumpQueryScheduler, large, 1000, 3);
+        plan(dumpQueryScheduler, small, 10, 1);
+
+        assertSame(acquire(dumpQueryScheduler), large);
+        assertSame(acquire(dumpQueryScheduler), small);
+        dumpQueryScheduler.release(small);
+        // no other table is waiting, so the large table is allowed to exceed its thread limit
+        assertSame(acquire(dumpQueryScheduler), large);
+        dumpQueryScheduler.release(large);
+        dumpQueryScheduler.release(large);
+        assertSame(acquire(dumpQueryScheduler), large);
+        dumpQueryScheduler.release(large);
+        assertNull(acquire(dumpQueryScheduler));
+    }
+
+    @Test
+    public void testPriority() throws Exception {
+        DumpQueryScheduler dumpQueryScheduler = new DumpQueryScheduler(4, 4);
+        small.setPriority(1);
+        dumpQueryScheduler.addDumpQuery(large);
+        dumpQueryScheduler.addDumpQuery(small);
+        plan(dumpQueryScheduler, large, 1000, 1);
+        plan(dumpQueryScheduler, small, 10, 1);
+
+        assertSame(acquire(dumpQueryScheduler), small);
+        assertSame(acquire(dumpQueryScheduler), large);
+    }
+
+    @Test(timeOut = 10000L)
+    public void testQueryThreads() throws Exception {
+        final DumpQueryScheduler dumpQueryScheduler = new DumpQueryScheduler(4, 4);
+        large.setThreads(1);
+        dumpQueryScheduler.addDumpQuery(large);
+        plan(dumpQueryScheduler, large, 1000, 2);
+
+        assertSame(acquire(dumpQueryScheduler), large);
+        // threads of the query are never exceeded, the next split waits for the running one to be released
+        Thread worker = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    sleep(100L);
+                } catch (InterruptedException exception) {
+                    return;
+                }
+                dumpQueryScheduler.release(large);
+            }
+        };
+        worker.start();
+        assertSame(acquire(dumpQueryScheduler), large);
+        worker.join();
+        assertEquals(dumpQueryScheduler.getRunning(large), 1);
+        assertEquals(dumpQueryScheduler.getQueueWaits(), 2);
+        assertTrue(dumpQueryScheduler.getQueueWaitTime(large) >= dumpQueryScheduler.getMaxQueueWaitTime());
+        assertTrue(dumpQueryScheduler.getMaxQueueWaitTime() >= MILLISECONDS.toNanos(100L));
+    }
+
+    @Test(timeOut = 10000L)
+    public void testAcquireWhilePlanning() throws Exception {
+        final DumpQueryScheduler dumpQueryScheduler = new DumpQueryScheduler(2, 2);
+        dumpQueryScheduler.addDumpQuery(large);
+        Thread planner = new Thread() {
+            @Override
+            public void run() {
+                plan(dumpQueryScheduler, large, 1000, 1);
+            }
+        };
+        planner.start();
+        assertSame(acquire(dumpQueryScheduler), large);
+        planner.join();
+        assertNull(acquire(dumpQueryScheduler));
+    }
+
+    @Test(expectedExceptions = DumpException.class)
+    public void testFailure() throws Exception {
+        DumpQueryScheduler dumpQueryScheduler = new DumpQueryScheduler(2, 2);
+        dumpQueryScheduler.addDumpQuery(large);
+        dumpQueryScheduler.failure(new IllegalStateException());
+        dumpQueryScheduler.acquire();
+    }
+}
@@ -0,0 +1,247 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.dump;
+
+import com.google.common.collect.Lists;
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupManager;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.QueryRowSet;
+import com.nuodb.migrator.backup.format.FormatFactory;
+import com.nuodb.migrator.backup.format.OutputFormat;
+import com.nuodb.migrator.backup.format.value.ReferenceValue;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
+import com.nuodb.migrator.jdbc.dialect.PostgreSQLDialect;
+import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.query.StatementCallback;
+import com.nuodb.migrator.jdbc.session.Session;
+import com.nuodb.migrator.jdbc.split.QuerySplit;
+import com.nuodb.migrator.jdbc.split.QuerySplitter;
+import com.nuodb.migrator.utils.RowBuffer;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.reference;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.POSTGRE_SQL;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class DumpQueryWorkTest {
+
+    private SimpleDumpQueryContext dumpQueryContext;
+    private DumpQueryWork dumpQueryWork;
+    private List<String> rows;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        BackupManager backupManager = mock(BackupManager.class);
+        when(backupManager.openOutput(anyString(), anyString())).thenReturn(new ByteArrayOutputStream());
+        dumpQueryContext = new SimpleDumpQueryContext();
+        dumpQueryContext.setThreads(1);
+        dumpQueryContext.setFormat("csv");
+        dumpQueryContext.setBackupManager(backupManager);
+
+        DumpQueryManager dumpQueryManager = mock(DumpQueryManager.class);
+        when(dumpQueryManager.canWrite(any(DumpQuery.class), any(DumpQueryWork.class))).thenReturn(true);
+        QueryRowSet rowSet = new QueryRowSet("SELECT * FROM users");
+        new Backup().addRowSet(rowSet);
+        DumpQuery dumpQuery = new DumpQuery(mock(QuerySplitter.class), rowSet);
+        dumpQueryWork = new DumpQueryWork(dumpQueryContext, dumpQueryManager, dumpQuery, mock(QuerySplit.class),
+                false);
+
+        rows = newArrayList();
+        OutputFormat outputFormat = mock(OutputFormat.class);
+        when(outputFormat.canWrite()).thenReturn(true);
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                rows.add(((Value[]) invocation.getArguments()[0])[0].asString());
+                return null;
+            }
+        }).when(outputFormat).writeValues(any(Value[].class));
+        dumpQueryWork.setOutputFormat(outputFormat);
+        dumpQueryWork.setChunks(Lists.<Chunk>newArrayList());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        dumpQueryContext.getFetchExecutor().shutdownNow();
+    }
+
+    @DataProvider(name = "autoCommit")
+    public Object[][] createAutoCommitData() {
+        return new Object[][]{{true, 1}, {false, 0}};
+    }
+
+    /**
+     * Verifies auto commit turned off by PostgreSQL dialect to fetch rows with a cursor is restored on close, while
+     * auto commit turned off by the session owner, such as a snapshot, is kept.
+     */
+    @Test(dataProvider = "autoCommit")
+    @SuppressWarnings("unchecked")
+    public void testRestoreAutoCommit(boolean autoCommit, int restored) throws Exception {
+        final Connection connection = mock(Connection.class);
+        when(connection.getAutoCommit()).thenReturn(autoCommit, autoCommit, false);
+        final Statement statement = mock(Statement.class);
+        when(statement.getConnection()).thenReturn(connection);
+        final ResultSet resultSet = mock(ResultSet.class);
+        QuerySplit querySplit = mock(QuerySplit.class);
+        when(querySplit.getResultSet(any(Connection.class), any(StatementCallback.class))).thenAnswer(
+                new Answer<ResultSet>() {
+                    @Override
+                    public ResultSet answer(InvocationOnMock invocation) throws Throwable {
+                        ((StatementCallback) invocation.getArguments()[1]).executeStatement(statement);
+                        return resultSet;
+                    }
+                });
+        Session session = mock(Session.class);
+        when(session.getConnection()).thenReturn(connection);
+        when(session.getDialect()).thenReturn(new PostgreSQLDialect(POSTGRE_SQL));
+
+        FormatFactory formatFactory = mock(FormatFactory.class);
+        when(formatFactory.createOutputFormat(anyString(), anyMap())).thenReturn(mock(OutputFormat.class));
+        dumpQueryContext.setFormatFactory(formatFactory);
+        dumpQueryContext.setValueFormatRegistry(mock(ValueFormatRegistry.class));
+
+        QueryRowSet rowSet = new QueryRowSet("SELECT * FROM users");
+        new Backup().addRowSet(rowSet);
+        DumpQuery dumpQuery = new DumpQuery(mock(QuerySplitter.class), Collections.<Field>emptyList(), rowSet);
+        DumpQueryWork dumpQueryWork = new DumpQueryWork(dumpQueryContext, mock(DumpQueryManager.class), dumpQuery,
+                querySplit, false);
+        dumpQueryWork.init(session);
+        verify(connection, times(restored)).setAutoCommit(false);
+
+        dumpQueryWork.close();
+        verify(resultSet).close();
+        verify(connection, times(restored)).setAutoCommit(true);
+    }
+
+    @Test
+    public void testWriteLobs() throws Exception {
+        ByteArrayOutputStream lob = new ByteArrayOutputStream();
+        BackupManager backupManager = dumpQueryContext.getBackupManager();
+        when(backupManager.openLobOutput("users.csv.1.2.lob")).thenReturn(lob);
+        dumpQueryContext.setLobThreshold(4L);
+        Chunk chunk = new Chunk();
+        chunk.setName("users.csv");
+
+        Value[] values = new Value[]{string("1"), binary(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5})),
+                string(new StringReader("four"))};
+        Value[] row = dumpQueryWork.writeLobs(chunk, values);
+        assertEquals(row[0], values[0]);
+        assertEquals(row[1], reference("users.csv.1.2.lob", BINARY));
+        assertEquals(((ReferenceValue) row[1]).getLength(), 5);
+        assertEquals(lob.toByteArray(), new byte[]{1, 2, 3, 4, 5});
+        assertEquals(row[2], string("four"));
+        assertEquals(newArrayList(dumpQueryWork.getLobs()), newArrayList("users.csv.1.2.lob"));
+    }
+
+    @Test
+    public void testWriteLobsInline() throws Exception {
+        Value[] values = new Value[]{binary(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}))};
+        assertSame(dumpQueryWork.writeLobs(new Chunk(), values), values);
+        assertTrue(dumpQueryWork.getLobs().isEmpty());
+    }
+
+    @Test
+    public void testPipeline() throws Exception {
+        final int count = 100;
+        RowFetcher rowFetcher = new RowFetcher(mock(ResultSet.class), null, new RowBuffer<Value[]>(4), null, 0) {
+            private int row;
+
+            @Override
+            public Value[] fetch() {
+                return row < count ? new Value[]{string(String.valueOf(row++))} : null;
+            }
+        };
+        dumpQueryWork.write(rowFetcher);
+        assertEquals(rows.size(), count);
+        for (int row = 0; row < count; row++) {
+            assertEquals(rows.get(row), String.valueOf(row));
+        }
+        assertEquals(dumpQueryWork.getChunks().size(), 1);
+        assertEquals(dumpQueryWork.getChunks().iterator().next().getName(), "query-1.csv");
+    }
+
+    @Test
+    public void testPipelineFailure() throws Exception {
+        final DumpException failure = new DumpException("fetch failed");
+        RowFetcher rowFetcher = new RowFetcher(mock(ResultSet.class), null, new RowBuffer<Value[]>(4), null, 0) {
+            private int row;
+
+            @Override
+            public Value[] fetch() {
+                if (row == 10) {
+                    throw failure;
+                }
+                return new Value[]{string(String.valueOf(row++))};
+            }
+        };
+        try {
+            dumpQueryWork.write(rowFetcher);
+            fail("Fetch failure is expected");
+        } catch (DumpException exception) {
+            assertSame(exception, failure);
+        }
+        assertTrue(rows.size() <= 10);
+        for (int row = 0; row < rows.size(); row++) {
+            assertEquals(rows.get(row), String.valueOf(row));
+        }
+        dumpQueryContext.getFetchExecutor().shutdown();
+        assertTrue(dumpQueryContext.getFetchExecutor().awaitTermination(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.dump;
+
+import com.nuodb.migrator.backup.BackupManager;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.QueryRowSet;
+import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.session.Session;
+import com.nuodb.migrator.jdbc.split.QuerySplit;
+import com.nuodb.migrator.jdbc.split.QuerySplitter;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
+import static java.io.File.createTempFile;
+import static java.sql.Types.*;
+import static java.util.Collections.singleton;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class DumpWriterTest {
+
+    private DumpWriter dumpWriter = new DumpWriter();
+
+    @DataProvider(name = "getWatermarkLiteral")
+    public Object[][] createGetWatermarkLiteralData() {
+        return new Object[][]{
+                {BIGINT, "1024", "1024"},
+                {DECIMAL, "1.50", "1.50"},
+                {TIMESTAMP, "2013-07-01 10:20:30.5", "{ts '2013-07-01 10:20:30.5'}"},
+                {DATE, "2013-07-01", "{d '2013-07-01'}"},
+                {TIME, "10:20:30", "{t '10:20:30'}"},
+                {VARCHAR, "o'neil", "'o''neil'"}
+        };
+    }
+
+    @Test(dataProvider = "getWatermarkLiteral")
+    public void testGetWatermarkLiteral(int typeCode, String value, String literal) {
+        Column watermark = new Column("watermark");
+        watermark.setTypeCode(typeCode);
+        assertEquals(dumpWriter.getWatermarkLiteral(watermark, value), literal);
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testGetWatermarkLiteralInjection() {
+        Column watermark = new Column("watermark");
+        watermark.setTypeCode(BIGINT);
+        dumpWriter.getWatermarkLiteral(watermark, "1 OR 1 = 1");
+    }
+
+    @DataProvider(name = "resume")
+    public Object[][] createResumeData() {
+        return new Object[][]{{10L, true}, {-1L, false}};
+    }
+
+    /**
+     * Verifies the dumped split is skipped only if the large object files it has written exist.
+     */
+    @Test(dataProvider = "resume")
+    public void testResume(long lobLength, boolean resumed) throws Exception {
+        File file = createTempFile("dump", ".journal");
+        try {
+            QueryRowSet rowSet = new QueryRowSet("SELECT * FROM users");
+            rowSet.setName("users");
+            QuerySplit querySplit = mock(QuerySplit.class);
+            when(querySplit.getQuery()).thenReturn(mock(Query.class));
+            Chunk chunk = new Chunk();
+            chunk.setName("users.csv");
+            chunk.setRowCount(1);
+
+            DumpJournal dumpJournal = new DumpJournal(file);
+            dumpJournal.open(false);
+            dumpJournal.dumped(rowSet, DumpJournal.getSignature(querySplit, false, null, 0), singleton(chunk),
+                    singleton("users.csv.1.2.lob"));
+            dumpJournal.close();
+            dumpJournal = new DumpJournal(file);
+            dumpJournal.open(true);
+            BackupManager backupManager = mock(BackupManager.class);
+            when(backupManager.exists("users.csv")).thenReturn(true);
+            when(backupManager.getLobLength("users.csv.1.2.lob")).thenReturn(lobLength);
+            dumpWriter.setBackupManager(backupManager);
+            dumpWriter.setDumpJournal(dumpJournal);
+
+            assertEquals(dumpWriter.resume(mock(DumpQueryManager.class),
+                    new DumpQuery(mock(QuerySplitter.class), rowSet), querySplit, false), resumed);
+            dumpJournal.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testAppendRowSet() throws Exception {
+        Table table = createTable(null, null, "users");
+        Column id = table.addColumn("id");
+        id.setTypeCode(BIGINT);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getObject(1)).thenReturn(20L);
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery("SELECT MAX(\"id\") FROM \"users\" WHERE \"id\" > 10")).thenReturn(resultSet);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        Session session = mock(Session.class);
+        when(session.getDialect()).thenReturn(new NuoDBDialect());
+        when(session.getConnection()).thenReturn(connection);
+        dumpWriter.setSession(session);
+
+        TableRowSet rowSet = new TableRowSet(table);
+        rowSet.setHighWatermark("10");
+        Chunk chunk = new Chunk();
+        chunk.setName("users.csv");
+        rowSet.addChunk(chunk);
+        dumpWriter.addTable(table, table.getColumns(), null, id, rowSet);
+
+        DumpTable dumpTable = (DumpTable) getOnlyElement(dumpWriter.getDumpQueries());
+        assertSame(dumpTable.getRowSet(), rowSet);
+        assertEquals(dumpTable.getFilter(), "\"id\" > 10 AND \"id\" <= 20");
+        assertEquals(rowSet.getHighWatermark(), "20");
+        assertEquals(rowSet.getWatermark(), "id");
+
+        Chunk appended = new Chunk();
+        appended.setName("users.inc1.csv");
+        appended.setRowCount(5);
+        appended.setIncrement(1);
+        new SimpleDumpQueryManager().resumed(dumpTable, 0, singleton(appended));
+        assertEquals(newArrayList(rowSet.getChunks()), newArrayList(chunk, appended));
+        assertEquals(rowSet.getRowCount(), 5);
+    }
+}
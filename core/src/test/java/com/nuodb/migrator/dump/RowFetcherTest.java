@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.dump;
+
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueFormat;
+import com.nuodb.migrator.backup.format.value.ValueHandle;
+import com.nuodb.migrator.backup.format.value.ValueHandleList;
+import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
+import com.nuodb.migrator.utils.MemoryBudget;
+import com.nuodb.migrator.utils.RowBuffer;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+
+import static com.nuodb.migrator.backup.format.value.ValueUtils.getSize;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static java.util.Collections.singletonList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class RowFetcherTest {
+
+    private ResultSet resultSet;
+    private ValueHandleList valueHandleList;
+
+    @BeforeMethod
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        ValueFormat valueFormat = mock(ValueFormat.class);
+        when(valueFormat.getValue(any(JdbcValueAccess.class), anyMap())).thenReturn(string("1"), string("2"), string("3"));
+        final ValueHandle valueHandle = mock(ValueHandle.class);
+        when(valueHandle.getValueFormat()).thenReturn(valueFormat);
+        valueHandleList = mock(ValueHandleList.class);
+        when(valueHandleList.size()).thenReturn(1);
+        when(valueHandleList.iterator()).thenAnswer(new Answer<Iterator<ValueHandle>>() {
+            @Override
+            public Iterator<ValueHandle> answer(InvocationOnMock invocation) {
+                return singletonList(valueHandle).iterator();
+            }
+        });
+    }
+
+    @Test
+    public void testRun() throws Exception {
+        RowBuffer<Value[]> rowBuffer = new RowBuffer<Value[]>(2);
+        RowFetcher rowFetcher = new RowFetcher(resultSet, valueHandleList, rowBuffer, null, 0);
+        Thread thread = new Thread(rowFetcher);
+        thread.start();
+        for (int row = 1; row <= 3; row++) {
+            assertEquals(rowBuffer.take()[0].asString(), String.valueOf(row));
+        }
+        assertNull(rowBuffer.take());
+        thread.join();
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        SQLException exception = new SQLException("fetch failed");
+        when(resultSet.next()).thenThrow(exception);
+        RowBuffer<Value[]> rowBuffer = new RowBuffer<Value[]>(2);
+        new RowFetcher(resultSet, valueHandleList, rowBuffer, null, 0).run();
+        try {
+            rowBuffer.take();
+            fail("Fetch failure is expected");
+        } catch (DumpException failure) {
+            assertSame(failure.getCause(), exception);
+        }
+    }
+
+    @Test
+    public void testMemoryBudget() throws Exception {
+        MemoryBudget memoryBudget = new MemoryBudget(1024);
+        RowFetcher rowFetcher = new RowFetcher(resultSet, valueHandleList, null, memoryBudget, 100);
+        Value[] values = rowFetcher.fetch();
+        assertEquals(memoryBudget.getAvailableBytes(), 1024 - getSize(values));
+        rowFetcher.fetch();
+        rowFetcher.release(values);
+        assertFalse(memoryBudget.getAvailableBytes() == 1024);
+        rowFetcher.release();
+        assertEquals(memoryBudget.getAvailableBytes(), 1024);
+    }
+
+    @Test
+    public void testMemoryBudgetOverdraft() throws Exception {
+        final MemoryBudget memoryBudget = new MemoryBudget(10);
+        memoryBudget.acquire(10);
+        final RowFetcher rowFetcher = new RowFetcher(resultSet, valueHandleList, null, memoryBudget, 0);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    rowFetcher.fetch();
+                } catch (Exception exception) {
+                    throw new RuntimeException(exception);
+                }
+            }
+        };
+        thread.start();
+        thread.join(100);
+        assertTrue(thread.isAlive(), "Fetcher should wait for the actual size of the row");
+        memoryBudget.release(10);
+        thread.join();
+        assertEquals(memoryBudget.getAvailableBytes(), 9);
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.commit;
+
+import com.google.common.base.Ticker;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TimeCommitStrategyTest {
+
+    private Connection connection;
+    private Statement statement;
+    private TimeCommitStrategy commitStrategy;
+    private long time;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        connection = mock(Connection.class);
+        statement = mock(Statement.class);
+        when(statement.getConnection()).thenReturn(connection);
+        commitStrategy = new TimeCommitStrategy();
+        commitStrategy.setTime(100);
+        commitStrategy.setBatchSize(10);
+        commitStrategy.setTicker(new Ticker() {
+            @Override
+            public long read() {
+                return time;
+            }
+        });
+    }
+
+    @Test
+    public void testTime() throws Exception {
+        commitStrategy.onBind(statement, null, 1);
+        time += MILLISECONDS.toNanos(80);
+        commitStrategy.onExecute(statement, null);
+        verify(connection, times(0)).commit();
+        commitStrategy.onBind(statement, null, 1);
+        time += MILLISECONDS.toNanos(30);
+        commitStrategy.onExecute(statement, null);
+        verify(connection, times(1)).commit();
+    }
+
+    /**
+     * Verifies transaction is timed from the first bind after commit, so that binding of the first batch counts.
+     */
+    @Test
+    public void testTimeFromBind() throws Exception {
+        commitStrategy.onBind(statement, null, 1);
+        time += MILLISECONDS.toNanos(150);
+        commitStrategy.onExecuteBatch(statement, null, 5);
+        verify(connection, times(1)).commit();
+
+        time += MILLISECONDS.toNanos(1000);
+        commitStrategy.onBind(statement, null, 1);
+        time += MILLISECONDS.toNanos(50);
+        commitStrategy.onExecuteBatch(statement, null, 5);
+        verify(connection, times(1)).commit();
+    }
+
+    @Test
+    public void testFallbackBatchSize() throws Exception {
+        for (int statements = 0; statements < 11; statements++) {
+            commitStrategy.onBind(statement, null, 1);
+            commitStrategy.onExecute(statement, null);
+        }
+        verify(connection, times(1)).commit();
+    }
+}
@@ -37,12 +37,15 @@ import org.testng.annotations.Test;
 
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Collection;
 
 import static com.nuodb.migrator.jdbc.dialect.TranslatorUtils.createScript;
 import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.MYSQL;
 import static com.nuodb.migrator.jdbc.metadata.DefaultValue.valueOf;
 import static com.nuodb.migrator.jdbc.session.SessionUtils.createSession;
+import static java.lang.Integer.MAX_VALUE;
 import static java.sql.Types.*;
+import static java.util.Arrays.asList;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.fail;
 
@@ -134,4 +137,25 @@ public class DialectTest {
     public void testGetDefaultValue(Session session, Column column, String defaultValue) {
         assertEquals(dialect.getDefaultValue(session, column), defaultValue);
     }
+
+    @DataProvider(name = "getFetchSize")
+    public Object[][] createGetFetchSizeData() {
+        return new Object[][]{
+                {asList(createColumn(100)), 4194304L, 10000},
+                {asList(createColumn(4000), createColumn(4000)), 4194304L, 524},
+                {asList(createColumn(null), createColumn(MAX_VALUE)), 4194304L, 1022},
+                {asList(createColumn(4000), createColumn(4000)), 1000L, 100}
+        };
+    }
+
+    @Test(dataProvider = "getFetchSize")
+    public void testGetFetchSize(Collection<Column> columns, long fetchMemory, int fetchSize) {
+        assertEquals(dialect.getFetchSize(columns, fetchMemory), fetchSize);
+    }
+
+    private static Column createColumn(Integer size) {
+        Column column = new Column();
+        column.setSize(size);
+        return column;
+    }
 }
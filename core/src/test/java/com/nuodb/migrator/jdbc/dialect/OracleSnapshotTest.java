@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.dialect;
+
+import org.mockito.InOrder;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.ORACLE;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.assertEquals;
+
+public class OracleSnapshotTest {
+
+    private Connection connection;
+    private Statement statement;
+    private CallableStatement callableStatement;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getString(1)).thenReturn("42");
+        statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        callableStatement = mock(CallableStatement.class);
+        connection = createConnection();
+    }
+
+    private Connection createConnection() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.prepareCall(anyString())).thenReturn(callableStatement);
+        return connection;
+    }
+
+    /**
+     * Verifies the exporting connection reads the data as of the captured SCN, as high watermarks and row counts are
+     * selected on it.
+     */
+    @Test
+    public void testExportingConnectionJoins() throws Exception {
+        OracleSnapshot snapshot = new OracleSnapshot(new OracleDialect(ORACLE), connection);
+        assertEquals(snapshot.getScn(), 42L);
+
+        InOrder order = inOrder(statement, connection, callableStatement);
+        order.verify(statement).executeQuery("SELECT DBMS_FLASHBACK.GET_SYSTEM_CHANGE_NUMBER FROM DUAL");
+        order.verify(connection).setAutoCommit(false);
+        order.verify(connection).prepareCall("BEGIN DBMS_FLASHBACK.ENABLE_AT_SYSTEM_CHANGE_NUMBER(?); END;");
+        order.verify(callableStatement).setLong(1, 42L);
+        order.verify(callableStatement).execute();
+    }
+
+    @Test
+    public void testJoin() throws Exception {
+        OracleSnapshot snapshot = new OracleSnapshot(new OracleDialect(ORACLE), connection);
+        Connection joining = createConnection();
+        snapshot.join(joining);
+
+        verify(joining).setAutoCommit(false);
+        verify(joining).prepareCall("BEGIN DBMS_FLASHBACK.ENABLE_AT_SYSTEM_CHANGE_NUMBER(?); END;");
+        verify(callableStatement, times(2)).setLong(1, 42L);
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        OracleSnapshot snapshot = new OracleSnapshot(new OracleDialect(ORACLE), connection);
+        snapshot.close();
+
+        verify(statement).execute("BEGIN DBMS_FLASHBACK.DISABLE; END;");
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.session;
+
+import com.nuodb.migrator.jdbc.connection.ConnectionProvider;
+import com.nuodb.migrator.jdbc.dialect.MySQLDialect;
+import com.nuodb.migrator.jdbc.dialect.Snapshot;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.MYSQL;
+import static com.nuodb.migrator.jdbc.session.SessionFactories.newSessionFactory;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.assertSame;
+
+public class SnapshotSessionFactoryTest {
+
+    private ConnectionProvider connectionProvider;
+    private Snapshot snapshot;
+    private SnapshotSessionFactory snapshotSessionFactory;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        connectionProvider = mock(ConnectionProvider.class);
+        when(connectionProvider.getConnection()).thenAnswer(new Answer<Connection>() {
+            @Override
+            public Connection answer(InvocationOnMock invocation) throws Throwable {
+                return mock(Connection.class);
+            }
+        });
+        snapshot = mock(Snapshot.class);
+        snapshotSessionFactory = new SnapshotSessionFactory(
+                newSessionFactory(connectionProvider, new MySQLDialect(MYSQL)), snapshot);
+    }
+
+    @Test
+    public void testJoin() throws SQLException {
+        snapshotSessionFactory.join(2);
+
+        verify(connectionProvider, times(2)).getConnection();
+        verify(snapshot, times(2)).join(any(Connection.class));
+        verify(snapshot).joined();
+
+        Session session = snapshotSessionFactory.openSession();
+        Connection connection = session.getConnection();
+        session.close();
+        verify(connectionProvider, never()).closeConnection(any(Connection.class));
+
+        snapshotSessionFactory.openSession();
+        assertSame(snapshotSessionFactory.openSession().getConnection(), connection);
+        verify(connectionProvider, times(2)).getConnection();
+
+        snapshotSessionFactory.close();
+        verify(connectionProvider, times(2)).closeConnection(any(Connection.class));
+    }
+}
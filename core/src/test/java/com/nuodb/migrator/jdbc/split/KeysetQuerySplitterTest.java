@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.split;
+
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.PrimaryKey;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
+import static com.nuodb.migrator.jdbc.split.QuerySplitters.getKeysetKey;
+import static com.nuodb.migrator.jdbc.split.QuerySplitters.newKeysetSplitter;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class KeysetQuerySplitterTest {
+
+    private Table table;
+
+    @BeforeMethod
+    public void setUp() {
+        table = createTable(null, null, "users");
+        Column id = table.addColumn("id");
+        table.addColumn("name");
+        PrimaryKey primaryKey = new PrimaryKey();
+        primaryKey.addColumn(id, 1);
+        table.setPrimaryKey(primaryKey);
+    }
+
+    @Test
+    public void testGetKeysetKey() {
+        assertEquals(getKeysetKey(table), table.getColumn("id"));
+        Table noKey = createTable(null, null, "logs");
+        noKey.addColumn("message");
+        assertNull(getKeysetKey(noKey));
+    }
+
+    @Test
+    public void testSplit() throws Exception {
+        ResultSet keys = mock(ResultSet.class);
+        when(keys.next()).thenReturn(true, false);
+        when(keys.getObject(1)).thenReturn(100);
+        PreparedStatement keyStatement = mock(PreparedStatement.class);
+        when(keyStatement.executeQuery()).thenReturn(keys);
+        PreparedStatement splitStatement = mock(PreparedStatement.class);
+
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(splitStatement);
+        when(connection.prepareStatement(startsWith("SELECT \"id\" FROM"))).thenReturn(keyStatement);
+
+        QuerySplitter<PreparedStatement> querySplitter = newKeysetSplitter(new NuoDBDialect(), table,
+                table.getColumns(), null, new QueryLimit(100L));
+        assertTrue(querySplitter.hasNextQuerySplit(connection));
+        querySplitter.getNextQuerySplit(connection).getResultSet();
+        verify(connection).prepareStatement("SELECT \"id\", \"name\" FROM \"users\" WHERE \"id\" <= ?");
+        verify(splitStatement).setObject(1, 100);
+
+        assertTrue(querySplitter.hasNextQuerySplit(connection));
+        querySplitter.getNextQuerySplit(connection).getResultSet();
+        verify(connection).prepareStatement("SELECT \"id\", \"name\" FROM \"users\" WHERE \"id\" > ?");
+        assertFalse(querySplitter.hasNextQuerySplit(connection));
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.split;
+
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.dialect.RowCountHandler;
+import com.nuodb.migrator.jdbc.dialect.RowCountType;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.PrimaryKey;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.QueryLimit;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+import static com.nuodb.migrator.jdbc.dialect.RowCountType.APPROX;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
+import static com.nuodb.migrator.jdbc.split.QuerySplitters.newRangeSplitter;
+import static com.nuodb.migrator.jdbc.split.QuerySplitters.supportsRangeSplitter;
+import static com.nuodb.migrator.jdbc.split.RangeQuerySplitter.MAX_SPLITS;
+import static java.math.BigDecimal.valueOf;
+import static java.sql.Types.INTEGER;
+import static java.sql.Types.TIMESTAMP;
+import static java.sql.Types.VARCHAR;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class RangeQuerySplitterTest {
+
+    private Table table;
+    private Column id;
+
+    @BeforeMethod
+    public void setUp() {
+        table = createTable(null, null, "users");
+        id = table.addColumn("id");
+        id.setTypeCode(INTEGER);
+        table.addColumn("name");
+        PrimaryKey primaryKey = new PrimaryKey();
+        primaryKey.addColumn(id, 1);
+        table.setPrimaryKey(primaryKey);
+    }
+
+    @Test
+    public void testSupportsRangeSplitter() {
+        assertTrue(supportsRangeSplitter(new NuoDBDialect(), table));
+        id.setTypeCode(VARCHAR);
+        assertFalse(supportsRangeSplitter(new NuoDBDialect(), table));
+    }
+
+    @Test
+    public void testMinMaxSplit() throws Exception {
+        ResultSet minMax = mock(ResultSet.class);
+        when(minMax.next()).thenReturn(true);
+        when(minMax.getBigDecimal(1)).thenReturn(valueOf(1L));
+        when(minMax.getBigDecimal(2)).thenReturn(valueOf(250L));
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery("SELECT MIN(\"id\"), MAX(\"id\") FROM \"users\"")).thenReturn(minMax);
+        PreparedStatement splitStatement = mock(PreparedStatement.class);
+
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.prepareStatement(anyString())).thenReturn(splitStatement);
+
+        QuerySplitter<PreparedStatement> querySplitter = newRangeSplitter(new NuoDBDialect(), table,
+                table.getColumns(), null, new QueryLimit(100L));
+        int splits = 0;
+        while (querySplitter.hasNextQuerySplit(connection)) {
+            querySplitter.getNextQuerySplit(connection).getResultSet();
+            splits++;
+        }
+        verify(connection).prepareStatement("SELECT \"id\", \"name\" FROM \"users\" WHERE \"id\" <= ?");
+        verify(connection).prepareStatement("SELECT \"id\", \"name\" FROM \"users\" WHERE \"id\" > ?");
+        verify(splitStatement, times(2)).setObject(1, 84L);
+        verify(splitStatement).setObject(2, 168L);
+        verify(splitStatement).setObject(1, 168L);
+        verify(splitStatement, never()).setObject(anyInt(), eq(250L));
+        assertEquals(splits, 3);
+    }
+
+    @Test
+    public void testMinMaxSplitLimit() throws Exception {
+        ResultSet minMax = mock(ResultSet.class);
+        when(minMax.next()).thenReturn(true);
+        when(minMax.getBigDecimal(1)).thenReturn(valueOf(Long.MIN_VALUE));
+        when(minMax.getBigDecimal(2)).thenReturn(valueOf(Long.MAX_VALUE));
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(minMax);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+
+        RangeQuerySplitter querySplitter = (RangeQuerySplitter) newRangeSplitter(new NuoDBDialect(), table,
+                table.getColumns(), null, new QueryLimit(100L));
+        querySplitter.plan(connection);
+        assertEquals(querySplitter.getSplits(), MAX_SPLITS);
+        assertEquals(querySplitter.getLowerKey(0), null);
+        assertTrue((Long) querySplitter.getUpperKey(0) < (Long) querySplitter.getUpperKey(1));
+        assertTrue((Long) querySplitter.getUpperKey(MAX_SPLITS - 2) > 0);
+        assertEquals(querySplitter.getUpperKey(MAX_SPLITS - 1), null);
+    }
+
+    /**
+     * Verifies temporal keys are split by the row count estimated from statistics, not by counting table rows.
+     */
+    @Test
+    public void testMinMaxDateSplit() throws Exception {
+        id.setTypeCode(TIMESTAMP);
+        RowCountHandler rowCountHandler = mock(RowCountHandler.class);
+        Dialect dialect = createDialect(rowCountHandler);
+        assertTrue(supportsRangeSplitter(dialect, table));
+        assertFalse(supportsRangeSplitter(new NuoDBDialect(), table));
+        Connection connection = createMinMaxConnection(new Timestamp(1000L), new Timestamp(1999L));
+        when(rowCountHandler.getRowCount(connection)).thenReturn(400L);
+
+        RangeQuerySplitter querySplitter = (RangeQuerySplitter) newRangeSplitter(dialect, table,
+                table.getColumns(), null, new QueryLimit(100L));
+        querySplitter.plan(connection);
+        assertEquals(querySplitter.getSplits(), 4);
+        assertEquals(querySplitter.getUpperKey(0), new Timestamp(1249L));
+        assertEquals(querySplitter.getLowerKey(3), new Timestamp(1749L));
+        assertEquals(querySplitter.getUpperKey(3), null);
+        verify(connection.createStatement(), never()).executeQuery(contains("COUNT"));
+    }
+
+    @Test
+    public void testMinMaxDateSplitWithoutRowCount() throws Exception {
+        id.setTypeCode(TIMESTAMP);
+        RowCountHandler rowCountHandler = mock(RowCountHandler.class);
+        Connection connection = createMinMaxConnection(new Timestamp(1000L), new Timestamp(1999L));
+        when(rowCountHandler.getRowCount(connection)).thenThrow(new SQLException("No statistics"));
+
+        RangeQuerySplitter querySplitter = (RangeQuerySplitter) newRangeSplitter(createDialect(rowCountHandler),
+                table, table.getColumns(), null, new QueryLimit(100L));
+        querySplitter.plan(connection);
+        assertEquals(querySplitter.getSplits(), 1);
+        assertEquals(querySplitter.getUpperKey(0), null);
+    }
+
+    private static Connection createMinMaxConnection(Timestamp minKey, Timestamp maxKey) throws SQLException {
+        ResultSet minMax = mock(ResultSet.class);
+        when(minMax.next()).thenReturn(true);
+        when(minMax.getTimestamp(1)).thenReturn(minKey);
+        when(minMax.getTimestamp(2)).thenReturn(maxKey);
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery("SELECT MIN(\"id\"), MAX(\"id\") FROM \"users\"")).thenReturn(minMax);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        return connection;
+    }
+
+    /**
+     * Creates dialect estimating table row counts with the given handler.
+     */
+    private static Dialect createDialect(final RowCountHandler rowCountHandler) {
+        return new NuoDBDialect() {
+            @Override
+            public boolean supportsRowCount(Table table, Column column, String filter, RowCountType rowCountType) {
+                return rowCountType == APPROX;
+            }
+
+            @Override
+            public RowCountHandler createRowCountHandler(Table table, Column column, String filter,
+                                                         RowCountType rowCountType) {
+                return rowCountHandler;
+            }
+        };
+    }
+}
@@ -0,0 +1,1033 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.load;
+
+import com.google.common.collect.Lists;
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupManager;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.backup.format.InputFormat;
+import com.nuodb.migrator.backup.format.InputFormatException;
+import com.nuodb.migrator.backup.format.value.ReferenceValue;
+import com.nuodb.migrator.backup.format.value.StreamValue;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueFormatException;
+import com.nuodb.migrator.backup.format.value.ValueHandleList;
+import com.nuodb.migrator.jdbc.commit.BatchCommitStrategy;
+import com.nuodb.migrator.jdbc.commit.CommitStrategy;
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.metadata.Database;
+import com.nuodb.migrator.jdbc.metadata.ForeignKey;
+import com.nuodb.migrator.jdbc.metadata.Schema;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.metadata.generator.ScriptGeneratorManager;
+import com.nuodb.migrator.jdbc.query.InsertQuery;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.session.Session;
+import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.jdbc.session.Work;
+import com.nuodb.migrator.jdbc.session.WorkManager;
+import com.nuodb.migrator.spec.LoadJobSpec;
+import com.nuodb.migrator.spec.MigrationMode;
+import com.nuodb.migrator.utils.RowBuffer;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Iterables.get;
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newConcurrentMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueType.toAlias;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.getSize;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.reference;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
+import static com.nuodb.migrator.spec.LoadJobSpec.LATEST_INCREMENT;
+import static com.nuodb.migrator.spec.MigrationMode.DATA;
+import static com.nuodb.migrator.spec.MigrationMode.SCHEMA;
+import static java.sql.Statement.EXECUTE_FAILED;
+import static java.util.Arrays.copyOfRange;
+import static java.util.Arrays.fill;
+import static java.io.File.createTempFile;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.synchronizedList;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class LoadJobTest {
+
+    /**
+     * Row failing on insert
+     */
+    private static final String BAD = "bad";
+    private static final String UNCONVERTIBLE = "unconvertible";
+
+    private Database database;
+    private Schema schema;
+    private Collection<RowSet> rowSets;
+    private List<String> events;
+    private ScriptGeneratorManager scriptGeneratorManager;
+    /**
+     * Rows inserted by statements, rows bound to the statement and rows of the statements added to its batch
+     */
+    private List<String> inserted;
+    private List<String> bound;
+    private List<List<String>> batch;
+
+    @BeforeMethod
+    public void setUp() {
+        database = new Database();
+        schema = database.addCatalog("catalog").addSchema("schema");
+        rowSets = newArrayList();
+        events = synchronizedList(Lists.<String>newArrayList());
+        scriptGeneratorManager = mock(ScriptGeneratorManager.class);
+        inserted = newArrayList();
+        batch = newArrayList();
+    }
+
+    @Test
+    public void testDropCycleForeignKeys() throws Exception {
+        createRowSet("table1");
+        createRowSet("table2");
+        createRowSet("table3");
+        ForeignKey foreignKey1 = addForeignKey("table1", "table2");
+        ForeignKey foreignKey2 = addForeignKey("table2", "table1");
+        addForeignKey("table3", "table1");
+
+        createLoadJob(newHashSet(DATA), false).loadRowSets((Backup) null, database);
+
+        assertEquals(events.size(), 7);
+        assertTrue(events.subList(0, 2).containsAll(newArrayList(
+                "drop " + foreignKey1.getName(), "drop " + foreignKey2.getName())));
+        assertTrue(events.subList(2, 5).containsAll(newArrayList("load table1", "load table2", "load table3")));
+        assertTrue(events.indexOf("load table3") > events.indexOf("load table1"));
+        assertTrue(events.subList(5, 7).containsAll(newArrayList(
+                "create " + foreignKey1.getName(), "create " + foreignKey2.getName())));
+    }
+
+    @Test
+    public void testCreateForeignKeysOnFailure() throws Exception {
+        createRowSet("table1");
+        createRowSet("table2");
+        ForeignKey foreignKey1 = addForeignKey("table1", "table2");
+        ForeignKey foreignKey2 = addForeignKey("table2", "table1");
+
+        try {
+            createLoadJob(newHashSet(DATA), true).loadRowSets((Backup) null, database);
+            fail("Load failure is expected");
+        } catch (LoadException exception) {
+            // expected
+        }
+        assertTrue(events.containsAll(newArrayList(
+                "create " + foreignKey1.getName(), "create " + foreignKey2.getName())));
+    }
+
+    @Test
+    public void testSchemaCreatesForeignKeys() throws Exception {
+        createRowSet("table1");
+        createRowSet("table2");
+        addForeignKey("table1", "table2");
+        addForeignKey("table2", "table1");
+
+        createLoadJob(newHashSet(DATA, SCHEMA), false).loadRowSets((Backup) null, database);
+
+        assertEquals(events.size(), 2);
+        assertTrue(events.containsAll(newArrayList("load table1", "load table2")));
+    }
+
+    /**
+     * Verifies every row set is loaded and committed on its own session, which is closed afterwards, and row sets are
+     * loaded after the row sets they reference.
+     */
+    @Test
+    public void testLoadRowSetsConcurrently() throws Exception {
+        createRowSet("table1");
+        createRowSet("table2");
+        createRowSet("table3");
+        addForeignKey("table2", "table1");
+        Map<String, Session> sessions = newConcurrentMap();
+
+        createConcurrentLoadJob(new LoadJobSpec(), sessions, null).load(
+                new RowSetScheduler(rowSets, database), database, 2);
+
+        assertEquals(newHashSet(events), newHashSet("load table1.csv", "load table2.csv", "load table3.csv"));
+        assertTrue(events.indexOf("load table2.csv") > events.indexOf("load table1.csv"));
+        assertEquals(newHashSet(sessions.values()).size(), 3);
+        for (Session session : sessions.values()) {
+            verify(session.getConnection()).commit();
+            verify(session.getConnection(), never()).rollback();
+            verify(session).close();
+        }
+    }
+
+    /**
+     * Verifies failed row set is rolled back, the failure is propagated, sessions are closed and row sets
+     * referencing the failed one are not loaded.
+     */
+    @Test
+    public void testLoadRowSetsConcurrentlyFailure() throws Exception {
+        createRowSet("table1");
+        createRowSet("table2");
+        createRowSet("table3");
+        addForeignKey("table2", "table1");
+        Map<String, Session> sessions = newConcurrentMap();
+
+        try {
+            createConcurrentLoadJob(new LoadJobSpec(), sessions, "table1.csv").load(
+                    new RowSetScheduler(rowSets, database), database, 2);
+            fail("Load failure is expected");
+        } catch (LoadException exception) {
+            assertEquals(exception.getMessage(), "Chunk table1.csv failed");
+        }
+        assertFalse(events.contains("load table2.csv"));
+        Session failed = sessions.get("table1.csv");
+        verify(failed.getConnection()).rollback();
+        verify(failed.getConnection(), never()).commit();
+        for (Session session : sessions.values()) {
+            verify(session).close();
+        }
+    }
+
+    @Test
+    public void testGetWorkChunks() throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        Chunk chunk1 = get(rowSet.getChunks(), 0);
+        Chunk chunk2 = createChunk(rowSet, "table1.2.csv");
+        LoadJobSpec loadJobSpec = new LoadJobSpec();
+        LoadJob loadJob = new LoadJob(loadJobSpec);
+        assertEquals(newArrayList(get(loadJob.getWorkChunks(rowSet), 0)), newArrayList(chunk1, chunk2));
+
+        loadJobSpec.setParallelChunks(true);
+        Collection<Collection<Chunk>> workChunks = loadJob.getWorkChunks(rowSet);
+        assertEquals(workChunks.size(), 2);
+        assertEquals(newArrayList(get(workChunks, 0)), newArrayList(chunk1));
+        assertEquals(newArrayList(get(workChunks, 1)), newArrayList(chunk2));
+    }
+
+    /**
+     * Verifies every chunk of a row set is loaded and committed on its own session and the row set referencing it is
+     * loaded once all of its chunks are loaded.
+     */
+    @Test
+    public void testLoadChunksConcurrently() throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        createChunk(rowSet, "table1.2.csv");
+        createChunk(rowSet, "table1.3.csv");
+        createRowSet("table2");
+        addForeignKey("table2", "table1");
+        LoadJobSpec loadJobSpec = new LoadJobSpec();
+        loadJobSpec.setParallelChunks(true);
+        Map<String, Session> sessions = newConcurrentMap();
+
+        createConcurrentLoadJob(loadJobSpec, sessions, null).load(new RowSetScheduler(rowSets, database), database, 3);
+
+        assertEquals(events.size(), 4);
+        assertEquals(events.get(3), "load table2.csv");
+        assertEquals(newHashSet(sessions.values()).size(), 4);
+        for (Session session : sessions.values()) {
+            verify(session.getConnection()).commit();
+            verify(session).close();
+        }
+    }
+
+    /**
+     * Verifies failed chunk is rolled back on its own session, the failure is propagated and the row set
+     * referencing the row set of the chunk is not loaded.
+     */
+    @Test
+    public void testLoadChunksConcurrentlyFailure() throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        createChunk(rowSet, "table1.2.csv");
+        createRowSet("table2");
+        addForeignKey("table2", "table1");
+        LoadJobSpec loadJobSpec = new LoadJobSpec();
+        loadJobSpec.setParallelChunks(true);
+        Map<String, Session> sessions = newConcurrentMap();
+
+        try {
+            createConcurrentLoadJob(loadJobSpec, sessions, "table1.2.csv").load(
+                    new RowSetScheduler(rowSets, database), database, 2);
+            fail("Load failure is expected");
+        } catch (LoadException exception) {
+            assertEquals(exception.getMessage(), "Chunk table1.2.csv failed");
+        }
+        assertFalse(events.contains("load table2.csv"));
+        verify(sessions.get("table1.2.csv").getConnection()).rollback();
+        for (Session session : sessions.values()) {
+            verify(session).close();
+        }
+    }
+
+    @Test
+    public void testGetChunks() throws Exception {
+        Backup backup = new Backup();
+        backup.setIncrement(2);
+        RowSet rowSet = createRowSet("table1");
+        backup.addRowSet(rowSet);
+        Chunk chunk1 = createChunk(rowSet, 1);
+        Chunk chunk2 = createChunk(rowSet, 2);
+        RowSet replaced = createRowSet("table2");
+        replaced.getChunks().clear();
+        replaced.setReplaced(true);
+        backup.addRowSet(replaced);
+        createChunk(replaced, 2);
+
+        LoadJobSpec loadJobSpec = new LoadJobSpec();
+        LoadJob loadJob = new LoadJob(loadJobSpec);
+        assertEquals(loadJob.getChunks(rowSet).size(), 3);
+        assertEquals(loadJob.getChunks(replaced).size(), 1);
+
+        loadJobSpec.setIncrement(1);
+        assertEquals(newArrayList(loadJob.getChunks(rowSet)), newArrayList(chunk1, chunk2));
+        assertTrue(loadJob.getChunks(replaced).isEmpty());
+
+        loadJobSpec.setIncrement(LATEST_INCREMENT);
+        assertEquals(newArrayList(loadJob.getChunks(rowSet)), newArrayList(chunk2));
+        assertTrue(loadJob.getChunks(replaced).isEmpty());
+
+        loadJobSpec.setIncrement(0);
+        assertEquals(loadJob.getChunks(replaced).size(), 1);
+    }
+
+    @Test
+    public void testLoadBatch() throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        PreparedStatement statement = createStatement(false);
+        Query query = mock(Query.class);
+        BatchCommitStrategy commitStrategy = mock(BatchCommitStrategy.class);
+
+        createLoadJob(3, commitStrategy).load(mock(Session.class), createInputFormat("1", "2", "3", "4", "5"), null,
+                get(rowSet.getChunks(), 0), schema.getTable("table1"), statement, query);
+
+        assertEquals(inserted, newArrayList("1", "2", "3", "4", "5"));
+        verify(statement, times(2)).executeBatch();
+        verify(statement, never()).execute();
+        verify(commitStrategy, times(5)).onBind(statement, query, 1);
+        verify(commitStrategy).onExecuteBatch(statement, query, 3);
+        verify(commitStrategy).onExecuteBatch(statement, query, 2);
+    }
+
+    /**
+     * Commit strategy implementing the interface only is notified of every statement of the executed batch.
+     */
+    @Test
+    public void testLoadBatchCommitStrategy() throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        PreparedStatement statement = createStatement(false);
+        Query query = mock(Query.class);
+        CommitStrategy commitStrategy = mock(CommitStrategy.class);
+
+        createLoadJob(2, commitStrategy).load(mock(Session.class), createInputFormat("1", "2", "3"), null,
+                get(rowSet.getChunks(), 0), schema.getTable("table1"), statement, query);
+
+        assertEquals(inserted, newArrayList("1", "2", "3"));
+        verify(commitStrategy, times(3)).onExecute(statement, query);
+    }
+
+    @DataProvider(name = "continueBatch")
+    public Object[][] createContinueBatchData() {
+        return new Object[][]{{false}, {true}};
+    }
+
+    /**
+     * Verifies failed row is located by update counts whether the driver stops at the failed row or continues
+     * processing the batch.
+     */
+    @Test(dataProvider = "continueBatch")
+    public void testLoadBatchFailedRow(boolean continueBatch) throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        PreparedStatement statement = createStatement(continueBatch);
+        try {
+            createLoadJob(3, null).load(mock(Session.class), createInputFormat("1", "2", "3", "4", BAD, "6"), null,
+                    get(rowSet.getChunks(), 0), schema.getTable("table1"), statement, mock(Query.class));
+            fail("Load failure is expected");
+        } catch (LoadException exception) {
+            assertTrue(exception.getMessage().startsWith("Error loading row 5 from table1.csv chunk"),
+                    exception.getMessage());
+            assertTrue(exception.getCause() instanceof BatchUpdateException);
+        }
+        assertEquals(inserted, newArrayList("1", "2", "3"));
+    }
+
+    @Test
+    public void testGetInsertRows() throws Exception {
+        Dialect dialect = mock(Dialect.class);
+        when(dialect.supportsMultiRowInsert()).thenReturn(true);
+        when(dialect.getMaxParameters()).thenReturn(10);
+        LoadJobSpec loadJobSpec = new LoadJobSpec();
+        LoadJob loadJob = new LoadJob(loadJobSpec);
+        assertEquals(loadJob.getInsertRows(dialect, 2), 1);
+
+        loadJobSpec.setInsertRows(5);
+        assertEquals(loadJob.getInsertRows(dialect, 2), 5);
+        assertEquals(loadJob.getInsertRows(dialect, 4), 2);
+        assertEquals(loadJob.getInsertRows(dialect, 20), 1);
+
+        when(dialect.supportsMultiRowInsert()).thenReturn(false);
+        assertEquals(loadJob.getInsertRows(dialect, 2), 1);
+    }
+
+    /**
+     * Verifies every multi row insert statement binds values of its rows and remaining rows at the end of the chunk
+     * are inserted with a statement prepared for their number.
+     */
+    @Test
+    public void testLoadInsertRows() throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        Table table = addColumn(rowSet, "id");
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = createStatement(connection, false);
+        PreparedStatement remainder = createStatement(connection, false);
+        when(connection.prepareStatement(anyString())).thenReturn(remainder);
+        BatchCommitStrategy commitStrategy = mock(BatchCommitStrategy.class);
+        LoadJob loadJob = createLoadJob(null, commitStrategy);
+        InsertQuery query = (InsertQuery) loadJob.createQuery(table, rowSet.getColumns(), 3);
+
+        loadJob.load(mock(Session.class), createInputFormat("1", "2", "3", "4", "5", "6", "7"), null,
+                get(rowSet.getChunks(), 0), table, statement, query);
+
+        assertEquals(inserted, newArrayList("1", "2", "3", "4", "5", "6", "7"));
+        verify(statement, times(2)).execute();
+        verify(connection).prepareStatement(loadJob.createQuery(table, rowSet.getColumns(), 1).toString());
+        verify(remainder).execute();
+        verify(remainder).close();
+        verify(commitStrategy, times(2)).onExecuteBatch(statement, query, 3);
+        verify(commitStrategy).onExecuteBatch(eq(remainder), any(Query.class), eq(1));
+    }
+
+    /**
+     * Verifies multi row insert statements are sent in batches if the batch size is set.
+     */
+    @Test
+    public void testLoadInsertRowsBatch() throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        Table table = addColumn(rowSet, "id");
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = createStatement(connection, false);
+        PreparedStatement remainder = createStatement(connection, false);
+        when(connection.prepareStatement(anyString())).thenReturn(remainder);
+        BatchCommitStrategy commitStrategy = mock(BatchCommitStrategy.class);
+        LoadJob loadJob = createLoadJob(2, commitStrategy);
+        InsertQuery query = (InsertQuery) loadJob.createQuery(table, rowSet.getColumns(), 2);
+
+        loadJob.load(mock(Session.class), createInputFormat("1", "2", "3", "4", "5", "6", "7"), null,
+                get(rowSet.getChunks(), 0), table, statement, query);
+
+        assertEquals(inserted, newArrayList("1", "2", "3", "4", "5", "6", "7"));
+        verify(statement, times(3)).addBatch();
+        verify(statement, times(2)).executeBatch();
+        verify(statement, never()).execute();
+        verify(remainder).execute();
+        verify(commitStrategy).onExecuteBatch(statement, query, 4);
+        verify(commitStrategy).onExecuteBatch(statement, query, 2);
+        verify(commitStrategy).onExecuteBatch(eq(remainder), any(Query.class), eq(1));
+    }
+
+    /**
+     * Verifies failed batch of rows is bisected until the failed row is written to the reject chunk, while the rest of
+     * the rows are inserted.
+     */
+    @Test(dataProvider = "continueBatch")
+    public void testLoadBatchRejectRow(boolean continueBatch) throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        Chunk chunk = get(rowSet.getChunks(), 0);
+        PreparedStatement statement = createStatement(continueBatch);
+        RejectWriter rejectWriter = mock(RejectWriter.class);
+        LoadJob loadJob = createLoadJob(4, null);
+        loadJob.setRejectWriter(rejectWriter);
+
+        loadJob.load(mock(Session.class), createInputFormat("1", "2", "3", "4", "5", BAD, "7", "8"), null,
+                chunk, schema.getTable("table1"), statement, mock(Query.class));
+
+        assertEquals(inserted, newArrayList("1", "2", "3", "4", "5", "7", "8"));
+        verify(rejectWriter).reject(eq(chunk), any(Value[].class), eq(5L), any(SQLException.class));
+        verify(rejectWriter, times(1)).reject(any(Chunk.class), any(Value[].class), any(Long.class),
+                any(Exception.class));
+    }
+
+    /**
+     * Verifies row which values can't be converted is rejected without failing rows batched before and after it.
+     */
+    @Test(dataProvider = "batchSize")
+    public void testLoadRejectConversion(Integer batchSize) throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        Chunk chunk = get(rowSet.getChunks(), 0);
+        RejectWriter rejectWriter = mock(RejectWriter.class);
+        LoadJob loadJob = createLoadJob(batchSize, null);
+        loadJob.setRejectWriter(rejectWriter);
+
+        loadJob.load(mock(Session.class), createInputFormat("1", "2", UNCONVERTIBLE, "4", "5"), null,
+                chunk, schema.getTable("table1"), createStatement(false), mock(Query.class));
+
+        assertEquals(inserted, newArrayList("1", "2", "4", "5"));
+        verify(rejectWriter).reject(eq(chunk), any(Value[].class), eq(2L), any(ValueFormatException.class));
+        verify(rejectWriter, times(1)).reject(any(Chunk.class), any(Value[].class), any(Long.class),
+                any(Exception.class));
+    }
+
+    /**
+     * Verifies conversion error fails the load pointing to the row if rows are not rejected.
+     */
+    @Test(dataProvider = "batchSize")
+    public void testLoadConversionFailure(Integer batchSize) throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        try {
+            createLoadJob(batchSize, null).load(mock(Session.class), createInputFormat("1", "2", UNCONVERTIBLE),
+                    null, get(rowSet.getChunks(), 0), schema.getTable("table1"), createStatement(false),
+                    mock(Query.class));
+            fail("Load failure is expected");
+        } catch (LoadException exception) {
+            assertTrue(exception.getMessage().startsWith("Error loading row 3 from table1.csv chunk"),
+                    exception.getMessage());
+            assertTrue(exception.getCause() instanceof ValueFormatException);
+        }
+    }
+
+    @DataProvider(name = "batchSize")
+    public Object[][] createBatchSizeData() {
+        return new Object[][]{{null}, {3}};
+    }
+
+    /**
+     * Verifies multi row statement which values can't be converted is isolated with single row statement, so that
+     * only the unconvertible row is rejected.
+     */
+    @Test
+    public void testLoadInsertRowsBatchRejectConversion() throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        Chunk chunk = get(rowSet.getChunks(), 0);
+        Table table = addColumn(rowSet, "id");
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = createStatement(connection, false);
+        PreparedStatement single = createStatement(connection, false);
+        when(connection.prepareStatement(anyString())).thenReturn(single);
+        RejectWriter rejectWriter = mock(RejectWriter.class);
+        LoadJob loadJob = createLoadJob(2, null);
+        loadJob.setRejectWriter(rejectWriter);
+        InsertQuery query = (InsertQuery) loadJob.createQuery(table, rowSet.getColumns(), 2);
+
+        loadJob.load(mock(Session.class), createInputFormat("1", "2", "3", UNCONVERTIBLE, "5", "6"), null,
+                chunk, table, statement, query);
+
+        assertEquals(inserted, newArrayList("1", "2", "3", "5", "6"));
+        verify(rejectWriter).reject(eq(chunk), any(Value[].class), eq(3L), any(ValueFormatException.class));
+        verify(single).close();
+    }
+
+    @Test
+    public void testLoadInsertRowsConversionFailure() throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        Table table = addColumn(rowSet, "id");
+        LoadJob loadJob = createLoadJob(null, null);
+        InsertQuery query = (InsertQuery) loadJob.createQuery(table, rowSet.getColumns(), 2);
+        try {
+            loadJob.load(mock(Session.class), createInputFormat("1", "2", UNCONVERTIBLE, "4"), null,
+                    get(rowSet.getChunks(), 0), table, createStatement(false), query);
+            fail("Load failure is expected");
+        } catch (LoadException exception) {
+            assertTrue(exception.getMessage().startsWith("Error loading rows 3-4 from table1.csv chunk"),
+                    exception.getMessage());
+            assertTrue(exception.getCause() instanceof ValueFormatException);
+        }
+        assertEquals(inserted, newArrayList("1", "2"));
+    }
+
+    @Test(dataProvider = "continueBatch")
+    public void testLoadInsertRowsBatchFailedRows(boolean continueBatch) throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        Table table = addColumn(rowSet, "id");
+        PreparedStatement statement = createStatement(continueBatch);
+        LoadJob loadJob = createLoadJob(2, null);
+        InsertQuery query = (InsertQuery) loadJob.createQuery(table, rowSet.getColumns(), 2);
+        try {
+            loadJob.load(mock(Session.class), createInputFormat("1", "2", "3", "4", "5", BAD, "7", "8"), null,
+                    get(rowSet.getChunks(), 0), table, statement, query);
+            fail("Load failure is expected");
+        } catch (LoadException exception) {
+            assertTrue(exception.getMessage().startsWith("Error loading rows 5-6 from table1.csv chunk"),
+                    exception.getMessage());
+        }
+        assertEquals(inserted, newArrayList("1", "2", "3", "4"));
+    }
+
+    /**
+     * Verifies failure of the reader stage is rethrown to the binder stage taking rows from the buffer.
+     */
+    @Test
+    public void testPipelineReaderFailure() throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        InputFormat inputFormat = createInputFormat();
+        when(inputFormat.readValues()).thenReturn(new Value[]{string("1")}).thenThrow(
+                new InputFormatException("Chunk is corrupted"));
+        LoadJob loadJob = createLoadJob(null, null);
+        loadJob.setReaderExecutor(newSingleThreadExecutor());
+        try {
+            loadJob.load(mock(Session.class), new RowReader(inputFormat, new RowBuffer<Value[]>(2)),
+                    get(rowSet.getChunks(), 0), schema.getTable("table1"), createStatement(false), mock(Query.class));
+            fail("Reader failure is expected");
+        } catch (InputFormatException exception) {
+            assertEquals(exception.getMessage(), "Chunk is corrupted");
+        } finally {
+            loadJob.getReaderExecutor().shutdownNow();
+        }
+        verify(inputFormat, never()).readEnd();
+    }
+
+    /**
+     * Verifies the reader stage is stopped when binding fails and finished by the time the load returns.
+     */
+    @Test
+    public void testPipelineBindFailure() throws Exception {
+        RowSet rowSet = createRowSet("table1");
+        String[] rows = new String[100];
+        for (int index = 0; index < rows.length; index++) {
+            rows[index] = String.valueOf(index + 1);
+        }
+        rows[2] = BAD;
+        InputFormat inputFormat = createInputFormat(rows);
+        LoadJob loadJob = createLoadJob(null, null);
+        loadJob.setReaderExecutor(newSingleThreadExecutor());
+        try {
+            loadJob.load(mock(Session.class), new RowReader(inputFormat, new RowBuffer<Value[]>(2)),
+                    get(rowSet.getChunks(), 0), schema.getTable("table1"), createStatement(false), mock(Query.class));
+            fail("Load failure is expected");
+        } catch (LoadException exception) {
+            assertTrue(exception.getMessage().startsWith("Error loading row 3 from table1.csv chunk"),
+                    exception.getMessage());
+        } finally {
+            loadJob.getReaderExecutor().shutdownNow();
+        }
+        assertEquals(inserted, newArrayList("1", "2"));
+        // 3 rows taken by the binder, 2 rows buffered and 1 row waiting to be put at most
+        verify(inputFormat, atMost(6)).readValues();
+        verify(inputFormat, never()).readEnd();
+    }
+
+    @Test
+    public void testResolveReference() throws Exception {
+        final List<InputStream> streams = newArrayList();
+        BackupManager backupManager = mock(BackupManager.class);
+        when(backupManager.getLobLength("users.csv.1.2.lob")).thenReturn(3L);
+        when(backupManager.openLobInput("users.csv.1.2.lob")).thenAnswer(new Answer<InputStream>() {
+            @Override
+            public InputStream answer(InvocationOnMock invocation) {
+                InputStream stream = spy(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+                streams.add(stream);
+                return stream;
+            }
+        });
+        LoadJob loadJob = new LoadJob(new LoadJobSpec());
+        loadJob.setBackupManager(backupManager);
+
+        Value[] values = loadJob.resolveReferences(new Value[]{string("1"),
+                reference("users.csv.1.2.lob", BINARY)});
+        StreamValue value = (StreamValue) values[1];
+        assertEquals(value.getLength(), 3);
+        assertEquals(getSize(values), 4);
+        // bound twice, e.g. when the batch is retried
+        value.asInputStream();
+        assertEquals(value.asBytes(), new byte[]{1, 2, 3});
+        assertEquals(streams.size(), 2);
+
+        loadJob.closeStreams(values);
+        for (InputStream stream : streams) {
+            verify(stream, atLeastOnce()).close();
+        }
+    }
+
+    @Test(expectedExceptions = LoadException.class)
+    public void testResolveMissingReference() {
+        BackupManager backupManager = mock(BackupManager.class);
+        when(backupManager.getLobLength("users.csv.1.2.lob")).thenReturn(-1L);
+        LoadJob loadJob = new LoadJob(new LoadJobSpec());
+        loadJob.setBackupManager(backupManager);
+        loadJob.resolveReference((ReferenceValue) reference("users.csv.1.2.lob", STRING));
+    }
+
+    /**
+     * Verifies the load journal is neither opened nor created next to the backup catalog unless the load is journaled
+     * or resumed.
+     */
+    @Test
+    public void testLoadWithoutJournal() throws Exception {
+        File dir = createTempDir();
+        List<LoadJournal> loadJournals = newArrayList();
+        try {
+            createJournalLoadJob(new LoadJobSpec(), dir, loadJournals).load(mock(Backup.class), database);
+            assertEquals(loadJournals, singletonList((LoadJournal) null));
+            assertFalse(new File(dir, "backup" + LoadJob.JOURNAL_EXTENSION).exists());
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testLoadJournal() throws Exception {
+        File dir = createTempDir();
+        List<LoadJournal> loadJournals = newArrayList();
+        LoadJobSpec loadJobSpec = new LoadJobSpec();
+        loadJobSpec.setJournal(true);
+        try {
+            createJournalLoadJob(loadJobSpec, dir, loadJournals).load(mock(Backup.class), database);
+            assertEquals(get(loadJournals, 0).getFile(), new File(dir, "backup" + LoadJob.JOURNAL_EXTENSION));
+            assertTrue(get(loadJournals, 0).getFile().exists());
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testLoadJournalPath() throws Exception {
+        File dir = createTempDir();
+        File file = new File(dir, "load" + LoadJob.JOURNAL_EXTENSION);
+        List<LoadJournal> loadJournals = newArrayList();
+        LoadJobSpec loadJobSpec = new LoadJobSpec();
+        loadJobSpec.setResume(true);
+        loadJobSpec.setJournalPath(file.getPath());
+        try {
+            createJournalLoadJob(loadJobSpec, dir, loadJournals).load(mock(Backup.class), database);
+            assertEquals(get(loadJournals, 0).getFile(), file);
+            assertTrue(file.exists());
+            assertFalse(new File(dir, "backup" + LoadJob.JOURNAL_EXTENSION).exists());
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testLoadJournalNotWritable() throws Exception {
+        File dir = createTempDir();
+        LoadJobSpec loadJobSpec = new LoadJobSpec();
+        loadJobSpec.setJournal(true);
+        // a directory can't be opened for writing
+        loadJobSpec.setJournalPath(dir.getPath());
+        try {
+            createJournalLoadJob(loadJobSpec, dir, Lists.<LoadJournal>newArrayList()).load(
+                    mock(Backup.class), database);
+            fail("Load journal failure is expected");
+        } catch (LoadException exception) {
+            assertTrue(exception.getMessage().startsWith(
+                    "Can't open load journal " + dir + " for writing, specify writable journal path"),
+                    exception.getMessage());
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    private static File createTempDir() throws IOException {
+        File dir = createTempFile("backup", "");
+        assertTrue(dir.delete() && dir.mkdir());
+        return dir;
+    }
+
+    private LoadJob createJournalLoadJob(LoadJobSpec loadJobSpec, File dir, final List<LoadJournal> loadJournals) {
+        BackupManager backupManager = mock(BackupManager.class);
+        when(backupManager.getDir()).thenReturn(dir.getPath());
+        when(backupManager.getBackup()).thenReturn("backup.cat");
+        LoadJob loadJob = new LoadJob(loadJobSpec) {
+            @Override
+            protected void loadRowSets(Backup backup, Database database) {
+                loadJournals.add(getLoadJournal());
+            }
+        };
+        loadJob.setBackupManager(backupManager);
+        return loadJob;
+    }
+
+    private static Chunk createChunk(RowSet rowSet, int increment) {
+        Chunk chunk = new Chunk();
+        chunk.setName(rowSet.getName() + ".inc" + increment + ".csv");
+        chunk.setIncrement(increment);
+        rowSet.addChunk(chunk);
+        return chunk;
+    }
+
+    private LoadJob createLoadJob(Collection<MigrationMode> migrationModes, final boolean fail) throws Exception {
+        LoadJobSpec loadJobSpec = new LoadJobSpec();
+        loadJobSpec.setMigrationModes(migrationModes);
+        Session session = mock(Session.class);
+        when(session.getConnection()).thenReturn(mock(Connection.class));
+        LoadJob loadJob = new LoadJob(loadJobSpec) {
+            @Override
+            protected RowSetScheduler createScheduler(Backup backup) {
+                return new RowSetScheduler(rowSets, database);
+            }
+
+            @Override
+            protected ScriptGeneratorManager createScriptGeneratorManager() {
+                return scriptGeneratorManager;
+            }
+
+            @Override
+            protected void exportScripts(Collection<String> scripts) throws Exception {
+                events.addAll(scripts);
+            }
+
+            @Override
+            protected void load(Session session, RowSet rowSet, Collection<Chunk> chunks, Database database)
+                    throws SQLException {
+                if (fail) {
+                    throw new LoadException("Load failed");
+                }
+                events.add("load " + rowSet.getName());
+            }
+        };
+        loadJob.setTargetSession(session);
+        return loadJob;
+    }
+
+    /**
+     * Creates load job loading row sets on sessions opened from a mock session factory, which executes works the
+     * same way as sessions do. Loaded chunks are recorded with the sessions they were loaded on.
+     */
+    private static Chunk createChunk(RowSet rowSet, String name) {
+        Chunk chunk = new Chunk();
+        chunk.setName(name);
+        rowSet.addChunk(chunk);
+        return chunk;
+    }
+
+    private LoadJob createConcurrentLoadJob(LoadJobSpec loadJobSpec, final Map<String, Session> sessions,
+                                            final String failedChunk) throws Exception {
+        LoadJob loadJob = new LoadJob(loadJobSpec) {
+            @Override
+            protected void load(Session session, RowSet rowSet, Collection<Chunk> chunks, Database database)
+                    throws SQLException {
+                for (Chunk chunk : chunks) {
+                    sessions.put(chunk.getName(), session);
+                    if (chunk.getName().equals(failedChunk)) {
+                        throw new LoadException("Chunk " + failedChunk + " failed");
+                    }
+                    events.add("load " + chunk.getName());
+                }
+            }
+        };
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.openSession()).thenAnswer(new Answer<Session>() {
+            @Override
+            public Session answer(InvocationOnMock invocation) throws Throwable {
+                return createSession();
+            }
+        });
+        loadJob.setTargetSessionFactory(sessionFactory);
+        return loadJob;
+    }
+
+    private static Session createSession() throws Exception {
+        final Session session = mock(Session.class);
+        when(session.getConnection()).thenReturn(mock(Connection.class));
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                Work work = (Work) invocation.getArguments()[0];
+                WorkManager workManager = (WorkManager) invocation.getArguments()[1];
+                try {
+                    work.init(session);
+                    work.execute();
+                } catch (Exception exception) {
+                    workManager.failure(work, exception);
+                } finally {
+                    work.close();
+                }
+                return null;
+            }
+        }).when(session).execute(any(Work.class), any(WorkManager.class));
+        return session;
+    }
+
+    private LoadJob createLoadJob(Integer batchSize, CommitStrategy commitStrategy) {
+        LoadJobSpec loadJobSpec = new LoadJobSpec();
+        loadJobSpec.setBatchSize(batchSize);
+        loadJobSpec.setCommitStrategy(commitStrategy);
+        return new LoadJob(loadJobSpec) {
+            @Override
+            protected ValueHandleList createValueHandleList(Session session, RowSet rowSet, Table table,
+                                                            PreparedStatement statement, int rows) {
+                return mock(ValueHandleList.class);
+            }
+        };
+    }
+
+    /**
+     * Creates input format reading rows with a single value, values set to a statement are recorded as the bound rows
+     * and {@link #UNCONVERTIBLE} value fails to be set.
+     */
+    private InputFormat createInputFormat(String... rows) {
+        Value[][] values = new Value[rows.length + 1][];
+        for (int index = 0; index < rows.length; index++) {
+            values[index] = new Value[]{string(rows[index])};
+        }
+        InputFormat inputFormat = mock(InputFormat.class);
+        when(inputFormat.readValues()).thenReturn(values[0], copyOfRange(values, 1, values.length));
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                bound = newArrayList();
+                for (Value value : (Value[]) invocation.getArguments()[0]) {
+                    if (UNCONVERTIBLE.equals(value.asString())) {
+                        throw new ValueFormatException("Can't set " + UNCONVERTIBLE + " column value");
+                    }
+                    bound.add(value.asString());
+                }
+                return null;
+            }
+        }).when(inputFormat).setValues(any(Value[].class));
+        return inputFormat;
+    }
+
+    /**
+     * Creates statement inserting bound rows, a batch holding {@link #BAD} row fails as a whole and reports update
+     * counts up to the failed statement or for all statements if the driver continues processing the batch.
+     */
+    private PreparedStatement createStatement(boolean continueBatch) throws SQLException {
+        return createStatement(mock(Connection.class), continueBatch);
+    }
+
+    private PreparedStatement createStatement(Connection connection,
+                                              final boolean continueBatch) throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.getConnection()).thenReturn(connection);
+        when(statement.execute()).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                if (bound.contains(BAD)) {
+                    throw new SQLException("Row " + BAD + " failed");
+                }
+                inserted.addAll(bound);
+                return false;
+            }
+        });
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                batch.add(bound);
+                return null;
+            }
+        }).when(statement).addBatch();
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                batch.clear();
+                return null;
+            }
+        }).when(statement).clearBatch();
+        when(statement.executeBatch()).thenAnswer(new Answer<int[]>() {
+            @Override
+            public int[] answer(InvocationOnMock invocation) throws Throwable {
+                List<List<String>> statements = newArrayList(batch);
+                batch.clear();
+                int failed = -1;
+                for (int index = 0; index < statements.size() && failed == -1; index++) {
+                    failed = statements.get(index).contains(BAD) ? index : -1;
+                }
+                int[] updateCounts = new int[failed == -1 || continueBatch ? statements.size() : failed];
+                fill(updateCounts, 1);
+                if (failed == -1) {
+                    for (List<String> rows : statements) {
+                        inserted.addAll(rows);
+                    }
+                    return updateCounts;
+                }
+                if (continueBatch) {
+                    updateCounts[failed] = EXECUTE_FAILED;
+                }
+                throw new BatchUpdateException("Row " + BAD + " failed", updateCounts);
+            }
+        });
+        return statement;
+    }
+
+    private Table addColumn(RowSet rowSet, String column) {
+        Table table = schema.getTable(rowSet.getName());
+        table.addColumn(column);
+        rowSet.addColumn(column, toAlias(STRING));
+        return table;
+    }
+
+    private RowSet createRowSet(String tableName) {
+        Table table = schema.addTable(tableName);
+        TableRowSet rowSet = new TableRowSet(table);
+        rowSet.setName(tableName);
+        Chunk chunk = new Chunk();
+        chunk.setName(tableName + ".csv");
+        chunk.setRowCount(10L);
+        rowSet.addChunk(chunk);
+        rowSets.add(rowSet);
+        return rowSet;
+    }
+
+    private ForeignKey addForeignKey(String foreignTableName, String primaryTableName) {
+        Table foreignTable = schema.getTable(foreignTableName);
+        Table primaryTable = schema.getTable(primaryTableName);
+        ForeignKey foreignKey = new ForeignKey(valueOf(foreignTableName + "_" + primaryTableName));
+        foreignKey.setForeignTable(foreignTable);
+        foreignKey.setPrimaryTable(primaryTable);
+        foreignTable.addForeignKey(foreignKey);
+        when(scriptGeneratorManager.getDropScripts(foreignKey)).thenReturn(
+                singleton("drop " + foreignKey.getName()));
+        when(scriptGeneratorManager.getCreateScripts(foreignKey)).thenReturn(
+                singleton("create " + foreignKey.getName()));
+        return foreignKey;
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.load;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.sql.Connection;
+
+import static java.io.File.createTempFile;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class LoadJournalTest {
+
+    private File file;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        file = createTempFile("backup", LoadJob.JOURNAL_EXTENSION);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testResume() {
+        Connection committed = mock(Connection.class);
+        Connection rolledBack = mock(Connection.class);
+
+        LoadJournal loadJournal = new LoadJournal(file);
+        loadJournal.open(false);
+        loadJournal.executed(committed, "users.csv", 100);
+        loadJournal.loaded(committed, "users.csv");
+        loadJournal.executed(committed, "orders.csv", 50);
+        loadJournal.onCommit(committed);
+        loadJournal.executed(committed, "orders.csv", 75);
+        loadJournal.executed(rolledBack, "items.csv", 20);
+        loadJournal.onRollback(rolledBack);
+        loadJournal.close();
+
+        loadJournal = new LoadJournal(file);
+        loadJournal.open(true);
+        assertTrue(loadJournal.isLoaded("users.csv"));
+        assertFalse(loadJournal.isLoaded("orders.csv"));
+        assertEquals(loadJournal.getRows("orders.csv"), 50);
+        assertEquals(loadJournal.getRows("items.csv"), 0);
+        loadJournal.close();
+
+        loadJournal = new LoadJournal(file);
+        loadJournal.open(false);
+        assertFalse(loadJournal.isLoaded("users.csv"));
+        loadJournal.close();
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.load;
+
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupManager;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.backup.format.SimpleFormatFactory;
+import com.nuodb.migrator.backup.format.value.Value;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.SQLException;
+
+import static com.nuodb.migrator.backup.format.csv.CsvAttributes.FORMAT;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+public class RejectWriterTest {
+
+    private ByteArrayOutputStream output;
+    private Chunk chunk;
+    private RejectWriter rejectWriter;
+
+    @BeforeMethod
+    public void setUp() {
+        RowSet rowSet = new TableRowSet();
+        rowSet.addColumn("id", "string");
+        rowSet.addColumn("name", "string");
+        rowSet.setBackup(new Backup(FORMAT));
+        chunk = new Chunk();
+        chunk.setName("users.2.csv");
+        rowSet.addChunk(chunk);
+
+        output = new ByteArrayOutputStream();
+        BackupManager backupManager = mock(BackupManager.class);
+        when(backupManager.openOutput("users.2.reject.csv", null)).thenReturn(output);
+        rejectWriter = new RejectWriter(backupManager, new SimpleFormatFactory(), null, 1);
+    }
+
+    @Test
+    public void testReject() throws Exception {
+        rejectWriter.reject(chunk, new Value[]{string("1"), string("name")}, 0, new SQLException("duplicate"));
+        rejectWriter.close(chunk);
+        assertEquals(output.toString("UTF-8").trim(), "id,name,load_error\r\n1,name,duplicate");
+        assertEquals(rejectWriter.getRejected(), 1);
+    }
+
+    @Test(expectedExceptions = LoadException.class)
+    public void testRejectLimit() {
+        Value[] values = {string("1"), string("name")};
+        rejectWriter.reject(chunk, values, 0, new SQLException("duplicate"));
+        rejectWriter.reject(chunk, values, 1, new SQLException("duplicate"));
+    }
+}
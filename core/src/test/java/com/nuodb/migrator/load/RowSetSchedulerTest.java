@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.load;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.TableRowSet;
+import com.nuodb.migrator.jdbc.metadata.Database;
+import com.nuodb.migrator.jdbc.metadata.ForeignKey;
+import com.nuodb.migrator.jdbc.metadata.Schema;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.jdbc.metadata.Identifier.valueOf;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class RowSetSchedulerTest {
+
+    private Database database;
+    private Schema schema;
+    private Collection<RowSet> rowSets;
+
+    @BeforeMethod
+    public void setUp() {
+        database = new Database();
+        schema = database.addCatalog("catalog").addSchema("schema");
+        rowSets = newArrayList();
+    }
+
+    @Test
+    public void testLargestFirst() throws Exception {
+        RowSet rowSet1 = createRowSet("table1", 10);
+        RowSet rowSet2 = createRowSet("table2", 1000);
+        RowSet rowSet3 = createRowSet("table3", 500);
+
+        RowSetScheduler scheduler = new RowSetScheduler(rowSets, database);
+        assertEquals(scheduler.next(), rowSet2);
+        assertEquals(scheduler.next(), rowSet3);
+        assertEquals(scheduler.next(), rowSet1);
+        assertNull(scheduler.next());
+    }
+
+    @Test
+    public void testParentsFirst() throws Exception {
+        RowSet rowSet1 = createRowSet("table1", 10);
+        RowSet rowSet2 = createRowSet("table2", 1000);
+        RowSet rowSet3 = createRowSet("table3", 500);
+        addForeignKey("table2", "table1");
+
+        RowSetScheduler scheduler = new RowSetScheduler(rowSets, database);
+        assertEquals(scheduler.next(), rowSet1);
+        assertEquals(scheduler.next(), rowSet3);
+        scheduler.loaded(rowSet1);
+        assertEquals(scheduler.next(), rowSet2);
+        assertNull(scheduler.next());
+    }
+
+    @Test
+    public void testCycle() throws Exception {
+        createRowSet("table1", 10);
+        createRowSet("table2", 20);
+        addForeignKey("table1", "table2");
+        addForeignKey("table2", "table1");
+
+        RowSetScheduler scheduler = new RowSetScheduler(rowSets, database);
+        assertEquals(scheduler.getDeferredForeignKeys().size(), 2);
+        assertTrue(scheduler.next() != null);
+        assertTrue(scheduler.next() != null);
+        assertNull(scheduler.next());
+    }
+
+    @Test
+    public void testAbort() throws Exception {
+        RowSet rowSet1 = createRowSet("table1", 10);
+        createRowSet("table2", 1000);
+        addForeignKey("table2", "table1");
+
+        final RowSetScheduler scheduler = new RowSetScheduler(rowSets, database);
+        assertEquals(scheduler.next(), rowSet1);
+        new Thread() {
+            @Override
+            public void run() {
+                scheduler.abort();
+            }
+        }.start();
+        assertNull(scheduler.next());
+    }
+
+    private RowSet createRowSet(String tableName, long rowCount) {
+        Table table = schema.addTable(tableName);
+        TableRowSet rowSet = new TableRowSet(table);
+        rowSet.setName(tableName);
+        Chunk chunk = new Chunk();
+        chunk.setName(tableName + ".csv");
+        chunk.setRowCount(rowCount);
+        rowSet.addChunk(chunk);
+        rowSets.add(rowSet);
+        return rowSet;
+    }
+
+    private void addForeignKey(String foreignTableName, String primaryTableName) {
+        Table foreignTable = schema.getTable(foreignTableName);
+        Table primaryTable = schema.getTable(primaryTableName);
+        ForeignKey foreignKey = new ForeignKey(valueOf(foreignTableName + "_" + primaryTableName));
+        foreignKey.setForeignTable(foreignTable);
+        foreignKey.setPrimaryTable(primaryTable);
+        foreignTable.addForeignKey(foreignKey);
+    }
+}
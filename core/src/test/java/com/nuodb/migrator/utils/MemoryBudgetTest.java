@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.utils;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class MemoryBudgetTest {
+
+    @Test
+    public void testAcquireRelease() throws Exception {
+        final MemoryBudget memoryBudget = new MemoryBudget(100);
+        assertEquals(memoryBudget.acquire(80), 80);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    memoryBudget.acquire(50);
+                } catch (InterruptedException exception) {
+                    interrupt();
+                }
+            }
+        };
+        thread.start();
+        thread.join(100);
+        assertTrue(thread.isAlive());
+        memoryBudget.release(80);
+        thread.join();
+        assertEquals(memoryBudget.getAvailableBytes(), 50);
+        assertEquals(memoryBudget.getWaits(), 1);
+    }
+
+    @Test
+    public void testAcquireOverdraft() throws Exception {
+        final MemoryBudget memoryBudget = new MemoryBudget(100);
+        memoryBudget.acquire(10);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    memoryBudget.acquire(1000);
+                } catch (InterruptedException exception) {
+                    interrupt();
+                }
+            }
+        };
+        thread.start();
+        thread.join(100);
+        assertTrue(thread.isAlive());
+        memoryBudget.release(10);
+        thread.join();
+        assertEquals(memoryBudget.getAvailableBytes(), -900);
+        memoryBudget.release(1000);
+        assertEquals(memoryBudget.getAvailableBytes(), 100);
+    }
+}
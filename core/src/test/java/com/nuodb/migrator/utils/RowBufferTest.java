@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2012, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.utils;
+
+import com.nuodb.migrator.MigratorException;
+import com.nuodb.migrator.dump.DumpException;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class RowBufferTest {
+
+    @Test
+    public void testPutTake() throws Exception {
+        final RowBuffer<String> rowBuffer = new RowBuffer<String>(2);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    for (int row = 0; row < 5; row++) {
+                        rowBuffer.put(String.valueOf(row));
+                    }
+                    rowBuffer.close();
+                } catch (InterruptedException exception) {
+                    rowBuffer.fail(exception);
+                }
+            }
+        };
+        thread.start();
+        for (int row = 0; row < 5; row++) {
+            assertEquals(rowBuffer.take(), String.valueOf(row));
+        }
+        assertNull(rowBuffer.take());
+        thread.join();
+        assertTrue(rowBuffer.getMaxDepth() <= rowBuffer.getCapacity());
+    }
+
+    @Test(expectedExceptions = MigratorException.class)
+    public void testFail() throws Exception {
+        RowBuffer<String> rowBuffer = new RowBuffer<String>(2);
+        rowBuffer.fail(new IllegalStateException());
+        rowBuffer.take();
+    }
+
+    @Test(expectedExceptions = DumpException.class)
+    public void testFailMigratorException() throws Exception {
+        RowBuffer<String> rowBuffer = new RowBuffer<String>(2);
+        rowBuffer.fail(new DumpException("failure"));
+        rowBuffer.take();
+    }
+
+    @Test
+    public void testAbort() throws Exception {
+        RowBuffer<String> rowBuffer = new RowBuffer<String>(1);
+        assertTrue(rowBuffer.put("value"));
+        rowBuffer.abort();
+        assertFalse(rowBuffer.put("value"));
+    }
+}